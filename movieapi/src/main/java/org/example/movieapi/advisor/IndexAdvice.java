@@ -0,0 +1,52 @@
+package org.example.movieapi.advisor;
+
+import lombok.Getter;
+
+import java.util.stream.Collectors;
+
+/**
+ * Result of the validation of an index candidate : plans and replay time of its shapes
+ * without and with the index
+ */
+@Getter
+public class IndexAdvice {
+
+    private final IndexCandidate candidate;
+    private final String planBefore;
+    private final String planAfter;
+    private final double millisBefore;
+    private final double millisAfter;
+    private final boolean used;
+    private final boolean kept;
+
+    IndexAdvice(IndexCandidate candidate, String planBefore, String planAfter,
+                double millisBefore, double millisAfter, boolean used, boolean kept) {
+        this.candidate = candidate;
+        this.planBefore = planBefore;
+        this.planAfter = planAfter;
+        this.millisBefore = millisBefore;
+        this.millisAfter = millisAfter;
+        this.used = used;
+        this.kept = kept;
+    }
+
+    public double getSpeedup() {
+        return millisAfter == 0 ? Double.POSITIVE_INFINITY : millisBefore / millisAfter;
+    }
+
+    public boolean isBeneficial() {
+        return used && millisAfter < millisBefore;
+    }
+
+    /**
+     * DDL with its justification (format of sql/dbmovie_indexes.sql)
+     */
+    public String toDdl() {
+        return candidate.getShapes().stream()
+                .map(shape -> "-- " + shape.getSql())
+                .collect(Collectors.joining("\n", "", "\n"))
+                + String.format("-- used : %s, replay %.3f ms => %.3f ms (x%.1f)%n",
+                used, millisBefore, millisAfter, getSpeedup())
+                + (isBeneficial() ? "" : "-- ") + candidate.getCreateDdl() + ";\n";
+    }
+}
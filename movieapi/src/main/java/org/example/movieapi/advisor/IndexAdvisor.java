@@ -0,0 +1,320 @@
+package org.example.movieapi.advisor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.sqllog.ExplainPlan;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Index advisor for the select shapes captured by QueryShapeCollector (SQL generated by Hibernate) :
+ * - propose : per table, equality columns (=, in) then one range column (<, >, between, like 'prefix%')
+ *   or the order by columns, candidates already covered by an index prefix are skipped,
+ * - validate : EXPLAIN and replay of the shapes without then with the index,
+ *   the index is kept only if the plan uses it and the replay is faster.
+ * Beneficial indexes go to sql/dbmovie_indexes.sql and the @Index of the entities.
+ */
+@Slf4j
+@Service
+public class IndexAdvisor {
+
+    private static final Pattern TABLE_ALIAS = Pattern.compile(
+            "\\b(?:from|join)\\s+(\\w+)(?:\\s+(?:as\\s+)?(\\w+))?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(\\w+)\\.(\\w+)\\s*(<>|!=|>=|<=|=|>|<|\\blike\\b|\\bbetween\\b|\\bin\\b)\\s*(\\S)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COLUMN = Pattern.compile("(\\w+)\\.(\\w+)");
+    private static final Set<String> KEYWORDS = Set.of("where", "inner", "left", "right", "cross", "join", "on",
+            "order", "group", "limit", "offset", "fetch", "for");
+
+    private final DataSource dataSource;
+
+    public IndexAdvisor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return candidates not covered by an existing index
+     */
+    public List<IndexCandidate> propose(Collection<QueryShape> shapes) {
+        try (var connection = dataSource.getConnection()) {
+            var existing = new HashMap<String, List<List<String>>>();
+            return candidates(shapes).stream()
+                    .filter(candidate -> existing.computeIfAbsent(candidate.getTable(), table -> indexes(connection, table))
+                            .stream()
+                            .noneMatch(index -> startsWith(index, candidate.getColumns())))
+                    .collect(Collectors.toList());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read indexes", e);
+        }
+    }
+
+    /**
+     * Creates the index, measures, drops it unless kept and beneficial
+     * @param runs replays of each shape (average)
+     */
+    public IndexAdvice validate(IndexCandidate candidate, int runs, boolean keepIfBeneficial) {
+        try (var connection = dataSource.getConnection()) {
+            var planBefore = explain(connection, candidate.getShapes());
+            double millisBefore = replay(connection, candidate.getShapes(), runs);
+            String planAfter;
+            double millisAfter;
+            boolean used;
+            boolean kept = false;
+            execute(connection, candidate.getCreateDdl());
+            try {
+                analyze(connection, candidate.getTable());
+                planAfter = explain(connection, candidate.getShapes());
+                millisAfter = replay(connection, candidate.getShapes(), runs);
+                used = planAfter.toLowerCase(Locale.ROOT).contains(candidate.getName());
+                kept = keepIfBeneficial && used && millisAfter < millisBefore;
+            } finally {
+                // also when the measure fails : no trial index left behind
+                if (!kept) {
+                    execute(connection, dropDdl(connection, candidate));
+                }
+            }
+            var advice = new IndexAdvice(candidate, planBefore, planAfter, millisBefore, millisAfter, used, kept);
+            log.info("Index {} : used={}, {} ms => {} ms, kept={}", candidate.getName(), used,
+                    String.format("%.3f", millisBefore), String.format("%.3f", millisAfter), kept);
+            return advice;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to validate " + candidate.getName(), e);
+        }
+    }
+
+    /**
+     * Candidates of the shapes (without database), a candidate prefix of another one is merged into it
+     */
+    public static List<IndexCandidate> candidates(Collection<QueryShape> shapes) {
+        var shapesByIndex = new LinkedHashMap<String, Map.Entry<List<String>, List<QueryShape>>>();
+        for (var shape : shapes) {
+            candidateColumns(shape).forEach((table, columns) -> shapesByIndex
+                    .computeIfAbsent(table + " " + columns, key -> Map.entry(columns, new ArrayList<>()))
+                    .getValue().add(shape));
+        }
+        var candidates = new ArrayList<IndexCandidate>();
+        for (var entry : shapesByIndex.entrySet()) {
+            var table = entry.getKey().substring(0, entry.getKey().indexOf(' '));
+            candidates.add(new IndexCandidate(table, entry.getValue().getKey(), entry.getValue().getValue()));
+        }
+        // (title) is served by (title, year)
+        var merged = new ArrayList<IndexCandidate>();
+        for (var candidate : candidates) {
+            var covering = candidates.stream()
+                    .filter(other -> other != candidate && other.getTable().equals(candidate.getTable())
+                            && other.getColumns().size() > candidate.getColumns().size()
+                            && startsWith(other.getColumns(), candidate.getColumns()))
+                    .findFirst();
+            if (covering.isPresent()) {
+                covering.get().getShapes().addAll(candidate.getShapes());
+            } else {
+                merged.add(candidate);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return table => index columns for a shape
+     */
+    static Map<String, List<String>> candidateColumns(QueryShape shape) {
+        var sql = shape.getSql();
+        var lower = sql.toLowerCase(Locale.ROOT);
+        var tables = new HashMap<String, String>();
+        var aliases = TABLE_ALIAS.matcher(lower);
+        while (aliases.find()) {
+            var alias = aliases.group(2) == null || KEYWORDS.contains(aliases.group(2)) ? aliases.group(1) : aliases.group(2);
+            tables.put(alias, aliases.group(1));
+        }
+        int where = lower.indexOf(" where ");
+        int orderBy = lower.indexOf(" order by ");
+        int whereEnd = firstIndex(lower, where < 0 ? 0 : where, " group by ", " order by ", " limit ", " offset ", " fetch ");
+
+        var equalities = new TreeMap<String, Set<String>>();
+        var ranges = new TreeMap<String, String>();
+        if (where >= 0) {
+            var predicates = PREDICATE.matcher(lower).region(where, whereEnd);
+            while (predicates.find()) {
+                var table = tables.get(predicates.group(1));
+                var value = predicates.group(4).charAt(0);
+                if (table == null || !(value == '?' || value == '(' || value == '\'' || Character.isDigit(value))) {
+                    continue; // column compared to a column (join)
+                }
+                var column = predicates.group(2);
+                switch (predicates.group(3)) {
+                    case "=":
+                    case "in":
+                        equalities.computeIfAbsent(table, t -> new LinkedHashSet<>()).add(column);
+                        break;
+                    case "like":
+                        if (isPrefixPattern(sql, predicates.start(4), shape.getSampleParameters())) {
+                            ranges.putIfAbsent(table, column);
+                        }
+                        break;
+                    case "<>":
+                    case "!=":
+                        break; // not selective
+                    default:
+                        ranges.putIfAbsent(table, column);
+                }
+            }
+        }
+        var orderColumns = new TreeMap<String, List<String>>();
+        if (orderBy >= 0) {
+            var columns = COLUMN.matcher(lower).region(orderBy, firstIndex(lower, orderBy, " limit ", " offset ", " fetch "));
+            while (columns.find()) {
+                var table = tables.get(columns.group(1));
+                if (table != null) {
+                    orderColumns.computeIfAbsent(table, t -> new ArrayList<>()).add(columns.group(2));
+                }
+            }
+        }
+
+        var result = new TreeMap<String, List<String>>();
+        var filteredTables = new LinkedHashSet<>(equalities.keySet());
+        filteredTables.addAll(ranges.keySet());
+        for (var table : filteredTables) {
+            var columns = new ArrayList<>(equalities.getOrDefault(table, Set.of()));
+            var range = ranges.get(table);
+            if (range != null && !columns.contains(range)) {
+                columns.add(range);
+            } else if (range == null && orderColumns.size() == 1 && orderColumns.containsKey(table)) {
+                // sort served by the index after the equalities
+                orderColumns.get(table).stream().filter(column -> !columns.contains(column)).forEach(columns::add);
+            }
+            result.put(table, columns);
+        }
+        return result;
+    }
+
+    // like ? : usable by an index only if the pattern does not start with a wildcard
+    private static boolean isPrefixPattern(String sql, int parameterPosition, Object[] parameters) {
+        if (sql.charAt(parameterPosition) == '\'') {
+            return sql.length() > parameterPosition + 1 && "%_".indexOf(sql.charAt(parameterPosition + 1)) < 0;
+        }
+        int index = (int) sql.substring(0, parameterPosition).chars().filter(c -> c == '?').count();
+        if (parameters == null || index >= parameters.length || !(parameters[index] instanceof String)) {
+            return true; // unknown : assume prefix
+        }
+        var pattern = (String) parameters[index];
+        return !pattern.isEmpty() && "%_".indexOf(pattern.charAt(0)) < 0;
+    }
+
+    private static int firstIndex(String text, int from, String... keywords) {
+        int first = text.length();
+        for (var keyword : keywords) {
+            int index = text.indexOf(keyword, from);
+            if (index >= 0 && index < first) {
+                first = index;
+            }
+        }
+        return first;
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+
+    // columns of the existing indexes of a table
+    private static List<List<String>> indexes(Connection connection, String table) {
+        var columnsByIndex = new TreeMap<String, TreeMap<Integer, String>>();
+        try {
+            var meta = connection.getMetaData();
+            for (var name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+                try (var resultSet = meta.getIndexInfo(connection.getCatalog(), null, name, false, true)) {
+                    while (resultSet.next()) {
+                        var index = resultSet.getString("INDEX_NAME");
+                        var column = resultSet.getString("COLUMN_NAME");
+                        if (index != null && column != null) {
+                            columnsByIndex.computeIfAbsent(index, i -> new TreeMap<>())
+                                    .put((int) resultSet.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                if (!columnsByIndex.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read indexes of " + table, e);
+        }
+        return columnsByIndex.values().stream()
+                .map(columns -> List.copyOf(columns.values()))
+                .collect(Collectors.toList());
+    }
+
+    private static String explain(Connection connection, List<QueryShape> shapes) {
+        return shapes.stream()
+                .map(shape -> {
+                    try {
+                        return ExplainPlan.explain(connection, shape.getSql(), parameters(shape));
+                    } catch (SQLException e) {
+                        return "no plan : " + e.getMessage();
+                    }
+                })
+                .collect(Collectors.joining("\n"));
+    }
+
+    // average ms of a replay of all shapes (1 warm up)
+    private static double replay(Connection connection, List<QueryShape> shapes, int runs) throws SQLException {
+        long total = 0;
+        for (int run = 0; run <= runs; run++) {
+            long start = System.nanoTime();
+            for (var shape : shapes) {
+                try (var statement = connection.prepareStatement(shape.getSql())) {
+                    var parameters = parameters(shape);
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                    try (var resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            resultSet.getObject(1);
+                        }
+                    }
+                }
+            }
+            if (run > 0) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return total / 1e6 / runs;
+    }
+
+    private static Object[] parameters(QueryShape shape) {
+        return shape.getSampleParameters() == null ? new Object[0] : shape.getSampleParameters();
+    }
+
+    private static void analyze(Connection connection, String table) {
+        try {
+            execute(connection, "ANALYZE TABLE " + table);
+        } catch (SQLException e) {
+            log.debug("No statistics update of {}", table, e);
+        }
+    }
+
+    private static String dropDdl(Connection connection, IndexCandidate candidate) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().startsWith("H2")
+                ? "DROP INDEX " + candidate.getName()
+                : "DROP INDEX " + candidate.getName() + " ON " + candidate.getTable();
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.movieapi.advisor;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Index proposed for query shapes : equality columns first, then one range column
+ * (or the order by columns)
+ */
+@Getter
+@ToString
+@EqualsAndHashCode(of = {"table", "columns"})
+public class IndexCandidate {
+
+    private final String table;
+    private final List<String> columns;
+    private final List<QueryShape> shapes;
+
+    public IndexCandidate(String table, List<String> columns, List<QueryShape> shapes) {
+        this.table = table;
+        this.columns = columns;
+        this.shapes = shapes;
+    }
+
+    public String getName() {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+
+    public String getCreateDdl() {
+        return "CREATE INDEX " + getName() + " ON " + table + " (" + String.join(", ", columns) + ")";
+    }
+}
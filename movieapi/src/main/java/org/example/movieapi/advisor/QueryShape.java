@@ -0,0 +1,31 @@
+package org.example.movieapi.advisor;
+
+import lombok.Getter;
+
+/**
+ * A SQL statement shape (text with ? parameters) with its executions
+ * and the parameters of one execution (to replay it)
+ */
+@Getter
+public class QueryShape {
+
+    private final String sql;
+    private final long executions;
+    private final long totalNanos;
+    private final Object[] sampleParameters;
+
+    public QueryShape(String sql, long executions, long totalNanos, Object[] sampleParameters) {
+        this.sql = sql;
+        this.executions = executions;
+        this.totalNanos = totalNanos;
+        this.sampleParameters = sampleParameters;
+    }
+
+    public static QueryShape of(String sql, Object... sampleParameters) {
+        return new QueryShape(sql, 1, 0, sampleParameters);
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1e6;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.movieapi.advisor;
+
+import org.example.movieapi.sqllog.SqlLogEntry;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the shapes of the select statements seen by the SQL log
+ * (register with SqlLogger.addListener, capture with movieapi.sql-log.sample-rate=1)
+ */
+public class QueryShapeCollector implements Consumer<SqlLogEntry> {
+
+    private final Map<String, QueryShape> shapes = new ConcurrentHashMap<>();
+
+    @Override
+    public void accept(SqlLogEntry entry) {
+        if (entry.getError() != null || !entry.getSql().stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+            return;
+        }
+        shapes.merge(entry.getSql(),
+                new QueryShape(entry.getSql(), 1, entry.getElapsedNanos(), entry.getParameters()),
+                (shape, execution) -> new QueryShape(shape.getSql(), shape.getExecutions() + 1,
+                        shape.getTotalNanos() + execution.getTotalNanos(), shape.getSampleParameters()));
+    }
+
+    /**
+     * @return shapes, most expensive first
+     */
+    public List<QueryShape> getShapes() {
+        return shapes.values().stream()
+                .sorted(Comparator.comparingLong(QueryShape::getTotalNanos).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        shapes.clear();
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.movieapi.bulk;
+
+public class BulkLoadException extends RuntimeException {
+
+    public BulkLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
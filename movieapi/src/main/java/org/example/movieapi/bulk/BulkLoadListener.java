@@ -0,0 +1,14 @@
+package org.example.movieapi.bulk;
+
+import java.time.Duration;
+
+/**
+ * Progress of a bulk load (called from loading threads)
+ */
+public interface BulkLoadListener {
+
+    void progress(String table, long rowsLoaded);
+
+    default void tableLoaded(String table, long rowsLoaded, Duration duration) {
+    }
+}
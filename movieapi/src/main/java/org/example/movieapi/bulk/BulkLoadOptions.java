@@ -0,0 +1,47 @@
+package org.example.movieapi.bulk;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Tuning of a bulk load
+ */
+@Getter
+@Builder
+public class BulkLoadOptions {
+
+    /**
+     * number of loading threads, each one with its own connection
+     */
+    @Builder.Default
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * rows per transaction
+     */
+    @Builder.Default
+    private int chunkSize = 5000;
+
+    /**
+     * rows per JDBC batch inside a chunk
+     */
+    @Builder.Default
+    private int batchSize = 500;
+
+    /**
+     * chunks read ahead waiting for a thread (bounds memory to about
+     * (threads + maxPendingChunks) x chunkSize rows)
+     */
+    @Builder.Default
+    private int maxPendingChunks = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * progress is reported every progressInterval rows of a table
+     */
+    @Builder.Default
+    private long progressInterval = 100_000;
+
+    public static BulkLoadOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.movieapi.bulk;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered stages of sources to load : a stage starts when the previous one is
+ * fully committed (foreign keys), sources of the same stage are loaded in parallel.
+ * Sequences are restarted after the load so that new entities get fresh ids.
+ */
+public class BulkLoadPlan {
+
+    /**
+     * allocationSize of the sequence generators of the entities (JPA default, increment by 50 in the DDL)
+     */
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    /**
+     * opens a source when its stage begins
+     */
+    @FunctionalInterface
+    public interface Source {
+        RowSource open() throws IOException;
+    }
+
+    private final List<List<Source>> stages = new ArrayList<>();
+    private final List<SequenceRestart> sequenceRestarts = new ArrayList<>();
+
+    public BulkLoadPlan stage(Source... sources) {
+        stages.add(List.of(sources));
+        return this;
+    }
+
+    /**
+     * restart sequence after max(id) of table when load is over
+     */
+    public BulkLoadPlan restartSequence(String sequence, String table) {
+        return restartSequence(sequence, table, DEFAULT_ALLOCATION_SIZE);
+    }
+
+    /**
+     * restart sequence after max(id) of table when load is over, for a pooled generator of allocationSize
+     */
+    public BulkLoadPlan restartSequence(String sequence, String table, int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("Invalid allocation size of " + sequence + ": " + allocationSize);
+        }
+        sequenceRestarts.add(new SequenceRestart(sequence, table, allocationSize));
+        return this;
+    }
+
+    public List<List<Source>> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    public List<SequenceRestart> getSequenceRestarts() {
+        return Collections.unmodifiableList(sequenceRestarts);
+    }
+
+    /**
+     * The catalog of sql directory : people, then movie, then genre (staging table,
+     * see GenreMigration) and play.
+     * Files may also be CSV/TSV equivalents named after the table (people.csv, movie.tsv, ...).
+     */
+    public static BulkLoadPlan catalog(Path directory) {
+        return new BulkLoadPlan()
+                .stage(file(directory, "people"))
+                .stage(file(directory, "movie"))
+                .stage(file(directory, "genre"), file(directory, "play"))
+                .restartSequence("people_seq", "people")
+                .restartSequence("movie_seq", "movie");
+    }
+
+    private static Source file(Path directory, String table) {
+        for (var name : List.of("data_" + table + ".sql", table + ".csv", table + ".tsv")) {
+            var path = directory.resolve(name);
+            if (Files.exists(path)) {
+                return () -> open(path, table);
+            }
+        }
+        throw new IllegalArgumentException("No dump found for table " + table + " in " + directory);
+    }
+
+    public static RowSource open(Path path, String table) throws IOException {
+        var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        var fileName = path.getFileName().toString();
+        if (fileName.endsWith(".csv")) {
+            return DelimitedRowSource.csv(table, reader);
+        } else if (fileName.endsWith(".tsv")) {
+            return DelimitedRowSource.tsv(table, reader);
+        }
+        return new SqlDumpRowSource(reader);
+    }
+
+    /**
+     * Sequence of a pooled generator : Hibernate takes a value N as the upper end of the block
+     * N - allocationSize + 1 .. N, so the sequence restarts at max(id) + allocationSize
+     * (first new id : max(id) + 1).
+     */
+    @Getter
+    public static class SequenceRestart {
+        private final String sequence;
+        private final String table;
+        private final int allocationSize;
+
+        SequenceRestart(String sequence, String table, int allocationSize) {
+            this.sequence = sequence;
+            this.table = table;
+            this.allocationSize = allocationSize;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.movieapi.bulk;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Getter
+@ToString
+public class BulkLoadReport {
+    private final Map<String, Long> rowsByTable;
+    private final Duration duration;
+
+    public BulkLoadReport(Map<String, Long> rowsByTable, Duration duration) {
+        this.rowsByTable = Map.copyOf(rowsByTable);
+        this.duration = duration;
+    }
+
+    public long getTotalRows() {
+        return rowsByTable.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double getRowsPerSecond() {
+        return getTotalRows() / Math.max(duration.toMillis(), 1) * 1000.0;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.movieapi.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.stats.DirectorStatChecker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Loads the catalog dumps at startup when movieapi.bulk-load.directory is set, e.g.
+ * java -jar movieapi.jar --movieapi.bulk-load.directory=../sql --movieapi.bulk-load.threads=8
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("movieapi.bulk-load.directory")
+public class BulkLoadRunner implements ApplicationRunner {
+
+    private final BulkLoader bulkLoader;
+    private final DirectorStatChecker directorStatChecker;
+    private final GenreMigration genreMigration;
+    private final DerivedColumns derivedColumns;
+
+    @Value("${movieapi.bulk-load.directory}")
+    private Path directory;
+
+    @Value("${movieapi.bulk-load.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads;
+
+    @Value("${movieapi.bulk-load.chunk-size:5000}")
+    private int chunkSize;
+
+    public BulkLoadRunner(BulkLoader bulkLoader, DirectorStatChecker directorStatChecker,
+                          GenreMigration genreMigration, DerivedColumns derivedColumns) {
+        this.bulkLoader = bulkLoader;
+        this.directorStatChecker = directorStatChecker;
+        this.genreMigration = genreMigration;
+        this.derivedColumns = derivedColumns;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var options = BulkLoadOptions.builder()
+                .threads(threads)
+                .maxPendingChunks(threads)
+                .chunkSize(chunkSize)
+                .build();
+        var report = bulkLoader.load(BulkLoadPlan.catalog(directory), options, BulkLoader.loggingListener());
+        log.info("Catalog loaded: {} rows in {} ms ({} rows/s)",
+                report.getTotalRows(), report.getDuration().toMillis(), (long) report.getRowsPerSecond());
+        // genres loaded in staging table genre => bitmask movie.genres
+        genreMigration.migrate();
+        // dumps without derived columns (e.g. people.birth_year)
+        derivedColumns.refresh();
+        // rows inserted with JDBC : not seen by the Hibernate listeners
+        directorStatChecker.rebuild();
+    }
+}
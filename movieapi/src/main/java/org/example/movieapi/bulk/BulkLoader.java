@@ -0,0 +1,264 @@
+package org.example.movieapi.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Parallel loader of dumps with plain JDBC :
+ * - each source is read as a stream by its own reader thread and cut into chunks,
+ * - each chunk is inserted by a worker in its own transaction and connection with JDBC batches,
+ * - readers wait when too many chunks are pending (bounded memory).
+ * NB : committed chunks stay in case of failure, reload in an empty schema.
+ */
+@Slf4j
+@Service
+public class BulkLoader {
+
+    private final DataSource dataSource;
+
+    public BulkLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public BulkLoadReport load(BulkLoadPlan plan) {
+        return load(plan, BulkLoadOptions.defaults(), loggingListener());
+    }
+
+    public BulkLoadReport load(BulkLoadPlan plan, BulkLoadOptions options, BulkLoadListener listener) {
+        long start = System.nanoTime();
+        var rowsByTable = new ConcurrentHashMap<String, Long>();
+        var workers = Executors.newFixedThreadPool(options.getThreads(), namedThreads("bulk-load-"));
+        var readers = Executors.newCachedThreadPool(namedThreads("bulk-read-"));
+        try {
+            for (var stage : plan.getStages()) {
+                loadStage(stage, options, listener, workers, readers, rowsByTable);
+            }
+            for (var restart : plan.getSequenceRestarts()) {
+                restartSequence(restart);
+            }
+        } finally {
+            workers.shutdownNow();
+            readers.shutdownNow();
+        }
+        return new BulkLoadReport(rowsByTable, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    public static BulkLoadListener loggingListener() {
+        return new BulkLoadListener() {
+            @Override
+            public void progress(String table, long rowsLoaded) {
+                log.info("Bulk load {} : {} rows", table, rowsLoaded);
+            }
+
+            @Override
+            public void tableLoaded(String table, long rowsLoaded, Duration duration) {
+                log.info("Bulk load {} done : {} rows in {} ms", table, rowsLoaded, duration.toMillis());
+            }
+        };
+    }
+
+    private void loadStage(List<BulkLoadPlan.Source> stage, BulkLoadOptions options, BulkLoadListener listener,
+                           ExecutorService workers, ExecutorService readers, Map<String, Long> rowsByTable) {
+        var pendingChunks = new Semaphore(options.getThreads() + options.getMaxPendingChunks());
+        var failure = new AtomicReference<Throwable>();
+        var readerFutures = new ArrayList<Future<?>>();
+        for (var source : stage) {
+            readerFutures.add(readers.submit(() -> {
+                try {
+                    readSource(source, options, listener, workers, pendingChunks, failure, rowsByTable);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (var future : readerFutures) {
+            await(future);
+        }
+        if (failure.get() != null) {
+            throw new BulkLoadException("Bulk load failed", failure.get());
+        }
+    }
+
+    private void readSource(BulkLoadPlan.Source source, BulkLoadOptions options, BulkLoadListener listener,
+                            ExecutorService workers, Semaphore pendingChunks, AtomicReference<Throwable> failure,
+                            Map<String, Long> rowsByTable) throws IOException, SQLException, InterruptedException {
+        long start = System.nanoTime();
+        try (var rows = source.open()) {
+            var table = rows.getTable();
+            if (table == null) {
+                return; // empty dump
+            }
+            var insert = new TableInsert(table, rows.getColumns());
+            var loaded = new AtomicLong();
+            var chunkFutures = new ArrayList<Future<?>>();
+            var chunk = new ArrayList<String[]>(options.getChunkSize());
+            String[] row;
+            while ((row = rows.next()) != null && failure.get() == null) {
+                chunk.add(row);
+                if (chunk.size() == options.getChunkSize()) {
+                    chunkFutures.add(submitChunk(insert, chunk, options, listener, workers, pendingChunks, failure, loaded));
+                    chunk = new ArrayList<>(options.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkFutures.add(submitChunk(insert, chunk, options, listener, workers, pendingChunks, failure, loaded));
+            }
+            for (var future : chunkFutures) {
+                await(future);
+            }
+            rowsByTable.merge(table, loaded.get(), Long::sum);
+            listener.tableLoaded(table, loaded.get(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private Future<?> submitChunk(TableInsert insert, List<String[]> chunk, BulkLoadOptions options,
+                                  BulkLoadListener listener, ExecutorService workers, Semaphore pendingChunks,
+                                  AtomicReference<Throwable> failure, AtomicLong loaded) throws InterruptedException {
+        pendingChunks.acquire();
+        return workers.submit(() -> {
+            try {
+                if (failure.get() == null) {
+                    insertChunk(insert, chunk, options.getBatchSize());
+                    long before = loaded.getAndAdd(chunk.size());
+                    if ((before + chunk.size()) / options.getProgressInterval() > before / options.getProgressInterval()) {
+                        listener.progress(insert.table, before + chunk.size());
+                    }
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                pendingChunks.release();
+            }
+        });
+    }
+
+    private void insertChunk(TableInsert insert, List<String[]> chunk, int batchSize) throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insert.prepare(connection);
+            try (var statement = connection.prepareStatement(insert.sql)) {
+                int inBatch = 0;
+                for (var row : chunk) {
+                    for (int i = 0; i < insert.valueIndexes.length; i++) {
+                        var value = row[insert.valueIndexes[i]];
+                        if (value == null) {
+                            statement.setNull(i + 1, insert.sqlTypes[i]);
+                        } else {
+                            statement.setObject(i + 1, value, insert.sqlTypes[i]);
+                        }
+                    }
+                    statement.addBatch();
+                    if (++inBatch == batchSize) {
+                        statement.executeBatch();
+                        inBatch = 0;
+                    }
+                }
+                if (inBatch > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void restartSequence(BulkLoadPlan.SequenceRestart restart) {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            long next;
+            // next value = upper end of the first block of the pooled optimizer (see SequenceRestart)
+            try (var resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + " + restart.getAllocationSize()
+                    + " FROM " + restart.getTable())) {
+                resultSet.next();
+                next = resultSet.getLong(1);
+            }
+            statement.execute("ALTER SEQUENCE " + restart.getSequence() + " RESTART WITH " + next);
+        } catch (SQLException e) {
+            throw new BulkLoadException("Unable to restart sequence " + restart.getSequence(), e);
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkLoadException("Bulk load interrupted", e);
+        } catch (Exception e) {
+            throw new BulkLoadException("Bulk load failed", e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        var counter = new AtomicLong();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * INSERT of a table restricted to dump columns existing in the table
+     * (e.g. data_play_role.sql into play without id/role columns)
+     */
+    private static class TableInsert {
+        final String table;
+        final List<String> dumpColumns;
+        volatile String sql;
+        volatile int[] valueIndexes;
+        volatile int[] sqlTypes;
+
+        TableInsert(String table, List<String> dumpColumns) {
+            this.table = table;
+            this.dumpColumns = dumpColumns;
+        }
+
+        synchronized void prepare(Connection connection) throws SQLException {
+            if (sql != null) {
+                return;
+            }
+            var targetTypes = new LinkedHashMap<String, Integer>();
+            try (var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+                var meta = resultSet.getMetaData();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    targetTypes.put(meta.getColumnName(i).toLowerCase(), meta.getColumnType(i));
+                }
+            }
+            var indexes = new ArrayList<Integer>();
+            for (int i = 0; i < dumpColumns.size(); i++) {
+                if (targetTypes.containsKey(dumpColumns.get(i).toLowerCase())) {
+                    indexes.add(i);
+                }
+            }
+            var columns = indexes.stream().map(dumpColumns::get).collect(Collectors.toList());
+            sqlTypes = columns.stream().mapToInt(column -> targetTypes.get(column.toLowerCase())).toArray();
+            valueIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+            sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + Arrays.stream(valueIndexes).mapToObj(i -> "?").collect(Collectors.joining(", ")) + ")";
+        }
+    }
+}
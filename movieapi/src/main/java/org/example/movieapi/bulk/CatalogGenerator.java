@@ -0,0 +1,338 @@
+package org.example.movieapi.bulk;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic catalog (people, movie, play) for scale and performance tests, loaded by BulkLoader :
+ * - deterministic : same options (seed included) = same rows, whatever the number of loading threads,
+ * - skewed like the real catalog : a few prolific directors, star actors playing in thousands of movies,
+ *   popular genres, more recent movies, remakes (same titles),
+ * - generated on the fly by blocks of rows (bounded memory, up to 10M movies).
+ * Genres are written in column movie.genres (bitmask), no rows in staging table genre.
+ * Directors and stars are spread over the ids (rank 1 is not id 1).
+ */
+public class CatalogGenerator {
+
+    static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen", "Jean", "Marie", "Pierre", "Isabelle", "Akira", "Yuki", "Sofia", "Luca",
+            "Hans", "Ingrid", "Carlos", "Lucia", "Ivan", "Olga", "Raj", "Priya", "Chen", "Mei", "Ahmed", "Fatima"};
+    static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis",
+            "Garcia", "Rodriguez", "Wilson", "Martinez", "Anderson", "Taylor", "Thomas", "Moore", "Martin",
+            "Jackson", "Thompson", "White", "Harris", "Dupont", "Bernard", "Durand", "Kurosawa", "Tanaka", "Rossi",
+            "Bianchi", "Schmidt", "Bergman", "Fernandez", "Lopez", "Petrov", "Ivanova", "Kapoor", "Sharma", "Wang",
+            "Li", "Hassan", "Nakamura", "Eastwood", "Scott", "Hill", "Stone", "Ford", "Lee"};
+    static final String[] ADJECTIVES = {"Dark", "Last", "Lost", "Red", "Silent", "Final", "Hidden", "Broken",
+            "Wild", "Golden", "Secret", "Deadly", "Eternal", "Cold", "Burning", "Long", "Little", "Great", "Black",
+            "White", "Crimson", "Forgotten", "Savage", "Lonely"};
+    static final String[] NOUNS = {"Night", "City", "Love", "Man", "Woman", "Heart", "War", "River", "Road",
+            "Star", "Dream", "Shadow", "King", "Game", "Storm", "Girl", "House", "Moon", "Sun", "Island", "Kingdom",
+            "Blood", "Fire", "Mountain", "Ghost", "Summer", "Winter", "Secret", "Money", "Empire", "Heat", "Sea"};
+    static final String[] SEQUELS = {"II", "III", "IV", "V"};
+
+    // from the most to the least frequent, about as in the real catalog
+    static final List<Genre> GENRE_POPULARITY = List.of(Genre.DRAMA, Genre.COMEDY, Genre.THRILLER, Genre.ROMANCE,
+            Genre.ACTION, Genre.CRIME, Genre.HORROR, Genre.ADVENTURE, Genre.MYSTERY, Genre.FAMILY, Genre.FANTASY,
+            Genre.SCI_FI, Genre.BIOGRAPHY, Genre.HISTORY, Genre.ANIMATION, Genre.WAR, Genre.MUSIC, Genre.MUSICAL,
+            Genre.SPORT, Genre.WESTERN, Genre.FILM_NOIR, Genre.ADULT);
+
+    static final List<String> PEOPLE_COLUMNS = List.of("id", "name", "birthdate", "birth_year");
+    static final List<String> MOVIE_COLUMNS = List.of("id", "title", "year", "duration", "color", "genres",
+            "fk_director_id");
+    static final List<String> PLAY_COLUMNS = List.of("fk_movie_id", "fk_actor_id");
+
+    // random streams of the tables
+    private static final int PEOPLE = 1;
+    private static final int MOVIE = 2;
+    private static final int PLAY = 3;
+
+    private final CatalogGeneratorOptions options;
+    private final int people;
+    private final ZipfSampler directorRanks;
+    private final ZipfSampler actorRanks;
+    private final ZipfSampler genreRanks;
+    private final ZipfSampler wordRanks;
+    private final long directorStep;
+    private final long actorStep;
+    // genres by popularity (rank 1 first)
+    private final Genre[] genresByRank;
+
+    public CatalogGenerator(CatalogGeneratorOptions options) {
+        if (options.getMovies() < 1 || options.getFromYear() > options.getToYear()
+                || options.getMeanCastSize() < 1 || options.getMaxCastSize() < options.getMeanCastSize()) {
+            throw new IllegalArgumentException("Invalid catalog options: " + options.getMovies() + " movies, years "
+                    + options.getFromYear() + ".." + options.getToYear() + ", cast " + options.getMeanCastSize()
+                    + "/" + options.getMaxCastSize());
+        }
+        this.options = options;
+        this.people = options.getPeople();
+        this.directorRanks = new ZipfSampler(options.getDirectors(), options.getDirectorSkew());
+        this.actorRanks = new ZipfSampler(people, options.getActorSkew());
+        this.genreRanks = new ZipfSampler(Genre.values().length, options.getGenreSkew());
+        this.wordRanks = new ZipfSampler(Math.min(ADJECTIVES.length, NOUNS.length), 0.8);
+        this.directorStep = coprimeStep(people, 0x9E3779B97F4A7C15L);
+        this.actorStep = coprimeStep(people, 0xC2B2AE3D27D4EB4FL);
+        // genres added later : least popular
+        var genres = new LinkedHashSet<>(GENRE_POPULARITY);
+        genres.addAll(Arrays.asList(Genre.values()));
+        this.genresByRank = genres.toArray(Genre[]::new);
+    }
+
+    public CatalogGeneratorOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * people, then movie, then play (foreign keys), each table cut in sources of blockSize rows
+     */
+    public BulkLoadPlan plan() {
+        return new BulkLoadPlan()
+                .stage(sources(people, PEOPLE))
+                .stage(sources(options.getMovies(), MOVIE))
+                .stage(sources(options.getMovies(), PLAY))
+                .restartSequence("people_seq", "people")
+                .restartSequence("movie_seq", "movie");
+    }
+
+    /**
+     * @return people id of director rank (1 : most prolific)
+     */
+    public int directorId(long rank) {
+        return scatter(rank, directorStep);
+    }
+
+    /**
+     * @return people id of actor rank (1 : biggest star)
+     */
+    public int actorId(long rank) {
+        return scatter(rank, actorStep);
+    }
+
+    /**
+     * @return genres from the most to the least popular
+     */
+    public List<Genre> getGenresByPopularity() {
+        return List.of(genresByRank);
+    }
+
+    private BulkLoadPlan.Source[] sources(int rows, int table) {
+        int blockSize = options.getBlockSize();
+        var sources = new BulkLoadPlan.Source[(rows + blockSize - 1) / blockSize];
+        for (int block = 0; block < sources.length; block++) {
+            int firstId = block * blockSize + 1;
+            int lastId = Math.min(firstId + blockSize - 1, rows);
+            int seedBlock = block;
+            sources[block] = () -> rows(table, seedBlock, firstId, lastId);
+        }
+        return sources;
+    }
+
+    /**
+     * rows of ids firstId .. lastId of a table (block of a source)
+     */
+    RowSource rows(int table, int block, int firstId, int lastId) {
+        var random = random(table, block);
+        switch (table) {
+            case PEOPLE:
+                return new GeneratedRows("people", PEOPLE_COLUMNS, firstId, lastId) {
+                    @Override
+                    void generate(int id, List<String[]> rows) {
+                        rows.add(people(random, id));
+                    }
+                };
+            case MOVIE:
+                return new GeneratedRows("movie", MOVIE_COLUMNS, firstId, lastId) {
+                    @Override
+                    void generate(int id, List<String[]> rows) {
+                        rows.add(movie(random, id));
+                    }
+                };
+            default:
+                return new GeneratedRows("play", PLAY_COLUMNS, firstId, lastId) {
+                    @Override
+                    void generate(int id, List<String[]> rows) {
+                        cast(random, id, rows);
+                    }
+                };
+        }
+    }
+
+    private String[] people(SplittableRandom random, int id) {
+        var name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        // 10% unknown birthdate
+        if (random.nextInt(10) == 0) {
+            return new String[]{Integer.toString(id), name, null, null};
+        }
+        var birthdate = LocalDate.ofEpochDay(LocalDate.of(1880, 1, 1).toEpochDay() + random.nextInt(125 * 365));
+        return new String[]{Integer.toString(id), name, birthdate.toString(), Integer.toString(birthdate.getYear())};
+    }
+
+    private String[] movie(SplittableRandom random, int id) {
+        // more recent movies : density growing with the year
+        int span = options.getToYear() - options.getFromYear() + 1;
+        int year = options.getFromYear() + Math.min((int) (span * Math.sqrt(random.nextDouble())), span - 1);
+        // 3% unknown duration, normal around 100 min
+        String duration = null;
+        if (random.nextInt(100) >= 3) {
+            duration = Integer.toString((int) Math.max(45, Math.min(240, 100 + 20 * gaussian(random))));
+        }
+        // black and white until the 1950s, then color, 5% unknown
+        String color = null;
+        if (random.nextInt(100) >= 5) {
+            double colorRate = Math.max(0.02, Math.min(0.98, (year - 1935) / 40.0));
+            color = (random.nextDouble() < colorRate ? Color.COLOR : Color.BLACK_AND_WHITE).name();
+        }
+        // 1 to 3 genres by popularity
+        long genres = 0;
+        int genreCount = 1 + random.nextInt(3);
+        for (int i = 0; i < genreCount; i++) {
+            genres |= genresByRank[(int) genreRanks.sample(random) - 1].getBit();
+        }
+        // 2% without director
+        String directorId = null;
+        if (random.nextInt(50) != 0) {
+            directorId = Integer.toString(directorId(directorRanks.sample(random)));
+        }
+        return new String[]{Integer.toString(id), title(random), Integer.toString(year), duration, color,
+                Long.toString(genres), directorId};
+    }
+
+    private String title(SplittableRandom random) {
+        var noun = NOUNS[(int) wordRanks.sample(random) - 1];
+        var other = NOUNS[random.nextInt(NOUNS.length)];
+        var adjective = ADJECTIVES[(int) wordRanks.sample(random) - 1];
+        switch (random.nextInt(6)) {
+            case 0:
+                return "The " + noun;
+            case 1:
+                return adjective + " " + noun;
+            case 2:
+                return "The " + adjective + " " + noun;
+            case 3:
+                return noun + " of the " + other;
+            case 4:
+                return adjective + " " + noun + " " + SEQUELS[random.nextInt(SEQUELS.length)];
+            default:
+                return "A " + noun + " in the " + other;
+        }
+    }
+
+    // distinct actors of the movie, stars first by probability
+    private void cast(SplittableRandom random, int movieId, List<String[]> rows) {
+        // geometric distribution of mean meanCastSize (>= 1)
+        double p = 1.0 / options.getMeanCastSize();
+        int castSize = 1 + (p >= 1.0 ? 0 : (int) (Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p)));
+        castSize = Math.min(Math.min(castSize, options.getMaxCastSize()), people);
+        var actorIds = new int[castSize];
+        int count = 0;
+        var movie = Integer.toString(movieId);
+        // few attempts : the same stars may come again on small catalogs
+        for (int attempt = 0; attempt < castSize * 10 && count < castSize; attempt++) {
+            int actorId = actorId(actorRanks.sample(random));
+            if (!contains(actorIds, count, actorId)) {
+                actorIds[count++] = actorId;
+                rows.add(new String[]{movie, Integer.toString(actorId)});
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller (SplittableRandom has no nextGaussian)
+        return Math.sqrt(-2.0 * Math.log(1.0 - random.nextDouble())) * Math.cos(2.0 * Math.PI * random.nextDouble());
+    }
+
+    // rank 1 .. people => id 1 .. people (bijection)
+    private int scatter(long rank, long step) {
+        return (int) (Math.floorMod((rank - 1) * step, (long) people) + 1);
+    }
+
+    // step < n with gcd(step, n) = 1 : (rank - 1) * step mod n is a permutation
+    private static long coprimeStep(long n, long hash) {
+        if (n == 1) {
+            return 1;
+        }
+        long step = Math.floorMod(hash, n);
+        while (step < 1 || gcd(step, n) != 1) {
+            step = step + 1 < n ? step + 1 : 1;
+        }
+        return step;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    // independent stream of random numbers by table and block
+    private SplittableRandom random(int table, int block) {
+        long x = options.getSeed() + 0x9E3779B97F4A7C15L * (table * 1_000_003L + block + 1);
+        x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+        x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return new SplittableRandom(x ^ (x >>> 33));
+    }
+
+    /**
+     * rows of ids firstId .. lastId generated one id at a time (play : 1 row per actor of the movie)
+     */
+    private abstract static class GeneratedRows implements RowSource {
+        private final String table;
+        private final List<String> columns;
+        private final int lastId;
+        private final List<String[]> pending = new ArrayList<>();
+        private int nextId;
+        private int position;
+
+        GeneratedRows(String table, List<String> columns, int firstId, int lastId) {
+            this.table = table;
+            this.columns = columns;
+            this.nextId = firstId;
+            this.lastId = lastId;
+        }
+
+        abstract void generate(int id, List<String[]> rows);
+
+        @Override
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        @Override
+        public String[] next() {
+            while (position == pending.size()) {
+                if (nextId > lastId) {
+                    return null;
+                }
+                pending.clear();
+                position = 0;
+                generate(nextId++, pending);
+            }
+            return pending.get(position++);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
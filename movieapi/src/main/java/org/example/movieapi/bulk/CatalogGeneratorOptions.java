@@ -0,0 +1,80 @@
+package org.example.movieapi.bulk;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Size and shape of a generated catalog (CatalogGenerator) : same options = same rows
+ */
+@Getter
+@Builder
+public class CatalogGeneratorOptions {
+
+    @Builder.Default
+    private long seed = 42;
+
+    @Builder.Default
+    private int movies = 1_000_000;
+
+    /**
+     * people per movie (directors and actors)
+     */
+    @Builder.Default
+    private double peopleRatio = 0.5;
+
+    /**
+     * directors per movie : movies / directors on average, a few prolific ones (see directorSkew)
+     */
+    @Builder.Default
+    private double directorRatio = 0.1;
+
+    /**
+     * Zipf exponents : 0 < skew, the higher the more movies for the first ranks
+     * (prolific directors, stars with huge filmographies, popular genres)
+     */
+    @Builder.Default
+    private double directorSkew = 0.6;
+
+    @Builder.Default
+    private double actorSkew = 0.6;
+
+    @Builder.Default
+    private double genreSkew = 1.2;
+
+    /**
+     * actors per movie : geometric distribution of this mean, at most maxCastSize
+     */
+    @Builder.Default
+    private int meanCastSize = 6;
+
+    @Builder.Default
+    private int maxCastSize = 40;
+
+    /**
+     * years of the movies, more recent ones being more frequent
+     */
+    @Builder.Default
+    private int fromYear = 1920;
+
+    @Builder.Default
+    private int toYear = 2022;
+
+    /**
+     * rows generated by each source : sources of a table are loaded in parallel,
+     * each one with its own random numbers (independent of the number of threads)
+     */
+    @Builder.Default
+    private int blockSize = 250_000;
+
+    public static CatalogGeneratorOptions defaults() {
+        return builder().build();
+    }
+
+    public int getPeople() {
+        return Math.max((int) (movies * peopleRatio), 1);
+    }
+
+    public int getDirectors() {
+        return Math.min(Math.max((int) (movies * directorRatio), 1), getPeople());
+    }
+}
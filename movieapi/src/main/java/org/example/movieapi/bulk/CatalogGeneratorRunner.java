@@ -0,0 +1,57 @@
+package org.example.movieapi.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.stats.DirectorStatChecker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads a synthetic catalog at startup when movieapi.generate.movies is set (empty tables), e.g.
+ * java -jar movieapi.jar --movieapi.generate.movies=10000000 --movieapi.generate.seed=42
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("movieapi.generate.movies")
+public class CatalogGeneratorRunner implements ApplicationRunner {
+
+    private final BulkLoader bulkLoader;
+    private final DirectorStatChecker directorStatChecker;
+
+    @Value("${movieapi.generate.movies}")
+    private int movies;
+
+    @Value("${movieapi.generate.seed:42}")
+    private long seed;
+
+    @Value("${movieapi.bulk-load.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads;
+
+    @Value("${movieapi.bulk-load.chunk-size:5000}")
+    private int chunkSize;
+
+    public CatalogGeneratorRunner(BulkLoader bulkLoader, DirectorStatChecker directorStatChecker) {
+        this.bulkLoader = bulkLoader;
+        this.directorStatChecker = directorStatChecker;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var generator = new CatalogGenerator(CatalogGeneratorOptions.builder()
+                .seed(seed)
+                .movies(movies)
+                .build());
+        var options = BulkLoadOptions.builder()
+                .threads(threads)
+                .maxPendingChunks(threads)
+                .chunkSize(chunkSize)
+                .build();
+        var report = bulkLoader.load(generator.plan(), options, BulkLoader.loggingListener());
+        log.info("Synthetic catalog (seed {}) loaded: {} rows in {} ms ({} rows/s)", seed,
+                report.getTotalRows(), report.getDuration().toMillis(), (long) report.getRowsPerSecond());
+        // rows inserted with JDBC : not seen by the Hibernate listeners
+        directorStatChecker.rebuild();
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.movieapi.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rows from a CSV/TSV file whose first line is the column names.
+ * Empty fields and \N are read as NULL. Fields may be enclosed in double quotes (CSV).
+ */
+public class DelimitedRowSource implements RowSource {
+
+    private final BufferedReader reader;
+    private final String table;
+    private final char separator;
+    private List<String> columns;
+
+    public DelimitedRowSource(String table, Reader reader, char separator) {
+        this.table = table;
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        this.separator = separator;
+    }
+
+    public static DelimitedRowSource csv(String table, Reader reader) {
+        return new DelimitedRowSource(table, reader, ',');
+    }
+
+    public static DelimitedRowSource tsv(String table, Reader reader) {
+        return new DelimitedRowSource(table, reader, '\t');
+    }
+
+    @Override
+    public String getTable() {
+        return table;
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        if (columns == null) {
+            var header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Missing header line for table " + table);
+            }
+            columns = Arrays.stream(split(header))
+                    .map(String::trim)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return columns;
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        getColumns();
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        if (line == null) {
+            return null;
+        }
+        var values = split(line);
+        if (values.length != columns.size()) {
+            throw new IOException("Line '" + line + "' does not match columns " + columns);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String[] split(String line) {
+        var values = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == separator) {
+                values.add(toValue(field, wasQuoted));
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        values.add(toValue(field, wasQuoted));
+        return values.toArray(String[]::new);
+    }
+
+    private static String toValue(StringBuilder field, boolean wasQuoted) {
+        var value = field.toString();
+        if (!wasQuoted && (value.isEmpty() || value.equals("\\N"))) {
+            return null;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.movieapi.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persisted columns derived from other columns of the same row (indexable, no function
+ * evaluated on each load). Entities maintain them with callbacks (e.g. People.syncBirthYear),
+ * this service refreshes rows written with SQL (bulk loads, scripts), same as
+ * sql/dbmovie_birth_year_migration.sql.
+ */
+@Slf4j
+@Service
+public class DerivedColumns {
+
+    static final List<DerivedColumn> COLUMNS = List.of(
+            new DerivedColumn("people", "birth_year", "year(birthdate)"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DerivedColumns(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return rows updated (stale rows only)
+     */
+    @Transactional
+    public int refresh() {
+        int rows = 0;
+        for (var column : COLUMNS) {
+            int updated = jdbcTemplate.update(column.getRefreshSql());
+            log.info("Derived column {}.{} : {} rows refreshed", column.table, column.column, updated);
+            rows += updated;
+        }
+        return rows;
+    }
+
+    static class DerivedColumn {
+        final String table;
+        final String column;
+        final String expression;
+
+        DerivedColumn(String table, String column, String expression) {
+            this.table = table;
+            this.column = column;
+            this.expression = expression;
+        }
+
+        // null safe comparison (no <=> nor IS DISTINCT FROM in every database)
+        String getRefreshSql() {
+            return "update " + table + " set " + column + " = " + expression
+                    + " where (" + column + " is null) <> (" + expression + " is null)"
+                    + " or " + column + " <> " + expression;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.movieapi.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.model.Genre;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Migration of table genre (1 row per movie and genre, format of the dumps) into the bitmask
+ * column movie.genres (see model.Genre), same as sql/dbmovie_genre_migration.sql.
+ * Table genre is kept as the staging table of bulk loads.
+ */
+@Slf4j
+@Service
+public class GenreMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenreMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * label => bit, unknown labels ignored
+     */
+    static String bitOfLabel(String column) {
+        return Arrays.stream(Genre.values())
+                .map(genre -> " when '" + genre.getLabel() + "' then " + genre.getBit())
+                .collect(Collectors.joining("", "case " + column, " end"));
+    }
+
+    public boolean hasGenreTable() {
+        try {
+            jdbcTemplate.queryForObject("select count(*) from genre where 1 = 0", Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets movie.genres of the movies having rows in table genre
+     * @return movies updated, 0 if there is no table genre
+     */
+    @Transactional
+    public int migrate() {
+        if (!hasGenreTable()) {
+            return 0;
+        }
+        var unknownLabels = jdbcTemplate.queryForList("select distinct genre from genre where genre not in ("
+                + Arrays.stream(Genre.values()).map(genre -> "'" + genre.getLabel() + "'")
+                .collect(Collectors.joining(", ")) + ")", String.class);
+        if (!unknownLabels.isEmpty()) {
+            log.warn("Genres not in model.Genre, ignored : {}", unknownLabels);
+        }
+        int rows = jdbcTemplate.update("update movie set genres = ("
+                + " select coalesce(bit_or(" + bitOfLabel("g.genre") + "), 0)"
+                + " from genre g where g.fk_movie_id = movie.id)"
+                + " where exists (select 1 from genre g where g.fk_movie_id = movie.id)");
+        log.info("Genres of {} movies migrated into movie.genres", rows);
+        return rows;
+    }
+}
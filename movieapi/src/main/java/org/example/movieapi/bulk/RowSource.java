@@ -0,0 +1,27 @@
+package org.example.movieapi.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stream of rows read from a dump file, one row at a time (memory stays bounded).
+ * Values are kept as text (null for SQL NULL), the database converts them on insert.
+ */
+public interface RowSource extends Closeable {
+
+    /**
+     * @return target table of the rows (known after first row for SQL dumps)
+     */
+    String getTable() throws IOException;
+
+    /**
+     * @return column names, same order as values in each row
+     */
+    List<String> getColumns() throws IOException;
+
+    /**
+     * @return next row or null when source is exhausted
+     */
+    String[] next() throws IOException;
+}
@@ -0,0 +1,224 @@
+package org.example.movieapi.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming parser of mysqldump like scripts : multi-row INSERT statements
+ * (INSERT INTO t (c1, c2) VALUES (...),(...);).
+ * Other statements (LOCK TABLES, SET ...) and comments are skipped.
+ * Tuples are parsed one by one, a statement is never kept in memory.
+ */
+public class SqlDumpRowSource implements RowSource {
+
+    private static final Pattern INSERT_HEADER = Pattern.compile(
+            "(?is)\\s*INSERT\\s+INTO\\s+`?(\\w+)`?\\s*\\(([^)]*)\\)\\s*VALUES\\s*");
+
+    private final Reader reader;
+    private final StringBuilder buffer = new StringBuilder();
+    private String table;
+    private List<String> columns;
+    private boolean inValues = false;
+    private boolean eof = false;
+    private int pushback = -1;
+
+    public SqlDumpRowSource(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, 1 << 16);
+    }
+
+    @Override
+    public String getTable() throws IOException {
+        ensureHeader();
+        return table;
+    }
+
+    @Override
+    public List<String> getColumns() throws IOException {
+        ensureHeader();
+        return columns;
+    }
+
+    @Override
+    public String[] next() throws IOException {
+        while (true) {
+            if (!inValues && !readHeader()) {
+                return null;
+            }
+            int c = readSkippingSpaces();
+            if (c == ',') {
+                c = readSkippingSpaces();
+            }
+            if (c == ';' || c == -1) {
+                inValues = false;
+                continue;
+            }
+            if (c != '(') {
+                throw new IOException("Malformed dump: '(' expected, found '" + (char) c + "' in table " + table);
+            }
+            return readTuple();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void ensureHeader() throws IOException {
+        if (columns == null && !eof && !inValues) {
+            readHeader();
+        }
+    }
+
+    /**
+     * read statements until next INSERT header
+     * @return false at end of file
+     */
+    private boolean readHeader() throws IOException {
+        if (inValues) {
+            return true;
+        }
+        while (!eof) {
+            buffer.setLength(0);
+            int c;
+            boolean quoted = false;
+            while ((c = read()) != -1) {
+                if (buffer.length() == 0 && Character.isWhitespace(c)) {
+                    continue;
+                }
+                buffer.append((char) c);
+                if (buffer.length() == 2 && buffer.charAt(0) == '-' && buffer.charAt(1) == '-') {
+                    skipLine();
+                    buffer.setLength(0);
+                    continue;
+                }
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if (c == ';' && !quoted) {
+                    break; // statement without VALUES : ignored
+                } else if ((c == 'S' || c == 's') && endsWithValues()) {
+                    var matcher = INSERT_HEADER.matcher(buffer);
+                    if (!matcher.matches()) {
+                        throw new IOException("Unsupported INSERT statement: " + buffer);
+                    }
+                    var headerColumns = Arrays.stream(matcher.group(2).split(","))
+                            .map(col -> col.trim().replace("`", ""))
+                            .collect(Collectors.toUnmodifiableList());
+                    if (table != null && (!table.equals(matcher.group(1)) || !columns.equals(headerColumns))) {
+                        throw new IOException("Dump mixes several tables or column lists: " + buffer);
+                    }
+                    table = matcher.group(1);
+                    columns = headerColumns;
+                    inValues = true;
+                    return true;
+                }
+            }
+            if (c == -1) {
+                eof = true;
+            }
+        }
+        return false;
+    }
+
+    private boolean endsWithValues() {
+        int length = buffer.length();
+        return length >= 6 && buffer.substring(length - 6).equalsIgnoreCase("VALUES");
+    }
+
+    private String[] readTuple() throws IOException {
+        var values = new ArrayList<String>(columns.size());
+        while (true) {
+            int c = readSkippingSpaces();
+            String value;
+            if (c == '\'') {
+                value = readQuoted();
+                c = readSkippingSpaces();
+            } else {
+                buffer.setLength(0);
+                while (c != ',' && c != ')' && c != -1) {
+                    if (!Character.isWhitespace(c)) {
+                        buffer.append((char) c);
+                    }
+                    c = read();
+                }
+                value = buffer.toString();
+                if (value.equalsIgnoreCase("NULL")) {
+                    value = null;
+                }
+            }
+            values.add(value);
+            if (c == ')') {
+                break;
+            }
+            if (c != ',') {
+                throw new IOException("Malformed tuple in table " + table + " after values " + values);
+            }
+        }
+        if (values.size() != columns.size()) {
+            throw new IOException("Tuple " + values + " does not match columns " + columns);
+        }
+        return values.toArray(String[]::new);
+    }
+
+    private String readQuoted() throws IOException {
+        buffer.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+                case -1:
+                    throw new IOException("Unterminated string in table " + table);
+                case '\\':
+                    int escaped = read();
+                    switch (escaped) {
+                        case 'n': buffer.append('\n'); break;
+                        case 'r': buffer.append('\r'); break;
+                        case 't': buffer.append('\t'); break;
+                        case '0': buffer.append('\0'); break;
+                        default: buffer.append((char) escaped);
+                    }
+                    break;
+                case '\'':
+                    int next = read();
+                    if (next == '\'') {
+                        buffer.append('\''); // '' inside string
+                    } else {
+                        pushback = next;
+                        return buffer.toString();
+                    }
+                    break;
+                default:
+                    buffer.append((char) c);
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != '\n' && c != -1);
+    }
+
+    private int readSkippingSpaces() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return reader.read();
+    }
+}
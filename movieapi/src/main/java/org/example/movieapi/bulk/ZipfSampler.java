@@ -0,0 +1,80 @@
+package org.example.movieapi.bulk;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over ranks 1 .. n : P(k) proportional to 1 / k^exponent
+ * (rank 1 : most frequent, e.g. most prolific director).
+ * Rejection-inversion sampling (Hörmann, Derflinger 1996) : O(1) memory and time per sample,
+ * no table of n probabilities (n up to millions of people).
+ */
+final class ZipfSampler {
+
+    private final long n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    ZipfSampler(long n, double exponent) {
+        if (n < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Zipf distribution needs n >= 1 and exponent > 0: " + n
+                    + ", " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    long getN() {
+        return n;
+    }
+
+    /**
+     * @return rank in 1 .. n
+     */
+    long sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0; // rounding errors near the bound
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, stable near 0
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, stable near 0
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.movieapi.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class CacheRegionStats {
+    private String region;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    /**
+     * entries removed by size or TTL eviction (-1 if unknown)
+     */
+    private long evictionCount;
+
+    public double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.movieapi.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Hit/miss/put per second level cache region (Hibernate statistics)
+ * and evictions (JCache statistics MBeans of Ehcache), to size regions of ehcache.xml.
+ */
+@Slf4j
+@Service
+public class CacheStatisticsService {
+
+    private final SessionFactory sessionFactory;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionStats> getRegionStats() {
+        var statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    var regionStatistics = statistics.getCacheRegionStatistics(region);
+                    if (regionStatistics == null) {
+                        return null;
+                    }
+                    return new CacheRegionStats(region,
+                            regionStatistics.getHitCount(),
+                            regionStatistics.getMissCount(),
+                            regionStatistics.getPutCount(),
+                            getEvictionCount(region));
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public void logRegionStats() {
+        getRegionStats().forEach(stats -> log.info(
+                "Cache region {} : hits={} misses={} puts={} evictions={} hit ratio={}",
+                stats.getRegion(), stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                stats.getEvictionCount(), String.format("%.2f", stats.getHitRatio())));
+    }
+
+    public void clearStats() {
+        sessionFactory.getStatistics().clear();
+    }
+
+    private long getEvictionCount(String region) {
+        try {
+            var names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + ObjectName.quote(region) + ",*"), null);
+            if (names.isEmpty()) {
+                names = mBeanServer.queryNames(
+                        new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            }
+            long evictions = 0;
+            for (var name : names) {
+                evictions += (Long) mBeanServer.getAttribute(name, "CacheEvictions");
+            }
+            return names.isEmpty() ? -1 : evictions;
+        } catch (Exception e) {
+            log.debug("No JCache statistics for region {}", region, e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.movieapi.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connections of read only transactions from the replica, others from the primary.
+ * NB : the transaction manager takes its connection before the transaction is marked read only,
+ * use it behind a LazyConnectionDataSourceProxy (connection taken at first statement).
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final AtomicLong replicaConnectionCount = new AtomicLong();
+
+    public ReadOnlyRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            replicaConnectionCount.incrementAndGet();
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * @return connections taken from the replica since startup
+     */
+    public long getReplicaConnectionCount() {
+        return replicaConnectionCount.get();
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.movieapi.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.sqllog.SqlLogDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Routes read only transactions (@Transactional(readOnly = true), repository.ReadOnlyQuery)
+ * to a replica when movieapi.read-only.url is set, e.g.
+ * movieapi.read-only.url=jdbc:mariadb://replica:3306/dbmovie
+ * movieapi.read-only.username=movie (default : spring.datasource.username)
+ * movieapi.read-only.password=password (default : spring.datasource.password)
+ * Runs before the SQL log wrapper : statements of both connections are logged.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("movieapi.read-only.url")
+public class ReadOnlyRoutingDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware,
+        Ordered, DisposableBean {
+
+    private Environment environment;
+    private DataSource replica;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public synchronized Object postProcessAfterInitialization(Object bean, String beanName) {
+        var url = environment.getProperty("movieapi.read-only.url");
+        if (!(bean instanceof DataSource) || bean instanceof LazyConnectionDataSourceProxy
+                || bean instanceof SqlLogDataSource || url == null || replica != null) {
+            return bean;
+        }
+        replica = DataSourceBuilder.create()
+                .url(url)
+                .username(environment.getProperty("movieapi.read-only.username",
+                        environment.getProperty("spring.datasource.username")))
+                .password(environment.getProperty("movieapi.read-only.password",
+                        environment.getProperty("spring.datasource.password")))
+                .build();
+        log.info("Read only transactions of data source {} routed to {}", beanName, url);
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource((DataSource) bean, replica));
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (replica instanceof Closeable) {
+            ((Closeable) replica).close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.movieapi.dialect;
+
+import org.hibernate.QueryException;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+import java.util.List;
+
+/**
+ * JPQL/Criteria function bitand(a, b) : bitwise and of 2 integers,
+ * rendered BITAND(a, b) for H2 and (a & b) for MariaDB/MySQL
+ */
+public class BitAndFunction implements SQLFunction {
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Type getReturnType(Type firstArgumentType, Mapping mapping) throws QueryException {
+        return StandardBasicTypes.LONG;
+    }
+
+    @Override
+    public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory) throws QueryException {
+        if (arguments.size() != 2) {
+            throw new QueryException("bitand requires 2 arguments");
+        }
+        if (factory.getJdbcServices().getDialect() instanceof H2Dialect) {
+            return "bitand(" + arguments.get(0) + ", " + arguments.get(1) + ")";
+        }
+        return "(" + arguments.get(0) + " & " + arguments.get(1) + ")";
+    }
+}
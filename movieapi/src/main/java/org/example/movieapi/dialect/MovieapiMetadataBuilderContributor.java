@@ -0,0 +1,16 @@
+package org.example.movieapi.dialect;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+
+/**
+ * SQL functions of the application for any dialect, declared in properties :
+ * spring.jpa.properties.hibernate.metadata_builder_contributor=org.example.movieapi.dialect.MovieapiMetadataBuilderContributor
+ */
+public class MovieapiMetadataBuilderContributor implements MetadataBuilderContributor {
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction("bitand", new BitAndFunction());
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.movieapi.event;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registers EntityChangeListener in the session factory (see MovieapiIntegratorProvider)
+ * and keeps it for EntityChangeListener.of(...) until the session factory is closed
+ */
+public class EntityChangeIntegrator implements Integrator {
+
+    private static final Map<SessionFactoryImplementor, EntityChangeListener> LISTENERS = new ConcurrentHashMap<>();
+
+    /**
+     * @return the listener registered in the session factory, null if none
+     */
+    static EntityChangeListener listenerOf(SessionFactoryImplementor sessionFactory) {
+        return LISTENERS.get(sessionFactory);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        var listener = new EntityChangeListener();
+        var registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+        LISTENERS.put(sessionFactory, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        LISTENERS.remove(sessionFactory);
+    }
+}
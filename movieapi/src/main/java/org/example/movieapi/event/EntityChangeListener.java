@@ -0,0 +1,108 @@
+package org.example.movieapi.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Publishes the changes of Movie and People (dirty attributes only, actors of a movie = attribute actors)
+ * after each successful commit, to the in-memory indexes subscribed (e.g. PlayIndexService).
+ * Registered by EntityChangeIntegrator, i.e. before the Spring beans : they subscribe
+ * with EntityChangeListener.of(entityManagerFactory).subscribe(...).
+ * Changes made without Hibernate entities (JDBC, bulk HQL, bulk loader) are not seen.
+ */
+@Slf4j
+public class EntityChangeListener implements TransactionChangeListener, PostCollectionUpdateEventListener,
+        PostCollectionRecreateEventListener, PostCollectionRemoveEventListener {
+
+    private final List<Consumer<EntityChanges>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final TransactionChanges<EntityChanges> pendingChanges =
+            TransactionChanges.afterCommit(EntityChanges::new, this::publish);
+
+    /**
+     * @return the listener registered in the session factory of the entity manager factory
+     */
+    public static EntityChangeListener of(EntityManagerFactory entityManagerFactory) {
+        var listener = EntityChangeIntegrator.listenerOf(entityManagerFactory.unwrap(SessionFactoryImplementor.class));
+        if (listener == null) {
+            throw new IllegalStateException("EntityChangeIntegrator not declared in hibernate.integrator_provider");
+        }
+        return listener;
+    }
+
+    /**
+     * @param subscriber called after each commit writing movies or people, by the committing thread
+     */
+    public void subscribe(Consumer<EntityChanges> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<EntityChanges> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId(), EntityChanges.dirtyProperties(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionChanged(event);
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerIdOrNull() == null) {
+            return;
+        }
+        changed(event.getSession(), event.getAffectedOwnerOrNull(), event.getAffectedOwnerIdOrNull(),
+                EntityChanges.collectionProperty(event));
+    }
+
+    private void changed(EventSource session, Object entity, Object id, List<String> properties) {
+        if (entity instanceof Movie) {
+            pendingChanges.of(session).changed(Movie.class, (Integer) id, properties);
+        } else if (entity instanceof People) {
+            pendingChanges.of(session).changed(People.class, (Integer) id, properties);
+        }
+    }
+
+    // already committed : a failing subscriber is logged, the others still notified
+    private void publish(EntityChanges changes) {
+        for (var subscriber : subscribers) {
+            try {
+                subscriber.accept(changes);
+            } catch (RuntimeException e) {
+                log.error("Unable to apply committed changes to {}", subscriber, e);
+            }
+        }
+    }
+}
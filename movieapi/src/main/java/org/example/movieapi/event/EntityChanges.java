@@ -0,0 +1,89 @@
+package org.example.movieapi.event;
+
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Movies and people written by a committed transaction (see EntityChangeListener) :
+ * changed attributes by id, all attributes if inserted or deleted. Subscribers read
+ * the committed rows of the ids they need (a missing row is a deleted one).
+ */
+public class EntityChanges {
+
+    // by entity class then id : changed attributes, null if all
+    private final Map<Class<?>, Map<Integer, Set<String>>> byEntity = new HashMap<>();
+
+    /**
+     * @return attributes written by the update (version excluded), null if unknown : all
+     */
+    public static List<String> dirtyProperties(PostUpdateEvent event) {
+        if (event.getDirtyProperties() == null) {
+            return null;
+        }
+        var persister = event.getPersister();
+        var names = persister.getPropertyNames();
+        return Arrays.stream(event.getDirtyProperties())
+                .filter(index -> index != persister.getVersionProperty())
+                .mapToObj(index -> names[index])
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return attribute of the owner holding the collection (e.g. actors), null if unknown : all
+     */
+    public static List<String> collectionProperty(AbstractCollectionEvent event) {
+        // role of the collection not set yet after a recreate : role of its entry
+        var collectionEntry = event.getSession().getPersistenceContextInternal()
+                .getCollectionEntry(event.getCollection());
+        var role = collectionEntry == null ? null : collectionEntry.getRole();
+        return role == null ? null : List.of(role.substring(role.lastIndexOf('.') + 1));
+    }
+
+    void changed(Class<?> entityClass, int id, Collection<String> properties) {
+        var changes = byEntity.computeIfAbsent(entityClass, c -> new LinkedHashMap<>());
+        if (properties == null) {
+            changes.put(id, null);
+            return;
+        }
+        if (changes.containsKey(id)) {
+            var changed = changes.get(id);
+            if (changed != null) {
+                changed.addAll(properties);
+            }
+        } else {
+            changes.put(id, new TreeSet<>(properties));
+        }
+    }
+
+    public boolean isEmpty() {
+        return byEntity.isEmpty();
+    }
+
+    /**
+     * @return ids of the entities written
+     */
+    public Set<Integer> getIds(Class<?> entityClass) {
+        return Set.copyOf(byEntity.getOrDefault(entityClass, Map.of()).keySet());
+    }
+
+    /**
+     * @return ids of the entities inserted, deleted or with one of these attributes changed
+     */
+    public Set<Integer> getIds(Class<?> entityClass, String... properties) {
+        var names = Arrays.asList(properties);
+        return byEntity.getOrDefault(entityClass, Map.of()).entrySet().stream()
+                .filter(entry -> entry.getValue() == null || names.stream().anyMatch(entry.getValue()::contains))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+}
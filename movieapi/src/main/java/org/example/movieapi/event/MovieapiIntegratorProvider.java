@@ -0,0 +1,23 @@
+package org.example.movieapi.event;
+
+import org.example.movieapi.metrics.MetricsIntegrator;
+import org.example.movieapi.outbox.OutboxIntegrator;
+import org.example.movieapi.stats.DirectorStatIntegrator;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.List;
+
+/**
+ * Hibernate event listeners of the application, declared in properties :
+ * spring.jpa.properties.hibernate.integrator_provider=org.example.movieapi.event.MovieapiIntegratorProvider
+ * (works without Spring context scanning, e.g. in @DataJpaTest)
+ */
+public class MovieapiIntegratorProvider implements IntegratorProvider {
+
+    @Override
+    public List<Integrator> getIntegrators() {
+        return List.of(new DirectorStatIntegrator(), new OutboxIntegrator(), new MetricsIntegrator(),
+                new EntityChangeIntegrator());
+    }
+}
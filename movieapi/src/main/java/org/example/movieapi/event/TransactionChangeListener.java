@@ -0,0 +1,26 @@
+package org.example.movieapi.event;
+
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Listener of the entity writes of a transaction (changes kept in TransactionChanges) :
+ * nothing to do after the commit of each entity action
+ */
+public interface TransactionChangeListener extends PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    @Override
+    default boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // still called by Hibernate 5
+    @Override
+    @SuppressWarnings("deprecation")
+    default boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.movieapi.event;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Changes collected by a Hibernate listener during the current transaction of each session :
+ * created at the first change, handed to the listener just before commit (inside the transaction,
+ * e.g. to write derived rows : nothing written on rollback) or after a successful commit
+ * (e.g. to patch in-memory indexes), then forgotten.
+ *
+ * @param <T> changes of one transaction (used by the thread of its session only)
+ */
+public class TransactionChanges<T> {
+
+    private final Map<SessionImplementor, T> pending = new ConcurrentHashMap<>();
+    private final Supplier<T> factory;
+    private final BiConsumer<T, SessionImplementor> beforeCommit;
+    private final Consumer<T> afterCommit;
+
+    private TransactionChanges(Supplier<T> factory, BiConsumer<T, SessionImplementor> beforeCommit,
+                               Consumer<T> afterCommit) {
+        this.factory = factory;
+        this.beforeCommit = beforeCommit;
+        this.afterCommit = afterCommit;
+    }
+
+    /**
+     * @param write called in the transaction just before its commit
+     */
+    public static <T> TransactionChanges<T> beforeCommit(Supplier<T> factory,
+                                                         BiConsumer<T, SessionImplementor> write) {
+        return new TransactionChanges<>(factory, write, null);
+    }
+
+    /**
+     * @param apply called once the transaction is committed (not on rollback)
+     */
+    public static <T> TransactionChanges<T> afterCommit(Supplier<T> factory, Consumer<T> apply) {
+        return new TransactionChanges<>(factory, null, apply);
+    }
+
+    /**
+     * @return changes of the current transaction of the session
+     */
+    public T of(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            var changes = factory.get();
+            if (beforeCommit != null) {
+                s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) ss ->
+                        beforeCommit.accept(changes, ss));
+            }
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, ss) -> {
+                pending.remove(s);
+                if (success && afterCommit != null) {
+                    afterCommit.accept(changes);
+                }
+            });
+            return changes;
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.movieapi.index;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Chain of actors from an actor to another : movieIds[i] links actorIds[i] and actorIds[i + 1]
+ */
+@Getter
+public class ActorPath {
+    private final int[] actorIds;
+    private final int[] movieIds;
+
+    ActorPath(int[] actorIds, int[] movieIds) {
+        this.actorIds = actorIds;
+        this.movieIds = movieIds;
+    }
+
+    /**
+     * degrees of separation (0 from an actor to himself)
+     */
+    public int getDegree() {
+        return movieIds.length;
+    }
+
+    @Override
+    public String toString() {
+        return "ActorPath(actorIds=" + Arrays.toString(actorIds) + ", movieIds=" + Arrays.toString(movieIds) + ")";
+    }
+}
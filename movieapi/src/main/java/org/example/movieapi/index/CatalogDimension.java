@@ -0,0 +1,110 @@
+package org.example.movieapi.index;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+
+/**
+ * Group keys of CatalogSnapshot.groupBy : each dimension numbers its keys densely (0 .. keyCount - 1)
+ */
+public enum CatalogDimension {
+    YEAR {
+        @Override
+        int keyCount(CatalogSnapshot snapshot) {
+            return snapshot.getMovieCount() == 0 ? 0 : snapshot.maxYear - snapshot.minYear + 1;
+        }
+
+        @Override
+        void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator) {
+            accumulator.add(snapshot.years[row] - snapshot.minYear, snapshot.durations[row]);
+        }
+
+        @Override
+        String label(CatalogSnapshot snapshot, int key) {
+            return String.valueOf(snapshot.minYear + key);
+        }
+    },
+    DECADE {
+        @Override
+        int keyCount(CatalogSnapshot snapshot) {
+            return snapshot.getMovieCount() == 0 ? 0
+                    : Math.floorDiv(snapshot.maxYear, 10) - Math.floorDiv(snapshot.minYear, 10) + 1;
+        }
+
+        @Override
+        void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator) {
+            accumulator.add(Math.floorDiv(snapshot.years[row], 10) - Math.floorDiv(snapshot.minYear, 10),
+                    snapshot.durations[row]);
+        }
+
+        @Override
+        String label(CatalogSnapshot snapshot, int key) {
+            return (Math.floorDiv(snapshot.minYear, 10) + key) * 10 + "s";
+        }
+    },
+    // last key : no color
+    COLOR {
+        @Override
+        int keyCount(CatalogSnapshot snapshot) {
+            return Color.values().length + 1;
+        }
+
+        @Override
+        void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator) {
+            byte color = snapshot.colors[row];
+            accumulator.add(color == CatalogSnapshot.NO_COLOR ? Color.values().length : color,
+                    snapshot.durations[row]);
+        }
+
+        @Override
+        String label(CatalogSnapshot snapshot, int key) {
+            return key == Color.values().length ? "UNKNOWN" : Color.values()[key].name();
+        }
+    },
+    // one key per genre of the movie (none if no genre)
+    GENRE {
+        @Override
+        int keyCount(CatalogSnapshot snapshot) {
+            return Genre.values().length;
+        }
+
+        @Override
+        void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator) {
+            long mask = snapshot.genres[row];
+            while (mask != 0) {
+                accumulator.add(Long.numberOfTrailingZeros(mask), snapshot.durations[row]);
+                mask &= mask - 1;
+            }
+        }
+
+        @Override
+        String label(CatalogSnapshot snapshot, int key) {
+            return Genre.values()[key].getLabel();
+        }
+    },
+    // movies without director ignored
+    DIRECTOR {
+        @Override
+        int keyCount(CatalogSnapshot snapshot) {
+            return snapshot.getDirectorCount();
+        }
+
+        @Override
+        void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator) {
+            int director = snapshot.directors[row];
+            if (director != CatalogSnapshot.NO_DIRECTOR) {
+                accumulator.add(director, snapshot.durations[row]);
+            }
+        }
+
+        @Override
+        String label(CatalogSnapshot snapshot, int key) {
+            return snapshot.directorNames[key];
+        }
+    };
+
+    abstract int keyCount(CatalogSnapshot snapshot);
+
+    abstract void accumulate(CatalogSnapshot snapshot, int row, CatalogSnapshot.Accumulator accumulator);
+
+    abstract String label(CatalogSnapshot snapshot, int key);
+}
@@ -0,0 +1,395 @@
+package org.example.movieapi.index;
+
+import org.example.movieapi.dto.TitleDurationAge;
+import org.example.movieapi.model.Color;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar snapshot of table movie (with names of directors) for analytics in memory :
+ * one primitive array per column, row r = r-th movie by id (no entity, no boxing) :
+ * - years, durations (NO_DURATION if null), colors (Color ordinal, NO_COLOR if null),
+ * - genres : bitset of genres of each movie (same bits as column movie.genres),
+ * - directors : director dictionary-encoded as an index in directorIds/directorNames (NO_DIRECTOR if null).
+ * Aggregations run in parallel (fork/join on row ranges), refresh by update() with changed movies only.
+ */
+public final class CatalogSnapshot {
+
+    public static final int NO_DURATION = -1;
+    public static final byte NO_COLOR = -1;
+    public static final int NO_DIRECTOR = -1;
+
+    // rows per fork/join leaf task
+    static final int SPLIT_THRESHOLD = 16_384;
+
+    final int[] movieIds;
+    final String[] titles;
+    final int[] years;
+    final int[] durations;
+    final byte[] colors;
+    final long[] genres;
+    final int[] directors;
+    final int[] directorIds;
+    final String[] directorNames;
+    final int minYear;
+    final int maxYear;
+
+    private CatalogSnapshot(int[] movieIds, String[] titles, int[] years, int[] durations, byte[] colors,
+                            long[] genres, int[] directors, int[] directorIds, String[] directorNames) {
+        this.movieIds = movieIds;
+        this.titles = titles;
+        this.years = years;
+        this.durations = durations;
+        this.colors = colors;
+        this.genres = genres;
+        this.directors = directors;
+        this.directorIds = directorIds;
+        this.directorNames = directorNames;
+        this.minYear = Arrays.stream(years).min().orElse(0);
+        this.maxYear = Arrays.stream(years).max().orElse(0);
+    }
+
+    /**
+     * @param movies rows of table movie (any order)
+     * @param directorNames name of each director id of these rows
+     */
+    public static CatalogSnapshot build(MovieRows movies, Map<Integer, String> directorNames) {
+        int count = movies.size();
+        var order = sortedById(movies);
+        var directorIds = PlayIndex.distinctSorted(
+                Arrays.stream(movies.directorIds.toArray()).filter(id -> id != 0).toArray());
+        var names = Arrays.stream(directorIds)
+                .mapToObj(id -> directorNames.getOrDefault(id, "?"))
+                .toArray(String[]::new);
+        var movieIds = new int[count];
+        var titles = new String[count];
+        var years = new int[count];
+        var durations = new int[count];
+        var colors = new byte[count];
+        var genres = new long[count];
+        var directors = new int[count];
+        for (int r = 0; r < count; r++) {
+            int i = (int) order[r];
+            movieIds[r] = movies.ids.get(i);
+            titles[r] = movies.titles.get(i);
+            years[r] = movies.years.get(i);
+            durations[r] = movies.durations.get(i);
+            colors[r] = movies.colors[i];
+            genres[r] = movies.genres[i];
+            int directorId = movies.directorIds.get(i);
+            directors[r] = directorId == 0 ? NO_DIRECTOR : Arrays.binarySearch(directorIds, directorId);
+        }
+        return new CatalogSnapshot(movieIds, titles, years, durations, colors, genres, directors,
+                directorIds, names);
+    }
+
+    /**
+     * Incremental refresh : new snapshot where the given movies are replaced by their current rows
+     * (changed movie absent from movies = deleted), other rows copied from this snapshot
+     * and merged with the new ones by id (no sort of the whole catalog).
+     * NB : directors without movies stay in the dictionary (no group)
+     * @param changedMovieIds ids of movies inserted, updated or deleted
+     * @param movies current rows of changed movies still existing
+     * @param changedNames current names of directors of these rows and of renamed people
+     */
+    public CatalogSnapshot update(int[] changedMovieIds, MovieRows movies, Map<Integer, String> changedNames) {
+        var changed = new BitSet(movieIds.length);
+        for (int id : changedMovieIds) {
+            int r = Arrays.binarySearch(movieIds, id);
+            if (r >= 0) {
+                changed.set(r);
+            }
+        }
+        // dictionary : old directors + directors of new rows
+        var newDirectorIds = PlayIndex.distinctSorted(IntStream.concat(
+                        Arrays.stream(directorIds),
+                        Arrays.stream(movies.directorIds.toArray()).filter(id -> id != 0))
+                .toArray());
+        var newDirectorNames = new String[newDirectorIds.length];
+        for (int d = 0; d < newDirectorIds.length; d++) {
+            int old = Arrays.binarySearch(directorIds, newDirectorIds[d]);
+            newDirectorNames[d] = changedNames.getOrDefault(newDirectorIds[d], old >= 0 ? directorNames[old] : "?");
+        }
+        var remap = new int[directorIds.length];
+        for (int d = 0; d < directorIds.length; d++) {
+            remap[d] = Arrays.binarySearch(newDirectorIds, directorIds[d]);
+        }
+
+        var order = sortedById(movies);
+        int count = movieIds.length - changed.cardinality() + order.length;
+        var newMovieIds = new int[count];
+        var newTitles = new String[count];
+        var newYears = new int[count];
+        var newDurations = new int[count];
+        var newColors = new byte[count];
+        var newGenres = new long[count];
+        var newDirectors = new int[count];
+        int r = 0;
+        int j = 0;
+        for (int k = 0; k < count; k++) {
+            while (r < movieIds.length && changed.get(r)) {
+                r++;
+            }
+            if (j == order.length || (r < movieIds.length && movieIds[r] < movies.ids.get((int) order[j]))) {
+                newMovieIds[k] = movieIds[r];
+                newTitles[k] = titles[r];
+                newYears[k] = years[r];
+                newDurations[k] = durations[r];
+                newColors[k] = colors[r];
+                newGenres[k] = genres[r];
+                newDirectors[k] = directors[r] == NO_DIRECTOR ? NO_DIRECTOR : remap[directors[r]];
+                r++;
+            } else {
+                int i = (int) order[j++];
+                newMovieIds[k] = movies.ids.get(i);
+                newTitles[k] = movies.titles.get(i);
+                newYears[k] = movies.years.get(i);
+                newDurations[k] = movies.durations.get(i);
+                newColors[k] = movies.colors[i];
+                newGenres[k] = movies.genres[i];
+                int directorId = movies.directorIds.get(i);
+                newDirectors[k] = directorId == 0 ? NO_DIRECTOR : Arrays.binarySearch(newDirectorIds, directorId);
+            }
+        }
+        return new CatalogSnapshot(newMovieIds, newTitles, newYears, newDurations, newColors, newGenres,
+                newDirectors, newDirectorIds, newDirectorNames);
+    }
+
+    /**
+     * @return (id << 32 | index) of rows, sorted by id
+     */
+    private static long[] sortedById(MovieRows movies) {
+        var order = new long[movies.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((long) movies.ids.get(i) << 32) | i;
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    public int getMovieCount() {
+        return movieIds.length;
+    }
+
+    public int getDirectorCount() {
+        return directorIds.length;
+    }
+
+    public int getYear(int row) {
+        return years[row];
+    }
+
+    /**
+     * @return duration or NO_DURATION
+     */
+    public int getDuration(int row) {
+        return durations[row];
+    }
+
+    /**
+     * @return color or null
+     */
+    public Color getColor(int row) {
+        return colors[row] == NO_COLOR ? null : Color.values()[colors[row]];
+    }
+
+    public long getGenreMask(int row) {
+        return genres[row];
+    }
+
+    /**
+     * @return name of the director or null
+     */
+    public String getDirectorName(int row) {
+        return directors[row] == NO_DIRECTOR ? null : directorNames[directors[row]];
+    }
+
+    public List<GroupStats> groupBy(CatalogDimension dimension) {
+        return groupBy(dimension, row -> true);
+    }
+
+    /**
+     * Count and duration statistics of the rows accepted by the filter, grouped by dimension
+     * (a movie with several genres counts in each of them).
+     * @return non empty groups in the order of the dimension
+     */
+    public List<GroupStats> groupBy(CatalogDimension dimension, IntPredicate rowFilter) {
+        var accumulator = ForkJoinPool.commonPool()
+                .invoke(new GroupByTask(this, dimension, rowFilter, 0, movieIds.length));
+        var groups = new ArrayList<GroupStats>();
+        for (int key = 0; key < accumulator.counts.length; key++) {
+            if (accumulator.counts[key] > 0) {
+                groups.add(accumulator.toStats(key, dimension.label(this, key)));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Same result as IMovieRepository.findStatMovieByDirector (materialized or group by)
+     * @return directors with at least movieCount movies, most movies first
+     */
+    public List<GroupStats> directorStats(long movieCount) {
+        return groupBy(CatalogDimension.DIRECTOR).stream()
+                .filter(group -> group.getMovieCount() >= movieCount)
+                .sorted(Comparator.comparingLong(GroupStats::getMovieCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Same result as IMovieRepository.findTitleDurationAge
+     * @return movies lasting at least durationThreshold (age = reached this year), by id
+     */
+    public List<TitleDurationAge> titleDurationAge(int durationThreshold) {
+        int currentYear = LocalDate.now().getYear();
+        return IntStream.range(0, movieIds.length)
+                .parallel()
+                .filter(r -> durations[r] != NO_DURATION && durations[r] >= durationThreshold)
+                .mapToObj(r -> new TitleDurationAge(titles[r], durations[r], currentYear - years[r]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sub-totals of a range of rows, merged by key (dense arrays indexed by key)
+     */
+    static final class Accumulator {
+        final long[] counts;
+        final long[] durationCounts;
+        final long[] durationTotals;
+        final int[] durationMins;
+        final int[] durationMaxs;
+
+        Accumulator(int keyCount) {
+            counts = new long[keyCount];
+            durationCounts = new long[keyCount];
+            durationTotals = new long[keyCount];
+            durationMins = new int[keyCount];
+            durationMaxs = new int[keyCount];
+            Arrays.fill(durationMins, Integer.MAX_VALUE);
+            Arrays.fill(durationMaxs, Integer.MIN_VALUE);
+        }
+
+        void add(int key, int duration) {
+            counts[key]++;
+            if (duration != NO_DURATION) {
+                durationCounts[key]++;
+                durationTotals[key] += duration;
+                durationMins[key] = Math.min(durationMins[key], duration);
+                durationMaxs[key] = Math.max(durationMaxs[key], duration);
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int key = 0; key < counts.length; key++) {
+                counts[key] += other.counts[key];
+                durationCounts[key] += other.durationCounts[key];
+                durationTotals[key] += other.durationTotals[key];
+                durationMins[key] = Math.min(durationMins[key], other.durationMins[key]);
+                durationMaxs[key] = Math.max(durationMaxs[key], other.durationMaxs[key]);
+            }
+            return this;
+        }
+
+        GroupStats toStats(int key, String label) {
+            boolean anyDuration = durationCounts[key] > 0;
+            return new GroupStats(label, counts[key], durationCounts[key], durationTotals[key],
+                    anyDuration ? durationMins[key] : null, anyDuration ? durationMaxs[key] : null);
+        }
+    }
+
+    private static final class GroupByTask extends RecursiveTask<Accumulator> {
+        private final CatalogSnapshot snapshot;
+        private final CatalogDimension dimension;
+        private final IntPredicate rowFilter;
+        private final int from;
+        private final int to;
+
+        GroupByTask(CatalogSnapshot snapshot, CatalogDimension dimension, IntPredicate rowFilter, int from, int to) {
+            this.snapshot = snapshot;
+            this.dimension = dimension;
+            this.rowFilter = rowFilter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                var accumulator = new Accumulator(dimension.keyCount(snapshot));
+                for (int row = from; row < to; row++) {
+                    if (rowFilter.test(row)) {
+                        dimension.accumulate(snapshot, row, accumulator);
+                    }
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            var left = new GroupByTask(snapshot, dimension, rowFilter, from, middle);
+            left.fork();
+            var right = new GroupByTask(snapshot, dimension, rowFilter, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Rows of table movie being read (growable columns)
+     */
+    public static final class MovieRows {
+        final IntList ids;
+        final List<String> titles;
+        final IntList years;
+        final IntList durations;
+        byte[] colors;
+        long[] genres;
+        final IntList directorIds;
+
+        public MovieRows() {
+            this(1024);
+        }
+
+        MovieRows(int capacity) {
+            ids = new IntList(capacity);
+            titles = new ArrayList<>(capacity);
+            years = new IntList(capacity);
+            durations = new IntList(capacity);
+            colors = new byte[Math.max(capacity, 16)];
+            genres = new long[Math.max(capacity, 16)];
+            directorIds = new IntList(capacity);
+        }
+
+        /**
+         * @param duration NO_DURATION if null
+         * @param color Color ordinal or NO_COLOR if null
+         * @param directorId 0 if no director
+         */
+        public void add(int id, String title, int year, int duration, byte color, long genreMask, int directorId) {
+            int row = ids.size();
+            if (row == colors.length) {
+                colors = Arrays.copyOf(colors, row + (row >> 1));
+                genres = Arrays.copyOf(genres, row + (row >> 1));
+            }
+            ids.add(id);
+            titles.add(title);
+            years.add(year);
+            durations.add(duration);
+            colors[row] = color;
+            genres[row] = genreMask;
+            directorIds.add(directorId);
+        }
+
+        public int size() {
+            return ids.size();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.movieapi.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.event.EntityChangeListener;
+import org.example.movieapi.event.EntityChanges;
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current CatalogSnapshot : built at first use from tables movie and people,
+ * rebuilt by refresh() (e.g. after a bulk load). Movies and people written by a committed transaction
+ * are recorded by the EntityChangeListener subscription and patched in batches by a refresh thread
+ * (changed rows only), off the commit path. getSnapshot() applies the changes still pending,
+ * so a reader sees the commits done before its call. Snapshot swapped atomically.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+    private static final String SELECT_MOVIE = "select id, title, year, duration, color, genres, fk_director_id"
+            + " from movie";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private volatile CatalogSnapshot snapshot;
+    // committed rows not patched yet (id -> sequence of its last commit), one refresh scheduled at most
+    private final Map<Integer, Long> pendingMovieIds = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> pendingPeopleIds = new ConcurrentHashMap<>();
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "catalog-snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<EntityChanges> subscriber = this::committed;
+
+    public CatalogSnapshotService(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        EntityChangeListener.of(entityManagerFactory).subscribe(subscriber);
+    }
+
+    @PreDestroy
+    void close() {
+        EntityChangeListener.of(entityManagerFactory).unsubscribe(subscriber);
+        refresher.shutdownNow();
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        var current = snapshot;
+        if (current == null || !pendingMovieIds.isEmpty() || !pendingPeopleIds.isEmpty()) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                applyPending();
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    // NB : changes committed before the load are read by it
+    public synchronized CatalogSnapshot refresh() {
+        pendingMovieIds.clear();
+        pendingPeopleIds.clear();
+        snapshot = load();
+        return snapshot;
+    }
+
+    /**
+     * Incremental refresh after writes on some movies or people : reads only these rows.
+     * NB : a snapshot not loaded yet will read committed rows
+     */
+    public synchronized CatalogSnapshot refresh(Collection<Integer> changedMovieIds,
+                                                Collection<Integer> changedPeopleIds) {
+        if (snapshot == null || (changedMovieIds.isEmpty() && changedPeopleIds.isEmpty())) {
+            return getSnapshot();
+        }
+        var movies = new CatalogSnapshot.MovieRows();
+        var directorIds = new HashSet<>(changedPeopleIds);
+        forEachChunk(changedMovieIds, (in, args) -> jdbcTemplate.query(SELECT_MOVIE + " where id in " + in,
+                resultSet -> {
+                    readMovie(resultSet, movies);
+                    directorIds.add(resultSet.getInt(7));
+                }, args));
+        directorIds.remove(0);
+        var names = new HashMap<Integer, String>();
+        forEachChunk(directorIds, (in, args) -> jdbcTemplate.query("select id, name from people where id in " + in,
+                resultSet -> {
+                    names.put(resultSet.getInt(1), resultSet.getString(2));
+                }, args));
+        snapshot = snapshot.update(changedMovieIds.stream().mapToInt(Integer::intValue).toArray(), movies, names);
+        return snapshot;
+    }
+
+    // committing thread : records the rows and schedules their refresh
+    private void committed(EntityChanges changes) {
+        var movieIds = changes.getIds(Movie.class, "title", "year", "duration", "color", "genreMask", "director");
+        var peopleIds = changes.getIds(People.class, "name");
+        if (movieIds.isEmpty() && peopleIds.isEmpty()) {
+            return;
+        }
+        long sequence = commitSequence.incrementAndGet();
+        movieIds.forEach(id -> pendingMovieIds.put(id, sequence));
+        peopleIds.forEach(id -> pendingPeopleIds.put(id, sequence));
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshScheduled.set(false);
+                try {
+                    synchronized (this) {
+                        applyPending();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Unable to refresh catalog snapshot", e);
+                }
+            });
+        }
+    }
+
+    // all the rows committed so far in one update (one copy of the columns for the batch),
+    // a row committed again during the update stays pending
+    private void applyPending() {
+        if (pendingMovieIds.isEmpty() && pendingPeopleIds.isEmpty()) {
+            return;
+        }
+        var appliedMovies = Map.copyOf(pendingMovieIds);
+        var appliedPeople = Map.copyOf(pendingPeopleIds);
+        if (snapshot != null) {
+            refresh(appliedMovies.keySet(), appliedPeople.keySet());
+        }
+        appliedMovies.forEach(pendingMovieIds::remove);
+        appliedPeople.forEach(pendingPeopleIds::remove);
+    }
+
+    private CatalogSnapshot load() {
+        long start = System.nanoTime();
+        var movies = new CatalogSnapshot.MovieRows();
+        jdbcTemplate.query(SELECT_MOVIE, resultSet -> {
+            readMovie(resultSet, movies);
+        });
+        var names = new HashMap<Integer, String>();
+        jdbcTemplate.query("select distinct p.id, p.name from people p join movie m on m.fk_director_id = p.id",
+                resultSet -> {
+                    names.put(resultSet.getInt(1), resultSet.getString(2));
+                });
+        var catalogSnapshot = CatalogSnapshot.build(movies, names);
+        log.info("Catalog snapshot built: {} movies, {} directors in {} ms",
+                catalogSnapshot.getMovieCount(), catalogSnapshot.getDirectorCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return catalogSnapshot;
+    }
+
+    private static void readMovie(ResultSet resultSet, CatalogSnapshot.MovieRows movies) throws SQLException {
+        int duration = resultSet.getInt(4);
+        if (resultSet.wasNull()) {
+            duration = CatalogSnapshot.NO_DURATION;
+        }
+        var color = resultSet.getString(5);
+        movies.add(resultSet.getInt(1), resultSet.getString(2), resultSet.getInt(3), duration,
+                color == null ? CatalogSnapshot.NO_COLOR : (byte) Color.valueOf(color).ordinal(),
+                resultSet.getLong(6), resultSet.getInt(7)); // 0 if no director
+    }
+
+    private interface ChunkQuery {
+        void query(String in, Object[] args);
+    }
+
+    private static void forEachChunk(Collection<Integer> ids, ChunkQuery query) {
+        var list = List.copyOf(ids);
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            var chunk = list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size()));
+            query.query(chunk.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")")), chunk.toArray());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.movieapi.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Co-star queries on the bipartite graph actor - movie of a PlayIndex snapshot
+ * (adjacency read directly in the CSR arrays, no entity, no boxing).
+ * Shortest paths use a bidirectional BFS, levels with a large frontier are expanded in parallel.
+ */
+public class CoStarGraph {
+
+    private static final int[] EMPTY = new int[0];
+    static final int PARALLEL_THRESHOLD = 2048;
+
+    private final PlayIndex index;
+
+    public CoStarGraph(PlayIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @return sorted ids of actors who played in at least one movie with the actor
+     */
+    public int[] coStars(int actorId) {
+        int a = Arrays.binarySearch(index.actorIds, actorId);
+        if (a < 0) {
+            return EMPTY;
+        }
+        var seen = new BitSet(index.actorIds.length);
+        for (int i = index.actorMovieStart[a]; i < index.actorMovieStart[a + 1]; i++) {
+            int m = index.actorMovies[i];
+            for (int j = index.movieActorStart[m]; j < index.movieActorStart[m + 1]; j++) {
+                seen.set(index.movieActors[j]);
+            }
+        }
+        seen.clear(a);
+        return seen.stream().map(b -> index.actorIds[b]).toArray();
+    }
+
+    /**
+     * @return co-stars by number of shared movies desc (then id), at most limit
+     */
+    public List<Collaborator> topCollaborators(int actorId, int limit) {
+        int a = Arrays.binarySearch(index.actorIds, actorId);
+        if (a < 0 || limit <= 0) {
+            return List.of();
+        }
+        var counts = new int[index.actorIds.length];
+        var touched = new IntList();
+        for (int i = index.actorMovieStart[a]; i < index.actorMovieStart[a + 1]; i++) {
+            int m = index.actorMovies[i];
+            for (int j = index.movieActorStart[m]; j < index.movieActorStart[m + 1]; j++) {
+                int b = index.movieActors[j];
+                if (b != a && counts[b]++ == 0) {
+                    touched.add(b);
+                }
+            }
+        }
+        // sort key : (MAX - count, dense index) packed in a long
+        var keys = new long[touched.size()];
+        for (int i = 0; i < keys.length; i++) {
+            int b = touched.get(i);
+            keys[i] = ((long) (Integer.MAX_VALUE - counts[b]) << 32) | b;
+        }
+        Arrays.sort(keys);
+        var top = new ArrayList<Collaborator>(Math.min(limit, keys.length));
+        for (int i = 0; i < keys.length && i < limit; i++) {
+            int b = (int) keys[i];
+            top.add(new Collaborator(index.actorIds[b], counts[b]));
+        }
+        return top;
+    }
+
+    /**
+     * Degrees of separation : one of the shortest chains of co-stars between 2 actors
+     * @return empty if an actor is unknown or not connected
+     */
+    public Optional<ActorPath> shortestPath(int fromActorId, int toActorId) {
+        int from = Arrays.binarySearch(index.actorIds, fromActorId);
+        int to = Arrays.binarySearch(index.actorIds, toActorId);
+        if (from < 0 || to < 0) {
+            return Optional.empty();
+        }
+        if (from == to) {
+            return Optional.of(new ActorPath(new int[]{fromActorId}, EMPTY));
+        }
+        var forward = new Search(from);
+        var backward = new Search(to);
+        while (forward.frontier.length > 0 && backward.frontier.length > 0) {
+            // expand the smallest frontier, then look for the best meeting actor of this level
+            var side = forward.frontier.length <= backward.frontier.length ? forward : backward;
+            var other = side == forward ? backward : forward;
+            side.expand();
+            int meet = -1;
+            int best = Integer.MAX_VALUE;
+            for (int b : side.frontier) {
+                int otherDepth = other.depth.get(b);
+                if (otherDepth >= 0 && otherDepth < best) {
+                    best = otherDepth;
+                    meet = b;
+                }
+            }
+            if (meet >= 0) {
+                return Optional.of(path(forward, backward, meet));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ActorPath path(Search forward, Search backward, int meet) {
+        var actors = new IntList(16);
+        var movies = new IntList(16);
+        for (int b = meet; b != forward.root; b = forward.viaActor[b]) {
+            actors.add(b);
+            movies.add(forward.viaMovie[b]);
+        }
+        actors.add(forward.root);
+        var actorIds = reverse(actors.toArray());
+        var movieIds = reverse(movies.toArray());
+        actors = new IntList(16);
+        movies = new IntList(16);
+        for (int b = meet; b != backward.root; b = backward.viaActor[b]) {
+            movies.add(backward.viaMovie[b]);
+            actors.add(backward.viaActor[b]);
+        }
+        actorIds = concat(actorIds, actors.toArray());
+        movieIds = concat(movieIds, movies.toArray());
+        return new ActorPath(
+                Arrays.stream(actorIds).map(b -> index.actorIds[b]).toArray(),
+                Arrays.stream(movieIds).map(m -> index.movieIds[m]).toArray());
+    }
+
+    /**
+     * BFS from one actor, level by level : depth is claimed with a CAS so that
+     * parallel expansion visits each actor (and scans each movie) once
+     */
+    private class Search {
+        final int root;
+        final AtomicIntegerArray depth; // -1 : not visited
+        final AtomicIntegerArray movieSeen;
+        final int[] viaMovie;
+        final int[] viaActor;
+        int[] frontier;
+        int level;
+
+        Search(int root) {
+            this.root = root;
+            depth = new AtomicIntegerArray(index.actorIds.length);
+            for (int b = 0; b < index.actorIds.length; b++) {
+                depth.lazySet(b, -1);
+            }
+            depth.set(root, 0);
+            movieSeen = new AtomicIntegerArray(index.movieIds.length);
+            viaMovie = new int[index.actorIds.length];
+            viaActor = new int[index.actorIds.length];
+            frontier = new int[]{root};
+        }
+
+        void expand() {
+            int nextLevel = level + 1;
+            if (frontier.length < PARALLEL_THRESHOLD) {
+                frontier = expand(0, frontier.length, nextLevel).toArray();
+            } else {
+                int chunkCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+                int chunkSize = (frontier.length + chunkCount - 1) / chunkCount;
+                frontier = IntStream.range(0, chunkCount)
+                        .parallel()
+                        .mapToObj(c -> expand(c * chunkSize, Math.min((c + 1) * chunkSize, frontier.length), nextLevel))
+                        .map(IntList::toArray)
+                        .reduce(EMPTY, CoStarGraph::concat);
+            }
+            level = nextLevel;
+        }
+
+        private IntList expand(int from, int to, int nextLevel) {
+            var next = new IntList(256);
+            for (int f = from; f < to; f++) {
+                int a = frontier[f];
+                for (int i = index.actorMovieStart[a]; i < index.actorMovieStart[a + 1]; i++) {
+                    int m = index.actorMovies[i];
+                    if (!movieSeen.compareAndSet(m, 0, 1)) {
+                        continue;
+                    }
+                    for (int j = index.movieActorStart[m]; j < index.movieActorStart[m + 1]; j++) {
+                        int b = index.movieActors[j];
+                        if (depth.get(b) < 0 && depth.compareAndSet(b, -1, nextLevel)) {
+                            viaMovie[b] = m;
+                            viaActor[b] = a;
+                            next.add(b);
+                        }
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    private static int[] reverse(int[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        var result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.movieapi.index;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class Collaborator {
+    private final int actorId;
+    private final int movieCount;
+
+    Collaborator(int actorId, int movieCount) {
+        this.actorId = actorId;
+        this.movieCount = movieCount;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.movieapi.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Movies of a group of CatalogSnapshot.groupBy : count and statistics of known durations
+ * (same fields as dto.INameCountDurationTotal for directors)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class GroupStats {
+    private final String key;
+    private final long movieCount;
+    private final long durationCount;
+    private final long durationTotal;
+    private final Integer durationMin;
+    private final Integer durationMax;
+
+    /**
+     * @return average of known durations, NaN if none
+     */
+    public double getDurationAverage() {
+        return durationCount == 0 ? Double.NaN : (double) durationTotal / durationCount;
+    }
+}
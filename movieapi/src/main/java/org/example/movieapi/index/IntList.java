@@ -0,0 +1,38 @@
+package org.example.movieapi.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of primitive int (no boxing)
+ */
+class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(1024);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(capacity, 16)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,386 @@
+package org.example.movieapi.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable snapshot of table play (movie x actor) and of movie directors,
+ * in compressed sparse row arrays of primitive int (no entity, no boxing) :
+ * - movies and actors are numbered by their rank in sorted id arrays (dense indexes),
+ * - actors of movie m : movieActors[movieActorStart[m] .. movieActorStart[m + 1]), sorted,
+ * - movies of actor a : actorMovies[actorMovieStart[a] .. actorMovieStart[a + 1]), sorted,
+ * - movies of director d : directorMovies[directorMovieStart[d] .. directorMovieStart[d + 1]).
+ */
+public final class PlayIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    final int[] movieIds;
+    final int[] movieDirectorIds; // 0 if no director
+    final int[] actorIds;
+    final int[] movieActorStart;
+    final int[] movieActors;
+    final int[] actorMovieStart;
+    final int[] actorMovies;
+    final int[] directorIds;
+    final int[] directorMovieStart;
+    final int[] directorMovies;
+
+    private PlayIndex(int[] movieIds, int[] movieDirectorIds, int[] actorIds,
+                      int[] movieActorStart, int[] movieActors,
+                      int[] actorMovieStart, int[] actorMovies,
+                      int[] directorIds, int[] directorMovieStart, int[] directorMovies) {
+        this.movieIds = movieIds;
+        this.movieDirectorIds = movieDirectorIds;
+        this.actorIds = actorIds;
+        this.movieActorStart = movieActorStart;
+        this.movieActors = movieActors;
+        this.actorMovieStart = actorMovieStart;
+        this.actorMovies = actorMovies;
+        this.directorIds = directorIds;
+        this.directorMovieStart = directorMovieStart;
+        this.directorMovies = directorMovies;
+    }
+
+    /**
+     * @param movieIds ids of movies (any order)
+     * @param movieDirectorIds director id of each movie (0 if none)
+     * @param playMovieIds movie id of each play row
+     * @param playActorIds actor id of each play row
+     */
+    public static PlayIndex build(int[] movieIds, int[] movieDirectorIds, int[] playMovieIds, int[] playActorIds) {
+        // movies sorted by id with their director
+        var movies = new long[movieIds.length];
+        for (int i = 0; i < movieIds.length; i++) {
+            movies[i] = pack(movieIds[i], movieDirectorIds[i]);
+        }
+        Arrays.sort(movies);
+        int movieCount = movies.length;
+        var sortedMovieIds = new int[movieCount];
+        var sortedDirectorIds = new int[movieCount];
+        for (int m = 0; m < movieCount; m++) {
+            sortedMovieIds[m] = high(movies[m]);
+            sortedDirectorIds[m] = low(movies[m]);
+        }
+
+        // play rows sorted by (movie, actor) without duplicates
+        var plays = new long[playMovieIds.length];
+        for (int i = 0; i < plays.length; i++) {
+            plays[i] = pack(playMovieIds[i], playActorIds[i]);
+        }
+        Arrays.sort(plays);
+        var actorIds = distinctSorted(Arrays.stream(playActorIds).toArray());
+
+        var movieActorStart = new int[movieCount + 1];
+        var movieActors = new IntList(plays.length);
+        int p = 0;
+        for (int m = 0; m < movieCount; m++) {
+            movieActorStart[m] = movieActors.size();
+            long previous = -1;
+            while (p < plays.length && high(plays[p]) < sortedMovieIds[m]) {
+                p++; // play of unknown movie
+            }
+            while (p < plays.length && high(plays[p]) == sortedMovieIds[m]) {
+                if (plays[p] != previous) {
+                    movieActors.add(Arrays.binarySearch(actorIds, low(plays[p])));
+                    previous = plays[p];
+                }
+                p++;
+            }
+        }
+        movieActorStart[movieCount] = movieActors.size();
+        return of(sortedMovieIds, sortedDirectorIds, actorIds, movieActorStart, movieActors.toArray());
+    }
+
+    /**
+     * Snapshot of movie rows (sorted by id) and of their sorted actors : transposes built
+     * in linear time (counting sorts, no comparison sort).
+     */
+    private static PlayIndex of(int[] sortedMovieIds, int[] sortedDirectorIds, int[] actorIds,
+                                int[] movieActorStart, int[] movieActorArray) {
+        int movieCount = sortedMovieIds.length;
+
+        // transpose : movies of each actor (counting sort keeps movies sorted)
+        var actorMovieStart = new int[actorIds.length + 1];
+        for (int actor : movieActorArray) {
+            actorMovieStart[actor + 1]++;
+        }
+        for (int a = 0; a < actorIds.length; a++) {
+            actorMovieStart[a + 1] += actorMovieStart[a];
+        }
+        var actorMovies = new int[movieActorArray.length];
+        var fill = Arrays.copyOf(actorMovieStart, actorIds.length);
+        for (int m = 0; m < movieCount; m++) {
+            for (int i = movieActorStart[m]; i < movieActorStart[m + 1]; i++) {
+                actorMovies[fill[movieActorArray[i]]++] = m;
+            }
+        }
+
+        // movies of each director
+        var directorIds = distinctSorted(Arrays.stream(sortedDirectorIds).filter(id -> id != 0).toArray());
+        var directorMovieStart = new int[directorIds.length + 1];
+        for (int director : sortedDirectorIds) {
+            if (director != 0) {
+                directorMovieStart[Arrays.binarySearch(directorIds, director) + 1]++;
+            }
+        }
+        for (int d = 0; d < directorIds.length; d++) {
+            directorMovieStart[d + 1] += directorMovieStart[d];
+        }
+        var directorMovies = new int[directorMovieStart[directorIds.length]];
+        var directorFill = Arrays.copyOf(directorMovieStart, directorIds.length);
+        for (int m = 0; m < movieCount; m++) {
+            if (sortedDirectorIds[m] != 0) {
+                directorMovies[directorFill[Arrays.binarySearch(directorIds, sortedDirectorIds[m])]++] = m;
+            }
+        }
+
+        return new PlayIndex(sortedMovieIds, sortedDirectorIds, actorIds,
+                movieActorStart, movieActorArray, actorMovieStart, actorMovies,
+                directorIds, directorMovieStart, directorMovies);
+    }
+
+    /**
+     * Incremental refresh : new snapshot where the given movies are replaced by their current rows
+     * (changed movie absent from movieIds = deleted). Only changed movies are read
+     * from the database and sorted ; rows of the other movies are copied from this snapshot
+     * with their dense indexes renumbered (linear merge, no sort of the whole play table).
+     * @param changedMovieIds ids of movies inserted, updated or deleted
+     * @param movieIds current rows of changed movies still existing
+     * @param movieDirectorIds director id of each of these movies (0 if none)
+     * @param playMovieIds movie id of each current play row of changed movies
+     * @param playActorIds actor id of each current play row of changed movies
+     */
+    public PlayIndex update(int[] changedMovieIds, int[] movieIds, int[] movieDirectorIds,
+                            int[] playMovieIds, int[] playActorIds) {
+        // changed rows sorted : movies by id, plays by (movie, actor)
+        var rows = new long[movieIds.length];
+        for (int i = 0; i < movieIds.length; i++) {
+            rows[i] = pack(movieIds[i], movieDirectorIds[i]);
+        }
+        Arrays.sort(rows);
+        var plays = new long[playMovieIds.length];
+        for (int i = 0; i < plays.length; i++) {
+            plays[i] = pack(playMovieIds[i], playActorIds[i]);
+        }
+        Arrays.sort(plays);
+        var changed = new BitSet(this.movieIds.length);
+        for (int id : changedMovieIds) {
+            int m = Arrays.binarySearch(this.movieIds, id);
+            if (m >= 0) {
+                changed.set(m);
+            }
+        }
+
+        // actors still playing in an unchanged movie, then merged with actors of the changed plays
+        var degrees = new int[actorIds.length];
+        for (int a = 0; a < actorIds.length; a++) {
+            degrees[a] = actorMovieStart[a + 1] - actorMovieStart[a];
+        }
+        for (int m = changed.nextSetBit(0); m >= 0; m = changed.nextSetBit(m + 1)) {
+            for (int i = movieActorStart[m]; i < movieActorStart[m + 1]; i++) {
+                degrees[movieActors[i]]--;
+            }
+        }
+        var addedActorIds = distinctSorted(Arrays.copyOf(playActorIds, playActorIds.length));
+        var newActorIds = new IntList(actorIds.length + addedActorIds.length);
+        var actorRemap = new int[actorIds.length]; // old dense index -> new one, -1 if removed
+        int added = 0;
+        for (int a = 0; a < actorIds.length; a++) {
+            while (added < addedActorIds.length && addedActorIds[added] < actorIds[a]) {
+                newActorIds.add(addedActorIds[added++]);
+            }
+            if (added < addedActorIds.length && addedActorIds[added] == actorIds[a]) {
+                added++;
+                actorRemap[a] = newActorIds.size();
+                newActorIds.add(actorIds[a]);
+            } else if (degrees[a] > 0) {
+                actorRemap[a] = newActorIds.size();
+                newActorIds.add(actorIds[a]);
+            } else {
+                actorRemap[a] = -1;
+            }
+        }
+        while (added < addedActorIds.length) {
+            newActorIds.add(addedActorIds[added++]);
+        }
+        var actorIdArray = newActorIds.toArray();
+
+        // movies : unchanged ones merged with the changed rows (disjoint ids), actors renumbered
+        int movieCount = this.movieIds.length - changed.cardinality() + rows.length;
+        var sortedMovieIds = new int[movieCount];
+        var sortedDirectorIds = new int[movieCount];
+        var movieActorStart = new int[movieCount + 1];
+        var movieActorArray = new IntList(this.movieActors.length + plays.length);
+        int old = 0;
+        int row = 0;
+        int p = 0;
+        for (int m = 0; m < movieCount; m++) {
+            while (old < this.movieIds.length && changed.get(old)) {
+                old++;
+            }
+            movieActorStart[m] = movieActorArray.size();
+            if (row == rows.length || (old < this.movieIds.length && this.movieIds[old] < high(rows[row]))) {
+                sortedMovieIds[m] = this.movieIds[old];
+                sortedDirectorIds[m] = this.movieDirectorIds[old];
+                for (int i = this.movieActorStart[old]; i < this.movieActorStart[old + 1]; i++) {
+                    movieActorArray.add(actorRemap[this.movieActors[i]]);
+                }
+                old++;
+            } else {
+                sortedMovieIds[m] = high(rows[row]);
+                sortedDirectorIds[m] = low(rows[row]);
+                row++;
+                long previous = -1;
+                while (p < plays.length && high(plays[p]) < sortedMovieIds[m]) {
+                    p++; // play of unknown movie
+                }
+                while (p < plays.length && high(plays[p]) == sortedMovieIds[m]) {
+                    if (plays[p] != previous) {
+                        movieActorArray.add(Arrays.binarySearch(actorIdArray, low(plays[p])));
+                        previous = plays[p];
+                    }
+                    p++;
+                }
+            }
+        }
+        movieActorStart[movieCount] = movieActorArray.size();
+        return of(sortedMovieIds, sortedDirectorIds, actorIdArray, movieActorStart, movieActorArray.toArray());
+    }
+
+    public int getMovieCount() {
+        return movieIds.length;
+    }
+
+    public int getActorCount() {
+        return actorIds.length;
+    }
+
+    public int getPlayCount() {
+        return movieActors.length;
+    }
+
+    /**
+     * Division play ÷ movies : actors who played in every movie of the set
+     * (intersection of sorted actor lists, smallest first).
+     * @return sorted actor ids, empty if the set is empty
+     */
+    public int[] actorsInAllMovies(int... movieIdsToMatch) {
+        var movies = denseIndexes(movieIds, movieIdsToMatch);
+        if (movies == null || movies.length == 0) {
+            return EMPTY;
+        }
+        var bySize = IntStream.of(movies).boxed()
+                .sorted(Comparator.comparingInt(m -> movieActorStart[m + 1] - movieActorStart[m]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        var result = Arrays.copyOfRange(movieActors, movieActorStart[bySize[0]], movieActorStart[bySize[0] + 1]);
+        int size = result.length;
+        for (int i = 1; i < bySize.length && size > 0; i++) {
+            size = intersect(result, size, movieActors, movieActorStart[bySize[i]], movieActorStart[bySize[i] + 1]);
+        }
+        return toActorIds(result, size);
+    }
+
+    /**
+     * Division : actors who played for every director of the set
+     * (bitset of actors per director, AND of all).
+     * @return sorted actor ids, empty if the set is empty
+     */
+    public int[] actorsForAllDirectors(int... directorIdsToMatch) {
+        var directors = denseIndexes(directorIds, directorIdsToMatch);
+        if (directors == null || directors.length == 0) {
+            return EMPTY;
+        }
+        BitSet result = null;
+        for (int d : directors) {
+            var actors = new BitSet(actorIds.length);
+            for (int i = directorMovieStart[d]; i < directorMovieStart[d + 1]; i++) {
+                int m = directorMovies[i];
+                for (int j = movieActorStart[m]; j < movieActorStart[m + 1]; j++) {
+                    actors.set(movieActors[j]);
+                }
+            }
+            if (result == null) {
+                result = actors;
+            } else {
+                result.and(actors);
+            }
+            if (result.isEmpty()) {
+                return EMPTY;
+            }
+        }
+        return result.stream().map(a -> actorIds[a]).toArray();
+    }
+
+    /**
+     * @return dense indexes of ids (duplicates removed), null if one id is unknown
+     */
+    static int[] denseIndexes(int[] sortedIds, int[] ids) {
+        var indexes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            indexes[i] = Arrays.binarySearch(sortedIds, ids[i]);
+            if (indexes[i] < 0) {
+                return null;
+            }
+        }
+        return distinctSorted(indexes);
+    }
+
+    /**
+     * intersection of result[0..size) with other[from..to) into result
+     * @return new size
+     */
+    private static int intersect(int[] result, int size, int[] other, int from, int to) {
+        int i = 0;
+        int j = from;
+        int k = 0;
+        while (i < size && j < to) {
+            if (result[i] < other[j]) {
+                i++;
+            } else if (result[i] > other[j]) {
+                j++;
+            } else {
+                result[k++] = result[i++];
+                j++;
+            }
+        }
+        return k;
+    }
+
+    private int[] toActorIds(int[] actors, int size) {
+        var ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = actorIds[actors[i]];
+        }
+        return ids;
+    }
+
+    static int[] distinctSorted(int[] values) {
+        if (values.length == 0) {
+            return values;
+        }
+        Arrays.sort(values);
+        int k = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[k - 1]) {
+                values[k++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, k);
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xffffffffL);
+    }
+
+    private static int high(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int low(long packed) {
+        return (int) packed;
+    }
+}
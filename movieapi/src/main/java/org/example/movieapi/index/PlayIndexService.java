@@ -0,0 +1,186 @@
+package org.example.movieapi.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.event.EntityChangeListener;
+import org.example.movieapi.event.EntityChanges;
+import org.example.movieapi.model.Movie;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current PlayIndex snapshot : built at first use from tables movie and play,
+ * rebuilt by refresh() or patched by refreshMovies() (snapshot swapped atomically).
+ * Movies whose director or actors are changed by a committed transaction are recorded
+ * by the EntityChangeListener subscription and patched in batches by a refresh thread, off the commit path :
+ * committing threads never wait for the index. getIndex() applies the changes still pending,
+ * so a reader sees the commits done before its call. One index per application : shared by the repositories.
+ */
+@Slf4j
+@Service
+public class PlayIndexService {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private volatile PlayIndex index;
+    // committed movies not patched yet (id -> sequence of its last commit), one refresh scheduled at most
+    private final Map<Integer, Long> pendingMovieIds = new ConcurrentHashMap<>();
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "play-index-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<EntityChanges> subscriber = this::committed;
+
+    public PlayIndexService(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        EntityChangeListener.of(entityManagerFactory).subscribe(subscriber);
+    }
+
+    @PreDestroy
+    void close() {
+        EntityChangeListener.of(entityManagerFactory).unsubscribe(subscriber);
+        refresher.shutdownNow();
+    }
+
+    public PlayIndex getIndex() {
+        var current = index;
+        if (current == null || !pendingMovieIds.isEmpty()) {
+            synchronized (this) {
+                if (index == null) {
+                    index = load();
+                }
+                applyPending();
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    // NB : changes committed before the load are read by it
+    public synchronized PlayIndex refresh() {
+        pendingMovieIds.clear();
+        index = load();
+        return index;
+    }
+
+    /**
+     * Incremental refresh after writes on some movies (or their plays) : reads only these movies.
+     */
+    public synchronized PlayIndex refreshMovies(Collection<Integer> changedMovieIds) {
+        if (index == null) {
+            return getIndex();
+        }
+        if (changedMovieIds.isEmpty()) {
+            return index;
+        }
+        var movieIds = new IntList();
+        var directorIds = new IntList();
+        var playMovieIds = new IntList();
+        var playActorIds = new IntList();
+        var ids = List.copyOf(changedMovieIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            var chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            var in = chunk.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")"));
+            var args = chunk.toArray();
+            jdbcTemplate.query("select id, fk_director_id from movie where id in " + in, resultSet -> {
+                movieIds.add(resultSet.getInt(1));
+                directorIds.add(resultSet.getInt(2));
+            }, args);
+            jdbcTemplate.query("select fk_movie_id, fk_actor_id from play where fk_movie_id in " + in, resultSet -> {
+                playMovieIds.add(resultSet.getInt(1));
+                playActorIds.add(resultSet.getInt(2));
+            }, args);
+        }
+        index = index.update(ids.stream().mapToInt(Integer::intValue).toArray(),
+                movieIds.toArray(), directorIds.toArray(), playMovieIds.toArray(), playActorIds.toArray());
+        return index;
+    }
+
+    // committing thread : records the movies and schedules their refresh
+    private void committed(EntityChanges changes) {
+        var movieIds = changes.getIds(Movie.class, "director", "actors");
+        if (movieIds.isEmpty()) {
+            return;
+        }
+        long sequence = commitSequence.incrementAndGet();
+        movieIds.forEach(id -> pendingMovieIds.put(id, sequence));
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshScheduled.set(false);
+                try {
+                    synchronized (this) {
+                        applyPending();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Unable to refresh play index", e);
+                }
+            });
+        }
+    }
+
+    // all the movies committed so far in one patch (pending ids are committed : re-reading them is harmless),
+    // a movie committed again during the patch stays pending
+    // NB : under the lock of loads (a commit between the reads of movie and play is patched after the load),
+    // an index not loaded yet will read committed rows
+    private void applyPending() {
+        if (pendingMovieIds.isEmpty()) {
+            return;
+        }
+        var applied = Map.copyOf(pendingMovieIds);
+        if (index != null) {
+            refreshMovies(applied.keySet());
+        }
+        applied.forEach(pendingMovieIds::remove);
+    }
+
+    public CoStarGraph getCoStarGraph() {
+        return new CoStarGraph(getIndex());
+    }
+
+    private PlayIndex load() {
+        long start = System.nanoTime();
+        var movieIds = new IntList();
+        var directorIds = new IntList();
+        jdbcTemplate.query("select id, fk_director_id from movie", resultSet -> {
+            movieIds.add(resultSet.getInt(1));
+            directorIds.add(resultSet.getInt(2)); // 0 if null
+        });
+        var playMovieIds = new IntList();
+        var playActorIds = new IntList();
+        jdbcTemplate.query("select fk_movie_id, fk_actor_id from play", resultSet -> {
+            playMovieIds.add(resultSet.getInt(1));
+            playActorIds.add(resultSet.getInt(2));
+        });
+        var playIndex = PlayIndex.build(movieIds.toArray(), directorIds.toArray(),
+                playMovieIds.toArray(), playActorIds.toArray());
+        log.info("Play index built: {} movies, {} actors, {} plays in {} ms",
+                playIndex.getMovieCount(), playIndex.getActorCount(), playIndex.getPlayCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return playIndex;
+    }
+}
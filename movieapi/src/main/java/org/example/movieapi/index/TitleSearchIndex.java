@@ -0,0 +1,473 @@
+package org.example.movieapi.index;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable search index of short texts (movie titles, people names) by id :
+ * - texts normalized (lower case, no accent, single spaces),
+ * - word starts sorted by suffix : prefix of text and prefix of any word by binary search,
+ * - trigram posting lists (sorted doc arrays) : substring search by intersection then check.
+ * Writes go to a small overlay (copy on write) indexed the same way, merged into a new base when it grows.
+ */
+public final class TitleSearchIndex {
+
+    public enum Mode {
+        /**
+         * texts starting with the query, alphabetical order
+         */
+        PREFIX,
+        /**
+         * texts containing the query, shortest first
+         */
+        SUBSTRING,
+        /**
+         * ranked : exact, text prefix, word prefix, substring from 3 chars (then shortest first)
+         */
+        AUTOCOMPLETE
+    }
+
+    private static final int[] EMPTY = new int[0];
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final int MIN_OVERLAY_MERGE = 1024;
+
+    // base : docs numbered by rank of id
+    private final int[] ids;
+    private final String[] texts;
+    private final int[] sortedDocs;
+    private final int[] wordDocs;
+    private final int[] wordPositions;
+    private final Map<Long, int[]> trigramDocs;
+
+    // overlay : id -> text (null if deleted), base docs hidden by the overlay, index of its texts (null if none)
+    private final Map<Integer, String> overlay;
+    private final BitSet hidden;
+    private final TitleSearchIndex delta;
+
+    private TitleSearchIndex(int[] ids, String[] texts, int[] sortedDocs, int[] wordDocs, int[] wordPositions,
+                             Map<Long, int[]> trigramDocs, Map<Integer, String> overlay, BitSet hidden,
+                             TitleSearchIndex delta) {
+        this.ids = ids;
+        this.texts = texts;
+        this.sortedDocs = sortedDocs;
+        this.wordDocs = wordDocs;
+        this.wordPositions = wordPositions;
+        this.trigramDocs = trigramDocs;
+        this.overlay = overlay;
+        this.hidden = hidden;
+        this.delta = delta;
+    }
+
+    /**
+     * @param ids ids of texts (distinct, any order)
+     * @param texts raw texts (null texts are not indexed)
+     */
+    public static TitleSearchIndex build(int[] ids, String[] texts) {
+        var docIds = new IntList(ids.length);
+        var byId = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, (i, j) -> Integer.compare(ids[i], ids[j]));
+        var normalizedTexts = new String[ids.length];
+        int n = 0;
+        for (int i : byId) {
+            if (texts[i] != null) {
+                docIds.add(ids[i]);
+                normalizedTexts[n++] = normalize(texts[i]);
+            }
+        }
+        var docTexts = Arrays.copyOf(normalizedTexts, n);
+
+        // word starts sorted by suffix (position 0 = whole text)
+        var starts = new IntList(n * 4);
+        for (int d = 0; d < n; d++) {
+            var text = docTexts[d];
+            for (int p = 0; p < text.length(); p++) {
+                if (p == 0 || text.charAt(p - 1) == ' ') {
+                    starts.add(d);
+                    starts.add(p);
+                }
+            }
+        }
+        var entries = new Integer[starts.size() / 2];
+        for (int e = 0; e < entries.length; e++) {
+            entries[e] = e;
+        }
+        Arrays.sort(entries, (e1, e2) -> compareSuffixes(
+                docTexts[starts.get(2 * e1)], starts.get(2 * e1 + 1),
+                docTexts[starts.get(2 * e2)], starts.get(2 * e2 + 1)));
+        var wordDocs = new int[entries.length];
+        var wordPositions = new int[entries.length];
+        var sorted = new IntList(n);
+        for (int e = 0; e < entries.length; e++) {
+            wordDocs[e] = starts.get(2 * entries[e]);
+            wordPositions[e] = starts.get(2 * entries[e] + 1);
+            if (wordPositions[e] == 0) {
+                sorted.add(wordDocs[e]);
+            }
+        }
+        // empty texts have no word start
+        var sortedDocs = sorted.toArray();
+        if (sortedDocs.length < n) {
+            var all = new BitSet(n);
+            all.set(0, n);
+            for (int d : sortedDocs) {
+                all.clear(d);
+            }
+            var withEmpty = new IntList(n);
+            all.stream().forEach(withEmpty::add);
+            for (int d : sortedDocs) {
+                withEmpty.add(d);
+            }
+            sortedDocs = withEmpty.toArray();
+        }
+
+        // trigram postings, docs in increasing order
+        var postings = new HashMap<Long, IntList>();
+        for (int d = 0; d < n; d++) {
+            long previous = -1;
+            for (long trigram : trigrams(docTexts[d])) {
+                if (trigram != previous) {
+                    postings.computeIfAbsent(trigram, t -> new IntList(16)).add(d);
+                    previous = trigram;
+                }
+            }
+        }
+        var trigramDocs = new HashMap<Long, int[]>(postings.size() * 2);
+        postings.forEach((trigram, docs) -> trigramDocs.put(trigram, docs.toArray()));
+
+        return new TitleSearchIndex(docIds.toArray(), docTexts, sortedDocs, wordDocs, wordPositions,
+                trigramDocs, Map.of(), new BitSet(), null);
+    }
+
+    /**
+     * New snapshot with texts inserted/updated (value = text) or deleted (value = null)
+     */
+    public TitleSearchIndex withChanges(Map<Integer, String> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        var newOverlay = new LinkedHashMap<>(overlay);
+        var newHidden = (BitSet) hidden.clone();
+        changes.forEach((id, text) -> {
+            newOverlay.put(id, text == null ? null : normalize(text));
+            int d = Arrays.binarySearch(ids, id);
+            if (d >= 0) {
+                newHidden.set(d);
+            }
+        });
+        if (newOverlay.size() > Math.max(MIN_OVERLAY_MERGE, ids.length / 16)) {
+            return merge(newOverlay, newHidden);
+        }
+        // overlay texts already normalized (normalize is idempotent), deleted ones not indexed
+        var delta = build(newOverlay.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                newOverlay.values().toArray(String[]::new));
+        return new TitleSearchIndex(ids, texts, sortedDocs, wordDocs, wordPositions, trigramDocs, newOverlay, newHidden,
+                delta);
+    }
+
+    private TitleSearchIndex merge(Map<Integer, String> newOverlay, BitSet newHidden) {
+        var allIds = new IntList(ids.length + newOverlay.size());
+        var allTexts = new String[ids.length + newOverlay.size()];
+        int k = 0;
+        for (int d = 0; d < ids.length; d++) {
+            if (!newHidden.get(d)) {
+                allIds.add(ids[d]);
+                allTexts[k++] = texts[d];
+            }
+        }
+        for (var entry : newOverlay.entrySet()) {
+            if (entry.getValue() != null) {
+                allIds.add(entry.getKey());
+                allTexts[k++] = entry.getValue();
+            }
+        }
+        return build(allIds.toArray(), Arrays.copyOf(allTexts, k));
+    }
+
+    public int size() {
+        return ids.length - hidden.cardinality() + (delta == null ? 0 : delta.ids.length);
+    }
+
+    /**
+     * @return ids of matching texts, at most limit, in the order of the mode
+     */
+    public int[] search(String query, Mode mode, int limit) {
+        var q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return EMPTY;
+        }
+        switch (mode) {
+            case PREFIX:
+                return prefix(q, limit);
+            case SUBSTRING:
+                return ranked(q, limit, false);
+            default:
+                return ranked(q, limit, true);
+        }
+    }
+
+    private int[] prefix(String q, int limit) {
+        // matches of the base and of the overlay sorted by text then id : merged
+        var docs = prefixDocs(q, limit);
+        var deltaDocs = delta == null ? EMPTY : delta.prefixDocs(q, limit);
+        var result = new int[Math.min(limit, docs.length + deltaDocs.length)];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < result.length; k++) {
+            if (j == deltaDocs.length || (i < docs.length && compare(texts[docs[i]], ids[docs[i]],
+                    delta.texts[deltaDocs[j]], delta.ids[deltaDocs[j]]) < 0)) {
+                result[k] = ids[docs[i++]];
+            } else {
+                result[k] = delta.ids[deltaDocs[j++]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * first docs (at most limit) starting with q, not hidden : contiguous in sortedDocs
+     */
+    private int[] prefixDocs(String q, int limit) {
+        var docs = new IntList(Math.min(limit, 64));
+        for (int i = lowerBound(sortedDocs, null, q); i < sortedDocs.length && docs.size() < limit
+                && texts[sortedDocs[i]].startsWith(q); i++) {
+            if (!hidden.get(sortedDocs[i])) {
+                docs.add(sortedDocs[i]);
+            }
+        }
+        return docs.toArray();
+    }
+
+    private static int compare(String text1, int id1, String text2, int id2) {
+        int byText = text1.compareTo(text2);
+        return byText != 0 ? byText : Integer.compare(id1, id2);
+    }
+
+    /**
+     * candidates ranked by key (score, length, id) packed in a long, only the limit best kept
+     */
+    private int[] ranked(String q, int limit, boolean autocomplete) {
+        var top = new TopKeys(limit);
+        collect(q, autocomplete, top);
+        if (delta != null) {
+            delta.collect(q, autocomplete, top);
+        }
+        return top.ids();
+    }
+
+    /**
+     * offers the keys of the docs matching q, not hidden
+     */
+    private void collect(String q, boolean autocomplete, TopKeys top) {
+        var seen = new BitSet(ids.length);
+        if (autocomplete) {
+            // word prefixes : contiguous in word entries, best score of a doc : text prefix if any
+            for (int e = lowerBound(wordDocs, wordPositions, q); e < wordDocs.length
+                    && texts[wordDocs[e]].startsWith(q, wordPositions[e]); e++) {
+                int d = wordDocs[e];
+                if (!seen.get(d) && !hidden.get(d)) {
+                    seen.set(d);
+                    top.offer(key(texts[d].startsWith(q) ? score(texts[d], q, 0) : 2, texts[d].length(), ids[d]));
+                }
+            }
+        }
+        // other matches : substrings, key known before the check (not checked if not in the top)
+        if (q.length() >= 3) {
+            for (int d : trigramCandidates(q)) {
+                if (!seen.get(d) && !hidden.get(d)) {
+                    long key = key(autocomplete ? 3 : 0, texts[d].length(), ids[d]);
+                    if (top.accepts(key) && texts[d].contains(q)) {
+                        top.offer(key);
+                    }
+                }
+            }
+        } else if (!autocomplete) {
+            // too short for trigrams : scan
+            for (int d = 0; d < texts.length; d++) {
+                if (!hidden.get(d)) {
+                    long key = key(0, texts[d].length(), ids[d]);
+                    if (top.accepts(key) && texts[d].contains(q)) {
+                        top.offer(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * docs containing all trigrams of q (intersection, smallest list first)
+     */
+    private int[] trigramCandidates(String q) {
+        var lists = new int[q.length() - 2][];
+        int i = 0;
+        for (long trigram : trigrams(q)) {
+            var docs = trigramDocs.get(trigram);
+            if (docs == null) {
+                return EMPTY;
+            }
+            lists[i++] = docs;
+        }
+        Arrays.sort(lists, (l1, l2) -> Integer.compare(l1.length, l2.length));
+        var result = lists[0].clone();
+        int size = result.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            size = intersect(result, size, lists[l]);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 0 exact, 1 text prefix, 2 word prefix, 3 substring, 4 no match
+     */
+    private static int score(String text, String q, int wordPosition) {
+        if (wordPosition == 0 || (wordPosition < 0 && text.startsWith(q))) {
+            return text.length() == q.length() ? 0 : 1;
+        }
+        if (wordPosition > 0) {
+            return 2;
+        }
+        int p = text.indexOf(q);
+        while (p > 0 && text.charAt(p - 1) != ' ') {
+            p = text.indexOf(q, p + 1);
+        }
+        if (p > 0) {
+            return 2;
+        }
+        return text.contains(q) ? 3 : 4;
+    }
+
+    private static long key(int score, int length, int id) {
+        return ((long) score << 56) | ((long) Math.min(length, 0xffffff) << 32) | (id & 0xffffffffL);
+    }
+
+    /**
+     * first entry whose suffix is >= q (positions null : whole texts)
+     */
+    private int lowerBound(int[] docs, int[] positions, String q) {
+        int low = 0;
+        int high = docs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int position = positions == null ? 0 : positions[mid];
+            if (compareSuffixes(texts[docs[mid]], position, q, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareSuffixes(String s1, int from1, String s2, int from2) {
+        int n1 = s1.length() - from1;
+        int n2 = s2.length() - from2;
+        int n = Math.min(n1, n2);
+        for (int i = 0; i < n; i++) {
+            int c = Character.compare(s1.charAt(from1 + i), s2.charAt(from2 + i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(n1, n2);
+    }
+
+    private static int intersect(int[] result, int size, int[] other) {
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < other.length) {
+            if (result[i] < other[j]) {
+                i++;
+            } else if (result[i] > other[j]) {
+                j++;
+            } else {
+                result[k++] = result[i++];
+                j++;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * sorted trigrams (3 chars packed in a long)
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        var trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        return trigrams;
+    }
+
+    public static String normalize(String text) {
+        var withoutAccents = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * limit smallest keys offered (max-heap : largest key kept at the root), one key per id
+     */
+    private static class TopKeys {
+        private final int limit;
+        private long[] heap = new long[16];
+        private int size;
+
+        TopKeys(int limit) {
+            this.limit = limit;
+        }
+
+        boolean accepts(long key) {
+            return size < limit || key < heap[0];
+        }
+
+        void offer(long key) {
+            if (size < limit) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(limit, 2L * size));
+                }
+                int i = size++;
+                while (i > 0 && heap[(i - 1) / 2] < key) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = key;
+            } else if (key < heap[0]) {
+                int i = 0;
+                while (2 * i + 1 < size) {
+                    int child = 2 * i + 1;
+                    if (child + 1 < size && heap[child + 1] > heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] <= key) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = key;
+            }
+        }
+
+        /**
+         * @return ids by increasing key
+         */
+        int[] ids() {
+            var keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            return Arrays.stream(keys).mapToInt(key -> (int) key).toArray();
+        }
+    }
+}
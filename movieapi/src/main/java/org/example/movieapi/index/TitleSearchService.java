@@ -0,0 +1,224 @@
+package org.example.movieapi.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.event.EntityChangeListener;
+import org.example.movieapi.event.EntityChanges;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Title search on movie.title and people.name (prefix, substring, autocomplete)
+ * instead of LIKE '%x%' full scans. Indexes are built at first use and kept in sync
+ * with Movie/People writes : titles and names changed by a committed transaction are recorded
+ * by the EntityChangeListener subscription and read again in batches by a refresh thread, off the commit path.
+ * getMovieTitles()/getPeopleNames() apply the changes still pending, so a reader sees the commits done before its call.
+ */
+@Slf4j
+@Service
+public class TitleSearchService {
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile TitleSearchIndex movieTitles;
+    private volatile TitleSearchIndex peopleNames;
+    // committed rows not applied yet (id -> sequence of its last commit), one refresh scheduled at most
+    private final Map<Integer, Long> pendingMovieIds = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> pendingPeopleIds = new ConcurrentHashMap<>();
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "title-search-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Consumer<EntityChanges> subscriber = this::committed;
+
+    public TitleSearchService(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        EntityChangeListener.of(entityManagerFactory).subscribe(subscriber);
+    }
+
+    @PreDestroy
+    void close() {
+        EntityChangeListener.of(entityManagerFactory).unsubscribe(subscriber);
+        refresher.shutdownNow();
+    }
+
+    public int[] searchMovieIds(String query, TitleSearchIndex.Mode mode, int limit) {
+        return getMovieTitles().search(query, mode, limit);
+    }
+
+    public int[] searchPeopleIds(String query, TitleSearchIndex.Mode mode, int limit) {
+        return getPeopleNames().search(query, mode, limit);
+    }
+
+    /**
+     * @return movies in the order of the mode
+     */
+    public List<Movie> searchMovies(String query, TitleSearchIndex.Mode mode, int limit) {
+        return findInOrder(Movie.class, searchMovieIds(query, mode, limit));
+    }
+
+    /**
+     * @return people in the order of the mode
+     */
+    public List<People> searchPeople(String query, TitleSearchIndex.Mode mode, int limit) {
+        return findInOrder(People.class, searchPeopleIds(query, mode, limit));
+    }
+
+    public TitleSearchIndex getMovieTitles() {
+        var current = movieTitles;
+        if (current == null || !pendingMovieIds.isEmpty()) {
+            synchronized (this) {
+                if (movieTitles == null) {
+                    movieTitles = load("select id, title from movie");
+                }
+                applyPending();
+                current = movieTitles;
+            }
+        }
+        return current;
+    }
+
+    public TitleSearchIndex getPeopleNames() {
+        var current = peopleNames;
+        if (current == null || !pendingPeopleIds.isEmpty()) {
+            synchronized (this) {
+                if (peopleNames == null) {
+                    peopleNames = load("select id, name from people");
+                }
+                applyPending();
+                current = peopleNames;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * full rebuild (e.g. after a bulk load, not seen by listeners)
+     */
+    public synchronized void refresh() {
+        pendingMovieIds.clear();
+        pendingPeopleIds.clear();
+        movieTitles = load("select id, title from movie");
+        peopleNames = load("select id, name from people");
+    }
+
+    // committing thread : records the rows whose title or name is written and schedules their refresh
+    private void committed(EntityChanges changes) {
+        var movieIds = changes.getIds(Movie.class, "title");
+        var peopleIds = changes.getIds(People.class, "name");
+        if (movieIds.isEmpty() && peopleIds.isEmpty()) {
+            return;
+        }
+        long sequence = commitSequence.incrementAndGet();
+        movieIds.forEach(id -> pendingMovieIds.put(id, sequence));
+        peopleIds.forEach(id -> pendingPeopleIds.put(id, sequence));
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshScheduled.set(false);
+                try {
+                    synchronized (this) {
+                        applyPending();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Unable to refresh title search indexes", e);
+                }
+            });
+        }
+    }
+
+    // committed texts of all the rows pending (null if deleted), a row committed again meanwhile stays pending
+    // NB : under the lock of loads, an index not loaded yet will read committed rows
+    private void applyPending() {
+        if (!pendingMovieIds.isEmpty()) {
+            var applied = Map.copyOf(pendingMovieIds);
+            if (movieTitles != null) {
+                movieTitles = movieTitles.withChanges(texts("select id, title from movie", applied.keySet()));
+            }
+            applied.forEach(pendingMovieIds::remove);
+        }
+        if (!pendingPeopleIds.isEmpty()) {
+            var applied = Map.copyOf(pendingPeopleIds);
+            if (peopleNames != null) {
+                peopleNames = peopleNames.withChanges(texts("select id, name from people", applied.keySet()));
+            }
+            applied.forEach(pendingPeopleIds::remove);
+        }
+    }
+
+    private Map<Integer, String> texts(String sql, Collection<Integer> ids) {
+        var texts = new LinkedHashMap<Integer, String>();
+        ids.forEach(id -> texts.put(id, null));
+        var list = List.copyOf(ids);
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            var chunk = list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size()));
+            jdbcTemplate.query(sql + " where id in " + chunk.stream().map(id -> "?")
+                            .collect(Collectors.joining(", ", "(", ")")),
+                    resultSet -> {
+                        texts.put(resultSet.getInt(1), resultSet.getString(2));
+                    }, chunk.toArray());
+        }
+        return texts;
+    }
+
+    private TitleSearchIndex load(String sql) {
+        long start = System.nanoTime();
+        var ids = new IntList();
+        var texts = new ArrayList<String>();
+        jdbcTemplate.query(sql, resultSet -> {
+            ids.add(resultSet.getInt(1));
+            texts.add(resultSet.getString(2));
+        });
+        var index = TitleSearchIndex.build(ids.toArray(), texts.toArray(String[]::new));
+        log.info("Title search index built ({}): {} texts in {} ms",
+                sql, index.size(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    private <T> List<T> findInOrder(Class<T> entityClass, int[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        var entityName = entityManagerFactory.getMetamodel().entity(entityClass).getName();
+        var util = entityManagerFactory.getPersistenceUnitUtil();
+        var byId = entityManager.createQuery("select e from " + entityName + " e where e.id in :ids", entityClass)
+                .setParameter("ids", Arrays.stream(ids).boxed().collect(Collectors.toList()))
+                .getResultList().stream()
+                .collect(Collectors.toMap(util::getIdentifier, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(byId::get)
+                .filter(Objects::nonNull) // deleted since the snapshot
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.movieapi.metrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Bean PersistenceMetrics : the metrics of the session factory (see MetricsStatisticsFactory)
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public PersistenceMetrics persistenceMetrics(EntityManagerFactory entityManagerFactory) {
+        return PersistenceMetrics.of(entityManagerFactory);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.movieapi.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.ToOne;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Registers NPlusOneDetector in the session factory (see event.MovieapiIntegratorProvider)
+ */
+public class MetricsIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        var settings = serviceRegistry.getService(ConfigurationService.class);
+        var mode = NPlusOneDetector.Mode.valueOf(settings.getSetting(NPlusOneDetector.MODE,
+                StandardConverters.STRING, "log").toUpperCase(Locale.ROOT));
+        if (mode == NPlusOneDetector.Mode.OFF) {
+            return;
+        }
+        int threshold = Integer.parseInt(
+                settings.getSetting(NPlusOneDetector.THRESHOLD, StandardConverters.STRING, "10"));
+        // lazy to-one associations : target entity => Owner.property
+        var toOneRoles = new HashMap<String, String>();
+        for (var entity : metadata.getEntityBindings()) {
+            for (var properties = entity.getPropertyIterator(); properties.hasNext(); ) {
+                var property = (Property) properties.next();
+                // NB : Property.isLazy() is false for proxied to-one associations
+                if (property.getValue() instanceof ToOne && ((ToOne) property.getValue()).isLazy()) {
+                    toOneRoles.merge(((ToOne) property.getValue()).getReferencedEntityName(),
+                            entity.getJpaEntityName() + "." + property.getName(), (a, b) -> a + "|" + b);
+                }
+            }
+        }
+        var detector = new NPlusOneDetector(mode, threshold, toOneRoles);
+        var registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, detector);
+        registry.prependListeners(EventType.INIT_COLLECTION, detector);
+        registry.prependListeners(EventType.PRE_LOAD, detector);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
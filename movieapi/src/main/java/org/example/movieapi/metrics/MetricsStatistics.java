@@ -0,0 +1,73 @@
+package org.example.movieapi.metrics;
+
+import lombok.experimental.Delegate;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate statistics (hibernate.generate_statistics=true) also feeding the PersistenceMetrics
+ * of the session factory : decorates the standard statistics, only the hooks below are extended.
+ */
+public class MetricsStatistics implements StatisticsImplementor {
+
+    @Delegate(types = StatisticsImplementor.class, excludes = Hooks.class)
+    private final StatisticsImplementor statistics;
+    private final PersistenceMetrics metrics;
+
+    public MetricsStatistics(StatisticsImplementor statistics, PersistenceMetrics metrics) {
+        this.statistics = statistics;
+        this.metrics = metrics;
+    }
+
+    public PersistenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void prepareStatement() {
+        statistics.prepareStatement();
+        metrics.statementPrepared();
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        statistics.loadEntity(entityName);
+        metrics.entityLoaded();
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        statistics.fetchEntity(entityName);
+        metrics.entityLoaded();
+        metrics.lazyLoad(shortName(entityName));
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        statistics.fetchCollection(role);
+        metrics.lazyLoad(shortName(role));
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        statistics.queryExecuted(hql, rows, time);
+        metrics.queryExecuted(hql, rows, time);
+    }
+
+    // org.example.movieapi.model.Movie.actors => Movie.actors
+    static String shortName(String name) {
+        int dot = name.lastIndexOf('.', name.lastIndexOf('.') - 1);
+        return Character.isUpperCase(name.charAt(dot + 1)) ? name.substring(dot + 1) : name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private interface Hooks {
+        void prepareStatement();
+
+        void loadEntity(String entityName);
+
+        void fetchEntity(String entityName);
+
+        void fetchCollection(String role);
+
+        void queryExecuted(String hql, int rows, long time);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.movieapi.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Declared in properties (statistics must be enabled : hibernate.generate_statistics=true) :
+ * spring.jpa.properties.hibernate.stats.factory=org.example.movieapi.metrics.MetricsStatisticsFactory
+ * One PersistenceMetrics per session factory (bean of MetricsConfiguration)
+ */
+public class MetricsStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new MetricsStatistics(new StatisticsImpl(sessionFactory), new PersistenceMetrics());
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.movieapi.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.HibernateException;
+import org.hibernate.bytecode.enhance.spi.interceptor.EnhancementAsProxyLazinessInterceptor;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.event.spi.PreLoadEvent;
+import org.hibernate.event.spi.PreLoadEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects N+1 selects : counts lazy loads hitting the database per association and per session
+ * (e.g. Movie.director, Movie.actors), a load of a batch (@BatchSize) counting once.
+ * Lazy to-one targets are proxies, or enhanced entities used as proxies with the bytecode
+ * enhancement of the build (initialized without load event : seen at pre load, once per statement).
+ * Over the threshold, logs a warning (mode log) or throws NPlusOneException (mode fail, for tests).
+ * Properties :
+ * spring.jpa.properties.movieapi.n-plus-one.mode=log|fail|off
+ * spring.jpa.properties.movieapi.n-plus-one.threshold=10
+ */
+@Slf4j
+public class NPlusOneDetector implements LoadEventListener, InitializeCollectionEventListener, PreLoadEventListener {
+
+    public static final String MODE = "movieapi.n-plus-one.mode";
+    public static final String THRESHOLD = "movieapi.n-plus-one.threshold";
+
+    public enum Mode {LOG, FAIL, OFF}
+
+    private final Mode mode;
+    private final int threshold;
+    // entity name => role of the lazy to-one association(s) targeting it (e.g. People => Movie.director)
+    private final Map<String, String> toOneRoles;
+    // lazy loads of the open sessions, removed at session end (no lock shared by the sessions)
+    private final Map<EventSource, Loads> loadsBySession = new ConcurrentHashMap<>();
+
+    public NPlusOneDetector(Mode mode, int threshold, Map<String, String> toOneRoles) {
+        this.mode = mode;
+        this.threshold = threshold;
+        this.toOneRoles = toOneRoles;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // proxy initialization (registered before the default listener)
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType != LoadEventListener.IMMEDIATE_LOAD) {
+            return;
+        }
+        var role = toOneRoles.get(event.getEntityClassName());
+        if (role == null) {
+            return;
+        }
+        var session = event.getSession();
+        var persister = session.getFactory().getMetamodel().entityPersister(event.getEntityClassName());
+        if (session.getPersistenceContext().getEntity(session.generateEntityKey(event.getEntityId(), persister)) != null) {
+            return; // already loaded with a batch
+        }
+        lazyLoaded(session, role);
+    }
+
+    // enhanced entity used as proxy (bytecode enhancement) : initialized by its persister
+    @Override
+    public void onPreLoad(PreLoadEvent event) {
+        if (!(event.getEntity() instanceof PersistentAttributeInterceptable)) {
+            return;
+        }
+        var interceptor = ((PersistentAttributeInterceptable) event.getEntity()).$$_hibernate_getInterceptor();
+        if (!(interceptor instanceof EnhancementAsProxyLazinessInterceptor)
+                || ((EnhancementAsProxyLazinessInterceptor) interceptor).isInitialized()) {
+            return;
+        }
+        var entityName = event.getPersister().getEntityName();
+        var role = toOneRoles.get(entityName);
+        if (role == null) {
+            return;
+        }
+        var session = event.getSession();
+        var statistics = session.getFactory().getStatistics();
+        if (!(statistics instanceof MetricsStatistics)) {
+            lazyLoaded(session, role); // no statement count : each entity counts
+            return;
+        }
+        var metrics = ((MetricsStatistics) statistics).getMetrics();
+        // without statistics, no statement count : each entity counts
+        if (statistics.isStatisticsEnabled()) {
+            long statement = metrics.getStatementCount();
+            var previous = loads(session).lastStatements.put(role, statement);
+            if (previous != null && previous == statement) {
+                return; // same batch
+            }
+        }
+        metrics.lazyLoad(MetricsStatistics.shortName(entityName));
+        lazyLoaded(session, role);
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        if (!event.getCollection().wasInitialized()) {
+            lazyLoaded(event.getSession(), MetricsStatistics.shortName(event.getCollection().getRole()));
+        }
+    }
+
+    private Loads loads(EventSource session) {
+        return loadsBySession.computeIfAbsent(session, s -> {
+            s.getEventListenerManager().addListener(new BaseSessionEventListener() {
+                @Override
+                public void end() {
+                    loadsBySession.remove(s);
+                }
+            });
+            return new Loads();
+        });
+    }
+
+    private void lazyLoaded(EventSource session, String role) {
+        int count = loads(session).counts.merge(role, 1, Integer::sum);
+        if (count == threshold + 1) {
+            var message = "N+1 selects : more than " + threshold + " lazy loads of " + role
+                    + " in a session, use a fetch plan (join fetch, entity graph, batch size)";
+            if (mode == Mode.FAIL) {
+                throw new NPlusOneException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    /**
+     * lazy loads of a session (used by the thread of the session only)
+     */
+    private static class Loads {
+        // per association
+        final Map<String, Integer> counts = new HashMap<>();
+        // last statement of an enhanced proxy initialization per association (batch = 1 load)
+        final Map<String, Long> lastStatements = new HashMap<>();
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.movieapi.metrics;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Lazy load budget of an association exceeded in a session (mode fail of NPlusOneDetector)
+ */
+public class NPlusOneException extends HibernateException {
+
+    public NPlusOneException(String message) {
+        super(message);
+    }
+}
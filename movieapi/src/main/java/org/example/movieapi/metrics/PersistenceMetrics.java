@@ -0,0 +1,132 @@
+package org.example.movieapi.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of query metrics of a session factory, fed by MetricsStatistics (Hibernate statistics hooks)
+ * and by the repository interceptor of RepositoryMetricsPostProcessor (bean of MetricsConfiguration).
+ * Statements and entities are counted per thread : in the current repository call scope,
+ * and since the previous query for JPQL/Criteria queries (approximation).
+ */
+public final class PersistenceMetrics {
+
+    private final Map<String, QueryMetrics> metrics = new ConcurrentHashMap<>();
+    private final ThreadLocal<ArrayDeque<Scope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<long[]> sinceLastQuery = ThreadLocal.withInitial(() -> new long[2]);
+    private final ThreadLocal<long[]> statementsOfThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @return the metrics fed by the statistics of the entity manager factory,
+     * or metrics of repository calls only (statistics disabled or without MetricsStatisticsFactory)
+     */
+    public static PersistenceMetrics of(EntityManagerFactory entityManagerFactory) {
+        var statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        return statistics instanceof MetricsStatistics ? ((MetricsStatistics) statistics).getMetrics()
+                : new PersistenceMetrics();
+    }
+
+    public QueryMetrics get(String key) {
+        return metrics.computeIfAbsent(key, QueryMetrics::new);
+    }
+
+    public List<QueryMetricsSnapshot> snapshot() {
+        return metrics.values().stream()
+                .map(QueryMetrics::snapshot)
+                .sorted(Comparator.comparingDouble(QueryMetricsSnapshot::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    /**
+     * Opens a measure on this thread (close it in finally)
+     */
+    public Scope open(String key) {
+        var scope = new Scope(get(key));
+        scopes.get().push(scope);
+        return scope;
+    }
+
+    void statementPrepared() {
+        var scope = scopes.get().peek();
+        if (scope != null) {
+            scope.statements++;
+        }
+        sinceLastQuery.get()[0]++;
+        statementsOfThread.get()[0]++;
+    }
+
+    /**
+     * @return statements prepared by this thread so far (with statistics enabled)
+     */
+    long getStatementCount() {
+        return statementsOfThread.get()[0];
+    }
+
+    void entityLoaded() {
+        var scope = scopes.get().peek();
+        if (scope != null) {
+            scope.entitiesLoaded++;
+        }
+        sinceLastQuery.get()[1]++;
+    }
+
+    void queryExecuted(String query, int rows, long millis) {
+        var counters = sinceLastQuery.get();
+        var queryMetrics = get("query: " + query);
+        queryMetrics.record(millis * 1_000_000, false, counters[0], counters[1]);
+        queryMetrics.addRows(rows);
+        counters[0] = 0;
+        counters[1] = 0;
+    }
+
+    void lazyLoad(String role) {
+        get("lazy: " + role).record(0, false, 0, 0);
+    }
+
+    public class Scope implements AutoCloseable {
+        private final QueryMetrics queryMetrics;
+        private final long start = System.nanoTime();
+        private long statements;
+        private long entitiesLoaded;
+        private boolean error;
+
+        private Scope(QueryMetrics queryMetrics) {
+            this.queryMetrics = queryMetrics;
+        }
+
+        public QueryMetrics getQueryMetrics() {
+            return queryMetrics;
+        }
+
+        public void failed() {
+            error = true;
+        }
+
+        public void addRows(long rows) {
+            queryMetrics.addRows(rows);
+        }
+
+        @Override
+        public void close() {
+            var stack = scopes.get();
+            stack.remove(this);
+            queryMetrics.record(System.nanoTime() - start, error, statements, entitiesLoaded);
+            var parent = stack.peek();
+            if (parent != null) {
+                parent.statements += statements;
+                parent.entitiesLoaded += entitiesLoaded;
+            }
+        }
+    }
+}
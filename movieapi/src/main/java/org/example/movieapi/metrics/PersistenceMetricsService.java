@@ -0,0 +1,41 @@
+package org.example.movieapi.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Metrics per repository method, per JPQL/Criteria query and per lazy loaded association,
+ * sorted by total time (most expensive first)
+ */
+@Slf4j
+@Service
+public class PersistenceMetricsService {
+
+    private final PersistenceMetrics metrics;
+
+    public PersistenceMetricsService(PersistenceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public List<QueryMetricsSnapshot> getMetrics() {
+        return metrics.snapshot();
+    }
+
+    public QueryMetricsSnapshot getMetrics(String key) {
+        return metrics.get(key).snapshot();
+    }
+
+    public void logMetrics() {
+        getMetrics().forEach(m -> log.info(
+                "{} : calls={} errors={} mean={} ms p50={} ms p95={} ms p99={} ms max={} ms rows={} entities={} statements={}",
+                m.getKey(), m.getCalls(), m.getErrors(), String.format("%.3f", m.getMeanMillis()),
+                m.getP50Millis(), m.getP95Millis(), m.getP99Millis(), String.format("%.3f", m.getMaxMillis()),
+                m.getRows(), m.getEntitiesLoaded(), m.getStatements()));
+    }
+
+    public void reset() {
+        metrics.reset();
+    }
+}
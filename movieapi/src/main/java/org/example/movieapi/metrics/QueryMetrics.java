@@ -0,0 +1,82 @@
+package org.example.movieapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulated metrics of a repository method or a JPQL/Criteria query (thread safe) :
+ * latency histogram with power of 2 buckets of microseconds (bucket i : [2^(i-1), 2^i) us).
+ */
+public class QueryMetrics {
+
+    static final int BUCKETS = 40;
+
+    private final String key;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder entitiesLoaded = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+
+    QueryMetrics(String key) {
+        this.key = key;
+    }
+
+    void record(long nanos, boolean error, long statementCount, long entityCount) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        latencyBuckets.incrementAndGet(bucket(nanos));
+        statements.add(statementCount);
+        entitiesLoaded.add(entityCount);
+    }
+
+    void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    public QueryMetricsSnapshot snapshot() {
+        long callCount = calls.sum();
+        var buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = latencyBuckets.get(i);
+        }
+        return new QueryMetricsSnapshot(key, callCount, errors.sum(),
+                callCount == 0 ? 0 : totalNanos.sum() / callCount / 1e6,
+                percentile(buckets, callCount, 0.50),
+                percentile(buckets, callCount, 0.95),
+                percentile(buckets, callCount, 0.99),
+                maxNanos.get() / 1e6,
+                rows.sum(), entitiesLoaded.sum(), statements.sum());
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    /**
+     * upper bound of the bucket holding the percentile, in ms
+     */
+    static double percentile(long[] buckets, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return (1L << i) / 1000.0;
+            }
+        }
+        return (1L << (buckets.length - 1)) / 1000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.movieapi.metrics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Metrics of a repository method ("IMovieRepository.findByX"), a query ("query: select ...")
+ * or a lazy load ("lazy: Movie.actors"). Percentiles are bucket upper bounds (x2 precision).
+ */
+@Getter
+@ToString
+public class QueryMetricsSnapshot {
+    private final String key;
+    private final long calls;
+    private final long errors;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    private final long rows;
+    private final long entitiesLoaded;
+    private final long statements;
+
+    QueryMetricsSnapshot(String key, long calls, long errors, double meanMillis,
+                         double p50Millis, double p95Millis, double p99Millis, double maxMillis,
+                         long rows, long entitiesLoaded, long statements) {
+        this.key = key;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+        this.rows = rows;
+        this.entitiesLoaded = entitiesLoaded;
+        this.statements = statements;
+    }
+
+    public double getTotalMillis() {
+        return meanMillis * calls;
+    }
+}
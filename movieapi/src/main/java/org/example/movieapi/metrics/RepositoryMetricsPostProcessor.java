@@ -0,0 +1,69 @@
+package org.example.movieapi.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Measures each call of a Spring Data repository method ("IMovieRepository.findByTitle") :
+ * latency, errors, rows returned, statements and entities loaded during the call.
+ * Rows of a Stream are counted while consumed (latency up to the opening only).
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    // resolved at the first call : the entity manager factory is not built yet
+    private final ObjectProvider<PersistenceMetrics> metrics;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<PersistenceMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                        var prefix = repositoryInformation.getRepositoryInterface().getSimpleName() + ".";
+                        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                            var method = invocation.getMethod();
+                            if (method.getDeclaringClass() == Object.class) {
+                                return invocation.proceed();
+                            }
+                            try (var scope = metrics.getObject().open(prefix + method.getName())) {
+                                try {
+                                    return countRows(scope, invocation.proceed());
+                                } catch (Throwable e) {
+                                    scope.failed();
+                                    throw e;
+                                }
+                            }
+                        });
+                    }));
+        }
+        return bean;
+    }
+
+    private static Object countRows(PersistenceMetrics.Scope scope, Object result) {
+        if (result instanceof Collection) {
+            scope.addRows(((Collection<?>) result).size());
+        } else if (result instanceof Slice) {
+            scope.addRows(((Slice<?>) result).getNumberOfElements());
+        } else if (result instanceof Optional) {
+            scope.addRows(((Optional<?>) result).isPresent() ? 1 : 0);
+        } else if (result instanceof Stream) {
+            var queryMetrics = scope.getQueryMetrics();
+            return ((Stream<?>) result).peek(row -> queryMetrics.addRows(1));
+        } else if (result != null) {
+            scope.addRows(1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.movieapi.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Position of a consumer in the change feed : last ChangeRecord id processed,
+ * maintained by outbox.ChangeFeedReader. Read only for the application.
+ */
+@Entity
+@Table(name = "change_checkpoint")
+@Immutable
+@Getter
+@NoArgsConstructor
+@ToString
+public class ChangeCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String consumer;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
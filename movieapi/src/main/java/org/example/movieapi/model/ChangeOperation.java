@@ -0,0 +1,8 @@
+package org.example.movieapi.model;
+
+/**
+ * Operation of a ChangeRecord (net change of the entity in its transaction)
+ */
+public enum ChangeOperation {
+    INSERT, UPDATE, DELETE
+}
@@ -0,0 +1,57 @@
+package org.example.movieapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Change of a Movie or People (outbox) : written in the same transaction as the change by
+ * outbox.OutboxListener, one record per entity and transaction, consumed in id order by
+ * outbox.ChangeFeedReader. Read only for the application.
+ */
+@Entity
+@Table(name = "change_outbox")
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ChangeRecord {
+
+    // auto increment : ids allocated in insert order (a gap is a transaction rolled back or not committed yet)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * entity name : Movie or People
+     */
+    @Column(nullable = false, length = 20)
+    private String entity;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 6)
+    private ChangeOperation operation;
+
+    /**
+     * version of the entity after the change (before for a delete)
+     */
+    private Integer version;
+
+    /**
+     * attributes changed by an update, comma separated (e.g. duration,actors), null : all
+     */
+    @Column(length = 255)
+    private String properties;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,41 @@
+package org.example.movieapi.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+/**
+ * Materialized statistics of a director (movie count, duration total) :
+ * maintained incrementally by stats.DirectorStatListener on each Movie insert/update/delete,
+ * checked and rebuilt by stats.DirectorStatChecker. Read only for the application.
+ */
+@Entity
+@Table(name = "director_stat", indexes =
+        @Index(name = "idx_director_stat_movie_count", columnList = "movie_count"))
+@Immutable
+@Getter
+@NoArgsConstructor
+@ToString(exclude = "director")
+public class DirectorStat {
+
+    @Id
+    @Column(name = "fk_director_id")
+    private Integer directorId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "fk_director_id", foreignKey = @ForeignKey(name = "fk_director_stat_director_id"))
+    private People director;
+
+    @Column(name = "movie_count", nullable = false)
+    private long movieCount;
+
+    /**
+     * duration in minutes (movies without duration count for 0)
+     */
+    @Column(name = "duration_total", nullable = false)
+    private int durationTotal;
+}
@@ -0,0 +1,91 @@
+package org.example.movieapi.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dictionary of genres : a set of genres is stored as a bitmask (column movie.genres),
+ * bit of a genre = 1 << ordinal.
+ * NB : new genres at the end only, never reorder or remove (bits are stored)
+ */
+public enum Genre {
+    ACTION("Action"),
+    ADULT("Adult"),
+    ADVENTURE("Adventure"),
+    ANIMATION("Animation"),
+    BIOGRAPHY("Biography"),
+    COMEDY("Comedy"),
+    CRIME("Crime"),
+    DRAMA("Drama"),
+    FAMILY("Family"),
+    FANTASY("Fantasy"),
+    FILM_NOIR("Film-Noir"),
+    HISTORY("History"),
+    HORROR("Horror"),
+    MUSIC("Music"),
+    MUSICAL("Musical"),
+    MYSTERY("Mystery"),
+    ROMANCE("Romance"),
+    SCI_FI("Sci-Fi"),
+    SPORT("Sport"),
+    THRILLER("Thriller"),
+    WAR("War"),
+    WESTERN("Western");
+
+    private static final Map<String, Genre> BY_LABEL = Arrays.stream(values())
+            .collect(Collectors.toMap(Genre::getLabel, Function.identity()));
+
+    /**
+     * label in table genre (dumps)
+     */
+    private final String label;
+
+    Genre(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getBit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * @throws IllegalArgumentException if unknown
+     */
+    public static Genre ofLabel(String label) {
+        var genre = BY_LABEL.get(label);
+        if (genre == null) {
+            throw new IllegalArgumentException("Unknown genre: " + label);
+        }
+        return genre;
+    }
+
+    public static long toMask(Collection<Genre> genres) {
+        long mask = 0;
+        for (var genre : genres) {
+            mask |= genre.getBit();
+        }
+        return mask;
+    }
+
+    public static long toMask(Genre... genres) {
+        return toMask(Arrays.asList(genres));
+    }
+
+    public static EnumSet<Genre> fromMask(long mask) {
+        var genres = EnumSet.noneOf(Genre.class);
+        for (var genre : values()) {
+            if ((mask & genre.getBit()) != 0) {
+                genres.add(genre);
+            }
+        }
+        return genres;
+    }
+}
@@ -1,18 +1,35 @@
 package org.example.movieapi.model;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "movie")
+@Table(name = "movie", indexes = {
+        // keyset pagination (see repository.IMovieScrollRepository)
+        @Index(name = "idx_movie_year_title_id", columnList = "year, title, id"),
+        @Index(name = "idx_movie_director_year_title_id", columnList = "fk_director_id, year, title, id"),
+        // query shapes of IMovieRepository (see advisor.IndexAdvisor and sql/dbmovie_indexes.sql)
+        @Index(name = "idx_movie_title_year", columnList = "title, year"),
+        @Index(name = "idx_movie_duration", columnList = "duration")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie")
+// fetch plans (see repository.FetchPlan), collections are never joined : loaded by batch
+@NamedEntityGraph(name = "Movie.summary")
+@NamedEntityGraph(name = "Movie.withDirector", attributeNodes = @NamedAttributeNode("director"))
 @Getter
 @Setter
-@ToString(exclude = {"director", "actors", "genres"})
+@ToString(exclude = {"director", "actors", "synopsis"})
 @NoArgsConstructor
 @AllArgsConstructor(staticName = "of")
 @RequiredArgsConstructor(staticName = "of")
@@ -21,10 +38,20 @@ public class Movie {
 
 
     // 2 prefered strategies : Sequence, Identity
+    // NB : Identity disables JDBC insert batching, sequence (pooled) keeps it
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_seq")
+    @SequenceGenerator(name = "movie_seq", sequenceName = "movie_seq")
     private Integer id;
 
+    // optimistic locking : each update checks and increments the version (see retry.OptimisticRetryExecutor),
+    // a change of the actors increments the version of the movie too
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0") // rows inserted with SQL
+    @Setter(AccessLevel.NONE)
+    private Integer version;
+
     @NonNull // lombock
     @Column(nullable = false, length = 250)
     @Convert(converter = EmptyStringConvertor.class)
@@ -41,20 +68,24 @@ public class Movie {
     private Integer duration;
 
     // NB : by default all is persistent
-    @Transient
+    // heavy text : lazy (loaded at first access, needs the bytecode enhancement of the build)
+    @Basic(fetch = FetchType.LAZY)
+    @Lob
     private String synopsis;
 
     @Enumerated(EnumType.STRING) // ORDINAL (default)
     @Column(nullable = true)
     private Color color;
 
-    @ElementCollection
-    @CollectionTable(name = "genre",
-            joinColumns = @JoinColumn(name = "fk_movie_id",
-                    foreignKey = @ForeignKey(name = "fk_genre_movie_id")))
-    @Column(name = "genre")
-    @Builder.Default
-    private Set<String> genres = new HashSet<>();
+    // bitmask of Genre loaded with the movie row (was table genre, see sql/dbmovie_genre_migration.sql)
+    // filters : IMovieRepository.findByAnyGenre / findByAllGenres
+    // immutable value : dirty checked as a number, read and written as a set by getGenres / setGenres
+    // null until set (0 in db) : ignored by query by example
+    @Column(name = "genres", nullable = false)
+    @ColumnDefault("0")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Long genreMask;
 
     @ManyToOne(
             fetch = FetchType.LAZY,  // EAGER by default
@@ -71,6 +102,30 @@ public class Movie {
             joinColumns = @JoinColumn(name="fk_movie_id", foreignKey = @ForeignKey(name="fk_movie_id")),
             inverseJoinColumns = @JoinColumn(name="fk_actor_id", foreignKey = @ForeignKey(name="fk_actor_id"))
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "movie.actors")
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<People> actors = new HashSet<>();
+
+    /**
+     * @return genres of the movie (read only, see setGenres)
+     */
+    public Set<Genre> getGenres() {
+        return Collections.unmodifiableSet(Genre.fromMask(genreMask == null ? 0 : genreMask));
+    }
+
+    public void setGenres(Collection<Genre> genres) {
+        genreMask = Genre.toMask(genres);
+    }
+
+    public void addGenres(Genre... genres) {
+        genreMask = (genreMask == null ? 0 : genreMask) | Genre.toMask(genres);
+    }
+
+    @PrePersist
+    void defaultGenres() {
+        if (genreMask == null) {
+            genreMask = 0L;
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package org.example.movieapi.model;
 
 import lombok.*;
-import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -9,7 +12,14 @@ import java.util.Date;
 
 
 @Entity
-@Table(name = "people")
+@Table(name = "people", indexes = {
+        // search by director name (see advisor.IndexAdvisor and sql/dbmovie_indexes.sql)
+        @Index(name = "idx_people_name", columnList = "name"),
+        // range of birth years / ages (see repository.IPeopleRepository)
+        @Index(name = "idx_people_birth_year", columnList = "birth_year")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "people")
+@BatchSize(size = 50) // lazy directors of a movie list loaded 50 by 50
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,6 +33,13 @@ public class People {
     @SequenceGenerator(name = "people_seq", sequenceName = "people_seq")
     private Integer id;
 
+    // optimistic locking : each update checks and increments the version (see retry.OptimisticRetryExecutor)
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0") // rows inserted with SQL
+    @Setter(AccessLevel.NONE)
+    private Integer version;
+
     @NonNull
     @Column(nullable = false)
     private String name;
@@ -32,7 +49,15 @@ public class People {
     // @Column(name="birth_date")
     // private Date birthdate;
 
-    @Formula("YEAR(birthdate) ")  // name of column, function in DB !
+    // derived from birthdate : persisted (indexable, no YEAR() on each load), maintained
+    // by syncBirthYear and by bulk.DerivedColumns for rows written with SQL
+    @Column(name = "birth_year")
     @Setter(AccessLevel.NONE)
     private Integer birthYear;
+
+    @PrePersist
+    @PreUpdate
+    void syncBirthYear() {
+        birthYear = birthdate == null ? null : birthdate.getYear();
+    }
 }
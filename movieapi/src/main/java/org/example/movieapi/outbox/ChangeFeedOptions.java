@@ -0,0 +1,31 @@
+package org.example.movieapi.outbox;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Tuning of a ChangeFeedReader poll
+ */
+@Getter
+@Builder
+public class ChangeFeedOptions {
+
+    /**
+     * records per poll (one handler call, one checkpoint update)
+     */
+    @Builder.Default
+    private int batchSize = 5000;
+
+    /**
+     * a missing id is a transaction not committed yet until gapTimeout after the first poll seeing it
+     * (the poll stops before it), then a transaction rolled back (skipped, logged)
+     */
+    @Builder.Default
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    public static ChangeFeedOptions defaults() {
+        return builder().build();
+    }
+}
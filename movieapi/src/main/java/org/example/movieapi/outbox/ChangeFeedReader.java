@@ -0,0 +1,160 @@
+package org.example.movieapi.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.model.ChangeOperation;
+import org.example.movieapi.model.ChangeRecord;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Change feed of Movie and People read from table change_outbox (see OutboxListener) :
+ * each consumer (e.g. search, analytics) reads the records after its checkpoint in id order,
+ * by batches of batchSize, instead of scanning the tables.
+ * A poll handles a batch and moves the checkpoint in the same transaction : a handler failing
+ * gets the same batch at the next poll (at least once, exactly once if it writes in the same database),
+ * concurrent polls of a consumer wait for each other (checkpoint row locked).
+ * NB : auto increment ids must increase by 1 (gaps are waited for, see ChangeFeedOptions.gapTimeout,
+ * from the first poll seeing them : a record is written before its commit, its changed_at can be old)
+ */
+@Slf4j
+@Service
+public class ChangeFeedReader {
+
+    private static final String SELECT = "select id, entity, entity_id, operation, version, properties, changed_at"
+            + " from change_outbox where id > ? order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // by consumer : first missing id of each gap waited for -> System.nanoTime() of the first poll seeing it
+    private final Map<String, Map<Long, Long>> gapsSeenAt = new ConcurrentHashMap<>();
+
+    public ChangeFeedReader(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(5000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public int poll(String consumer, Consumer<List<ChangeRecord>> handler) {
+        return poll(consumer, ChangeFeedOptions.defaults(), handler);
+    }
+
+    /**
+     * Handles the next batch of the consumer (a new consumer starts at the beginning of the outbox)
+     * @param handler records in id order (read only list)
+     * @return records handled, 0 if the consumer is up to date
+     */
+    public int poll(String consumer, ChangeFeedOptions options, Consumer<List<ChangeRecord>> handler) {
+        register(consumer);
+        return transactionTemplate.execute(status -> {
+            long lastId = jdbcTemplate.queryForObject(
+                    "select last_id from change_checkpoint where consumer = ? for update", Long.class, consumer);
+            var records = untilGap(jdbcTemplate.query(SELECT, (resultSet, rowNum) -> new ChangeRecord(
+                            resultSet.getLong(1),
+                            resultSet.getString(2),
+                            resultSet.getInt(3),
+                            ChangeOperation.valueOf(resultSet.getString(4)),
+                            (Integer) resultSet.getObject(5),
+                            resultSet.getString(6),
+                            resultSet.getTimestamp(7).toInstant()),
+                    lastId, options.getBatchSize()), consumer, lastId, options);
+            if (records.isEmpty()) {
+                return 0;
+            }
+            handler.accept(Collections.unmodifiableList(records));
+            move(consumer, records.get(records.size() - 1).getId());
+            return records.size();
+        });
+    }
+
+    /**
+     * @return records before the first gap still waited for (gaps older than gapTimeout skipped)
+     */
+    List<ChangeRecord> untilGap(List<ChangeRecord> records, String consumer, long lastId, ChangeFeedOptions options) {
+        var seenAt = gapsSeenAt.computeIfAbsent(consumer, c -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+        long expectedId = lastId + 1;
+        int count = 0;
+        for (var record : records) {
+            if (record.getId() != expectedId) {
+                long waited = now - seenAt.computeIfAbsent(expectedId, id -> now);
+                if (waited < options.getGapTimeout().toNanos()) {
+                    log.debug("Change feed : ids {} to {} not committed yet", expectedId, record.getId() - 1);
+                    break;
+                }
+                log.warn("Change feed : ids {} to {} skipped by {}, missing for {} ms (rolled back ?)",
+                        expectedId, record.getId() - 1, consumer, waited / 1_000_000);
+            }
+            expectedId = record.getId() + 1;
+            count++;
+        }
+        // gaps filled or skipped
+        long passedId = expectedId;
+        seenAt.keySet().removeIf(id -> id < passedId);
+        return records.subList(0, count);
+    }
+
+    /**
+     * Moves the checkpoint of a consumer (e.g. getHeadId() after a full load of the tables)
+     */
+    public void seek(String consumer, long lastId) {
+        register(consumer);
+        transactionTemplate.executeWithoutResult(status -> move(consumer, lastId));
+    }
+
+    /**
+     * @return last id processed by the consumer, 0 for a new consumer
+     */
+    public long getCheckpoint(String consumer) {
+        var lastIds = jdbcTemplate.queryForList("select last_id from change_checkpoint where consumer = ?",
+                Long.class, consumer);
+        return lastIds.isEmpty() ? 0 : lastIds.get(0);
+    }
+
+    /**
+     * @return last id of the outbox, 0 if empty
+     */
+    public long getHeadId() {
+        return jdbcTemplate.queryForObject("select coalesce(max(id), 0) from change_outbox", Long.class);
+    }
+
+    /**
+     * Deletes the records processed by all the consumers
+     * @return records deleted
+     */
+    public int purgeConsumed() {
+        int deleted = jdbcTemplate.update("delete from change_outbox"
+                + " where id <= (select coalesce(min(last_id), 0) from change_checkpoint)");
+        log.info("Change feed : {} records purged", deleted);
+        return deleted;
+    }
+
+    private void register(String consumer) {
+        if (jdbcTemplate.queryForObject("select count(*) from change_checkpoint where consumer = ?",
+                Integer.class, consumer) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("insert into change_checkpoint (consumer, last_id, updated_at) values (?, 0, ?)",
+                    consumer, Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            // registered by a concurrent poll
+        }
+    }
+
+    private void move(String consumer, long lastId) {
+        jdbcTemplate.update("update change_checkpoint set last_id = ?, updated_at = ? where consumer = ?",
+                lastId, Timestamp.from(Instant.now()), consumer);
+    }
+}
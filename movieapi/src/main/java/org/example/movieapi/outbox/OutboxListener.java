@@ -0,0 +1,194 @@
+package org.example.movieapi.outbox;
+
+import org.example.movieapi.event.EntityChanges;
+import org.example.movieapi.event.TransactionChangeListener;
+import org.example.movieapi.event.TransactionChanges;
+import org.example.movieapi.model.ChangeOperation;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the changes of Movie and People in table change_outbox (see model.ChangeRecord) :
+ * changes are coalesced per entity during the transaction (e.g. insert + updates = insert,
+ * insert + delete = nothing), then inserted by a JDBC batch just before commit
+ * (nothing written on rollback). Actors of a movie (table play) are attribute actors of the movie,
+ * genres are attribute genres. Changes made without Hibernate entities (JDBC, bulk HQL,
+ * bulk loader) are not seen.
+ */
+public class OutboxListener implements TransactionChangeListener, PostCollectionUpdateEventListener,
+        PostCollectionRecreateEventListener {
+
+    private static final String INSERT = "insert into change_outbox"
+            + " (entity, entity_id, operation, version, properties, changed_at) values (?, ?, ?, ?, ?, ?)";
+
+    private final TransactionChanges<Changes> pendingChanges = TransactionChanges.beforeCommit(Changes::new,
+            Changes::write);
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        var entity = entityName(event.getEntity());
+        if (entity != null) {
+            changes(event.getSession()).add(entity, (Integer) event.getId(), ChangeOperation.INSERT,
+                    version(event.getPersister(), event.getState()), null);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        var entity = entityName(event.getEntity());
+        if (entity == null) {
+            return;
+        }
+        var persister = event.getPersister();
+        changes(event.getSession()).add(entity, (Integer) event.getId(), ChangeOperation.UPDATE,
+                version(persister, event.getState()), EntityChanges.dirtyProperties(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        var entity = entityName(event.getEntity());
+        if (entity != null) {
+            changes(event.getSession()).add(entity, (Integer) event.getId(), ChangeOperation.DELETE,
+                    version(event.getPersister(), event.getDeletedState()), null);
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionChanged(event);
+    }
+
+    // e.g. Movie.actors : update of the movie (version already incremented by the owner update)
+    private void collectionChanged(AbstractCollectionEvent event) {
+        var entity = entityName(event.getAffectedOwnerOrNull());
+        if (entity != null && event.getAffectedOwnerIdOrNull() != null) {
+            changes(event.getSession()).add(entity, (Integer) event.getAffectedOwnerIdOrNull(),
+                    ChangeOperation.UPDATE, null, EntityChanges.collectionProperty(event));
+        }
+    }
+
+    private static String entityName(Object entity) {
+        if (entity instanceof Movie) {
+            return "Movie";
+        } else if (entity instanceof People) {
+            return "People";
+        }
+        return null;
+    }
+
+    private static Integer version(EntityPersister persister, Object[] state) {
+        return persister.isVersioned() ? (Integer) state[persister.getVersionProperty()] : null;
+    }
+
+    private Changes changes(EventSource session) {
+        return pendingChanges.of(session);
+    }
+
+    private static class Change {
+        final String entity;
+        final int entityId;
+        ChangeOperation operation;
+        Integer version;
+        // null : all
+        Set<String> properties;
+
+        Change(String entity, int entityId, ChangeOperation operation, Integer version, Collection<String> properties) {
+            this.entity = entity;
+            this.entityId = entityId;
+            this.operation = operation;
+            this.version = version;
+            this.properties = properties == null || operation != ChangeOperation.UPDATE ? null
+                    : new TreeSet<>(properties);
+        }
+    }
+
+    /**
+     * net changes of a transaction by entity, in the order of their first change
+     */
+    private static class Changes {
+        private final Map<String, Change> byEntity = new LinkedHashMap<>();
+
+        void add(String entity, int entityId, ChangeOperation operation, Integer version,
+                 Collection<String> properties) {
+            var key = entity + '#' + entityId;
+            var change = byEntity.get(key);
+            if (change == null) {
+                byEntity.put(key, new Change(entity, entityId, operation, version, properties));
+                return;
+            }
+            if (version != null) {
+                change.version = version;
+            }
+            switch (operation) {
+                case UPDATE:
+                    // insert or delete : all attributes anyway
+                    if (change.operation == ChangeOperation.UPDATE && change.properties != null) {
+                        if (properties == null) {
+                            change.properties = null;
+                        } else {
+                            change.properties.addAll(properties);
+                        }
+                    }
+                    break;
+                case DELETE:
+                    if (change.operation == ChangeOperation.INSERT) {
+                        byEntity.remove(key); // never seen outside the transaction
+                    } else {
+                        change.operation = ChangeOperation.DELETE;
+                        change.properties = null;
+                    }
+                    break;
+                default:
+                    // inserted again after its delete
+                    change.operation = ChangeOperation.UPDATE;
+                    change.properties = null;
+            }
+        }
+
+        void write(SessionImplementor session) {
+            if (byEntity.isEmpty()) {
+                return;
+            }
+            var changedAt = Timestamp.from(Instant.now());
+            session.doWork(connection -> {
+                try (var insert = connection.prepareStatement(INSERT)) {
+                    for (var change : byEntity.values()) {
+                        insert.setString(1, change.entity);
+                        insert.setInt(2, change.entityId);
+                        insert.setString(3, change.operation.name());
+                        if (change.version == null) {
+                            insert.setNull(4, Types.INTEGER);
+                        } else {
+                            insert.setInt(4, change.version);
+                        }
+                        insert.setString(5, change.properties == null ? null : String.join(",", change.properties));
+                        insert.setTimestamp(6, changedAt);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                } catch (SQLException e) {
+                    throw new HibernateException("Unable to write change_outbox", e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.movieapi.repository;
+
+/**
+ * What is loaded with the movies of a query (see entity graphs of Movie) :
+ * - SUMMARY : movie row only (with its genres), director/actors stay lazy
+ * - WITH_DIRECTOR : director joined in the same select
+ * - FULL : director joined, actors loaded by batch (1 select per 50 movies,
+ *   no cartesian product)
+ */
+public enum FetchPlan {
+    SUMMARY("Movie.summary", false),
+    WITH_DIRECTOR("Movie.withDirector", false),
+    FULL("Movie.withDirector", true);
+
+    private final String entityGraph;
+    private final boolean withCollections;
+
+    FetchPlan(String entityGraph, boolean withCollections) {
+        this.entityGraph = entityGraph;
+        this.withCollections = withCollections;
+    }
+
+    public String getEntityGraph() {
+        return entityGraph;
+    }
+
+    public boolean isWithCollections() {
+        return withCollections;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.DirectorStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface IDirectorStatRepository extends JpaRepository<DirectorStat, Integer> {
+
+    List<DirectorStat> findByMovieCountGreaterThanEqualOrderByMovieCountDesc(long movieCount);
+}
@@ -0,0 +1,28 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.People;
+
+import java.util.List;
+
+/**
+ * Co-star queries on play, answered by the CoStarGraph of the in-memory PlayIndex
+ * (kept in sync with Movie writes after commit, call PlayIndexService.refresh() after a bulk load)
+ */
+public interface IMovieCoStarRepository {
+
+    /**
+     * @return actors who played with the actor, ordered by name
+     */
+    List<People> findCoStars(int actorId);
+
+    /**
+     * @return co-stars with most shared movies first, at most limit
+     */
+    List<People> findTopCollaborators(int actorId, int limit);
+
+    /**
+     * Degrees of separation (e.g. Kevin Bacon game)
+     * @return actors of one of the shortest chains from actor to actor (both included), empty if none
+     */
+    List<People> findActorPath(int fromActorId, int toActorId);
+}
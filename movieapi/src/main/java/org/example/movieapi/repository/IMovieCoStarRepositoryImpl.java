@@ -0,0 +1,70 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.index.ActorPath;
+import org.example.movieapi.index.Collaborator;
+import org.example.movieapi.index.PlayIndexService;
+import org.example.movieapi.model.People;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Transactional(readOnly = true)
+public class IMovieCoStarRepositoryImpl implements IMovieCoStarRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // the index of the application, kept in sync after commits : resolved at first use
+    // (contexts without the service, e.g. @DataJpaTest slices, only fail when these queries are used)
+    private final ObjectProvider<PlayIndexService> playIndexService;
+
+    public IMovieCoStarRepositoryImpl(ObjectProvider<PlayIndexService> playIndexService) {
+        this.playIndexService = playIndexService;
+    }
+
+    @Override
+    public List<People> findCoStars(int actorId) {
+        return findPeople(playIndexService.getObject().getCoStarGraph().coStars(actorId)).stream()
+                .sorted(Comparator.comparing(People::getName))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<People> findTopCollaborators(int actorId, int limit) {
+        return findPeopleInOrder(playIndexService.getObject().getCoStarGraph().topCollaborators(actorId, limit).stream()
+                .mapToInt(Collaborator::getActorId)
+                .toArray());
+    }
+
+    @Override
+    public List<People> findActorPath(int fromActorId, int toActorId) {
+        return playIndexService.getObject().getCoStarGraph().shortestPath(fromActorId, toActorId)
+                .map(ActorPath::getActorIds)
+                .map(this::findPeopleInOrder)
+                .orElse(List.of());
+    }
+
+    private List<People> findPeopleInOrder(int[] ids) {
+        var byId = findPeople(ids).stream()
+                .collect(Collectors.toMap(People::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(byId::get)
+                .collect(Collectors.toList());
+    }
+
+    private List<People> findPeople(int[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return entityManager.createQuery("select p from People p where p.id in :ids", People.class)
+                .setParameter("ids", Arrays.stream(ids).boxed().collect(Collectors.toList()))
+                .getResultList();
+    }
+}
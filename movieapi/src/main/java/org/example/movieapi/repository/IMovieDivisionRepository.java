@@ -0,0 +1,25 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.People;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Relational division on play, answered by the in-memory PlayIndex
+ * (kept in sync with Movie writes after commit, call PlayIndexService.refresh() after a bulk load)
+ */
+public interface IMovieDivisionRepository {
+
+    /**
+     * e.g. actors who played in every Star Wars
+     * @return actors ordered by name, empty for an empty set
+     */
+    List<People> findActorsInAllMovies(Collection<Integer> movieIds);
+
+    /**
+     * e.g. actors who worked for all of Eastwood, Tarantino, Scorsese and Spielberg
+     * @return actors ordered by name, empty for an empty set
+     */
+    List<People> findActorsForAllDirectors(Collection<Integer> directorIds);
+}
@@ -0,0 +1,49 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.index.PlayIndexService;
+import org.example.movieapi.model.People;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Transactional(readOnly = true)
+public class IMovieDivisionRepositoryImpl implements IMovieDivisionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // the index of the application, kept in sync after commits : resolved at first use
+    // (contexts without the service, e.g. @DataJpaTest slices, only fail when these queries are used)
+    private final ObjectProvider<PlayIndexService> playIndexService;
+
+    public IMovieDivisionRepositoryImpl(ObjectProvider<PlayIndexService> playIndexService) {
+        this.playIndexService = playIndexService;
+    }
+
+    @Override
+    public List<People> findActorsInAllMovies(Collection<Integer> movieIds) {
+        return findPeople(playIndexService.getObject().getIndex()
+                .actorsInAllMovies(movieIds.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    @Override
+    public List<People> findActorsForAllDirectors(Collection<Integer> directorIds) {
+        return findPeople(playIndexService.getObject().getIndex()
+                .actorsForAllDirectors(directorIds.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private List<People> findPeople(int[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return entityManager.createQuery("select p from People p where p.id in :ids order by p.name", People.class)
+                .setParameter("ids", Arrays.stream(ids).boxed().collect(Collectors.toList()))
+                .getResultList();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+import org.springframework.data.domain.Example;
+
+import java.util.List;
+
+/**
+ * Queries of IMovieRepository with a fetch plan chosen by the caller
+ */
+public interface IMovieFetchPlanRepository {
+
+    List<Movie> findByDirectorName(String directorName, FetchPlan fetchPlan);
+
+    List<Movie> findAll(Example<Movie> example, FetchPlan fetchPlan);
+}
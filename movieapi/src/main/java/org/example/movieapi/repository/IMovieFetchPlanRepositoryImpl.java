@@ -0,0 +1,54 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Example;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCHGRAPH;
+
+// implementation of the fragment found by Spring Data with suffix Impl
+@Transactional(readOnly = true)
+public class IMovieFetchPlanRepositoryImpl implements IMovieFetchPlanRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Movie> findByDirectorName(String directorName, FetchPlan fetchPlan) {
+        var query = entityManager.createQuery(
+                        "select m from Movie m where m.director.name = :name order by m.year desc",
+                        Movie.class)
+                .setParameter("name", directorName);
+        return getResultList(query, fetchPlan);
+    }
+
+    @Override
+    public List<Movie> findAll(Example<Movie> example, FetchPlan fetchPlan) {
+        var cb = entityManager.getCriteriaBuilder();
+        var criteriaQuery = cb.createQuery(Movie.class);
+        var root = criteriaQuery.from(Movie.class);
+        var predicate = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        return getResultList(entityManager.createQuery(criteriaQuery.select(root)), fetchPlan);
+    }
+
+    private List<Movie> getResultList(TypedQuery<Movie> query, FetchPlan fetchPlan) {
+        var movies = query
+                .setHint(HINT_FETCHGRAPH, entityManager.getEntityGraph(fetchPlan.getEntityGraph()))
+                .getResultList();
+        if (fetchPlan.isWithCollections()) {
+            // 1st initialization loads the actors of the next movies too (@BatchSize)
+            movies.forEach(movie -> Hibernate.initialize(movie.getActors()));
+        }
+        return movies;
+    }
+}
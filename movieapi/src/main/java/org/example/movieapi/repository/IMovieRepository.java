@@ -3,40 +3,118 @@ package org.example.movieapi.repository;
 import org.example.movieapi.dto.INameCountDurationTotal;
 import org.example.movieapi.dto.ITitleDurationAge;
 import org.example.movieapi.dto.TitleDurationAge;
+import org.example.movieapi.model.Genre;
 import org.example.movieapi.model.Movie;
+import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
-public interface IMovieRepository extends JpaRepository<Movie, Integer>, JpaSpecificationExecutor<Movie> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+public interface IMovieRepository extends JpaRepository<Movie, Integer>, JpaSpecificationExecutor<Movie>,
+        IMovieFetchPlanRepository, IMovieScrollRepository, IMovieStreamRepository,
+        IMovieDivisionRepository, IMovieCoStarRepository, IMovieSearchRepository {
 
     // SQL generated automatically with vocabulary
     // https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#jpa.query-methods.query-creation
+    // read only variants : entities loaded without snapshot (see ReadOnlyQuery)
+    @ReadOnlyQuery
+    List<Movie> findReadOnlyByDirectorName(String directorName);
+
+    @ReadOnlyQuery
+    @Query("select m from Movie m where m.title = :title and year between :year1 and :year2")
+    List<Movie> findReadOnlyByTitleRangeYear(String title, Integer year1, Integer year2);
+
+    // query by example (redeclared from QueryByExampleExecutor for the hints)
+    @ReadOnlyQuery
+    @Override
+    <S extends Movie> List<S> findAll(Example<S> example);
+
+    @StreamingQuery
     Stream<Movie> findByDirectorNameOrderByYearDesc(String directorName);
 
+    // same query served by the query cache (NB: Stream results are scrolled, never cached)
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = "query.movie")})
+    List<Movie> findCachedByDirectorNameOrderByYearDesc(String directorName);
+
+    @StreamingQuery
     Stream<Movie> findByDirectorName(String directorName, Sort sort);
 
+    @StreamingQuery
     @Query("select m from Movie m where m.title = :title and year between :year1 and :year2")
     Stream<Movie> findByTitleRangeYear(String title, Integer year1, Integer year2);
 
+    @StreamingQuery
     @Query("select m.title as title, m.duration as duration, YEAR(CURRENT_DATE) - m.year as age from Movie m where m.duration >= :ageThreshold")
     Stream<ITitleDurationAge> findTitleDurationAge(Integer ageThreshold);
 
+    // genres : bitmask of model.Genre in movie.genres (Movie.genreMask) => bitwise predicates, no join
+    // (bitand registered by dialect.MovieapiMetadataBuilderContributor)
+    @ReadOnlyQuery
+    @Query("select m from Movie m where bitand(m.genreMask, :genreMask) <> 0 order by m.year, m.title")
+    List<Movie> findByAnyGenreMask(long genreMask);
+
+    @ReadOnlyQuery
+    @Query("select m from Movie m where bitand(m.genreMask, :genreMask) = :genreMask order by m.year, m.title")
+    List<Movie> findByAllGenreMask(long genreMask);
+
+    default List<Movie> findByAnyGenre(Genre... genres) {
+        return findByAnyGenreMask(Genre.toMask(genres));
+    }
+
+    default List<Movie> findByAllGenres(Genre... genres) {
+        return findByAllGenreMask(Genre.toMask(genres));
+    }
+
     // for complex JPQL Queries read doc in JPA not in Hibernate
     // https://jakarta.ee/specifications/persistence/3.0/jakarta-persistence-spec-3.0.html#a4665
 
+    // read in materialized table director_stat (see stats.DirectorStatListener) : O(result)
+    @StreamingQuery
+    @Query("select d.name as name, s.movieCount as movieCount, s.durationTotal as durationTotal " +
+            " from DirectorStat s join s.director d" +
+            " where s.movieCount >= :movieCount " +
+            " order by s.movieCount desc")
+    Stream<INameCountDurationTotal> findStatMovieByDirector(Long movieCount);
+
+    // reference : full join + GROUP BY on every call
+    @StreamingQuery
     @Query("select d.name as name, count(m) as movieCount, COALESCE(sum(m.duration), 0) as durationTotal " +
             " from Movie m join m.director d" +
             " group by d.id, d.name " +
             " having count(m) >= :movieCount " +
             " order by movieCount desc")
-    Stream<INameCountDurationTotal> findStatMovieByDirector(Long movieCount);
+    Stream<INameCountDurationTotal> findStatMovieByDirectorGroupBy(Long movieCount);
 
     // Division problem : count or double not exists
     // 1. acteurs ayant joué dans tous les star wars
     // 2. acteurs ayant joué pour tous ces réalisateurs (Eastwood, Tarantino, Scorcese, Spielberg)
+    // => fast versions with in-memory index : see IMovieDivisionRepository
+    // => versions by count below (reference, slow on full table play)
+
+    @Query("select m.id from Movie m where m.title like :titlePattern")
+    List<Integer> findIdsByTitleLike(String titlePattern);
+
+    @Query("select distinct d.id from Movie m join m.director d where d.name in :names")
+    List<Integer> findDirectorIdsByNameIn(Collection<String> names);
+
+    @Query("select a.id from Movie m join m.actors a where m.id in :movieIds" +
+            " group by a.id having count(distinct m.id) = :movieCount")
+    List<Integer> countActorIdsInAllMovies(Collection<Integer> movieIds, Long movieCount);
+
+    @Query("select a.id from Movie m join m.actors a where m.director.id in :directorIds" +
+            " group by a.id having count(distinct m.director.id) = :directorCount")
+    List<Integer> countActorIdsForAllDirectors(Collection<Integer> directorIds, Long directorCount);
 
 }
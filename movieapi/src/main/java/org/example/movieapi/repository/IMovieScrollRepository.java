@@ -0,0 +1,22 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+
+/**
+ * Keyset pagination of movie listings : each page seeks after the last key (year, title, id)
+ * of the previous page with index idx_movie_year_title_id / idx_movie_director_year_title_id,
+ * so latency does not depend on page depth (no OFFSET).
+ * Start with a null token, then pass KeysetPage.getNextToken().
+ */
+public interface IMovieScrollRepository {
+
+    /**
+     * movies of year range, ordered by year, title, id
+     */
+    KeysetPage<Movie> scrollByYearBetween(int yearMin, int yearMax, String token, int pageSize);
+
+    /**
+     * filmography of a director, ordered by year desc, title desc, id desc
+     */
+    KeysetPage<Movie> scrollByDirectorName(String directorName, String token, int pageSize);
+}
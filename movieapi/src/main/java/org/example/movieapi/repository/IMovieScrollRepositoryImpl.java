@@ -0,0 +1,62 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.function.Consumer;
+
+@Transactional(readOnly = true)
+public class IMovieScrollRepositoryImpl implements IMovieScrollRepository {
+
+    // after key (year, title, id) : year >= :year first so that the index range is used
+    private static final String AFTER_KEY_ASC = " and m.year >= :year"
+            + " and (m.year > :year or m.title > :title or (m.title = :title and m.id > :id))";
+    private static final String AFTER_KEY_DESC = " and m.year <= :year"
+            + " and (m.year < :year or m.title < :title or (m.title = :title and m.id < :id))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public KeysetPage<Movie> scrollByYearBetween(int yearMin, int yearMax, String token, int pageSize) {
+        return scroll("select m from Movie m where m.year between :yearMin and :yearMax",
+                true, token, pageSize,
+                query -> query.setParameter("yearMin", yearMin).setParameter("yearMax", yearMax));
+    }
+
+    @Override
+    public KeysetPage<Movie> scrollByDirectorName(String directorName, String token, int pageSize) {
+        return scroll("select m from Movie m where m.director.name = :name",
+                false, token, pageSize,
+                query -> query.setParameter("name", directorName));
+    }
+
+    private KeysetPage<Movie> scroll(String jpql, boolean ascending, String token, int pageSize,
+                                     Consumer<TypedQuery<Movie>> filterParameters) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        var after = MovieKey.fromToken(token);
+        var direction = ascending ? "asc" : "desc";
+        var query = entityManager.createQuery(jpql
+                        + (after == null ? "" : ascending ? AFTER_KEY_ASC : AFTER_KEY_DESC)
+                        + " order by m.year " + direction + ", m.title " + direction + ", m.id " + direction,
+                Movie.class);
+        filterParameters.accept(query);
+        if (after != null) {
+            query.setParameter("year", after.year)
+                    .setParameter("title", after.title)
+                    .setParameter("id", after.id);
+        }
+        // one more row to know if there is a next page
+        var movies = query.setMaxResults(pageSize + 1).getResultList();
+        if (movies.size() <= pageSize) {
+            return new KeysetPage<>(movies, null);
+        }
+        var content = movies.subList(0, pageSize);
+        return new KeysetPage<>(content, MovieKey.of(content.get(pageSize - 1)).toToken());
+    }
+}
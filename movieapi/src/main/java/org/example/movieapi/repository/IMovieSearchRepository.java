@@ -0,0 +1,26 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+
+import java.util.List;
+
+/**
+ * Multi-criteria search (faceted search) : the criteria is normalized, its set of filters
+ * (shape) selects a JPQL text built once, so each request only binds parameters
+ * and hits the Hibernate query plan cache (no Criteria built nor rendered per request).
+ * Ad hoc combinations : MovieSearchCriteria.toSpecification() with JpaSpecificationExecutor.
+ */
+public interface IMovieSearchRepository {
+
+    /**
+     * @return first movies matching, ordered by year, title, id
+     */
+    List<Movie> search(MovieSearchCriteria criteria, int limit);
+
+    long count(MovieSearchCriteria criteria);
+
+    /**
+     * @return number of query shapes compiled so far
+     */
+    int getSearchShapeCount();
+}
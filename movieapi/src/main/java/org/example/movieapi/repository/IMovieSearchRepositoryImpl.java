@@ -0,0 +1,68 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Transactional(readOnly = true)
+public class IMovieSearchRepositoryImpl implements IMovieSearchRepository {
+
+    // order of idx_movie_year_title_id
+    private static final String ORDER_BY = " order by m.year, m.title, m.id";
+
+    // shape => JPQL, same text for a shape : hit in the query plan cache of Hibernate
+    private final Map<Set<MovieSearchFilter>, String> selectByShape = new ConcurrentHashMap<>();
+    private final Map<Set<MovieSearchFilter>, String> countByShape = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Movie> search(MovieSearchCriteria criteria, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        var normalized = criteria.normalize();
+        var filters = normalized.getFilters();
+        var jpql = selectByShape.computeIfAbsent(filters, shape -> "select m from Movie m" + where(shape) + ORDER_BY);
+        return bind(entityManager.createQuery(jpql, Movie.class), normalized, filters)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long count(MovieSearchCriteria criteria) {
+        var normalized = criteria.normalize();
+        var filters = normalized.getFilters();
+        var jpql = countByShape.computeIfAbsent(filters, shape -> "select count(m) from Movie m" + where(shape));
+        return bind(entityManager.createQuery(jpql, Long.class), normalized, filters)
+                .getSingleResult();
+    }
+
+    @Override
+    public int getSearchShapeCount() {
+        return selectByShape.size();
+    }
+
+    private static String where(Set<MovieSearchFilter> filters) {
+        return filters.isEmpty() ? "" : filters.stream()
+                .map(MovieSearchFilter::getJpql)
+                .collect(Collectors.joining(" and ", " where ", ""));
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, MovieSearchCriteria criteria,
+                                          Set<MovieSearchFilter> filters) {
+        for (var filter : filters) {
+            query.setParameter(filter.getParameterName(), filter.value(criteria));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+
+import java.util.function.Consumer;
+
+/**
+ * Full scans in constant memory : rows are scrolled forward only with a fetch size
+ * (spring.jpa.properties.hibernate.jdbc.fetch_size) and never accumulate in memory.
+ */
+public interface IMovieStreamRepository {
+
+    /**
+     * Scan with read only managed entities, persistence context cleared every
+     * movieapi.stream.clear-every movies (entities received before are detached).
+     * Lazy associations may be used inside the action of the movie being processed.
+     * @return number of movies scanned
+     */
+    long scanAll(Consumer<Movie> action);
+
+    long scanByYearBetween(int yearMin, int yearMax, Consumer<Movie> action);
+
+    /**
+     * Scan with a stateless session : no persistence context at all, cheapest path,
+     * but movies are detached (lazy associations not available).
+     * @return number of movies scanned
+     */
+    long scanAllStateless(Consumer<Movie> action);
+}
@@ -0,0 +1,89 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Consumer;
+
+@Transactional(readOnly = true)
+public class IMovieStreamRepositoryImpl implements IMovieStreamRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // same fetch size as the other statements (e.g. Stream methods with StreamingQuery)
+    @Value("${spring.jpa.properties.hibernate.jdbc.fetch_size:1000}")
+    private int fetchSize;
+
+    @Value("${movieapi.stream.clear-every:1000}")
+    private int clearEvery;
+
+    @Override
+    public long scanAll(Consumer<Movie> action) {
+        var session = entityManager.unwrap(Session.class);
+        return scan(session, session.createQuery("select m from Movie m", Movie.class), action);
+    }
+
+    @Override
+    public long scanByYearBetween(int yearMin, int yearMax, Consumer<Movie> action) {
+        var session = entityManager.unwrap(Session.class);
+        return scan(session, session.createQuery(
+                                "select m from Movie m where m.year between :yearMin and :yearMax", Movie.class)
+                        .setParameter("yearMin", yearMin)
+                        .setParameter("yearMax", yearMax),
+                action);
+    }
+
+    @Override
+    public long scanAllStateless(Consumer<Movie> action) {
+        var sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (var session = sessionFactory.openStatelessSession();
+             var results = session.createQuery("select m from Movie m", Movie.class)
+                     .setFetchSize(fetchSize)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            long count = 0;
+            while (results.next()) {
+                action.accept((Movie) results.get(0));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private long scan(Session session, Query<Movie> query, Consumer<Movie> action) {
+        if (session.isDirty()) {
+            // clearing the persistence context would silently lose these changes
+            throw new IllegalStateException("Flush pending changes before scanning movies");
+        }
+        // nothing to flush in a read only scan : avoid auto flush before each lazy load
+        var flushMode = session.getHibernateFlushMode();
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        try (var results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            long count = 0;
+            while (results.next()) {
+                action.accept((Movie) results.get(0));
+                if (++count % clearEvery == 0) {
+                    session.clear();
+                }
+            }
+            session.clear();
+            return count;
+        } finally {
+            session.setHibernateFlushMode(flushMode);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.People;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Birth year and age ranges : seek on idx_people_birth_year (persisted column people.birth_year)
+ */
+public interface IPeopleRepository extends JpaRepository<People, Integer> {
+
+    @ReadOnlyQuery
+    List<People> findByBirthYearBetweenOrderByBirthYearAscNameAsc(int yearMin, int yearMax);
+
+    long countByBirthYearBetween(int yearMin, int yearMax);
+
+    /**
+     * age = age reached this year (same as YEAR(CURRENT_DATE) - m.year of movies),
+     * as a birth year range : no function on the indexed column
+     */
+    default List<People> findByAgeBetween(int ageMin, int ageMax) {
+        int year = LocalDate.now().getYear();
+        return findByBirthYearBetweenOrderByBirthYearAscNameAsc(year - ageMax, year - ageMin);
+    }
+}
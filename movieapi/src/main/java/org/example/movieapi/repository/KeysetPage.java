@@ -0,0 +1,23 @@
+package org.example.movieapi.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) pagination : content + opaque token to get the next page
+ * (null on last page)
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class KeysetPage<T> {
+    private List<T> content;
+    private String nextToken;
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
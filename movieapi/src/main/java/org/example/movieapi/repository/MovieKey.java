@@ -0,0 +1,53 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Movie;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a movie in listings ordered by (year, title, id),
+ * encoded as an opaque continuation token
+ */
+class MovieKey {
+
+    private static final String VERSION = "1";
+
+    final int year;
+    final String title;
+    final int id;
+
+    MovieKey(int year, String title, int id) {
+        this.year = year;
+        this.title = title;
+        this.id = id;
+    }
+
+    static MovieKey of(Movie movie) {
+        return new MovieKey(movie.getYear(), movie.getTitle(), movie.getId());
+    }
+
+    String toToken() {
+        var text = VERSION + ":" + year + ":" + id + ":" + title;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return key or null for first page (token null or empty)
+     */
+    static MovieKey fromToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            var text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = text.split(":", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid continuation token: " + token);
+            }
+            return new MovieKey(Integer.parseInt(parts[1]), parts[3], Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.movieapi.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Filters of a multi-criteria movie search (null = no filter), all combined with and.
+ * Equivalent combinations have the same normalized form, hence the same query shape
+ * (see IMovieSearchRepository).
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class MovieSearchCriteria {
+
+    private final String title;
+    private final String titlePrefix;
+    private final Integer yearMin;
+    private final Integer yearMax;
+    private final Integer durationMin;
+    private final Integer durationMax;
+    private final Set<Color> colors;
+    /**
+     * at least one of these genres
+     */
+    private final Set<Genre> anyGenres;
+    /**
+     * all of these genres
+     */
+    private final Set<Genre> allGenres;
+    private final String directorName;
+    private final String actorName;
+
+    /**
+     * Canonical form :
+     * - blank texts removed, texts trimmed, prefix implied by the title removed,
+     * - empty sets removed, sets as EnumSet,
+     * - any of 1 genre = all of 1 genre, any genres implied by all genres removed.
+     */
+    public MovieSearchCriteria normalize() {
+        var normalizedTitle = trimToNull(title);
+        var normalizedPrefix = trimToNull(titlePrefix);
+        if (normalizedTitle != null && normalizedPrefix != null && normalizedTitle.startsWith(normalizedPrefix)) {
+            normalizedPrefix = null;
+        }
+        var normalizedColors = colors == null || colors.isEmpty() ? null : EnumSet.copyOf(colors);
+        var normalizedAll = allGenres == null || allGenres.isEmpty() ? null : EnumSet.copyOf(allGenres);
+        var normalizedAny = anyGenres == null || anyGenres.isEmpty() ? null : EnumSet.copyOf(anyGenres);
+        if (normalizedAny != null && normalizedAny.size() == 1) {
+            if (normalizedAll == null) {
+                normalizedAll = normalizedAny;
+            } else {
+                normalizedAll.addAll(normalizedAny);
+            }
+            normalizedAny = null;
+        }
+        if (normalizedAny != null && normalizedAll != null && normalizedAll.stream().anyMatch(normalizedAny::contains)) {
+            normalizedAny = null;
+        }
+        return toBuilder()
+                .title(normalizedTitle)
+                .titlePrefix(normalizedPrefix)
+                .colors(normalizedColors)
+                .anyGenres(normalizedAny)
+                .allGenres(normalizedAll)
+                .directorName(trimToNull(directorName))
+                .actorName(trimToNull(actorName))
+                .build();
+    }
+
+    /**
+     * @return filters used by this criteria (normalize first for a canonical shape)
+     */
+    public Set<MovieSearchFilter> getFilters() {
+        var filters = EnumSet.noneOf(MovieSearchFilter.class);
+        for (var filter : MovieSearchFilter.values()) {
+            if (filter.value(this) != null) {
+                filters.add(filter);
+            }
+        }
+        return filters;
+    }
+
+    /**
+     * Same filters as a Specification : composable with other ones,
+     * e.g. movieRepository.findAll(criteria.toSpecification().and(other), pageable)
+     */
+    public Specification<Movie> toSpecification() {
+        var normalized = normalize();
+        Specification<Movie> specification = Specification.where(null);
+        for (var filter : normalized.getFilters()) {
+            specification = specification.and(filter.toSpecification(normalized));
+        }
+        return specification;
+    }
+
+    private static String trimToNull(String text) {
+        return text == null || text.isBlank() ? null : text.strip();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.movieapi.repository;
+
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * One filter of MovieSearchCriteria, as JPQL (m = movie) with its named parameter
+ * and as a Specification (same predicate)
+ */
+public enum MovieSearchFilter {
+    TITLE("m.title = :title", MovieSearchCriteria::getTitle,
+            value -> (root, query, cb) -> cb.equal(root.get("title"), value)),
+    // escape ! : no backslash in SQL literals (MariaDB)
+    TITLE_PREFIX("m.title like :titlePrefix escape '!'", criteria -> likePrefix(criteria.getTitlePrefix()),
+            value -> (root, query, cb) -> cb.like(root.get("title"), (String) value, '!')),
+    YEAR_MIN("m.year >= :yearMin", MovieSearchCriteria::getYearMin,
+            value -> (root, query, cb) -> cb.ge(root.get("year"), (Integer) value)),
+    YEAR_MAX("m.year <= :yearMax", MovieSearchCriteria::getYearMax,
+            value -> (root, query, cb) -> cb.le(root.get("year"), (Integer) value)),
+    DURATION_MIN("m.duration >= :durationMin", MovieSearchCriteria::getDurationMin,
+            value -> (root, query, cb) -> cb.ge(root.get("duration"), (Integer) value)),
+    DURATION_MAX("m.duration <= :durationMax", MovieSearchCriteria::getDurationMax,
+            value -> (root, query, cb) -> cb.le(root.get("duration"), (Integer) value)),
+    COLORS("m.color in :colors", MovieSearchCriteria::getColors,
+            value -> (root, query, cb) -> root.get("color").in((Iterable<?>) value)),
+    ANY_GENRES("bitand(m.genreMask, :anyGenres) <> 0", criteria -> mask(criteria.getAnyGenres()),
+            value -> (root, query, cb) -> cb.notEqual(bitand(root, cb, value), 0L)),
+    ALL_GENRES("bitand(m.genreMask, :allGenres) = :allGenres", criteria -> mask(criteria.getAllGenres()),
+            value -> (root, query, cb) -> cb.equal(bitand(root, cb, value), value)),
+    DIRECTOR_NAME("m.director.name = :directorName", MovieSearchCriteria::getDirectorName,
+            value -> (root, query, cb) -> cb.equal(root.get("director").get("name"), value)),
+    // subquery : no duplicate movie, no distinct
+    ACTOR_NAME("m.id in (select am.id from Movie am join am.actors a where a.name = :actorName)",
+            MovieSearchCriteria::getActorName,
+            value -> (root, query, cb) -> {
+                var subquery = query.subquery(Integer.class);
+                var movie = subquery.from(Movie.class);
+                subquery.select(movie.get("id"))
+                        .where(cb.equal(movie.join("actors").get("name"), value));
+                return root.get("id").in(subquery);
+            });
+
+    private final String jpql;
+    private final Function<MovieSearchCriteria, Object> value;
+    private final Function<Object, Specification<Movie>> specification;
+
+    MovieSearchFilter(String jpql, Function<MovieSearchCriteria, Object> value,
+                      Function<Object, Specification<Movie>> specification) {
+        this.jpql = jpql;
+        this.value = value;
+        this.specification = specification;
+    }
+
+    public String getJpql() {
+        return jpql;
+    }
+
+    public String getParameterName() {
+        return jpql.substring(jpql.indexOf(':') + 1).split("\\W", 2)[0];
+    }
+
+    /**
+     * @return parameter value, null if the criteria does not use this filter
+     */
+    public Object value(MovieSearchCriteria criteria) {
+        return value.apply(criteria);
+    }
+
+    public Specification<Movie> toSpecification(MovieSearchCriteria criteria) {
+        return specification.apply(value(criteria));
+    }
+
+    private static Long mask(Set<Genre> genres) {
+        return genres == null || genres.isEmpty() ? null : Genre.toMask(genres);
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix == null ? null
+                : prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private static Expression<Long> bitand(Root<Movie> root, CriteriaBuilder cb, Object mask) {
+        return cb.function("bitand", Long.class, root.get("genreMask"), cb.literal((Long) mask));
+    }
+}
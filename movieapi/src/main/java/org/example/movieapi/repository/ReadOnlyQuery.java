@@ -0,0 +1,31 @@
+package org.example.movieapi.repository;
+
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Read only query methods returning a List (or a single entity) :
+ * - read only hint : entities loaded without snapshot, never dirty checked (changes are ignored),
+ * - flush mode MANUAL : no auto flush of the persistence context before the query,
+ * - read only transaction when called outside a transaction : session read only by default,
+ *   connection routed to the replica (see datasource.ReadOnlyRoutingDataSource).
+ * Inside a read/write transaction, the transaction is joined : only the hints apply.
+ * NB : not for Stream methods (the transaction would end with the method), see StreamingQuery.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+@QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+public @interface ReadOnlyQuery {
+}
@@ -0,0 +1,29 @@
+package org.example.movieapi.repository;
+
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Hints for Stream query methods :
+ * - fetch size : spring.jpa.properties.hibernate.jdbc.fetch_size (all statements, same value as the scans
+ *   of IMovieStreamRepository), MariaDB driver streams rows instead of buffering the whole result set
+ * - read only : no snapshot kept for dirty checking
+ * - cache mode IGNORE : a scan does not flush hot entries out of the second level cache
+ * NB : entities still stay in the persistence context until the end of the transaction,
+ * use IMovieStreamRepository for full scans.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+public @interface StreamingQuery {
+}
@@ -0,0 +1,136 @@
+package org.example.movieapi.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceContext;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Runs a unit of work in its own transaction, again in a new transaction when it conflicts with
+ * a concurrent update (version checked by @Version of Movie and People), with a randomized backoff :
+ * the work re-reads the entities and re-applies its changes on their current state.
+ * No row lock held between the read and the commit (vs SELECT ... FOR UPDATE).
+ * NB : never inside a transaction, a conflict rolls back the whole transaction
+ */
+@Slf4j
+@Service
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicLong conflictCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(IntFunction<T> work) {
+        return execute(RetryOptions.defaults(), work);
+    }
+
+    /**
+     * @param work unit of work receiving the attempt number (1 for the first one)
+     * @return result of the first attempt committed
+     * @throws OptimisticLockingFailureException conflict at each of the maxAttempts attempts
+     */
+    public <T> T execute(RetryOptions options, IntFunction<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Retry of optimistic conflicts needs its own transactions:"
+                    + " call outside a transaction");
+        }
+        for (int attempt = 1; ; attempt++) {
+            int currentAttempt = attempt;
+            try {
+                return transactionTemplate.execute(status -> work.apply(currentAttempt));
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                conflictCount.incrementAndGet();
+                if (attempt >= options.getMaxAttempts()) {
+                    failureCount.incrementAndGet();
+                    log.warn("Optimistic conflict, giving up after {} attempts: {}", attempt, e.getMessage());
+                    throw e instanceof OptimisticLockingFailureException ? e
+                            : new OptimisticLockingFailureException(e.getMessage(), e);
+                }
+                log.debug("Optimistic conflict at attempt {}, retrying: {}", attempt, e.getMessage());
+                backoff(options, attempt, e);
+            }
+        }
+    }
+
+    public <E> E update(Class<E> entityClass, Object id, Consumer<E> mutation) {
+        return update(RetryOptions.defaults(), entityClass, id, mutation);
+    }
+
+    /**
+     * Read the entity, apply the mutation and commit, again on conflict
+     * (retries read from the database, never from the second level cache).
+     * @return entity updated (detached)
+     * @throws EntityNotFoundException no entity with this id (deleted meanwhile)
+     */
+    public <E> E update(RetryOptions options, Class<E> entityClass, Object id, Consumer<E> mutation) {
+        return execute(options, attempt -> {
+            var entity = attempt == 1 ? entityManager.find(entityClass, id)
+                    : entityManager.find(entityClass, id,
+                    Map.of("javax.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS));
+            if (entity == null) {
+                throw new EntityNotFoundException(entityClass.getSimpleName() + " " + id + " not found");
+            }
+            mutation.accept(entity);
+            return entity;
+        });
+    }
+
+    /**
+     * @return attempts rolled back by a conflict since startup
+     */
+    public long getConflictCount() {
+        return conflictCount.get();
+    }
+
+    /**
+     * @return units of work given up after maxAttempts conflicts
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    static boolean isConflict(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void backoff(RetryOptions options, int retry, RuntimeException conflict) {
+        long millis = options.backoff(retry).toMillis();
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(millis / 2, millis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
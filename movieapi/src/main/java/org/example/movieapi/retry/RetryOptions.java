@@ -0,0 +1,45 @@
+package org.example.movieapi.retry;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Tuning of the retries of OptimisticRetryExecutor
+ */
+@Getter
+@Builder
+public class RetryOptions {
+
+    /**
+     * attempts including the first one
+     */
+    @Builder.Default
+    private int maxAttempts = 5;
+
+    /**
+     * wait before the first retry, multiplied by backoffMultiplier at each retry
+     * (randomized between 50% and 100% : concurrent retries do not collide again)
+     */
+    @Builder.Default
+    private Duration initialBackoff = Duration.ofMillis(5);
+
+    @Builder.Default
+    private double backoffMultiplier = 2.0;
+
+    @Builder.Default
+    private Duration maxBackoff = Duration.ofMillis(200);
+
+    public static RetryOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     */
+    Duration backoff(int retry) {
+        double millis = initialBackoff.toMillis() * Math.pow(backoffMultiplier, retry - 1);
+        return Duration.ofMillis((long) Math.min(millis, maxBackoff.toMillis()));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.movieapi.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merge of lists sorted by the same order (results of the shards) : O(n log k) for k lists
+ */
+final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    /**
+     * @param sortedLists each one sorted by order
+     * @return limit first elements of all the lists, sorted by order
+     */
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> order, int limit) {
+        var heads = new PriorityQueue<Cursor<T>>(Math.max(1, sortedLists.size()),
+                (cursor1, cursor2) -> order.compare(cursor1.head(), cursor2.head()));
+        int total = 0;
+        for (var list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list));
+                total += list.size();
+            }
+        }
+        var merged = new ArrayList<T>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            var cursor = heads.poll();
+            merged.add(cursor.head());
+            if (++cursor.position < cursor.list.size()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor<T> {
+        final List<T> list;
+        int position;
+
+        Cursor(List<T> list) {
+            this.list = list;
+        }
+
+        T head() {
+            return list.get(position);
+        }
+    }
+}
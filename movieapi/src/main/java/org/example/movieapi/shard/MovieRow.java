@@ -0,0 +1,25 @@
+package org.example.movieapi.shard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+
+import java.util.Set;
+
+/**
+ * Movie read from a year shard (no entity : shards are outside the persistence unit)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MovieRow {
+    private final int id;
+    private final String title;
+    private final int year;
+    private final Integer duration;
+    private final Color color;
+    private final Set<Genre> genres;
+    private final Integer directorId;
+}
@@ -0,0 +1,140 @@
+package org.example.movieapi.shard;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Movie queries on the year shards :
+ * - queries with a year range only read the shards of the range (pruning),
+ * - the other ones are sent to all the shards in parallel (fan out),
+ * then the sorted results of the shards are merged (k-way merge, limit applied by each shard and by the merge).
+ */
+public class ShardedMovieQueries {
+
+    private static final String SELECT = "select id, title, year, duration, color, genres, fk_director_id from movie";
+
+    static final Comparator<MovieRow> BY_YEAR_TITLE_ID = Comparator.comparingInt(MovieRow::getYear)
+            .thenComparing(MovieRow::getTitle)
+            .thenComparingInt(MovieRow::getId);
+    // same order as "order by cast(title as binary), year, id" of the shards : UTF-8 bytes of utf8mb4 titles
+    // (H2 : UTF-8 too) compare as Unicode code points, whatever the collation of the column
+    // (vs lower(title) : case and accent insensitive collation of MariaDB, not the order of Java)
+    static final Comparator<MovieRow> BY_TITLE_YEAR_ID = Comparator.comparing(MovieRow::getTitle,
+                    ShardedMovieQueries::compareCodePoints)
+            .thenComparingInt(MovieRow::getYear)
+            .thenComparingInt(MovieRow::getId);
+    static final Comparator<MovieRow> BY_DURATION_DESC_ID = Comparator.comparing(MovieRow::getDuration,
+                    Comparator.reverseOrder())
+            .thenComparingInt(MovieRow::getId);
+
+    private static final RowMapper<MovieRow> MOVIE_ROW = (resultSet, rowNum) -> {
+        var color = resultSet.getString(5);
+        return new MovieRow(
+                resultSet.getInt(1),
+                resultSet.getString(2),
+                resultSet.getInt(3),
+                (Integer) resultSet.getObject(4),
+                color == null ? null : Color.valueOf(color),
+                Genre.fromMask(resultSet.getLong(6)),
+                (Integer) resultSet.getObject(7));
+    };
+
+    private final YearShards shards;
+
+    public ShardedMovieQueries(YearShards shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * movies of a year range ordered by year, title, id (pruned)
+     */
+    public List<MovieRow> findByYearBetween(int yearMin, int yearMax, int limit) {
+        return query(shards.prune(yearMin, yearMax), "where year between ? and ?", "order by year, title, id",
+                BY_YEAR_TITLE_ID, limit, yearMin, yearMax);
+    }
+
+    /**
+     * same as IMovieRepository.findByTitleRangeYear, ordered by year, id (pruned)
+     */
+    public List<MovieRow> findByTitleRangeYear(String title, int yearMin, int yearMax) {
+        return query(shards.prune(yearMin, yearMax), "where title = ? and year between ? and ?",
+                "order by year, title, id", BY_YEAR_TITLE_ID, Integer.MAX_VALUE, title, yearMin, yearMax);
+    }
+
+    /**
+     * movies with a title starting with prefix, ordered by title (binary : code points, case sensitive),
+     * year, id (fan out)
+     */
+    public List<MovieRow> findByTitleStartingWith(String prefix, int limit) {
+        return query(shards.getShards(), "where title like ?", "order by cast(title as binary), year, id",
+                BY_TITLE_YEAR_ID, limit, prefix.replace("%", "\\%").replace("_", "\\_") + "%");
+    }
+
+    /**
+     * longest movies, ordered by duration desc, id (fan out, top limit of each shard)
+     */
+    public List<MovieRow> findLongest(int limit) {
+        return query(shards.getShards(), "where duration is not null", "order by duration desc, id",
+                BY_DURATION_DESC_ID, limit);
+    }
+
+    /**
+     * e.g. '%Star%' : scan of every shard, in parallel (fan out)
+     */
+    public long countByTitleLike(String titlePattern) {
+        return sum(shards.fanOut(shards.getShards(), shard -> shard.getJdbcTemplate().queryForObject(
+                "select count(*) from movie where title like ?", Long.class, titlePattern)));
+    }
+
+    public long countByYearBetween(int yearMin, int yearMax) {
+        return sum(shards.fanOut(shards.prune(yearMin, yearMax), shard -> shard.getJdbcTemplate().queryForObject(
+                "select count(*) from movie where year between ? and ?", Long.class, yearMin, yearMax)));
+    }
+
+    /**
+     * order of Unicode code points = order of UTF-8 bytes (vs String.compareTo : UTF-16 units)
+     */
+    static int compareCodePoints(String text1, String text2) {
+        int i = 0;
+        int j = 0;
+        while (i < text1.length() && j < text2.length()) {
+            int codePoint1 = text1.codePointAt(i);
+            int codePoint2 = text2.codePointAt(j);
+            if (codePoint1 != codePoint2) {
+                return Integer.compare(codePoint1, codePoint2);
+            }
+            i += Character.charCount(codePoint1);
+            j += Character.charCount(codePoint2);
+        }
+        return Boolean.compare(i < text1.length(), j < text2.length());
+    }
+
+    private static long sum(List<Long> counts) {
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param order same order as orderBy
+     */
+    private List<MovieRow> query(List<YearShard> targets, String where, String orderBy,
+                                 Comparator<MovieRow> order, int limit, Object... args) {
+        if (targets.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        var sql = SELECT + " " + where + " " + orderBy + (limit == Integer.MAX_VALUE ? "" : " limit " + limit);
+        var results = shards.fanOut(targets, shard -> shard.getJdbcTemplate().query(sql, MOVIE_ROW, args));
+        // shards ordered by year : year order = concatenation
+        if (order == BY_YEAR_TITLE_ID) {
+            return results.stream()
+                    .flatMap(List::stream)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        return KWayMerge.merge(results, order, limit);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.movieapi.shard;
+
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Database (or schema) holding the movies of years fromYear .. toYear (inclusive) with their play rows,
+ * and a copy of all the people (directors and actors of any shard)
+ */
+@Getter
+public class YearShard {
+
+    private final String name;
+    // Integer.MIN_VALUE / MAX_VALUE : no bound
+    private final int fromYear;
+    private final int toYear;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public YearShard(String name, int fromYear, int toYear, DataSource dataSource) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("Empty year range of shard " + name + ": " + fromYear + ".." + toYear);
+        }
+        this.name = name;
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+    }
+
+    public boolean contains(int year) {
+        return fromYear <= year && year <= toYear;
+    }
+
+    public boolean overlaps(int yearMin, int yearMax) {
+        return fromYear <= yearMax && yearMin <= toYear;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + (fromYear == Integer.MIN_VALUE ? "" : fromYear) + ".."
+                + (toYear == Integer.MAX_VALUE ? "" : toYear) + "]";
+    }
+}
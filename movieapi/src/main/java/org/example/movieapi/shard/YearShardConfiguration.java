@@ -0,0 +1,75 @@
+package org.example.movieapi.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Collectors;
+
+/**
+ * Year shards of table movie when movieapi.year-shards[0].url is set, e.g.
+ * movieapi.year-shards[0].url=jdbc:mariadb://localhost:3306/dbmovie_until_1959
+ * movieapi.year-shards[0].to-year=1959
+ * movieapi.year-shards[1].url=jdbc:mariadb://localhost:3306/dbmovie_1960_1999
+ * movieapi.year-shards[1].from-year=1960
+ * movieapi.year-shards[1].to-year=1999
+ * movieapi.year-shards[2].url=jdbc:mariadb://localhost:3306/dbmovie_since_2000
+ * movieapi.year-shards[2].from-year=2000
+ * (username / password : spring.datasource.* by default, schema : sql/dbmovie_year_shards.sql)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("movieapi.year-shards[0].url")
+public class YearShardConfiguration {
+
+    @Getter
+    @Setter
+    public static class YearShardProperties {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private Integer fromYear;
+        private Integer toYear;
+    }
+
+    @Bean(destroyMethod = "close")
+    public YearShards yearShards(Environment environment) {
+        var properties = Binder.get(environment)
+                .bind("movieapi.year-shards", Bindable.listOf(YearShardProperties.class))
+                .get();
+        var yearShards = new YearShards(properties.stream()
+                .map(shard -> new YearShard(
+                        shard.getName() == null ? shard.getUrl() : shard.getName(),
+                        shard.getFromYear() == null ? Integer.MIN_VALUE : shard.getFromYear(),
+                        shard.getToYear() == null ? Integer.MAX_VALUE : shard.getToYear(),
+                        DataSourceBuilder.create()
+                                .url(shard.getUrl())
+                                .username(shard.getUsername() == null
+                                        ? environment.getProperty("spring.datasource.username") : shard.getUsername())
+                                .password(shard.getPassword() == null
+                                        ? environment.getProperty("spring.datasource.password") : shard.getPassword())
+                                .build()))
+                .collect(Collectors.toList()));
+        log.info("Year shards of movies: {}", yearShards.getShards());
+        return yearShards;
+    }
+
+    @Bean
+    public ShardedMovieQueries shardedMovieQueries(YearShards yearShards) {
+        return new ShardedMovieQueries(yearShards);
+    }
+
+    @Bean
+    public YearShardLoader yearShardLoader(JdbcTemplate jdbcTemplate, YearShards yearShards) {
+        return new YearShardLoader(jdbcTemplate, yearShards);
+    }
+}
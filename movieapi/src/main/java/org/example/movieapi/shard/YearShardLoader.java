@@ -0,0 +1,217 @@
+package org.example.movieapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.model.ChangeRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the year shards from the main database (tables movie, play, people) :
+ * - load() copies everything (empty shards),
+ * - apply() copies the movies and people of change feed records (outbox.ChangeFeedReader handler) :
+ *   idempotent (a batch applied again gives the same rows), a movie changing of year moves to its new shard.
+ * Each movie goes to the shard of its year with its play rows, people are copied in every shard.
+ * NB : genres are a column of movie (bitmask), table genre is only a staging table of the dumps
+ */
+@Slf4j
+public class YearShardLoader {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String SELECT_PEOPLE = "select id, name, birthdate, birth_year, version from people";
+    private static final String SELECT_MOVIE = "select id, title, year, duration, color, genres, synopsis, version,"
+            + " fk_director_id from movie";
+    private static final String SELECT_PLAY = "select p.fk_movie_id, p.fk_actor_id, m.year"
+            + " from play p join movie m on m.id = p.fk_movie_id";
+    private static final String INSERT_PEOPLE = "insert into people (id, name, birthdate, birth_year, version)"
+            + " values (?, ?, ?, ?, ?)";
+    private static final String UPDATE_PEOPLE = "update people set name = ?, birthdate = ?, birth_year = ?,"
+            + " version = ? where id = ?";
+    private static final String INSERT_MOVIE = "insert into movie (id, title, year, duration, color, genres,"
+            + " synopsis, version, fk_director_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PLAY = "insert into play (fk_movie_id, fk_actor_id) values (?, ?)";
+
+    private final JdbcTemplate source;
+    private final YearShards shards;
+
+    public YearShardLoader(JdbcTemplate source, YearShards shards) {
+        this.source = source;
+        this.shards = shards;
+    }
+
+    /**
+     * Copies all the movies, plays and people in empty shards
+     * @return movies copied by shard name
+     */
+    public Map<String, Long> load() {
+        long start = System.nanoTime();
+        var people = new Batches(INSERT_PEOPLE);
+        source.query(SELECT_PEOPLE, resultSet -> {
+            var row = new Object[]{resultSet.getInt(1), resultSet.getString(2), resultSet.getDate(3),
+                    resultSet.getObject(4), resultSet.getInt(5)};
+            shards.getShards().forEach(shard -> people.add(shard, row));
+        });
+        people.flush();
+        var movies = new Batches(INSERT_MOVIE);
+        source.query(SELECT_MOVIE, resultSet -> {
+            var row = movieRow(resultSet);
+            movies.add(shards.shardFor((Integer) row[2]), row);
+        });
+        movies.flush();
+        var plays = new Batches(INSERT_PLAY);
+        source.query(SELECT_PLAY, resultSet -> {
+            plays.add(shards.shardFor(resultSet.getInt(3)), new Object[]{resultSet.getInt(1), resultSet.getInt(2)});
+        });
+        plays.flush();
+        log.info("Year shards loaded in {} ms: movies {}, plays {}", (System.nanoTime() - start) / 1_000_000,
+                movies.counts, plays.counts);
+        return movies.counts;
+    }
+
+    /**
+     * Copies the current state of the movies and people of the records (deleted ones are deleted)
+     */
+    public void apply(List<ChangeRecord> records) {
+        var movieIds = new LinkedHashSet<Integer>();
+        var peopleIds = new LinkedHashSet<Integer>();
+        for (var record : records) {
+            ("People".equals(record.getEntity()) ? peopleIds : movieIds).add(record.getEntityId());
+        }
+        // people first, with the directors and actors of the movies (their record may be in a later batch),
+        // deleted people last (no movie left)
+        var deletedPeopleIds = upsertPeople(peopleIds);
+        upsertPeople(referencedPeople(movieIds, peopleIds));
+        copyMovies(movieIds);
+        forEachChunk(deletedPeopleIds, (in, args) -> shards.getShards().forEach(shard ->
+                shard.getJdbcTemplate().update("delete from people where id in " + in, args)));
+        log.debug("Year shards : {} movies, {} people applied", movieIds.size(), peopleIds.size());
+    }
+
+    /**
+     * @return ids of people deleted from the main database
+     */
+    private Collection<Integer> upsertPeople(Collection<Integer> peopleIds) {
+        var rows = new LinkedHashMap<Integer, Object[]>();
+        forEachChunk(peopleIds, (in, args) -> source.query(SELECT_PEOPLE + " where id in " + in, resultSet -> {
+            rows.put(resultSet.getInt(1), new Object[]{resultSet.getString(2), resultSet.getDate(3),
+                    resultSet.getObject(4), resultSet.getInt(5), resultSet.getInt(1)});
+        }, args));
+        for (var shard : shards.getShards()) {
+            var existing = new HashSet<Integer>();
+            forEachChunk(rows.keySet(), (in, args) -> existing.addAll(shard.getJdbcTemplate()
+                    .queryForList("select id from people where id in " + in, Integer.class, args)));
+            var updates = new ArrayList<Object[]>();
+            var inserts = new ArrayList<Object[]>();
+            rows.forEach((id, row) -> {
+                if (existing.contains(id)) {
+                    updates.add(row);
+                } else {
+                    inserts.add(new Object[]{row[4], row[0], row[1], row[2], row[3]});
+                }
+            });
+            shard.getJdbcTemplate().batchUpdate(UPDATE_PEOPLE, updates);
+            shard.getJdbcTemplate().batchUpdate(INSERT_PEOPLE, inserts);
+        }
+        return peopleIds.stream()
+                .filter(id -> !rows.containsKey(id))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return directors and actors of the movies, except the ones of exceptIds
+     */
+    private Collection<Integer> referencedPeople(Collection<Integer> movieIds, Collection<Integer> exceptIds) {
+        var ids = new LinkedHashSet<Integer>();
+        forEachChunk(movieIds, (in, args) -> {
+            ids.addAll(source.queryForList("select fk_director_id from movie where fk_director_id is not null"
+                    + " and id in " + in, Integer.class, args));
+            ids.addAll(source.queryForList("select fk_actor_id from play where fk_movie_id in " + in,
+                    Integer.class, args));
+        });
+        ids.removeAll(exceptIds);
+        return ids;
+    }
+
+    private void copyMovies(Collection<Integer> movieIds) {
+        // previous year unknown : removed from every shard
+        forEachChunk(movieIds, (in, args) -> shards.getShards().forEach(shard -> {
+            shard.getJdbcTemplate().update("delete from play where fk_movie_id in " + in, args);
+            shard.getJdbcTemplate().update("delete from movie where id in " + in, args);
+        }));
+        var movies = new Batches(INSERT_MOVIE);
+        var plays = new Batches(INSERT_PLAY);
+        forEachChunk(movieIds, (in, args) -> {
+            source.query(SELECT_MOVIE + " where id in " + in, resultSet -> {
+                var row = movieRow(resultSet);
+                movies.add(shards.shardFor((Integer) row[2]), row);
+            }, args);
+            movies.flush();
+            source.query(SELECT_PLAY + " where p.fk_movie_id in " + in, resultSet -> {
+                plays.add(shards.shardFor(resultSet.getInt(3)),
+                        new Object[]{resultSet.getInt(1), resultSet.getInt(2)});
+            }, args);
+            plays.flush();
+        });
+    }
+
+    private static Object[] movieRow(ResultSet resultSet) throws SQLException {
+        return new Object[]{resultSet.getInt(1), resultSet.getString(2), resultSet.getInt(3),
+                resultSet.getObject(4), resultSet.getString(5), resultSet.getLong(6), resultSet.getString(7),
+                resultSet.getInt(8), resultSet.getObject(9)};
+    }
+
+    private interface ChunkQuery {
+        void query(String in, Object[] args);
+    }
+
+    private static void forEachChunk(Collection<Integer> ids, ChunkQuery query) {
+        var list = List.copyOf(ids);
+        for (int from = 0; from < list.size(); from += BATCH_SIZE) {
+            var chunk = list.subList(from, Math.min(from + BATCH_SIZE, list.size()));
+            query.query(chunk.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")")), chunk.toArray());
+        }
+    }
+
+    /**
+     * rows waiting for their JDBC batch, by shard
+     */
+    private static class Batches {
+        final String sql;
+        final Map<YearShard, List<Object[]>> rows = new HashMap<>();
+        final Map<String, Long> counts = new LinkedHashMap<>();
+
+        Batches(String sql) {
+            this.sql = sql;
+        }
+
+        void add(YearShard shard, Object[] row) {
+            var shardRows = rows.computeIfAbsent(shard, s -> new ArrayList<>());
+            shardRows.add(row);
+            if (shardRows.size() >= BATCH_SIZE) {
+                flush(shard, shardRows);
+            }
+        }
+
+        void flush() {
+            rows.forEach(this::flush);
+        }
+
+        private void flush(YearShard shard, List<Object[]> shardRows) {
+            if (!shardRows.isEmpty()) {
+                shard.getJdbcTemplate().batchUpdate(sql, shardRows);
+                counts.merge(shard.getName(), (long) shardRows.size(), Long::sum);
+                shardRows.clear();
+            }
+        }
+    }
+}
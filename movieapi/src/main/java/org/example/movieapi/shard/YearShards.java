@@ -0,0 +1,127 @@
+package org.example.movieapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shards of table movie by year range : contiguous ranges covering all the years
+ * (first shard without lower bound, last one without upper bound).
+ * prune keeps the shards of a year range, fanOut queries shards in parallel (one thread per shard).
+ * Owns the data sources of the shards (closed by close()).
+ */
+@Slf4j
+public class YearShards implements AutoCloseable {
+
+    private final List<YearShard> shards;
+    private final ExecutorService executor;
+
+    public YearShards(List<YearShard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No year shard");
+        }
+        var sorted = new ArrayList<>(shards);
+        sorted.sort(Comparator.comparingInt(YearShard::getFromYear));
+        if (sorted.get(0).getFromYear() != Integer.MIN_VALUE
+                || sorted.get(sorted.size() - 1).getToYear() != Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Year shards must cover all years: " + sorted);
+        }
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i - 1).getToYear() + 1L != sorted.get(i).getFromYear()) {
+                throw new IllegalArgumentException("Year shards not contiguous: " + sorted.get(i - 1)
+                        + ", " + sorted.get(i));
+            }
+        }
+        this.shards = List.copyOf(sorted);
+        var counter = new AtomicLong();
+        this.executor = Executors.newFixedThreadPool(sorted.size(), runnable -> {
+            var thread = new Thread(runnable, "year-shard-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return shards ordered by year
+     */
+    public List<YearShard> getShards() {
+        return shards;
+    }
+
+    public YearShard shardFor(int year) {
+        for (var shard : shards) {
+            if (shard.contains(year)) {
+                return shard;
+            }
+        }
+        throw new IllegalStateException("No shard for year " + year); // ranges cover all years
+    }
+
+    /**
+     * @return shards holding years yearMin .. yearMax, ordered by year (none if empty range)
+     */
+    public List<YearShard> prune(int yearMin, int yearMax) {
+        if (yearMin > yearMax) {
+            return List.of();
+        }
+        return shards.stream()
+                .filter(shard -> shard.overlaps(yearMin, yearMax))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs the query on each shard, in parallel when several
+     * @return results in the order of the shards
+     */
+    public <T> List<T> fanOut(List<YearShard> targets, Function<YearShard, T> query) {
+        if (targets.size() == 1) {
+            return List.of(query.apply(targets.get(0)));
+        }
+        var futures = new ArrayList<Future<T>>(targets.size());
+        for (var shard : targets) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+        var results = new ArrayList<T>(targets.size());
+        try {
+            for (var future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying year shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Query of a year shard failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (var shard : shards) {
+            if (shard.getDataSource() instanceof Closeable) {
+                try {
+                    ((Closeable) shard.getDataSource()).close();
+                } catch (IOException e) {
+                    log.warn("Unable to close data source of year shard {}", shard.getName(), e);
+                }
+            }
+        }
+    }
+}
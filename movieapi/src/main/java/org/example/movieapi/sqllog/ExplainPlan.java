@@ -0,0 +1,36 @@
+package org.example.movieapi.sqllog;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * EXPLAIN of a statement with its bind parameters (MariaDB and H2) :
+ * plan rows as text, columns separated by " | "
+ */
+public final class ExplainPlan {
+
+    private ExplainPlan() {
+    }
+
+    public static String explain(Connection connection, String sql, Object[] parameters) throws SQLException {
+        try (var statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            var plan = new StringBuilder();
+            try (var resultSet = statement.executeQuery()) {
+                var meta = resultSet.getMetaData();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    plan.append(i == 1 ? "" : " | ").append(meta.getColumnLabel(i));
+                }
+                while (resultSet.next()) {
+                    plan.append('\n');
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        plan.append(i == 1 ? "" : " | ").append(resultSet.getString(i));
+                    }
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
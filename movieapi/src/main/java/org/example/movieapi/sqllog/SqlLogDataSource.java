@@ -0,0 +1,146 @@
+package org.example.movieapi.sqllog;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Data source whose statements report each execution (SQL, bind parameters, time, rows) to a SqlLogger.
+ * Bind parameters are only stored in an array of the statement : no formatting in JDBC threads.
+ */
+public class SqlLogDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final SqlLogger sqlLogger;
+
+    public SqlLogDataSource(DataSource targetDataSource, SqlLogger sqlLogger) {
+        super(targetDataSource);
+        this.sqlLogger = sqlLogger;
+    }
+
+    public SqlLogger getSqlLogger() {
+        return sqlLogger;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    var result = invoke(connection, method, args);
+                    var name = method.getName();
+                    if (result instanceof Statement
+                            && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement"))) {
+                        var sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                                : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                                new StatementHandler((Statement) result, sql));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private int batchSize;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, 0, parameterCount, null);
+                parameterCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            return SqlLogDataSource.invoke(statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            var executedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : sql != null ? sql : "(batch of statements)";
+            int executedBatchSize = method.getName().contains("Batch") ? batchSize : 0;
+            long start = System.nanoTime();
+            Object result = null;
+            Throwable error = null;
+            try {
+                result = SqlLogDataSource.invoke(statement, method, args);
+                return result;
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (executedBatchSize > 0) {
+                    batchSize = 0;
+                }
+                sqlLogger.executed(executedSql, parameters, parameterCount, executedBatchSize,
+                        start, elapsed, rows(result), error);
+            }
+        }
+
+        // updated rows, -1 for queries (rows not counted)
+        private long rows(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                return Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            }
+            if (result instanceof long[]) {
+                return Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.movieapi.sqllog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the data sources in a SqlLogDataSource when movieapi.sql-log.enabled=true, e.g.
+ * movieapi.sql-log.sample-rate=0.01
+ * movieapi.sql-log.slow-threshold-ms=100
+ * movieapi.sql-log.buffer-size=8192
+ * movieapi.sql-log.explain=true
+ * Log category : org.example.movieapi.sqllog.SqlLogger
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("movieapi.sql-log.enabled")
+public class SqlLogDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware, DisposableBean {
+
+    private Environment environment;
+    private final List<SqlLogger> sqlLoggers = new ArrayList<>();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof SqlLogDataSource
+                || !environment.getProperty("movieapi.sql-log.enabled", Boolean.class, false)) {
+            return bean;
+        }
+        var defaults = SqlLogOptions.defaults();
+        var options = SqlLogOptions.builder()
+                .sampleRate(environment.getProperty("movieapi.sql-log.sample-rate",
+                        Double.class, defaults.getSampleRate()))
+                .slowThresholdMillis(environment.getProperty("movieapi.sql-log.slow-threshold-ms",
+                        Long.class, defaults.getSlowThresholdMillis()))
+                .bufferSize(environment.getProperty("movieapi.sql-log.buffer-size",
+                        Integer.class, defaults.getBufferSize()))
+                .explain(environment.getProperty("movieapi.sql-log.explain",
+                        Boolean.class, defaults.isExplain()))
+                .build();
+        var sqlLogger = new SqlLogger((DataSource) bean, options);
+        synchronized (sqlLoggers) {
+            sqlLoggers.add(sqlLogger);
+        }
+        log.info("SQL log of data source {} : sample rate {}, slow threshold {} ms",
+                beanName, options.getSampleRate(), options.getSlowThresholdMillis());
+        return new SqlLogDataSource((DataSource) bean, sqlLogger);
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (sqlLoggers) {
+            sqlLoggers.forEach(SqlLogger::close);
+        }
+    }
+}
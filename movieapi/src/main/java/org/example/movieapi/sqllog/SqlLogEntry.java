@@ -0,0 +1,63 @@
+package org.example.movieapi.sqllog;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * A statement executed : SQL, bind parameters (by index, null if not set), timing, rows,
+ * and the EXPLAIN plan for slow ones (set by the logger thread)
+ */
+@Getter
+public class SqlLogEntry {
+
+    private final String sql;
+    private final Object[] parameters;
+    private final int batchSize;
+    private final long startMillis;
+    private final long elapsedNanos;
+    private final long rows;
+    private final String threadName;
+    private final String error;
+    private final boolean slow;
+    private volatile String plan;
+
+    SqlLogEntry(String sql, Object[] parameters, int batchSize, long startMillis, long elapsedNanos,
+                long rows, String threadName, String error, boolean slow) {
+        this.sql = sql;
+        this.parameters = parameters;
+        this.batchSize = batchSize;
+        this.startMillis = startMillis;
+        this.elapsedNanos = elapsedNanos;
+        this.rows = rows;
+        this.threadName = threadName;
+        this.error = error;
+        this.slow = slow;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    public String formatParameters() {
+        return Arrays.stream(parameters)
+                .map(SqlLogEntry::format)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[]) {
+            return "byte[" + ((byte[]) value).length + "]";
+        }
+        var text = value.toString();
+        return text.length() > 100 ? text.substring(0, 100) + "..." : text;
+    }
+}
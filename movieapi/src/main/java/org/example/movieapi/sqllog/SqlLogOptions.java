@@ -0,0 +1,49 @@
+package org.example.movieapi.sqllog;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Tuning of the SQL log (properties movieapi.sql-log.*)
+ */
+@Getter
+@Builder
+public class SqlLogOptions {
+
+    /**
+     * part of statements logged (0 to 1), slow statements are always logged
+     */
+    @Builder.Default
+    private double sampleRate = 0.01;
+
+    /**
+     * statements at least this slow are logged with their EXPLAIN plan
+     */
+    @Builder.Default
+    private long slowThresholdMillis = 100;
+
+    /**
+     * entries waiting for the logger thread (power of 2), new entries are dropped when full
+     */
+    @Builder.Default
+    private int bufferSize = 8192;
+
+    /**
+     * EXPLAIN of slow select statements (once per SQL text among the last explainCacheSize ones)
+     */
+    @Builder.Default
+    private boolean explain = true;
+
+    @Builder.Default
+    private int explainCacheSize = 256;
+
+    /**
+     * last slow statements kept in memory (see SqlLogger.getSlowStatements)
+     */
+    @Builder.Default
+    private int slowHistorySize = 100;
+
+    public static SqlLogOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.movieapi.sqllog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock free ring buffer : many producers (JDBC threads), one consumer (logger thread).
+ * A producer never waits : offer returns false when the buffer is full (entry dropped).
+ * Each slot has a sequence number telling whether it is free for the producer of round n
+ * (sequence == position) or published for the consumer (sequence == position + 1).
+ */
+public class SqlLogRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long consumerPosition;
+
+    /**
+     * @param capacity rounded up to a power of 2
+     */
+    public SqlLogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public boolean offer(T value) {
+        long position = producerPosition.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, value);
+                    sequences.set(slot, position + 1); // publish
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (sequence < position) {
+                dropped.incrementAndGet(); // full : slot not consumed yet
+                return false;
+            } else {
+                position = producerPosition.get(); // claimed by another producer
+            }
+        }
+    }
+
+    /**
+     * single consumer
+     * @return next value, null if empty
+     */
+    public T poll() {
+        long position = consumerPosition;
+        int slot = (int) position & mask;
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        var value = slots.get(slot);
+        slots.lazySet(slot, null);
+        sequences.set(slot, position + mask + 1); // free for the next round
+        consumerPosition = position + 1;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        long position = consumerPosition;
+        return sequences.get((int) position & mask) != position + 1;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.movieapi.sqllog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous SQL log replacing spring.jpa.show-sql : JDBC threads only publish entries
+ * (sampled statements and slow ones) in a ring buffer, a daemon thread writes them to the log
+ * and captures the EXPLAIN plan of slow selects with its own connection.
+ */
+@Slf4j
+public class SqlLogger implements AutoCloseable {
+
+    private final DataSource dataSource;
+    private final SqlLogOptions options;
+    private final long slowThresholdNanos;
+    private final SqlLogRingBuffer<SqlLogEntry> buffer;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private final AtomicLong publishedCount = new AtomicLong();
+    private volatile long consumedCount;
+
+    // last plans by SQL text (LRU)
+    private final Map<String, String> plans;
+    private final ArrayDeque<SqlLogEntry> slowStatements = new ArrayDeque<>();
+    // called by the logger thread with each entry (e.g. advisor.QueryShapeCollector)
+    private final List<Consumer<SqlLogEntry>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param dataSource raw data source (not logged) for EXPLAIN
+     */
+    public SqlLogger(DataSource dataSource, SqlLogOptions options) {
+        this.dataSource = dataSource;
+        this.options = options;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(options.getSlowThresholdMillis());
+        this.buffer = new SqlLogRingBuffer<>(options.getBufferSize());
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > options.getExplainCacheSize();
+            }
+        };
+        thread = new Thread(this::run, "sql-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * called by JDBC threads after each execution : cheap when not sampled
+     * @param parameters bind parameters, copied only if the entry is published
+     */
+    void executed(String sql, Object[] parameters, int parameterCount, int batchSize,
+                  long startNanos, long elapsedNanos, long rows, Throwable error) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && error == null && ThreadLocalRandom.current().nextDouble() >= options.getSampleRate()) {
+            return;
+        }
+        var copy = new Object[parameterCount];
+        System.arraycopy(parameters, 0, copy, 0, parameterCount);
+        long startMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (buffer.offer(new SqlLogEntry(sql, copy, batchSize, startMillis, elapsedNanos, rows,
+                Thread.currentThread().getName(), error == null ? null : error.toString(), slow))) {
+            publishedCount.incrementAndGet();
+        }
+    }
+
+    public void addListener(Consumer<SqlLogEntry> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<SqlLogEntry> listener) {
+        listeners.remove(listener);
+    }
+
+    public long getDroppedCount() {
+        return buffer.getDroppedCount();
+    }
+
+    /**
+     * @return last slow statements with their plan, most recent last
+     */
+    public synchronized List<SqlLogEntry> getSlowStatements() {
+        return new ArrayList<>(slowStatements);
+    }
+
+    /**
+     * waits until the entries published before are logged (e.g. tests)
+     */
+    public void flush() {
+        long published = publishedCount.get();
+        while (consumedCount < published && thread.isAlive()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * stops the logger thread once the entries published before are logged
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            var entry = buffer.poll();
+            if (entry == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                continue;
+            }
+            consume(entry);
+        }
+        // entries published before close
+        SqlLogEntry entry;
+        while ((entry = buffer.poll()) != null) {
+            consume(entry);
+        }
+    }
+
+    private void consume(SqlLogEntry entry) {
+        try {
+            write(entry);
+        } catch (RuntimeException e) {
+            log.warn("SQL log failed on {}", entry.getSql(), e);
+        }
+        consumedCount++;
+    }
+
+    private void write(SqlLogEntry entry) {
+        listeners.forEach(listener -> listener.accept(entry));
+        if (!entry.isSlow()) {
+            log.info("{} ms{} : {} {}{}", String.format("%.3f", entry.getElapsedMillis()), rowsInfo(entry),
+                    entry.getSql(), entry.formatParameters(), batchInfo(entry));
+            return;
+        }
+        if (options.isExplain() && isSelect(entry.getSql())) {
+            entry.setPlan(plans.computeIfAbsent(entry.getSql(), sql -> explain(entry)));
+        }
+        log.warn("Slow SQL {} ms{} : {} {}{}{}", String.format("%.3f", entry.getElapsedMillis()),
+                rowsInfo(entry), entry.getSql(), entry.formatParameters(), batchInfo(entry),
+                entry.getPlan() == null ? "" : "\n" + entry.getPlan());
+        synchronized (this) {
+            slowStatements.addLast(entry);
+            if (slowStatements.size() > options.getSlowHistorySize()) {
+                slowStatements.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * EXPLAIN with the same bind parameters (MariaDB and H2)
+     */
+    private String explain(SqlLogEntry entry) {
+        try (var connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            return ExplainPlan.explain(connection, entry.getSql(), entry.getParameters());
+        } catch (SQLException e) {
+            log.debug("No plan for {}", entry.getSql(), e);
+            return null;
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        var start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with");
+    }
+
+    private static String rowsInfo(SqlLogEntry entry) {
+        return entry.getRows() >= 0 ? ", " + entry.getRows() + " rows" : "";
+    }
+
+    private static String batchInfo(SqlLogEntry entry) {
+        return entry.getBatchSize() > 0 ? " (batch of " + entry.getBatchSize() + ")" : "";
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.movieapi.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Consistency of table director_stat with table movie :
+ * verify() compares with a full GROUP BY, rebuild() recomputes everything
+ * (after a bulk load or writes made without Hibernate entities).
+ */
+@Slf4j
+@Service
+public class DirectorStatChecker {
+
+    private static final String EXPECTED = "select fk_director_id, count(*), coalesce(sum(duration), 0)"
+            + " from movie where fk_director_id is not null group by fk_director_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DirectorStatChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return differences, empty if director_stat is consistent
+     */
+    @Transactional(readOnly = true)
+    public List<DirectorStatMismatch> verify() {
+        var expected = new HashMap<Integer, long[]>();
+        jdbcTemplate.query(EXPECTED, resultSet -> {
+            expected.put(resultSet.getInt(1), new long[]{resultSet.getLong(2), resultSet.getLong(3)});
+        });
+        var actual = new HashMap<Integer, long[]>();
+        jdbcTemplate.query("select fk_director_id, movie_count, duration_total from director_stat", resultSet -> {
+            actual.put(resultSet.getInt(1), new long[]{resultSet.getLong(2), resultSet.getLong(3)});
+        });
+        var directorIds = new TreeSet<>(expected.keySet());
+        directorIds.addAll(actual.keySet());
+        var none = new long[2];
+        var mismatches = new ArrayList<DirectorStatMismatch>();
+        for (var directorId : directorIds) {
+            var expectedStat = expected.getOrDefault(directorId, none);
+            var actualStat = actual.getOrDefault(directorId, none);
+            if (expectedStat[0] != actualStat[0] || expectedStat[1] != actualStat[1]) {
+                mismatches.add(new DirectorStatMismatch(directorId,
+                        expectedStat[0], expectedStat[1], actualStat[0], actualStat[1]));
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Recomputes director_stat from scratch (NB : run when movies are not written concurrently)
+     * @return number of directors
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("delete from director_stat");
+        int directorCount = jdbcTemplate.update(
+                "insert into director_stat (fk_director_id, movie_count, duration_total) " + EXPECTED);
+        log.info("director_stat rebuilt: {} directors in {} ms", directorCount, (System.nanoTime() - start) / 1_000_000);
+        return directorCount;
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.movieapi.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.event.TransactionChangeListener;
+import org.example.movieapi.event.TransactionChanges;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.hibernate.HibernateException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Maintains table director_stat from the changes of Movie (director, duration) :
+ * deltas are summed per transaction at flush, then applied just before commit
+ * (nothing applied on rollback). Changes made without Hibernate entities
+ * (JDBC, bulk HQL, bulk loader) are not seen : use DirectorStatChecker.rebuild().
+ */
+@Slf4j
+public class DirectorStatListener implements TransactionChangeListener {
+
+    // one statement : no window between an update of 0 rows and the insert of a concurrent transaction
+    private static final String UPSERT = "insert into director_stat (fk_director_id, movie_count, duration_total)"
+            + " values (?, ?, ?) on duplicate key update movie_count = movie_count + values(movie_count),"
+            + " duration_total = duration_total + values(duration_total)";
+    private static final String MERGE = "merge into director_stat s using (select cast(? as integer) fk_director_id,"
+            + " cast(? as bigint) movie_count, cast(? as integer) duration_total) d"
+            + " on s.fk_director_id = d.fk_director_id"
+            + " when matched then update set s.movie_count = s.movie_count + d.movie_count,"
+            + " s.duration_total = s.duration_total + d.duration_total"
+            + " when not matched then insert (fk_director_id, movie_count, duration_total)"
+            + " values (d.fk_director_id, d.movie_count, d.duration_total)";
+    private static final String DELETE_EMPTY = "delete from director_stat where fk_director_id = ? and movie_count <= 0";
+
+    private final String upsert;
+    private final TransactionChanges<Deltas> pendingDeltas;
+
+    /**
+     * @param dialect MERGE on H2, INSERT ... ON DUPLICATE KEY UPDATE otherwise (MariaDB/MySQL)
+     */
+    public DirectorStatListener(Dialect dialect) {
+        this.upsert = dialect instanceof H2Dialect ? MERGE : UPSERT;
+        this.pendingDeltas = TransactionChanges.beforeCommit(Deltas::new,
+                (deltas, session) -> deltas.apply(session, upsert));
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Movie) {
+            var persister = event.getPersister();
+            add(event.getSession(), director(persister, event.getState()), 1, duration(persister, event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Movie)) {
+            return;
+        }
+        var persister = event.getPersister();
+        if (event.getOldState() == null) {
+            // update of a detached entity without select : previous director unknown
+            log.warn("Movie {} updated without previous state : director_stat may need a rebuild", event.getId());
+            return;
+        }
+        var oldDirector = director(persister, event.getOldState());
+        var newDirector = director(persister, event.getState());
+        int oldDuration = duration(persister, event.getOldState());
+        int newDuration = duration(persister, event.getState());
+        if (Objects.equals(oldDirector, newDirector) && oldDuration == newDuration) {
+            return;
+        }
+        add(event.getSession(), oldDirector, -1, -oldDuration);
+        add(event.getSession(), newDirector, 1, newDuration);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Movie) {
+            var persister = event.getPersister();
+            add(event.getSession(), director(persister, event.getDeletedState()), -1,
+                    -duration(persister, event.getDeletedState()));
+        }
+    }
+
+    private void add(EventSource session, Integer directorId, int movieCount, int duration) {
+        if (directorId == null) {
+            return;
+        }
+        pendingDeltas.of(session).add(directorId, movieCount, duration);
+    }
+
+    private static Integer director(EntityPersister persister, Object[] state) {
+        var director = state[persister.getEntityMetamodel().getPropertyIndex("director")];
+        if (director instanceof HibernateProxy) {
+            return (Integer) ((HibernateProxy) director).getHibernateLazyInitializer().getIdentifier();
+        }
+        return director == null ? null : ((People) director).getId();
+    }
+
+    private static int duration(EntityPersister persister, Object[] state) {
+        var duration = (Integer) state[persister.getEntityMetamodel().getPropertyIndex("duration")];
+        return duration == null ? 0 : duration;
+    }
+
+    /**
+     * (movie count, duration) deltas by director of a transaction
+     */
+    private static class Deltas {
+        // sorted : rows always locked in the same order by concurrent transactions
+        private final Map<Integer, long[]> byDirector = new TreeMap<>();
+
+        void add(int directorId, int movieCount, int duration) {
+            var delta = byDirector.computeIfAbsent(directorId, id -> new long[2]);
+            delta[0] += movieCount;
+            delta[1] += duration;
+        }
+
+        void apply(SessionImplementor session, String upsert) {
+            session.doWork(connection -> {
+                try (var upsertStat = connection.prepareStatement(upsert);
+                     var deleteEmpty = connection.prepareStatement(DELETE_EMPTY)) {
+                    for (var entry : byDirector.entrySet()) {
+                        long movieCount = entry.getValue()[0];
+                        long duration = entry.getValue()[1];
+                        if (movieCount == 0 && duration == 0) {
+                            continue;
+                        }
+                        upsertStat.setInt(1, entry.getKey());
+                        upsertStat.setLong(2, movieCount);
+                        upsertStat.setLong(3, duration);
+                        upsertStat.executeUpdate();
+                        if (movieCount < 0) {
+                            deleteEmpty.setInt(1, entry.getKey());
+                            deleteEmpty.executeUpdate();
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new HibernateException("Unable to update director_stat", e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.movieapi.stats;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Row of director_stat different from the statistics computed on movie (0 when absent)
+ */
+@Getter
+@ToString
+public class DirectorStatMismatch {
+    private final int directorId;
+    private final long expectedMovieCount;
+    private final long expectedDurationTotal;
+    private final long actualMovieCount;
+    private final long actualDurationTotal;
+
+    DirectorStatMismatch(int directorId, long expectedMovieCount, long expectedDurationTotal,
+                         long actualMovieCount, long actualDurationTotal) {
+        this.directorId = directorId;
+        this.expectedMovieCount = expectedMovieCount;
+        this.expectedDurationTotal = expectedDurationTotal;
+        this.actualMovieCount = actualMovieCount;
+        this.actualDurationTotal = actualDurationTotal;
+    }
+}
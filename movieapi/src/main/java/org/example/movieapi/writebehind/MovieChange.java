@@ -0,0 +1,78 @@
+package org.example.movieapi.writebehind;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Pending changes of one movie, coalesced : last duration and color win, added genres accumulate
+ */
+class MovieChange {
+
+    final int movieId;
+    // first change : age of the pending changes (maxDelay)
+    final long createdNanos = System.nanoTime();
+    int changeCount;
+
+    private boolean durationChanged;
+    private Integer duration;
+    private boolean colorChanged;
+    private Color color;
+    private final Set<Genre> addedGenres = EnumSet.noneOf(Genre.class);
+
+    MovieChange(int movieId) {
+        this.movieId = movieId;
+    }
+
+    void setDuration(Integer duration) {
+        this.durationChanged = true;
+        this.duration = duration;
+        changeCount++;
+    }
+
+    void setColor(Color color) {
+        this.colorChanged = true;
+        this.color = color;
+        changeCount++;
+    }
+
+    void addGenres(Set<Genre> genres) {
+        addedGenres.addAll(genres);
+        changeCount++;
+    }
+
+    /**
+     * changes of a failed flush pending again : the newer changes of the same movie win
+     * (this change keeps its age)
+     */
+    void mergeNewer(MovieChange newer) {
+        if (newer.durationChanged) {
+            durationChanged = true;
+            duration = newer.duration;
+        }
+        if (newer.colorChanged) {
+            colorChanged = true;
+            color = newer.color;
+        }
+        addedGenres.addAll(newer.addedGenres);
+        changeCount += newer.changeCount;
+    }
+
+    /**
+     * @param movie managed by the flush transaction
+     */
+    void applyTo(Movie movie) {
+        if (durationChanged) {
+            movie.setDuration(duration);
+        }
+        if (colorChanged) {
+            movie.setColor(color);
+        }
+        if (!movie.getGenres().containsAll(addedGenres)) {
+            movie.addGenres(addedGenres.toArray(Genre[]::new));
+        }
+    }
+}
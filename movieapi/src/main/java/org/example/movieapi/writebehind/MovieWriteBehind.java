@@ -0,0 +1,455 @@
+package org.example.movieapi.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind of small movie updates (duration, color, added genres) : writers only record the change
+ * in memory, coalesced with the pending changes of the same movie, a daemon thread flushes the oldest
+ * movies by transactions of flushSize movies (one select of the movies, updates by JDBC batches)
+ * when flushSize movies are pending or when the oldest change waited maxDelay.
+ * Memory bounded by maxPending movies (backpressure : OverflowPolicy), close() flushes everything.
+ * A failed flush (e.g. database down, conflicts after all the retries) puts its changes back in front
+ * of the pending ones, merged with the newer changes of the same movies, and the flusher waits
+ * failureBackoff (doubled at each failure in a row) before the next attempt ; close() retries
+ * during closeTimeout, then throws WriteBehindFlushException with the movies not flushed.
+ * NB : a change is neither part of the transaction of the writer nor visible to reads before its flush
+ * (see flush()), one JDBC batch per set of changed columns (enhanced entities : only dirty columns updated)
+ * NB : a separate API for these hot attributes, not a layer under IMovieRepository.save : a save writes
+ * the whole entity state in the caller's transaction (read-your-writes, rollback, other attributes),
+ * which a deferred, coalesced flush cannot keep. Callers choose the write-behind for fire-and-forget
+ * updates, save for the others.
+ */
+@Slf4j
+public class MovieWriteBehind implements AutoCloseable {
+
+    private final IMovieRepository movieRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final WriteBehindOptions options;
+    private final long maxDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushDone = lock.newCondition();
+    // by movie id, oldest first
+    private final LinkedHashMap<Integer, MovieChange> pending = new LinkedHashMap<>();
+    private boolean closed;
+    // flushes requested by writers (CALLER_FLUSH) and served by the flusher thread
+    private long flushRequests;
+    private long flushesDone;
+    // one flush at a time : the changes of a movie are committed in order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Thread thread;
+    // flusher thread : next attempt after a failed flush
+    private long retryAtNanos = System.nanoTime();
+    private int failuresInRow;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedMovieCount = new AtomicLong();
+    private final AtomicLong failedMovieCount = new AtomicLong();
+
+    public MovieWriteBehind(IMovieRepository movieRepository, OptimisticRetryExecutor retryExecutor,
+                            WriteBehindOptions options) {
+        this.movieRepository = movieRepository;
+        this.retryExecutor = retryExecutor;
+        this.options = options;
+        this.maxDelayNanos = options.getMaxDelay().toNanos();
+        thread = new Thread(this::run, "movie-write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param duration in minutes, null to clear it
+     */
+    public void setDuration(int movieId, Integer duration) {
+        submit(movieId, change -> change.setDuration(duration));
+    }
+
+    public void setColor(int movieId, Color color) {
+        submit(movieId, change -> change.setColor(color));
+    }
+
+    public void addGenres(int movieId, Genre... genres) {
+        var added = EnumSet.noneOf(Genre.class);
+        Collections.addAll(added, genres);
+        submit(movieId, change -> change.addGenres(added));
+    }
+
+    /**
+     * @throws WriteBehindOverflowException maxPending movies pending (see OverflowPolicy)
+     * @throws IllegalStateException closed
+     */
+    private void submit(int movieId, Consumer<MovieChange> update) {
+        long blockNanos = options.getBlockTimeout().toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Movie write-behind closed");
+                }
+                var change = pending.get(movieId);
+                if (change != null) {
+                    update.accept(change);
+                    coalescedCount.incrementAndGet();
+                    submittedCount.incrementAndGet();
+                    return;
+                }
+                if (pending.size() < options.getMaxPending()) {
+                    change = new MovieChange(movieId);
+                    update.accept(change);
+                    pending.put(movieId, change);
+                    // first change : starts the maxDelay wait of the flusher
+                    if (pending.size() == 1 || pending.size() >= options.getFlushSize()) {
+                        flushNeeded.signal();
+                    }
+                    submittedCount.incrementAndGet();
+                    return;
+                }
+                switch (options.getOverflowPolicy()) {
+                    case BLOCK:
+                        if (blockNanos <= 0) {
+                            throw rejected(movieId);
+                        }
+                        try {
+                            blockNanos = notFull.awaitNanos(blockNanos);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw rejected(movieId);
+                        }
+                        break;
+                    case CALLER_FLUSH:
+                        // flush handed to the flusher thread (its own transaction) : the writer may be
+                        // inside a transaction, it waits for the flush at most blockTimeout
+                        if (blockNanos <= 0) {
+                            throw rejected(movieId);
+                        }
+                        long request = ++flushRequests;
+                        flushNeeded.signal();
+                        try {
+                            while (flushesDone < request && !closed && blockNanos > 0) {
+                                blockNanos = flushDone.awaitNanos(blockNanos);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw rejected(movieId);
+                        }
+                        break;
+                    default:
+                        throw rejected(movieId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private WriteBehindOverflowException rejected(int movieId) {
+        rejectedCount.incrementAndGet();
+        return new WriteBehindOverflowException("Change of movie " + movieId + " rejected: "
+                + options.getMaxPending() + " movies pending");
+    }
+
+    /**
+     * Flushes the changes pending now and waits for their commit (e.g. before reading them)
+     * NB : outside a transaction
+     * @throws RuntimeException flush failed : its changes are pending again
+     */
+    public void flush() {
+        int remaining = getPendingCount();
+        while (remaining > 0) {
+            int flushed = flushOldest();
+            if (flushed == 0) {
+                break;
+            }
+            remaining -= flushed;
+        }
+    }
+
+    /**
+     * Stops accepting changes and flushes all the pending ones
+     * (called at shutdown : destroy method of the bean)
+     * @throws WriteBehindFlushException changes still not flushed after closeTimeout (pending count kept)
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flushNeeded.signalAll();
+            notFull.signalAll();
+            flushDone.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushBeforeClose();
+        log.info("Movie write-behind closed: {} changes, {} coalesced, {} movies flushed by {} transactions,"
+                        + " {} failed, {} rejected", getSubmittedCount(), getCoalescedCount(),
+                getFlushedMovieCount(), getFlushCount(), getFailedMovieCount(), getRejectedCount());
+    }
+
+    private void flushBeforeClose() {
+        long deadline = System.nanoTime() + options.getCloseTimeout().toNanos();
+        for (int failures = 1; ; failures++) {
+            try {
+                flush();
+                return;
+            } catch (RuntimeException e) {
+                long waitNanos = Math.min(options.failureBackoffNanos(failures), deadline - System.nanoTime());
+                if (waitNanos <= 0) {
+                    var movieIds = getPendingMovieIds();
+                    log.error("Movie write-behind closed with changes of {} movies not flushed: {}",
+                            movieIds.size(), movieIds, e);
+                    throw new WriteBehindFlushException("Changes of " + movieIds.size()
+                            + " movies not flushed", movieIds, e);
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    var movieIds = getPendingMovieIds();
+                    throw new WriteBehindFlushException("Close interrupted, changes of " + movieIds.size()
+                            + " movies not flushed", movieIds, e);
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long served;
+            lock.lock();
+            try {
+                while (!closed) {
+                    long backoffNanos = retryAtNanos - System.nanoTime();
+                    if (backoffNanos > 0) {
+                        flushNeeded.awaitNanos(backoffNanos); // after a failed flush
+                        continue;
+                    }
+                    if (flushRequests > flushesDone) {
+                        break;
+                    }
+                    if (pending.isEmpty()) {
+                        flushNeeded.await();
+                        continue;
+                    }
+                    long waitNanos = pending.values().iterator().next().createdNanos + maxDelayNanos
+                            - System.nanoTime();
+                    if (waitNanos <= 0 || pending.size() >= options.getFlushSize()) {
+                        break;
+                    }
+                    flushNeeded.awaitNanos(waitNanos);
+                }
+                if (closed) {
+                    return; // last flush by close()
+                }
+                served = flushRequests;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flushOldest();
+                failuresInRow = 0;
+            } catch (RuntimeException e) {
+                long backoffNanos = options.failureBackoffNanos(++failuresInRow);
+                retryAtNanos = System.nanoTime() + backoffNanos;
+                log.debug("Write-behind: next flush in {} ms ({} failures in a row)",
+                        TimeUnit.NANOSECONDS.toMillis(backoffNanos), failuresInRow);
+            }
+            lock.lock();
+            try {
+                flushesDone = served;
+                flushDone.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * flushes the flushSize oldest movies in one transaction
+     * @return movies flushed
+     * @throws RuntimeException flush failed : its changes are pending again
+     */
+    private int flushOldest() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Write-behind flushes in its own transactions:"
+                    + " call outside a transaction");
+        }
+        flushLock.lock();
+        try {
+            var batch = drain();
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    requeue(batch);
+                    failedMovieCount.addAndGet(batch.size());
+                    log.warn("Write-behind flush failed, changes of movies {} pending again: {}",
+                            batch.stream().map(change -> change.movieId).collect(Collectors.toList()),
+                            e.toString());
+                    throw e;
+                }
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<MovieChange> drain() {
+        lock.lock();
+        try {
+            var batch = new ArrayList<MovieChange>(Math.min(options.getFlushSize(), pending.size()));
+            var iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < options.getFlushSize()) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * changes of a failed flush back in front of the pending ones (oldest first), merged with
+     * the changes submitted since for the same movies (newer ones win)
+     * NB : may exceed maxPending by one flush at most
+     */
+    private void requeue(List<MovieChange> batch) {
+        lock.lock();
+        try {
+            var newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (var change : batch) {
+                var next = newer.remove(change.movieId);
+                if (next != null) {
+                    change.mergeNewer(next);
+                }
+                pending.put(change.movieId, change);
+            }
+            pending.putAll(newer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * movies re-read and changes re-applied when a concurrent update of one of them conflicts
+     */
+    private void write(List<MovieChange> batch) {
+        var ids = batch.stream().map(change -> change.movieId).collect(Collectors.toList());
+        long start = System.nanoTime();
+        int found = retryExecutor.execute(options.getRetryOptions(), attempt -> {
+            Map<Integer, Movie> movies = movieRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Movie::getId, Function.identity()));
+            for (var change : batch) {
+                var movie = movies.get(change.movieId);
+                if (movie != null) {
+                    change.applyTo(movie);
+                }
+            }
+            return movies.size();
+        });
+        flushCount.incrementAndGet();
+        flushedMovieCount.addAndGet(found);
+        if (found < batch.size()) {
+            log.warn("Write-behind: {} movies deleted before the flush of their changes", batch.size() - found);
+        }
+        log.debug("Write-behind flush of {} movies ({} changes) in {} ms", found,
+                batch.stream().mapToInt(change -> change.changeCount).sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return ids of the movies with pending changes, oldest first
+     */
+    public List<Integer> getPendingMovieIds() {
+        lock.lock();
+        try {
+            return List.copyOf(pending.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return changes accepted since startup
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * @return changes merged with a pending change of the same movie (updates saved)
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return flush transactions committed
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedMovieCount() {
+        return flushedMovieCount.get();
+    }
+
+    /**
+     * @return movies of failed flushes (changes pending again, see log)
+     */
+    public long getFailedMovieCount() {
+        return failedMovieCount.get();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.movieapi.writebehind;
+
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Bean MovieWriteBehind when movieapi.write-behind.enabled=true, e.g.
+ * movieapi.write-behind.flush-size=500
+ * movieapi.write-behind.max-delay-ms=200
+ * movieapi.write-behind.max-pending=10000
+ * movieapi.write-behind.overflow-policy=BLOCK
+ * movieapi.write-behind.block-timeout-ms=1000
+ * movieapi.write-behind.close-timeout-ms=10000
+ * Pending changes flushed when the context is closed (shutdown hook)
+ */
+@Configuration
+@ConditionalOnProperty("movieapi.write-behind.enabled")
+public class MovieWriteBehindConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public MovieWriteBehind movieWriteBehind(IMovieRepository movieRepository,
+                                             OptimisticRetryExecutor retryExecutor,
+                                             Environment environment) {
+        var defaults = WriteBehindOptions.defaults();
+        var options = WriteBehindOptions.builder()
+                .flushSize(environment.getProperty("movieapi.write-behind.flush-size",
+                        Integer.class, defaults.getFlushSize()))
+                .maxDelay(Duration.ofMillis(environment.getProperty("movieapi.write-behind.max-delay-ms",
+                        Long.class, defaults.getMaxDelay().toMillis())))
+                .maxPending(environment.getProperty("movieapi.write-behind.max-pending",
+                        Integer.class, defaults.getMaxPending()))
+                .overflowPolicy(environment.getProperty("movieapi.write-behind.overflow-policy",
+                        OverflowPolicy.class, defaults.getOverflowPolicy()))
+                .blockTimeout(Duration.ofMillis(environment.getProperty("movieapi.write-behind.block-timeout-ms",
+                        Long.class, defaults.getBlockTimeout().toMillis())))
+                .closeTimeout(Duration.ofMillis(environment.getProperty("movieapi.write-behind.close-timeout-ms",
+                        Long.class, defaults.getCloseTimeout().toMillis())))
+                .build();
+        return new MovieWriteBehind(movieRepository, retryExecutor, options);
+    }
+}
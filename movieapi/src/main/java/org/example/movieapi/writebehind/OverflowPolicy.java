@@ -0,0 +1,21 @@
+package org.example.movieapi.writebehind;
+
+/**
+ * Backpressure of MovieWriteBehind when maxPending movies are pending
+ * (changes of movies already pending are always accepted : coalesced)
+ */
+public enum OverflowPolicy {
+    /**
+     * the writer waits until a flush makes room (at most blockTimeout, then rejected)
+     */
+    BLOCK,
+    /**
+     * the writer has the oldest changes flushed at once by the flusher thread and waits for the flush
+     * (at most blockTimeout, then rejected) : works inside the transaction of the writer
+     */
+    CALLER_FLUSH,
+    /**
+     * the change is rejected at once
+     */
+    REJECT
+}
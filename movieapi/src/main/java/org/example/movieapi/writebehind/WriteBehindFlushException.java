@@ -0,0 +1,23 @@
+package org.example.movieapi.writebehind;
+
+import java.util.List;
+
+/**
+ * Pending changes that MovieWriteBehind.close() could not flush (see log)
+ */
+public class WriteBehindFlushException extends RuntimeException {
+
+    private final List<Integer> movieIds;
+
+    public WriteBehindFlushException(String message, List<Integer> movieIds, Throwable cause) {
+        super(message, cause);
+        this.movieIds = List.copyOf(movieIds);
+    }
+
+    /**
+     * @return ids of the movies whose changes were not written
+     */
+    public List<Integer> getMovieIds() {
+        return movieIds;
+    }
+}
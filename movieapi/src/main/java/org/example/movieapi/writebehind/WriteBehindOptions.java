@@ -0,0 +1,80 @@
+package org.example.movieapi.writebehind;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.movieapi.retry.RetryOptions;
+
+import java.time.Duration;
+
+/**
+ * Tuning of MovieWriteBehind (properties movieapi.write-behind.*)
+ */
+@Getter
+@Builder
+public class WriteBehindOptions {
+
+    /**
+     * movies per flush transaction (updates sent by JDBC batches of hibernate.jdbc.batch_size),
+     * a flush starts as soon as flushSize movies are pending
+     */
+    @Builder.Default
+    private int flushSize = 500;
+
+    /**
+     * a change waits at most maxDelay before its flush starts
+     */
+    @Builder.Default
+    private Duration maxDelay = Duration.ofMillis(200);
+
+    /**
+     * movies with pending changes : memory bounded to about maxPending + flushSize coalesced changes
+     */
+    @Builder.Default
+    private int maxPending = 10_000;
+
+    /**
+     * what a writer does with a change of a new movie when maxPending movies are pending
+     */
+    @Builder.Default
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * wait of policies BLOCK and CALLER_FLUSH before rejecting the change
+     */
+    @Builder.Default
+    private Duration blockTimeout = Duration.ofSeconds(1);
+
+    /**
+     * retries of a flush conflicting with a concurrent update of one of its movies
+     */
+    @Builder.Default
+    private RetryOptions retryOptions = RetryOptions.defaults();
+
+    /**
+     * wait of the flusher after a failed flush (e.g. database down), multiplied by 2 at each failure
+     * in a row up to maxFailureBackoff : the changes of the failed flush stay pending meanwhile
+     */
+    @Builder.Default
+    private Duration failureBackoff = Duration.ofMillis(100);
+
+    @Builder.Default
+    private Duration maxFailureBackoff = Duration.ofSeconds(10);
+
+    /**
+     * close() retries failed flushes during closeTimeout, then gives up (WriteBehindFlushException)
+     */
+    @Builder.Default
+    private Duration closeTimeout = Duration.ofSeconds(10);
+
+    public static WriteBehindOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @param failures failed flushes in a row (1 for the first one)
+     */
+    long failureBackoffNanos(int failures) {
+        double nanos = failureBackoff.toNanos() * Math.pow(2, Math.min(failures - 1, 30));
+        return (long) Math.min(nanos, maxFailureBackoff.toNanos());
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.movieapi.writebehind;
+
+public class WriteBehindOverflowException extends RuntimeException {
+
+    public WriteBehindOverflowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.movieapi.advisor;
+
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.sqllog.SqlLogDataSource;
+import org.example.movieapi.sqllog.SqlLogDataSourcePostProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// SQL of Hibernate 5 (H2/MySQL dialects) for the query shapes of IMovieRepository
+@DataJpaTest(properties = {
+        "movieapi.sql-log.enabled=true",
+        "movieapi.sql-log.sample-rate=1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SqlLogDataSourcePostProcessor.class, IndexAdvisor.class})
+class IndexAdvisorTest {
+
+    static final String SELECT_MOVIE = "select movie0_.id as id1_1_, movie0_.title as title2_1_, "
+            + "movie0_.year as year3_1_ from movie movie0_";
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Test
+    void testCandidateEqualityThenRange() {
+        var shape = QueryShape.of(SELECT_MOVIE + " where movie0_.title=? and (movie0_.year between ? and ?)",
+                "Star Wars", 1970, 1990);
+        assertEquals(Map.of("movie", List.of("title", "year")), IndexAdvisor.candidateColumns(shape));
+    }
+
+    @Test
+    void testCandidateJoinedTable() {
+        var shape = QueryShape.of(SELECT_MOVIE + " left outer join people people1_"
+                + " on movie0_.fk_director_id=people1_.id where people1_.name=? order by movie0_.year desc",
+                "Clint Eastwood");
+        // join condition and sort of the other table ignored
+        assertEquals(Map.of("people", List.of("name")), IndexAdvisor.candidateColumns(shape));
+    }
+
+    @Test
+    void testCandidateEqualityThenSort() {
+        var shape = QueryShape.of(SELECT_MOVIE + " where movie0_.fk_director_id=? order by movie0_.year, movie0_.title",
+                1);
+        assertEquals(Map.of("movie", List.of("fk_director_id", "year", "title")), IndexAdvisor.candidateColumns(shape));
+    }
+
+    @Test
+    void testCandidateLikeOnlyWithPrefix() {
+        var sql = SELECT_MOVIE + " where movie0_.title like ?";
+        assertEquals(Map.of("movie", List.of("title")), IndexAdvisor.candidateColumns(QueryShape.of(sql, "Star%")));
+        assertEquals(Map.of(), IndexAdvisor.candidateColumns(QueryShape.of(sql, "%Star%")));
+    }
+
+    @Test
+    void testNoCandidateForBitmask() {
+        var shape = QueryShape.of(SELECT_MOVIE + " where bitand(movie0_.genres, ?)<>0 order by movie0_.year", 192L);
+        assertEquals(Map.of(), IndexAdvisor.candidateColumns(shape));
+    }
+
+    @Test
+    void testCandidatesMergedByPrefix() {
+        var candidates = IndexAdvisor.candidates(List.of(
+                QueryShape.of(SELECT_MOVIE + " where movie0_.title like ?", "Star%"),
+                QueryShape.of(SELECT_MOVIE + " where movie0_.title=? and (movie0_.year between ? and ?)",
+                        "Star Wars", 1970, 1990),
+                QueryShape.of(SELECT_MOVIE + " where movie0_.duration>=?", 150)));
+        candidates.forEach(candidate -> System.out.println(candidate.getCreateDdl()));
+        assertEquals(Set.of("idx_movie_title_year", "idx_movie_duration"),
+                Set.of(candidates.get(0).getName(), candidates.get(1).getName()));
+        var titleYear = candidates.stream()
+                .filter(candidate -> candidate.getName().equals("idx_movie_title_year"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, titleYear.getShapes().size());
+    }
+
+    // DDL outside of the test transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testProposeAndValidate() throws Exception {
+        var sqlLogger = ((SqlLogDataSource) dataSource).getSqlLogger();
+        var collector = new QueryShapeCollector();
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        sqlLogger.addListener(collector);
+        // re-created at the end only if dropped here (the error of the test kept otherwise)
+        boolean dropped = false;
+        try {
+            try (var connection = dataSource.getConnection();
+                 var indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, "people", false, true)) {
+                while (indexes.next()) {
+                    if ("idx_people_name".equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        jdbcTemplate.execute(connection.getMetaData().getDatabaseProductName().startsWith("H2")
+                                ? "DROP INDEX idx_people_name" : "DROP INDEX idx_people_name ON people");
+                        dropped = true;
+                        break;
+                    }
+                }
+            }
+            movieRepository.findDirectorIdsByNameIn(List.of("Clint Eastwood", "Steven Spielberg"));
+            sqlLogger.flush();
+            collector.getShapes().forEach(shape -> System.out.println(shape.getExecutions() + " x " + shape.getSql()));
+
+            var candidates = indexAdvisor.propose(collector.getShapes());
+            candidates.forEach(candidate -> System.out.println(candidate.getCreateDdl()));
+            var people = candidates.stream()
+                    .filter(candidate -> candidate.getName().equals("idx_people_name"))
+                    .findFirst()
+                    .orElseThrow();
+            var advice = indexAdvisor.validate(people, 3, false);
+            System.out.println(advice.toDdl());
+            System.out.println(advice.getPlanBefore());
+            System.out.println(advice.getPlanAfter());
+            assertTrue(advice.isUsed());
+            assertFalse(advice.isKept());
+        } finally {
+            sqlLogger.removeListener(collector);
+            if (dropped) {
+                jdbcTemplate.execute("CREATE INDEX idx_people_name ON people (name)");
+            }
+        }
+        // covered again : no more candidate
+        assertTrue(indexAdvisor.propose(collector.getShapes()).stream()
+                .noneMatch(candidate -> candidate.getName().equals("idx_people_name")));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.index.PlayIndexService;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// run with : mvn test -Pbenchmark -Dtest=ActorDivisionBenchmark (full dataset of profile query)
+// target : p99 of the index below benchmark.division.p99-ms (default 10 ms)
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("query")
+@Import(PlayIndexService.class)
+class ActorDivisionBenchmark {
+
+    static final int RUNS = 200;
+    static final double TARGET_P99_MS = Double.parseDouble(System.getProperty("benchmark.division.p99-ms", "10"));
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    PlayIndexService playIndexService;
+
+    @Test
+    void benchmarkActorsInAllMovies() {
+        var movieIds = movieRepository.findIdsByTitleLike("Star Wars%");
+        var playIndex = playIndexService.getIndex();
+        var movieIdArray = movieIds.stream().mapToInt(Integer::intValue).toArray();
+        measure("count query, all Star Wars", () ->
+                movieRepository.countActorIdsInAllMovies(movieIds, (long) movieIds.size()));
+        double p99 = measure("play index, all Star Wars", () -> playIndex.actorsInAllMovies(movieIdArray));
+        assertTrue(p99 <= TARGET_P99_MS, "p99 " + p99 + " ms");
+    }
+
+    @Test
+    void benchmarkActorsForAllDirectors() {
+        var directorIds = movieRepository.findDirectorIdsByNameIn(List.of(
+                "Clint Eastwood", "Quentin Tarantino", "Martin Scorsese", "Steven Spielberg"));
+        var playIndex = playIndexService.getIndex();
+        var directorIdArray = directorIds.stream().mapToInt(Integer::intValue).toArray();
+        measure("count query, all directors", () ->
+                movieRepository.countActorIdsForAllDirectors(directorIds, (long) directorIds.size()));
+        double p99 = measure("play index, all directors", () -> playIndex.actorsForAllDirectors(directorIdArray));
+        assertTrue(p99 <= TARGET_P99_MS, "p99 " + p99 + " ms");
+    }
+
+    private static double measure(String name, Supplier<?> call) {
+        for (int i = 0; i < RUNS / 10; i++) {
+            call.get(); // warm up
+        }
+        var latencies = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            latencies[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[RUNS / 2];
+        double p99 = latencies[(int) (RUNS * 0.99) - 1];
+        System.out.printf("%s : p50 %.3f ms, p99 %.3f ms%n", name, p50, p99);
+        return p99;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.MovieapiApplication;
+import org.example.movieapi.bulk.BulkLoader;
+import org.example.movieapi.bulk.CatalogGenerator;
+import org.example.movieapi.bulk.CatalogGeneratorOptions;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Application context of the benchmarks on an in-memory H2 database (MySQL mode) :
+ * schema created by Hibernate, no second level or query cache, no N+1 detection, no SQL log, warnings only,
+ * catalog generated by CatalogGenerator (same seed and sizes = same rows)
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param dbName name of the in-memory database, settings may follow (e.g. "contention;LOCK_TIMEOUT=10000")
+     * @param extraArgs command line arguments added to these ones or replacing them (same name)
+     */
+    static ConfigurableApplicationContext start(String dbName, String... extraArgs) {
+        // command line arguments : override application.properties
+        var args = new LinkedHashMap<String, String>();
+        args.put("--spring.datasource.url", "jdbc:h2:mem:" + dbName + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        args.put("--spring.datasource.username", "sa");
+        args.put("--spring.datasource.password", "");
+        args.put("--spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        args.put("--spring.jpa.hibernate.ddl-auto", "create");
+        args.put("--spring.jpa.show-sql", "false");
+        args.put("--spring.jpa.properties.hibernate.cache.use_second_level_cache", "false");
+        args.put("--spring.jpa.properties.hibernate.cache.use_query_cache", "false");
+        args.put("--spring.jpa.properties.movieapi.n-plus-one.mode", "off");
+        args.put("--movieapi.sql-log.enabled", "false");
+        args.put("--logging.level.root", "warn");
+        // the same argument twice would be read as a list
+        for (var arg : extraArgs) {
+            int equals = arg.indexOf('=');
+            args.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return new SpringApplicationBuilder(MovieapiApplication.class)
+                .run(args.entrySet().stream()
+                        .map(arg -> arg.getKey() + "=" + arg.getValue())
+                        .toArray(String[]::new));
+    }
+
+    /**
+     * generates and bulk loads a catalog : movies / 2 people, ids from 1, durations normal around 100 min
+     * (sd 20, 3% unknown), 2% of movies without director
+     * @param meanCastSize actors per movie on average (1 = exactly one)
+     */
+    static CatalogGenerator loadCatalog(ConfigurableApplicationContext context, long seed, int movies,
+                                        int meanCastSize) {
+        var generator = new CatalogGenerator(CatalogGeneratorOptions.builder()
+                .seed(seed)
+                .movies(movies)
+                .meanCastSize(meanCastSize)
+                .build());
+        context.getBean(BulkLoader.class).load(generator.plan());
+        return generator;
+    }
+}
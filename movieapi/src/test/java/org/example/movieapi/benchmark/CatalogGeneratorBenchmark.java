@@ -0,0 +1,70 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.bulk.BulkLoadListener;
+import org.example.movieapi.bulk.BulkLoadOptions;
+import org.example.movieapi.bulk.BulkLoader;
+import org.example.movieapi.bulk.CatalogGenerator;
+import org.example.movieapi.bulk.CatalogGeneratorOptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Generation and bulk load of a synthetic catalog into embedded H2 (CatalogGenerator + BulkLoader) :
+ * load time, then the skew of the loaded catalog (prolific directors, stars, popular genres).
+ * Run with : mvn test -Pbenchmark -Dtest=CatalogGeneratorBenchmark [-Dcatalog.movies=1000000]
+ * (results in target/catalog-generator.txt)
+ * NB : in memory, about 1 GB of heap per million movies ; 10M movies : MariaDB (CatalogGeneratorRunner)
+ */
+@Tag("benchmark")
+class CatalogGeneratorBenchmark {
+
+    static final long SEED = 42;
+
+    @Test
+    void benchmarkCatalogGenerator() throws Exception {
+        int movies = Integer.getInteger("catalog.movies", 200_000);
+        try (var context = BenchmarkContext.start("catalog",
+                "--logging.level.org.example.movieapi.bulk=info")) {
+            var generator = new CatalogGenerator(CatalogGeneratorOptions.builder()
+                    .seed(SEED)
+                    .movies(movies)
+                    .build());
+            var report = new StringBuilder();
+            var loadReport = context.getBean(BulkLoader.class).load(generator.plan(), BulkLoadOptions.defaults(),
+                    new BulkLoadListener() {
+                        @Override
+                        public void progress(String table, long rowsLoaded) {
+                        }
+
+                        @Override
+                        public void tableLoaded(String table, long rowsLoaded, Duration duration) {
+                        }
+                    });
+            report.append(String.format("%d movies (seed %d) : %s in %d ms (%.0f rows/s)%n", movies, SEED,
+                    loadReport.getRowsByTable(), loadReport.getDuration().toMillis(), loadReport.getRowsPerSecond()));
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            report.append(String.format("directors : %d, movies of the top 10 : %s%n",
+                    jdbcTemplate.queryForObject("select count(distinct fk_director_id) from movie", Long.class),
+                    jdbcTemplate.queryForList("select count(*) from movie where fk_director_id is not null"
+                            + " group by fk_director_id order by count(*) desc limit 10", Long.class)));
+            report.append(String.format("actors : %d, movies of the top 10 : %s%n",
+                    jdbcTemplate.queryForObject("select count(distinct fk_actor_id) from play", Long.class),
+                    jdbcTemplate.queryForList("select count(*) from play group by fk_actor_id"
+                            + " order by count(*) desc limit 10", Long.class)));
+            report.append("movies by genre :");
+            for (var genre : generator.getGenresByPopularity()) {
+                report.append(String.format(" %s %d", genre.getLabel(), jdbcTemplate.queryForObject(
+                        "select count(*) from movie where bitand(genres, ?) <> 0", Long.class, genre.getBit())));
+            }
+            report.append(String.format("%nmovies by decade : %s%n", jdbcTemplate.queryForList(
+                    "select count(*) from movie group by year / 10 order by year / 10", Long.class)));
+            System.out.println(report);
+            Files.writeString(Path.of("target/catalog-generator.txt"), report);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.index.CatalogDimension;
+import org.example.movieapi.index.CatalogSnapshotService;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Group by reports on a catalog generated by CatalogGenerator (embedded H2) : SQL GROUP BY vs CatalogSnapshot in memory
+ * (fork/join over columns), same results checked. Snapshot build and incremental refresh timed too.
+ * Run with : mvn test -Pbenchmark -Dtest=CatalogSnapshotBenchmark (results in target/catalog-snapshot.txt)
+ */
+@Tag("benchmark")
+class CatalogSnapshotBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 200_000;
+    static final int RUNS = 20;
+    // about 10% of the generated movies (durations normal around 100 min, sd 20)
+    static final int LONG_DURATION = 126;
+
+    @Test
+    void benchmarkGroupBy() throws Exception {
+        try (var context = BenchmarkContext.start("snapshot")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 1);
+            var movieRepository = context.getBean(IMovieRepository.class);
+            var transactionTemplate = context.getBean(TransactionTemplate.class);
+            var service = context.getBean(CatalogSnapshotService.class);
+            var report = new StringBuilder();
+
+            long start = System.nanoTime();
+            var snapshot = service.getSnapshot();
+            report.append(String.format("snapshot build : %d movies in %d ms%n",
+                    snapshot.getMovieCount(), (System.nanoTime() - start) / 1_000_000));
+
+            // duration by decade (bound parameter changed at each run : no result reused by H2)
+            var run = new AtomicInteger();
+            var sqlDecades = time(report, "SQL duration by decade", () -> jdbcTemplate.queryForList(
+                    "select floor(year / 10), count(*), sum(duration) from movie where year > ?"
+                            + " group by floor(year / 10) order by floor(year / 10)", -run.incrementAndGet()));
+            var decades = time(report, "snapshot duration by decade",
+                    () -> service.getSnapshot().groupBy(CatalogDimension.DECADE));
+            assertEquals(sqlDecades.size(), decades.size());
+
+            // director stats : group by on the fly (materialized director_stat not fed by the bulk load)
+            var sqlDirectors = time(report, "SQL findStatMovieByDirectorGroupBy", () ->
+                    transactionTemplate.execute(status -> {
+                        try (var rows = movieRepository.findStatMovieByDirectorGroupBy(1L)) {
+                            return rows.count();
+                        }
+                    }));
+            var directors = time(report, "snapshot directorStats",
+                    () -> service.getSnapshot().directorStats(1L));
+            assertEquals((long) sqlDirectors, directors.size());
+
+            // long movies
+            var sqlLongMovies = time(report, "SQL findTitleDurationAge", () ->
+                    transactionTemplate.execute(status -> {
+                        try (var rows = movieRepository.findTitleDurationAge(LONG_DURATION)) {
+                            return rows.count();
+                        }
+                    }));
+            var longMovies = time(report, "snapshot titleDurationAge",
+                    () -> service.getSnapshot().titleDurationAge(LONG_DURATION));
+            assertEquals((long) sqlLongMovies, longMovies.size());
+
+            // incremental refresh : 100 movies changed
+            var changedIds = new ArrayList<Integer>();
+            for (int id = 1; id <= MOVIES; id += MOVIES / 100) {
+                changedIds.add(id);
+            }
+            time(report, "snapshot refresh of 100 movies",
+                    () -> service.refresh(changedIds, List.of()));
+
+            System.out.println(report);
+            Files.writeString(Path.of("target/catalog-snapshot.txt"), report);
+        }
+    }
+
+    // median of the second half of runs (warm)
+    private static <T> T time(StringBuilder report, String name, Supplier<T> action) {
+        var nanos = new long[RUNS];
+        T result = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            result = action.get();
+            nanos[run] = System.nanoTime() - start;
+        }
+        var warm = Arrays.copyOfRange(nanos, RUNS / 2, RUNS);
+        Arrays.sort(warm);
+        report.append(String.format("%s : %.3f ms%n", name, warm[warm.length / 2] / 1e6));
+        return result;
+    }
+}
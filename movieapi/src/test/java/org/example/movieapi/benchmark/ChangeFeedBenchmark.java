@@ -0,0 +1,88 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.outbox.ChangeFeedReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Finding what changed since the last poll (embedded H2) :
+ * - table scan : versions of all movies and people compared with the previous scan,
+ * - change feed : records after the checkpoint (ChangeFeedReader).
+ * Run with : mvn test -Pbenchmark -Dtest=ChangeFeedBenchmark (results in target/change-feed.txt)
+ */
+@Tag("benchmark")
+class ChangeFeedBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 200_000;
+    static final int[] CHANGES = {10, 1000, 10_000};
+
+    @Test
+    void benchmarkChangeFeed() throws Exception {
+        try (var context = BenchmarkContext.start("changefeed")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var generator = BenchmarkContext.loadCatalog(context, SEED, MOVIES, 1);
+            var entityManager = context.getBean(EntityManager.class);
+            var transactionTemplate = context.getBean(TransactionTemplate.class);
+            var changeFeedReader = context.getBean(ChangeFeedReader.class);
+            changeFeedReader.seek("benchmark", changeFeedReader.getHeadId());
+            var versions = scan(jdbcTemplate, new HashMap<>());
+            var random = new Random(SEED);
+            var report = new StringBuilder(String.format("%d movies, %d people%n", MOVIES,
+                    generator.getOptions().getPeople()));
+            for (int changes : CHANGES) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int i = 0; i < changes; i++) {
+                        var movie = entityManager.find(Movie.class, 1 + random.nextInt(MOVIES));
+                        movie.setDuration(60 + random.nextInt(120));
+                        if (i % 1000 == 999) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
+                    }
+                });
+                long start = System.nanoTime();
+                var previous = versions;
+                versions = scan(jdbcTemplate, new HashMap<>());
+                long scanChanged = versions.entrySet().stream()
+                        .filter(entry -> !entry.getValue().equals(previous.get(entry.getKey())))
+                        .count();
+                long scanNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                long feedChanged = 0;
+                int polled;
+                while ((polled = changeFeedReader.poll("benchmark", records -> {
+                })) > 0) {
+                    feedChanged += polled;
+                }
+                long feedNanos = System.nanoTime() - start;
+                report.append(String.format("%6d changes : table scan %8.1f ms (%d changed), change feed %8.1f ms"
+                                + " (%d records)%n",
+                        changes, scanNanos / 1e6, scanChanged, feedNanos / 1e6, feedChanged));
+            }
+            System.out.println(report);
+            Files.writeString(Path.of("target/change-feed.txt"), report);
+        }
+    }
+
+    // key : entity + id, value : version
+    private static Map<String, Integer> scan(JdbcTemplate jdbcTemplate, Map<String, Integer> versions) {
+        jdbcTemplate.query("select id, version from movie", resultSet -> {
+            versions.put("Movie#" + resultSet.getInt(1), resultSet.getInt(2));
+        });
+        jdbcTemplate.query("select id, version from people", resultSet -> {
+            versions.put("People#" + resultSet.getInt(1), resultSet.getInt(2));
+        });
+        return versions;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.index.CoStarGraph;
+import org.example.movieapi.index.PlayIndexService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// run with : mvn test -Pbenchmark -Dtest=CoStarGraphBenchmark (full dataset of profile query)
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("query")
+@Import(PlayIndexService.class)
+class CoStarGraphBenchmark {
+
+    static final int RUNS = 500;
+
+    @Autowired
+    PlayIndexService playIndexService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkCoStarGraph() {
+        long start = System.nanoTime();
+        var graph = playIndexService.getCoStarGraph();
+        System.out.printf("build : %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        var actorIds = jdbcTemplate.queryForList("select distinct fk_actor_id from play", Integer.class);
+        assumeTrue(actorIds.size() > 1, "dataset not loaded");
+        var random = new Random(42);
+        int[] from = new int[RUNS];
+        int[] to = new int[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            from[i] = actorIds.get(random.nextInt(actorIds.size()));
+            to[i] = actorIds.get(random.nextInt(actorIds.size()));
+        }
+        measure("co-stars", graph, (g, i) -> g.coStars(from[i]));
+        measure("top collaborators", graph, (g, i) -> g.topCollaborators(from[i], 10));
+        measure("shortest path", graph, (g, i) -> g.shortestPath(from[i], to[i]));
+    }
+
+    interface GraphCall {
+        Object call(CoStarGraph graph, int run);
+    }
+
+    private static void measure(String name, CoStarGraph graph, GraphCall call) {
+        for (int i = 0; i < RUNS; i++) {
+            call.call(graph, i); // warm up
+        }
+        var latencies = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            call.call(graph, i);
+            latencies[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s : p50 %.3f ms, p99 %.3f ms%n", name, latencies[RUNS / 2], latencies[(int) (RUNS * 0.99) - 1]);
+    }
+}
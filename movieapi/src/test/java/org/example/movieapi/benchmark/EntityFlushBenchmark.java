@@ -0,0 +1,97 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Flush time and memory per managed entity, with or without the bytecode enhancement of the build :
+ * all movies (then all people) of a generated catalog managed in one persistence context,
+ * then flushes with 1% of the entities modified and with no modification.
+ * Run both and compare (results in target/entity-flush-enhanced.txt and target/entity-flush-plain.txt) :
+ * mvn clean test -Pbenchmark -Dtest=EntityFlushBenchmark
+ * mvn clean test -Pbenchmark -Dtest=EntityFlushBenchmark -Dhibernate.enhance.phase=none
+ */
+@Tag("benchmark")
+class EntityFlushBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 50_000;
+    static final int RUNS = 20;
+    static final int DIRTY_EVERY = 100; // 1% of movies modified per flush
+
+    @Test
+    void benchmarkFlush() throws Exception {
+        try (var context = BenchmarkContext.start("flush",
+                "--spring.jpa.properties.hibernate.generate_statistics=false")) {
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 4);
+            var entityManager = context.getBean(EntityManager.class);
+            var report = new StringBuilder();
+            boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Movie.class);
+            report.append(enhanced ? "enhanced entities" : "plain entities (no enhancement)").append('\n');
+
+            var transactionTemplate = context.getBean(TransactionTemplate.class);
+            // one persistence context per entity type
+            measure(transactionTemplate, entityManager, "Movie", Movie.class, report, movie ->
+                    movie.setDuration(movie.getDuration() == null ? 1 : movie.getDuration() + 1));
+            measure(transactionTemplate, entityManager, "People", People.class, report, person ->
+                    person.setName(person.getName() + "*"));
+            System.out.println(report);
+            Files.writeString(Path.of("target/entity-flush-" + (enhanced ? "enhanced" : "plain") + ".txt"), report);
+        }
+    }
+
+    private static <T> void measure(TransactionTemplate transactionTemplate, EntityManager entityManager,
+                                    String entityName, Class<T> entityClass, StringBuilder report,
+                                    Consumer<T> modification) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long heapBefore = usedHeap();
+            var entities = entityManager.createQuery("select e from " + entityName + " e", entityClass)
+                    .getResultList();
+            long heapAfter = usedHeap();
+            report.append(String.format("%s : %d managed, heap per entity : %d bytes%n",
+                    entityName, entities.size(), (heapAfter - heapBefore) / entities.size()));
+            var dirtyFlush = new long[RUNS];
+            var cleanFlush = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                for (int i = run % DIRTY_EVERY; i < entities.size(); i += DIRTY_EVERY) {
+                    modification.accept(entities.get(i));
+                }
+                long start = System.nanoTime();
+                entityManager.flush();
+                dirtyFlush[run] = System.nanoTime() - start;
+                start = System.nanoTime();
+                entityManager.flush();
+                cleanFlush[run] = System.nanoTime() - start;
+            }
+            report.append(format(entityName + " flush 1% dirty", dirtyFlush));
+            report.append(format(entityName + " flush 0% dirty", cleanFlush));
+            status.setRollbackOnly();
+        });
+        entityManager.clear();
+    }
+
+    // median of the second half of runs (warm)
+    private static String format(String name, long[] nanos) {
+        var warm = Arrays.copyOfRange(nanos, nanos.length / 2, nanos.length);
+        Arrays.sort(warm);
+        return String.format("%s : %.2f ms (median of %d warm runs)%n", name, warm[warm.length / 2] / 1e6, warm.length);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.advisor.IndexAdvice;
+import org.example.movieapi.advisor.IndexAdvisor;
+import org.example.movieapi.advisor.QueryShapeCollector;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.sqllog.SqlLogDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Before/after of the indexes of sql/dbmovie_indexes.sql on a catalog generated by
+ * CatalogGenerator (embedded H2) :
+ * indexes dropped, query shapes of IMovieRepository captured by the SQL log,
+ * then proposed and validated by IndexAdvisor (EXPLAIN + replay without/with each index).
+ * Run with : mvn test -Pbenchmark -Dtest=IndexAdvisorBenchmark (DDL with justification in target/dbmovie_indexes.sql)
+ */
+@Tag("benchmark")
+class IndexAdvisorBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 100_000;
+    // about 0.6% of the generated movies (durations normal around 100 min, sd 20) : selective
+    static final int LONG_DURATION = 150;
+    static final int RUNS = 20;
+    static final Set<String> ADVISED_INDEXES = Set.of("idx_movie_title_year", "idx_movie_duration", "idx_people_name");
+
+    @Test
+    void benchmarkAdvisedIndexes() throws Exception {
+        // replays timed on the queries, not on the last result reused by H2
+        try (var context = BenchmarkContext.start("advisor;OPTIMIZE_REUSE_RESULTS=FALSE",
+                // every statement captured, none explained by the log itself
+                "--movieapi.sql-log.enabled=true",
+                "--movieapi.sql-log.sample-rate=1",
+                "--movieapi.sql-log.slow-threshold-ms=60000",
+                "--logging.level.org.example.movieapi.advisor=info")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 4);
+            ADVISED_INDEXES.forEach(index -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + index));
+            // parameters taken from the generated rows (same seed = same values)
+            var title = jdbcTemplate.queryForObject("select title from movie where id = 1234", String.class);
+            var names = jdbcTemplate.queryForList("select p.name from movie m join people p on p.id = m.fk_director_id"
+                    + " where m.id in (12, 345)", String.class);
+
+            // query shapes (statements above not captured)
+            var sqlLogger = ((SqlLogDataSource) context.getBean(DataSource.class)).getSqlLogger();
+            sqlLogger.flush();
+            var collector = new QueryShapeCollector();
+            sqlLogger.addListener(collector);
+            var movieRepository = context.getBean(IMovieRepository.class);
+            context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+                try (var movies = movieRepository.findByTitleRangeYear(title, 1900, 2020)) {
+                    movies.count();
+                }
+                try (var rows = movieRepository.findTitleDurationAge(LONG_DURATION)) {
+                    rows.count();
+                }
+                movieRepository.findIdsByTitleLike(title.substring(0, title.length() - 1) + "%");
+                movieRepository.findIdsByTitleLike("%ight%"); // no index
+                movieRepository.findDirectorIdsByNameIn(names);
+            });
+            sqlLogger.flush();
+            sqlLogger.removeListener(collector);
+
+            var advisor = context.getBean(IndexAdvisor.class);
+            var advices = new ArrayList<IndexAdvice>();
+            for (var candidate : advisor.propose(collector.getShapes())) {
+                advices.add(advisor.validate(candidate, RUNS, true));
+            }
+            var ddl = new StringBuilder("-- IndexAdvisorBenchmark : " + MOVIES + " movies\n");
+            for (var advice : advices) {
+                System.out.printf("%-25s used=%-5s before=%8.3f ms after=%8.3f ms x%.1f%n",
+                        advice.getCandidate().getName(), advice.isUsed(),
+                        advice.getMillisBefore(), advice.getMillisAfter(), advice.getSpeedup());
+                ddl.append('\n').append(advice.toDdl());
+            }
+            System.out.println(ddl);
+            Files.writeString(Path.of("target/dbmovie_indexes.sql"), ddl);
+
+            for (var index : ADVISED_INDEXES) {
+                assertTrue(advices.stream().anyMatch(advice -> advice.getCandidate().getName().equals(index)
+                        && advice.isBeneficial()), index + " not advised");
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+// run with : mvn test -Pbenchmark -Dtest=MovieBatchInsertBenchmark [-Dbenchmark.movies=100000]
+// batch size 1 = one round-trip per row (what IDENTITY ids forced on us)
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MovieBatchInsertBenchmark {
+
+    static final int MOVIE_COUNT = Integer.getInteger("benchmark.movies", 100_000);
+    static final int FLUSH_EVERY = 50;
+    static final List<Genre> GENRES = List.of(Genre.DRAMA, Genre.ACTION, Genre.THRILLER, Genre.COMEDY, Genre.CRIME);
+
+    @Autowired
+    EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void benchmarkPersistMovies(int batchSize) {
+        var session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        var peopleIds = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            var people = People.of("People " + i);
+            entityManager.persist(people);
+            peopleIds.add(people.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        long rows = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MOVIE_COUNT; i++) {
+            var movie = Movie.of("Movie " + i, 1900 + i % 120);
+            movie.setDuration(80 + i % 100);
+            movie.setDirector(entityManager.getReference(People.class, peopleIds.get(i % 200)));
+            movie.addGenres(GENRES.get(i % GENRES.size()));
+            movie.addGenres(GENRES.get((i + 2) % GENRES.size()));
+            for (int a = 0; a < 3; a++) {
+                movie.getActors().add(entityManager.getReference(People.class, peopleIds.get(200 + (i * 7 + a) % 800)));
+            }
+            entityManager.persist(movie);
+            rows += 1 + 3; // movie (with genres) + play rows
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("batch size %d : %d movies, %d rows in %.2f s => %.0f rows/s%n",
+                batchSize, MOVIE_COUNT, rows, seconds, rows / seconds);
+    }
+}
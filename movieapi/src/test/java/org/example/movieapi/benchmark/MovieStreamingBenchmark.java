@@ -0,0 +1,103 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+// run with : mvn test -Pbenchmark -Dtest=MovieStreamingBenchmark [-Dbenchmark.movies=10000000]
+// heap measured after GC every SAMPLE_EVERY rows : retained memory must stay flat while scanning
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // data committed : visible to stateless session
+class MovieStreamingBenchmark {
+
+    static final int MOVIE_COUNT = Integer.getInteger("benchmark.movies", 1_000_000);
+    static final int SAMPLE_EVERY = Math.max(MOVIE_COUNT / 20, 1);
+    static final int FIRST_ID = 100_000_000;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @BeforeEach
+    void insertMovies() {
+        var batch = new ArrayList<Object[]>();
+        for (int i = 0; i < MOVIE_COUNT; i++) {
+            batch.add(new Object[]{FIRST_ID + i, "Movie " + i, 1900 + i % 120, 80 + i % 100});
+            if (batch.size() == 10_000 || i == MOVIE_COUNT - 1) {
+                jdbcTemplate.batchUpdate("insert into movie (id, title, year, duration) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    void deleteMovies() {
+        jdbcTemplate.update("delete from movie where id >= ?", FIRST_ID);
+    }
+
+    @Test
+    void benchmarkResultStream() {
+        measure("JPA result stream", action -> transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m from Movie m", Movie.class)
+                        .getResultStream()
+                        .forEach(action)));
+    }
+
+    @Test
+    void benchmarkScanAll() {
+        measure("scanAll (read only, cleared)", action ->
+                movieRepository.scanAll(action::accept));
+    }
+
+    @Test
+    void benchmarkScanAllStateless() {
+        measure("scanAllStateless", action ->
+                movieRepository.scanAllStateless(action::accept));
+    }
+
+    private void measure(String mode, Consumer<Consumer<Movie>> scan) {
+        var memory = ManagementFactory.getMemoryMXBean();
+        ToLongFunction<Void> usedHeap = v -> {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        };
+        long baseline = usedHeap.applyAsLong(null);
+        long[] maxRetained = {0};
+        long[] count = {0};
+        long start = System.nanoTime();
+        scan.accept(movie -> {
+            if (++count[0] % SAMPLE_EVERY == 0) {
+                maxRetained[0] = Math.max(maxRetained[0], usedHeap.applyAsLong(null) - baseline);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s : %d movies in %.2f s, max retained heap %d MB%n",
+                mode, count[0], seconds, maxRetained[0] / (1024 * 1024));
+    }
+}
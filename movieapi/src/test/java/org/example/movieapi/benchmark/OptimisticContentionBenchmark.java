@@ -0,0 +1,121 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.example.movieapi.retry.RetryOptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent editors reassigning the director of movies of a hot set (embedded H2) :
+ * - pessimistic : SELECT ... FOR UPDATE, row locked from the read to the commit,
+ * - optimistic : version checked at commit, re-read and re-applied on conflict (OptimisticRetryExecutor).
+ * Each editor works thinkMillis between its read and its write (inside the transaction).
+ * Run with : mvn test -Pbenchmark -Dtest=OptimisticContentionBenchmark (results in target/optimistic-contention.txt)
+ */
+@Tag("benchmark")
+class OptimisticContentionBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 10_000;
+    static final int THREADS = 8;
+    static final int[] HOT_MOVIES = {1, 10, 100, 1000};
+    static final long DURATION_MILLIS = 3_000;
+    static final long THINK_MILLIS = 2;
+
+    @Test
+    void benchmarkContention() throws Exception {
+        try (var context = BenchmarkContext.start("contention;LOCK_TIMEOUT=10000",
+                "--spring.datasource.hikari.maximum-pool-size=" + (THREADS + 2),
+                // conflicts are expected : no error log per stale batch
+                "--logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off",
+                "--logging.level.org.example.movieapi.retry=error")) {
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 1);
+            var entityManager = context.getBean(EntityManager.class);
+            var transactionTemplate = context.getBean(TransactionTemplate.class);
+            var retryExecutor = context.getBean(OptimisticRetryExecutor.class);
+            var options = RetryOptions.builder().maxAttempts(20).build();
+            var report = new StringBuilder(String.format("%d threads, think time %d ms, %d s per run%n",
+                    THREADS, THINK_MILLIS, DURATION_MILLIS / 1000));
+            var threads = Executors.newFixedThreadPool(THREADS);
+            try {
+                for (int hotMovies : HOT_MOVIES) {
+                    long pessimistic = run(threads, hotMovies, (movieId, directorId) ->
+                            transactionTemplate.executeWithoutResult(status -> {
+                                var movie = entityManager.find(Movie.class, movieId, LockModeType.PESSIMISTIC_WRITE);
+                                think();
+                                movie.setDirector(entityManager.getReference(People.class, directorId));
+                            }));
+                    long conflicts = retryExecutor.getConflictCount();
+                    long failures = retryExecutor.getFailureCount();
+                    long optimistic = run(threads, hotMovies, (movieId, directorId) ->
+                            retryExecutor.update(options, Movie.class, movieId, movie -> {
+                                think();
+                                movie.setDirector(entityManager.getReference(People.class, directorId));
+                            }));
+                    report.append(String.format(
+                            "hot set %4d movies : pessimistic %6.0f updates/s, optimistic %6.0f updates/s"
+                                    + " (%d conflicts retried, %d given up)%n",
+                            hotMovies, pessimistic * 1000.0 / DURATION_MILLIS, optimistic * 1000.0 / DURATION_MILLIS,
+                            retryExecutor.getConflictCount() - conflicts, retryExecutor.getFailureCount() - failures));
+                }
+            } finally {
+                threads.shutdownNow();
+            }
+            System.out.println(report);
+            Files.writeString(Path.of("target/optimistic-contention.txt"), report);
+        }
+    }
+
+    interface Update {
+        void apply(int movieId, int directorId);
+    }
+
+    /**
+     * @return updates committed by all threads during DURATION_MILLIS
+     */
+    private static long run(ExecutorService threads, int hotMovies, Update update) throws Exception {
+        var committed = new AtomicLong();
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        var futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(threads.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    try {
+                        update.apply(1 + random.nextInt(hotMovies), 1 + random.nextInt(MOVIES / 20));
+                        committed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // given up (optimistic) or lock timeout (pessimistic) : not counted
+                    }
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        return committed.get();
+    }
+
+    private static void think() {
+        try {
+            Thread.sleep(THINK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.dto.ITitleDurationAge;
+import org.example.movieapi.dto.TitleDurationAge;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.repository.IMovieRepository;
+import org.hibernate.jpa.QueryHints;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH : cost of each read path of QueryJpqlTest on the same rows (long movies of a catalog
+ * generated by CatalogGenerator in embedded H2) : entity, Object[], Tuple, constructor DTO, interface projection,
+ * list vs stream, fetch join vs lazy director,
+ * managed entities vs read only (query hint or read only transaction).
+ * Scores are per row (@OperationsPerInvocation) : throughput rows/ms, latency samples,
+ * gc.alloc.rate.norm = bytes allocated per row.
+ * Run with : mvn test -Pbenchmark -Dtest=ReadPathBenchmark [-Djmh.forks=2] [-Djmh.include=entityList]
+ * (results in target/jmh-read-paths.json)
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(ReadPathBenchmark.ROWS)
+public class ReadPathBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 40_000;
+    // about a quarter of the generated movies : exactly ROWS with SEED and MOVIES (checked at setup)
+    static final int LONG_DURATION = 113;
+    static final int ROWS = 9_958;
+
+    static final String WHERE = " from Movie m where m.duration >= " + LONG_DURATION;
+
+    ConfigurableApplicationContext context;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    TransactionTemplate readOnlyTransactionTemplate;
+    IMovieRepository movieRepository;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("jmh",
+                // read path only : no statistics
+                "--spring.jpa.properties.hibernate.generate_statistics=false");
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+        movieRepository = context.getBean(IMovieRepository.class);
+        BenchmarkContext.loadCatalog(context, SEED, MOVIES, 4);
+        long rows = context.getBean(JdbcTemplate.class).queryForObject(
+                "select count(*) from movie where duration >= ?", Long.class, LONG_DURATION);
+        if (rows != ROWS) {
+            throw new IllegalStateException(rows + " long movies instead of " + ROWS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void entityList(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m" + WHERE, Movie.class)
+                        .getResultList()
+                        .forEach(m -> consume(blackhole, m.getTitle(), m.getDuration(), m.getYear())));
+    }
+
+    // read only hint : no snapshot per entity (see repository.ReadOnlyQuery)
+    @Benchmark
+    public void entityListReadOnlyQuery(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m" + WHERE, Movie.class)
+                        .setHint(QueryHints.HINT_READONLY, true)
+                        .getResultList()
+                        .forEach(m -> consume(blackhole, m.getTitle(), m.getDuration(), m.getYear())));
+    }
+
+    // read only transaction : session read only by default, no flush at commit
+    @Benchmark
+    public void entityListReadOnlyTransaction(Blackhole blackhole) {
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m" + WHERE, Movie.class)
+                        .getResultList()
+                        .forEach(m -> consume(blackhole, m.getTitle(), m.getDuration(), m.getYear())));
+    }
+
+    @Benchmark
+    public void entityStream(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m" + WHERE, Movie.class)
+                        .getResultStream()
+                        .forEach(m -> consume(blackhole, m.getTitle(), m.getDuration(), m.getYear())));
+    }
+
+    @Benchmark
+    public void objectArray(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery(
+                                "select m.title, m.duration, YEAR(CURRENT_DATE) - m.year" + WHERE, Object[].class)
+                        .getResultList()
+                        .forEach(r -> consume(blackhole, r[0], r[1], r[2])));
+    }
+
+    @Benchmark
+    public void tuple(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m.title as title, m.duration as duration, "
+                                + "YEAR(CURRENT_DATE) - m.year as age" + WHERE, Tuple.class)
+                        .getResultList()
+                        .forEach(r -> consume(blackhole, r.get("title"), r.get("duration"), r.get("age"))));
+    }
+
+    @Benchmark
+    public void constructorDto(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select new org.example.movieapi.dto.TitleDurationAge("
+                                + "m.title, m.duration, YEAR(CURRENT_DATE) - m.year)" + WHERE, TitleDurationAge.class)
+                        .getResultList()
+                        .forEach(r -> consume(blackhole, r.getTitle(), r.getDuration(), r.getAge())));
+    }
+
+    @Benchmark
+    public void constructorDtoStream(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select new org.example.movieapi.dto.TitleDurationAge("
+                                + "m.title, m.duration, YEAR(CURRENT_DATE) - m.year)" + WHERE, TitleDurationAge.class)
+                        .getResultStream()
+                        .forEach(r -> consume(blackhole, r.getTitle(), r.getDuration(), r.getAge())));
+    }
+
+    // Spring Data proxy of IMovieRepository.findTitleDurationAge (streamed)
+    @Benchmark
+    public void interfaceProjection(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (var rows = movieRepository.findTitleDurationAge(LONG_DURATION)) {
+                rows.forEach(r -> consumeProjection(blackhole, r));
+            }
+        });
+    }
+
+    @Benchmark
+    public void directorFetchJoin(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m from Movie m left join fetch m.director"
+                                + " where m.duration >= " + LONG_DURATION, Movie.class)
+                        .getResultList()
+                        .forEach(m -> consume(blackhole, m.getTitle(), directorName(m), m.getYear())));
+    }
+
+    // lazy director : loaded by batch of 50 (@BatchSize on People)
+    @Benchmark
+    public void directorLazy(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("select m" + WHERE, Movie.class)
+                        .getResultList()
+                        .forEach(m -> consume(blackhole, m.getTitle(), directorName(m), m.getYear())));
+    }
+
+    // 2% of the generated movies have no director
+    private static String directorName(Movie movie) {
+        return movie.getDirector() == null ? null : movie.getDirector().getName();
+    }
+
+    private static void consume(Blackhole blackhole, Object title, Object duration, Object age) {
+        blackhole.consume(title);
+        blackhole.consume(duration);
+        blackhole.consume(age);
+    }
+
+    private static void consumeProjection(Blackhole blackhole, ITitleDurationAge row) {
+        consume(blackhole, row.getTitle(), row.getDuration(), row.getAge());
+    }
+
+    // JUnit entry point (benchmark profile)
+    @Test
+    void runBenchmarks() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(ReadPathBenchmark.class.getName() + "\\.(?!runBenchmarks)"
+                        + System.getProperty("jmh.include", ""))
+                .forks(Integer.getInteger("jmh.forks", 1))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-read-paths.json")
+                .build();
+        new Runner(options).run();
+    }
+}
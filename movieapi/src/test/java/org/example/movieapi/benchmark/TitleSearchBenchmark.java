@@ -0,0 +1,77 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.index.TitleSearchIndex;
+import org.example.movieapi.index.TitleSearchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// run with : mvn test -Pbenchmark -Dtest=TitleSearchBenchmark (full dataset of profile query)
+// target : p99 of index searches below benchmark.search.p99-ms (default 10 ms)
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("query")
+@Import(TitleSearchService.class)
+class TitleSearchBenchmark {
+
+    static final int RUNS = 200;
+    static final double TARGET_P99_MS = Double.parseDouble(System.getProperty("benchmark.search.p99-ms", "10"));
+    static final List<String> QUERIES = List.of("s", "st", "star", "the", "love", "man", "war", "ar", "night", "king");
+
+    @Autowired
+    TitleSearchService titleSearchService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmarkMovieTitles() {
+        var titles = titleSearchService.getMovieTitles();
+        measure("LIKE '%x%'", RUNS / 10, q -> jdbcTemplate.queryForList(
+                "select id from movie where title like ? limit 10", Integer.class, "%" + q + "%"));
+        for (var mode : TitleSearchIndex.Mode.values()) {
+            double p99 = measure("movie " + mode, RUNS, q -> titles.search(q, mode, 10));
+            assertTrue(p99 <= TARGET_P99_MS, mode + " p99 " + p99 + " ms");
+        }
+    }
+
+    @Test
+    void benchmarkPeopleNames() {
+        var names = titleSearchService.getPeopleNames();
+        for (var mode : TitleSearchIndex.Mode.values()) {
+            double p99 = measure("people " + mode, RUNS, q -> names.search(q, mode, 10));
+            assertTrue(p99 <= TARGET_P99_MS, mode + " p99 " + p99 + " ms");
+        }
+    }
+
+    interface Search {
+        Object search(String query);
+    }
+
+    private static double measure(String name, int runs, Search search) {
+        var latencies = new double[runs * QUERIES.size()];
+        int k = 0;
+        for (int i = 0; i < runs; i++) {
+            for (var query : QUERIES) {
+                long start = System.nanoTime();
+                search.search(query);
+                latencies[k++] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(latencies);
+        double p99 = latencies[(int) (latencies.length * 0.99) - 1];
+        System.out.printf("%s : p50 %.3f ms, p99 %.3f ms%n", name, latencies[latencies.length / 2], p99);
+        return p99;
+    }
+}
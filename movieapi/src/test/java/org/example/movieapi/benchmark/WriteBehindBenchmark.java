@@ -0,0 +1,133 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.example.movieapi.retry.RetryOptions;
+import org.example.movieapi.writebehind.MovieWriteBehind;
+import org.example.movieapi.writebehind.WriteBehindOptions;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bursts of small movie updates (duration, color or one more genre) on a hot set of movies (embedded H2) :
+ * - direct : one transaction and one UPDATE per change (OptimisticRetryExecutor.update),
+ * - write-behind : changes coalesced per movie, flushed by batched transactions (MovieWriteBehind),
+ *   time including the final flush.
+ * Run with : mvn test -Pbenchmark -Dtest=WriteBehindBenchmark (results in target/write-behind.txt)
+ */
+@Tag("benchmark")
+class WriteBehindBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 10_000;
+    static final int THREADS = 4;
+    static final int UPDATES = 20_000;
+    static final int[] HOT_MOVIES = {100, 1000, 10_000};
+
+    @Test
+    void benchmarkWriteBehind() throws Exception {
+        try (var context = BenchmarkContext.start("writebehind",
+                "--spring.datasource.hikari.maximum-pool-size=" + (THREADS + 2),
+                // conflicts of the direct updates are expected
+                "--logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off",
+                "--logging.level.org.example.movieapi.retry=error")) {
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 1);
+            var retryExecutor = context.getBean(OptimisticRetryExecutor.class);
+            var movieRepository = context.getBean(IMovieRepository.class);
+            var statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+            var retryOptions = RetryOptions.builder().maxAttempts(50).build();
+            var report = new StringBuilder(String.format("%d threads, %d updates per run%n", THREADS, UPDATES));
+            var threads = Executors.newFixedThreadPool(THREADS);
+            try {
+                for (int hotMovies : HOT_MOVIES) {
+                    long updates = statistics.getEntityUpdateCount();
+                    long start = System.nanoTime();
+                    run(threads, hotMovies, (movieId, change, value) ->
+                            retryExecutor.update(retryOptions, Movie.class, movieId, movie -> {
+                                switch (change) {
+                                    case 0:
+                                        movie.setDuration(60 + value);
+                                        break;
+                                    case 1:
+                                        movie.setColor(Color.values()[value % Color.values().length]);
+                                        break;
+                                    default:
+                                        var genres = EnumSet.of(Genre.values()[value % Genre.values().length]);
+                                        genres.addAll(movie.getGenres());
+                                        movie.setGenres(genres);
+                                }
+                            }));
+                    long directNanos = System.nanoTime() - start;
+                    long directUpdates = statistics.getEntityUpdateCount() - updates;
+
+                    updates = statistics.getEntityUpdateCount();
+                    start = System.nanoTime();
+                    var writeBehind = new MovieWriteBehind(movieRepository, retryExecutor,
+                            WriteBehindOptions.defaults());
+                    run(threads, hotMovies, (movieId, change, value) -> {
+                        switch (change) {
+                            case 0:
+                                writeBehind.setDuration(movieId, 60 + value);
+                                break;
+                            case 1:
+                                writeBehind.setColor(movieId, Color.values()[value % Color.values().length]);
+                                break;
+                            default:
+                                writeBehind.addGenres(movieId, Genre.values()[value % Genre.values().length]);
+                        }
+                    });
+                    writeBehind.close();
+                    long writeBehindNanos = System.nanoTime() - start;
+                    report.append(String.format(
+                            "hot set %5d movies : direct %7.0f changes/s (%d UPDATE), write-behind %7.0f changes/s"
+                                    + " (%d UPDATE in %d transactions, %d changes coalesced)%n",
+                            hotMovies, UPDATES * 1e9 / directNanos, directUpdates, UPDATES * 1e9 / writeBehindNanos,
+                            statistics.getEntityUpdateCount() - updates, writeBehind.getFlushCount(),
+                            writeBehind.getCoalescedCount()));
+                }
+            } finally {
+                threads.shutdownNow();
+            }
+            System.out.println(report);
+            Files.writeString(Path.of("target/write-behind.txt"), report);
+        }
+    }
+
+    interface Change {
+        /**
+         * @param change 0 : duration, 1 : color, 2 : genre
+         * @param value random value of the change
+         */
+        void apply(int movieId, int change, int value);
+    }
+
+    private static void run(ExecutorService threads, int hotMovies, Change change) throws Exception {
+        var futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(threads.submit(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < UPDATES / THREADS; i++) {
+                    change.apply(1 + random.nextInt(hotMovies), random.nextInt(3), random.nextInt(120));
+                }
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.movieapi.benchmark;
+
+import org.example.movieapi.shard.ShardedMovieQueries;
+import org.example.movieapi.shard.YearShard;
+import org.example.movieapi.shard.YearShardLoader;
+import org.example.movieapi.shard.YearShards;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Movie queries on one table vs 4 year shards of 25 years (embedded H2 databases, same indexes) :
+ * - pruned : year range of 5 years (1 shard read), count of a decade,
+ * - fan out : title prefix, longest movies (4 shards in parallel, k-way merge), count of a title scan.
+ * Run with : mvn test -Pbenchmark -Dtest=YearShardBenchmark (results in target/year-shards.txt)
+ */
+@Tag("benchmark")
+class YearShardBenchmark {
+
+    static final long SEED = 42;
+    static final int MOVIES = 400_000;
+    static final int QUERIES = 100;
+    static final int LIMIT = 100;
+
+    static final String[] DDL = {
+            "create table people (id integer not null primary key, name varchar(100) not null, birthdate date,"
+                    + " birth_year integer, version integer not null default 0)",
+            "create table movie (id integer not null primary key, title varchar(250) not null, year integer not null,"
+                    + " color varchar(15), duration integer, fk_director_id integer references people (id),"
+                    + " genres bigint not null default 0, synopsis clob, version integer not null default 0)",
+            "create index idx_movie_year_title_id on movie (year, title, id)",
+            "create index idx_movie_title_year on movie (title, year)",
+            "create index idx_movie_duration on movie (duration)",
+            "create table play (fk_movie_id integer not null references movie (id),"
+                    + " fk_actor_id integer not null references people (id), primary key (fk_movie_id, fk_actor_id))"
+    };
+
+    static YearShard h2Shard(String name, int fromYear, int toYear) {
+        // pool of connections as the shards of YearShardConfiguration
+        var shard = new YearShard(name, fromYear, toYear, DataSourceBuilder.create()
+                .url("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE")
+                .username("sa")
+                .password("")
+                .build());
+        for (var ddl : DDL) {
+            shard.getJdbcTemplate().execute(ddl);
+        }
+        return shard;
+    }
+
+    @Test
+    void benchmarkYearShards() throws Exception {
+        try (var context = BenchmarkContext.start("yearshards");
+             var shards = new YearShards(List.of(
+                     h2Shard("shard_until_1944", Integer.MIN_VALUE, 1944),
+                     h2Shard("shard_1945_1969", 1945, 1969),
+                     h2Shard("shard_1970_1994", 1970, 1994),
+                     h2Shard("shard_since_1995", 1995, Integer.MAX_VALUE)))) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkContext.loadCatalog(context, SEED, MOVIES, 1);
+            long start = System.nanoTime();
+            var counts = new YearShardLoader(jdbcTemplate, shards).load();
+            var report = new StringBuilder(String.format("%d movies, shards %s loaded in %.0f ms : %s%n",
+                    MOVIES, shards.getShards(), (System.nanoTime() - start) / 1e6, counts));
+            var queries = new ShardedMovieQueries(shards);
+            var select = "select id, title, year, duration, color, genres, fk_director_id from movie ";
+            // generated titles (a few words, popular ones repeated) : prefixes and words drawn from them
+            var titles = jdbcTemplate.queryForList("select distinct title from movie order by title", String.class);
+
+            report.append(compare("year range (5 years)",
+                    year -> jdbcTemplate.queryForList(select + "where year between ? and ? order by year, title, id"
+                            + " limit " + LIMIT, year, year + 4).size(),
+                    year -> queries.findByYearBetween(year, year + 4, LIMIT).size(),
+                    random -> 1920 + random.nextInt(95)));
+            report.append(compare("count of a decade",
+                    year -> jdbcTemplate.queryForObject("select count(*) from movie where year between ? and ?",
+                            Long.class, year, year + 9).intValue(),
+                    year -> (int) queries.countByYearBetween(year, year + 9),
+                    random -> 1920 + random.nextInt(90)));
+            report.append(compare("title prefix",
+                    t -> jdbcTemplate.queryForList(select + "where title like ? order by lower(title), year, id"
+                            + " limit " + LIMIT, titles.get(t) + "%").size(),
+                    t -> queries.findByTitleStartingWith(titles.get(t), LIMIT).size(),
+                    random -> random.nextInt(titles.size())));
+            report.append(compare("title like '%..%' (scan)",
+                    t -> jdbcTemplate.queryForObject("select count(*) from movie where title like ?", Long.class,
+                            "%" + lastWord(titles.get(t)) + "%").intValue(),
+                    t -> (int) queries.countByTitleLike("%" + lastWord(titles.get(t)) + "%"),
+                    random -> random.nextInt(titles.size())));
+            report.append(compare("longest movies",
+                    limit -> jdbcTemplate.queryForList(select + "where duration is not null"
+                            + " order by duration desc, id limit " + limit).size(),
+                    limit -> queries.findLongest(limit).size(),
+                    random -> LIMIT));
+            System.out.println(report);
+            Files.writeString(Path.of("target/year-shards.txt"), report);
+        }
+    }
+
+    private static String lastWord(String title) {
+        return title.substring(title.lastIndexOf(' ') + 1);
+    }
+
+    interface Parameter {
+        int next(Random random);
+    }
+
+    // same parameters for both (same seed), first run of each : warm up
+    private static String compare(String name, IntFunction<Integer> single, IntFunction<Integer> sharded,
+                                  Parameter parameter) {
+        long[] nanos = new long[2];
+        long[] rows = new long[2];
+        var queries = List.of(single, sharded);
+        for (int run = 0; run < 2; run++) {
+            for (int q = 0; q < 2; q++) {
+                var random = new Random(SEED);
+                long start = System.nanoTime();
+                long count = 0;
+                for (int i = 0; i < QUERIES; i++) {
+                    count += queries.get(q).apply(parameter.next(random));
+                }
+                nanos[q] = System.nanoTime() - start;
+                rows[q] = count;
+            }
+        }
+        return String.format("%-26s : one table %8.3f ms/query, year shards %8.3f ms/query (%d / %d rows)%n",
+                name, nanos[0] / 1e6 / QUERIES, nanos[1] / 1e6 / QUERIES, rows[0], rows[1]);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.movieapi.bulk;
+
+import org.example.movieapi.MovieapiApplication;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.repository.IPeopleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk load of a small synthetic catalog into embedded H2, then entities persisted with
+ * the sequences restarted by the load (pooled generators of allocation size 50).
+ */
+class BulkLoaderTest {
+
+    @Test
+    void testPersistAfterLoad() {
+        try (var context = new SpringApplicationBuilder(MovieapiApplication.class)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bulkload;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--spring.jpa.properties.movieapi.n-plus-one.mode=off",
+                        "--movieapi.sql-log.enabled=false",
+                        "--logging.level.root=warn")) {
+            var generator = new CatalogGenerator(CatalogGeneratorOptions.builder()
+                    .movies(1234)
+                    .blockSize(500)
+                    .build());
+            var report = context.getBean(BulkLoader.class).load(generator.plan());
+            assertEquals(1234L, report.getRowsByTable().get("movie"));
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            int maxMovieId = jdbcTemplate.queryForObject("select max(id) from movie", Integer.class);
+            int maxPeopleId = jdbcTemplate.queryForObject("select max(id) from people", Integer.class);
+
+            // ids after the loaded ones : no duplicate key
+            var people = context.getBean(IPeopleRepository.class).save(People.of("New Director"));
+            var movie = new Movie();
+            movie.setTitle("New Movie");
+            movie.setYear(2022);
+            movie = context.getBean(IMovieRepository.class).save(movie);
+            System.out.println("New ids: " + movie.getId() + " (max " + maxMovieId + "), "
+                    + people.getId() + " (max " + maxPeopleId + ")");
+            assertEquals(maxPeopleId + 1, people.getId());
+            assertEquals(maxMovieId + 1, movie.getId());
+        }
+    }
+}
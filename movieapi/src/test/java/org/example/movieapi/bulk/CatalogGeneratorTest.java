@@ -0,0 +1,132 @@
+package org.example.movieapi.bulk;
+
+import org.example.movieapi.model.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogGeneratorTest {
+
+    static final CatalogGeneratorOptions OPTIONS = CatalogGeneratorOptions.builder()
+            .movies(20_000)
+            .blockSize(3000)
+            .build();
+
+    // rows of each table, in plan order
+    static Map<String, List<String[]>> generate(CatalogGenerator generator) throws IOException {
+        var tables = new HashMap<String, List<String[]>>();
+        for (var stage : generator.plan().getStages()) {
+            for (var source : stage) {
+                try (var rows = source.open()) {
+                    String[] row;
+                    while ((row = rows.next()) != null) {
+                        tables.computeIfAbsent(rows.getTable(), table -> new ArrayList<>()).add(row);
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    static Map<String, Integer> countBy(List<String[]> rows, int column) {
+        var counts = new HashMap<String, Integer>();
+        rows.stream()
+                .filter(row -> row[column] != null)
+                .forEach(row -> counts.merge(row[column], 1, Integer::sum));
+        return counts;
+    }
+
+    @Test
+    void testSameSeedSameRows() throws IOException {
+        var tables = generate(new CatalogGenerator(OPTIONS));
+        var again = generate(new CatalogGenerator(OPTIONS));
+        var otherSeed = generate(new CatalogGenerator(CatalogGeneratorOptions.builder()
+                .movies(20_000)
+                .blockSize(3000)
+                .seed(43)
+                .build()));
+        for (var table : List.of("people", "movie", "play")) {
+            assertArrayEquals(tables.get(table).toArray(), again.get(table).toArray(), table);
+        }
+        assertFalse(Arrays.equals(tables.get("movie").get(0), otherSeed.get("movie").get(0)));
+        System.out.println(String.join(", ", tables.get("movie").get(0)));
+        System.out.println(String.join(", ", tables.get("people").get(0)));
+    }
+
+    @Test
+    void testRowsAndForeignKeys() throws IOException {
+        var tables = generate(new CatalogGenerator(OPTIONS));
+        var people = tables.get("people");
+        var movies = tables.get("movie");
+        assertEquals(OPTIONS.getPeople(), people.size());
+        assertEquals(OPTIONS.getMovies(), movies.size());
+        for (int i = 0; i < movies.size(); i++) {
+            var movie = movies.get(i);
+            assertEquals(Integer.toString(i + 1), movie[0]);
+            int year = Integer.parseInt(movie[2]);
+            assertTrue(year >= OPTIONS.getFromYear() && year <= OPTIONS.getToYear(), movie[2]);
+            assertNotEquals(0, Long.parseLong(movie[5]));
+            assertTrue(movie[6] == null || Integer.parseInt(movie[6]) <= people.size(), movie[6]);
+        }
+        var playKeys = new HashSet<String>();
+        for (var play : tables.get("play")) {
+            assertTrue(Integer.parseInt(play[0]) <= movies.size());
+            assertTrue(Integer.parseInt(play[1]) <= people.size());
+            assertTrue(playKeys.add(play[0] + "/" + play[1]), "duplicate play");
+        }
+        double meanCast = (double) tables.get("play").size() / movies.size();
+        System.out.println("Mean cast : " + meanCast);
+        assertEquals(OPTIONS.getMeanCastSize(), meanCast, 1.0);
+    }
+
+    @Test
+    void testSkewedDistributions() throws IOException {
+        var generator = new CatalogGenerator(OPTIONS);
+        var tables = generate(generator);
+        var moviesByDirector = countBy(tables.get("movie"), 6);
+        var moviesByActor = countBy(tables.get("play"), 1);
+        int topDirector = moviesByDirector.getOrDefault(Integer.toString(generator.directorId(1)), 0);
+        int topActor = moviesByActor.getOrDefault(Integer.toString(generator.actorId(1)), 0);
+        double meanDirector = (double) OPTIONS.getMovies() / OPTIONS.getDirectors();
+        System.out.println("Top director : " + topDirector + " movies (mean " + meanDirector + "), top actor : "
+                + topActor + " movies");
+        // rank 1 : far more than the mean, the most of all
+        assertTrue(topDirector > 20 * meanDirector);
+        assertEquals(moviesByDirector.values().stream().mapToInt(Integer::intValue).max().orElseThrow(), topDirector);
+        assertEquals(moviesByActor.values().stream().mapToInt(Integer::intValue).max().orElseThrow(), topActor);
+        // most popular genre in more movies than the least popular one
+        var genres = generator.getGenresByPopularity();
+        long first = tables.get("movie").stream()
+                .filter(movie -> (Long.parseLong(movie[5]) & genres.get(0).getBit()) != 0).count();
+        long last = tables.get("movie").stream()
+                .filter(movie -> (Long.parseLong(movie[5]) & genres.get(genres.size() - 1).getBit()) != 0).count();
+        System.out.println(genres.get(0) + " : " + first + " movies, " + genres.get(genres.size() - 1) + " : " + last);
+        assertTrue(first > 10 * last);
+        assertEquals(Genre.values().length, new HashSet<>(genres).size());
+    }
+
+    @Test
+    void testZipfSampler() {
+        var zipf = new ZipfSampler(1000, 1.0);
+        var random = new SplittableRandom(42);
+        var counts = new int[1001];
+        for (int i = 0; i < 100_000; i++) {
+            long rank = zipf.sample(random);
+            assertTrue(rank >= 1 && rank <= 1000);
+            counts[(int) rank]++;
+        }
+        // P(1) / P(2) = 2, P(1) = 1 / H(1000) ~ 13 %
+        assertEquals(2.0, (double) counts[1] / counts[2], 0.15);
+        assertEquals(0.134, counts[1] / 100_000.0, 0.01);
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.movieapi.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlDumpRowSourceTest {
+
+    @Test
+    void testReadMultiRowInserts() throws IOException {
+        var dump = "LOCK TABLES movie WRITE;\n"
+                + "INSERT INTO movie (id, color, duration, title, year, fk_director_id) VALUES "
+                + "(9274,NULL,50,'A Lady\\'s Name',1918,250445),(9403,'COLOR',95,'It''s, (not) over',1918,NULL);\n"
+                + "INSERT INTO movie (id, color, duration, title, year, fk_director_id) VALUES (1,NULL,NULL,'Z',2019,NULL);\n"
+                + "UNLOCK TABLES;\n";
+        try (var rows = new SqlDumpRowSource(new StringReader(dump))) {
+            assertEquals("movie", rows.getTable());
+            assertEquals(List.of("id", "color", "duration", "title", "year", "fk_director_id"), rows.getColumns());
+            assertArrayEquals(new String[]{"9274", null, "50", "A Lady's Name", "1918", "250445"}, rows.next());
+            assertArrayEquals(new String[]{"9403", "COLOR", "95", "It's, (not) over", "1918", null}, rows.next());
+            assertArrayEquals(new String[]{"1", null, null, "Z", "2019", null}, rows.next());
+            assertNull(rows.next());
+        }
+    }
+
+    @Test
+    void testReadBackquotedColumns() throws IOException {
+        var dump = "set autocommit = 1;\n"
+                + "INSERT INTO `play` (`id`, `role`, `fk_actor_id`, `fk_movie_id`) VALUES (1,'Lt. Harry Mallory',1230,5257);";
+        try (var rows = new SqlDumpRowSource(new StringReader(dump))) {
+            assertEquals("play", rows.getTable());
+            assertEquals(List.of("id", "role", "fk_actor_id", "fk_movie_id"), rows.getColumns());
+            assertArrayEquals(new String[]{"1", "Lt. Harry Mallory", "1230", "5257"}, rows.next());
+            assertNull(rows.next());
+        }
+    }
+
+    @Test
+    void testReadTsv() throws IOException {
+        var tsv = "id\tbirthdate\tname\n1\t1899-05-10\tFred Astaire\n4\t\\N\tJohn Belushi\n";
+        try (var rows = DelimitedRowSource.tsv("people", new StringReader(tsv))) {
+            assertEquals(List.of("id", "birthdate", "name"), rows.getColumns());
+            assertArrayEquals(new String[]{"1", "1899-05-10", "Fred Astaire"}, rows.next());
+            assertArrayEquals(new String[]{"4", null, "John Belushi"}, rows.next());
+            assertNull(rows.next());
+        }
+    }
+}
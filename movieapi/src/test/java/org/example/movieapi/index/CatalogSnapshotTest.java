@@ -0,0 +1,135 @@
+package org.example.movieapi.index;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.example.movieapi.index.CatalogSnapshot.NO_COLOR;
+import static org.example.movieapi.index.CatalogSnapshot.NO_DURATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    static final byte COLOR = (byte) Color.COLOR.ordinal();
+    static final byte BLACK_AND_WHITE = (byte) Color.BLACK_AND_WHITE.ordinal();
+
+    // movies 10, 11, 12 by director 100, movie 13 by director 200, movie 14 without director
+    static CatalogSnapshot.MovieRows movies() {
+        var movies = new CatalogSnapshot.MovieRows();
+        movies.add(13, "Heat", 1995, 170, COLOR, Genre.toMask(Genre.CRIME, Genre.DRAMA), 200);
+        movies.add(10, "Vertigo", 1958, 128, COLOR, Genre.toMask(Genre.MYSTERY), 100);
+        movies.add(12, "Psycho", 1960, 109, BLACK_AND_WHITE, Genre.toMask(Genre.HORROR, Genre.MYSTERY), 100);
+        movies.add(11, "Rope", 1948, 80, COLOR, Genre.toMask(Genre.CRIME), 100);
+        movies.add(14, "Unknown", 1999, NO_DURATION, NO_COLOR, 0, 0);
+        return movies;
+    }
+
+    final CatalogSnapshot snapshot = CatalogSnapshot.build(movies(),
+            Map.of(100, "Alfred Hitchcock", 200, "Michael Mann"));
+
+    static List<String> keys(List<GroupStats> groups) {
+        return groups.stream().map(GroupStats::getKey).collect(Collectors.toList());
+    }
+
+    static List<Long> counts(List<GroupStats> groups) {
+        return groups.stream().map(GroupStats::getMovieCount).collect(Collectors.toList());
+    }
+
+    @Test
+    void testBuild() {
+        assertEquals(5, snapshot.getMovieCount());
+        assertEquals(2, snapshot.getDirectorCount());
+        // rows by id
+        assertEquals(1958, snapshot.getYear(0));
+        assertEquals("Alfred Hitchcock", snapshot.getDirectorName(0));
+        assertEquals(Color.BLACK_AND_WHITE, snapshot.getColor(2));
+        assertNull(snapshot.getColor(4));
+        assertNull(snapshot.getDirectorName(4));
+    }
+
+    @Test
+    void testGroupByDecade() {
+        var groups = snapshot.groupBy(CatalogDimension.DECADE);
+        groups.forEach(System.out::println);
+        assertEquals(List.of("1940s", "1950s", "1960s", "1990s"), keys(groups));
+        assertEquals(List.of(1L, 1L, 1L, 2L), counts(groups));
+        // duration of movie 14 unknown
+        var nineties = groups.get(3);
+        assertEquals(1, nineties.getDurationCount());
+        assertEquals(170, nineties.getDurationTotal());
+        assertEquals(170, nineties.getDurationMin());
+        assertEquals(170.0, nineties.getDurationAverage());
+    }
+
+    @Test
+    void testGroupByColorAndGenre() {
+        var colors = snapshot.groupBy(CatalogDimension.COLOR);
+        assertEquals(List.of("COLOR", "BLACK_AND_WHITE", "UNKNOWN"), keys(colors));
+        assertEquals(List.of(3L, 1L, 1L), counts(colors));
+        // movie counted in each of its genres, in Genre order
+        var genres = snapshot.groupBy(CatalogDimension.GENRE);
+        assertEquals(List.of("Crime", "Drama", "Horror", "Mystery"), keys(genres));
+        assertEquals(List.of(2L, 1L, 1L, 2L), counts(genres));
+    }
+
+    @Test
+    void testGroupByWithFilter() {
+        var groups = snapshot.groupBy(CatalogDimension.DIRECTOR, row -> snapshot.getYear(row) >= 1950);
+        assertEquals(List.of("Alfred Hitchcock", "Michael Mann"), keys(groups));
+        assertEquals(List.of(2L, 1L), counts(groups));
+        assertEquals(128 + 109, groups.get(0).getDurationTotal());
+        assertEquals(109, groups.get(0).getDurationMin());
+        assertEquals(128, groups.get(0).getDurationMax());
+    }
+
+    @Test
+    void testDirectorStatsAndTitleDurationAge() {
+        var stats = snapshot.directorStats(2);
+        assertEquals(List.of("Alfred Hitchcock"), keys(stats));
+        assertEquals(128 + 109 + 80, stats.get(0).getDurationTotal());
+
+        var rows = snapshot.titleDurationAge(110);
+        assertEquals(List.of("Vertigo", "Heat"),
+                rows.stream().map(r -> r.getTitle()).collect(Collectors.toList()));
+        assertEquals(LocalDate.now().getYear() - 1958, rows.get(0).getAge());
+    }
+
+    @Test
+    void testParallelGroupBy() {
+        // several fork/join tasks
+        var movies = new CatalogSnapshot.MovieRows();
+        int count = CatalogSnapshot.SPLIT_THRESHOLD * 5 + 7;
+        IntStream.range(0, count).forEach(i ->
+                movies.add(i + 1, "Movie " + i, 1900 + i % 100, 60 + i % 120, COLOR, Genre.DRAMA.getBit(), 0));
+        var large = CatalogSnapshot.build(movies, Map.of());
+        var groups = large.groupBy(CatalogDimension.YEAR);
+        assertEquals(100, groups.size());
+        assertEquals(count, groups.stream().mapToLong(GroupStats::getMovieCount).sum());
+        assertEquals(IntStream.range(0, count).mapToLong(i -> 60 + i % 120).sum(),
+                groups.stream().mapToLong(GroupStats::getDurationTotal).sum());
+        assertEquals(List.of((long) count), counts(large.groupBy(CatalogDimension.GENRE)));
+    }
+
+    @Test
+    void testUpdate() {
+        // movie 12 recolored and directed by 300, movie 13 deleted, movie 15 created, director 100 renamed
+        var changed = new CatalogSnapshot.MovieRows();
+        changed.add(12, "Psycho", 1960, 109, COLOR, Genre.toMask(Genre.HORROR), 300);
+        changed.add(15, "Marnie", 1964, 130, COLOR, 0, 100);
+        var updated = snapshot.update(new int[]{12, 13, 15}, changed,
+                Map.of(300, "Gus Van Sant", 100, "Hitchcock"));
+        assertEquals(5, updated.getMovieCount());
+        var directors = updated.groupBy(CatalogDimension.DIRECTOR);
+        assertEquals(List.of("Hitchcock", "Gus Van Sant"), keys(directors));
+        assertEquals(List.of(3L, 1L), counts(directors));
+        assertEquals(List.of(4L, 1L), counts(updated.groupBy(CatalogDimension.COLOR)));
+        // unchanged
+        assertEquals(List.of(1L, 1L, 1L, 2L), counts(snapshot.groupBy(CatalogDimension.DECADE)));
+    }
+}
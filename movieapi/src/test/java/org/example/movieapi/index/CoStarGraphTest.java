@@ -0,0 +1,125 @@
+package org.example.movieapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoStarGraphTest {
+
+    // movie 10 : 1, 2, 3 ; movie 11 : 1, 2 ; movie 12 : 3, 4 ; movie 13 : 4, 5 ; movie 14 : 6, 7 (island)
+    final PlayIndex index = PlayIndex.build(
+            new int[]{10, 11, 12, 13, 14},
+            new int[]{100, 100, 200, 0, 0},
+            new int[]{10, 10, 10, 11, 11, 12, 12, 13, 13, 14, 14},
+            new int[]{1, 2, 3, 1, 2, 3, 4, 4, 5, 6, 7});
+    final CoStarGraph graph = new CoStarGraph(index);
+
+    @Test
+    void testCoStars() {
+        assertArrayEquals(new int[]{2, 3}, graph.coStars(1));
+        assertArrayEquals(new int[]{1, 2, 4}, graph.coStars(3));
+        assertArrayEquals(new int[]{}, graph.coStars(999));
+    }
+
+    @Test
+    void testTopCollaborators() {
+        var top = graph.topCollaborators(1, 5);
+        System.out.println(top);
+        assertEquals(2, top.size());
+        assertEquals(2, top.get(0).getActorId());
+        assertEquals(2, top.get(0).getMovieCount());
+        assertEquals(3, top.get(1).getActorId());
+        assertEquals(1, top.get(1).getMovieCount());
+        assertEquals(1, graph.topCollaborators(1, 1).size());
+    }
+
+    @Test
+    void testShortestPath() {
+        var path = graph.shortestPath(1, 5).orElseThrow();
+        System.out.println(path);
+        assertArrayEquals(new int[]{1, 3, 4, 5}, path.getActorIds());
+        assertArrayEquals(new int[]{10, 12, 13}, path.getMovieIds());
+        assertEquals(3, path.getDegree());
+        assertEquals(0, graph.shortestPath(2, 2).orElseThrow().getDegree());
+    }
+
+    @Test
+    void testShortestPathNotConnected() {
+        assertTrue(graph.shortestPath(1, 7).isEmpty());
+        assertTrue(graph.shortestPath(1, 999).isEmpty());
+    }
+
+    @Test
+    void testShortestPathLargeGraph() {
+        // random catalog large enough to expand frontiers in parallel, checked against a plain BFS
+        var random = new Random(42);
+        int movieCount = 20_000;
+        int actorCount = 50_000;
+        var playMovieIds = new IntList();
+        var playActorIds = new IntList();
+        for (int m = 1; m <= movieCount; m++) {
+            for (int i = 0; i < 4; i++) {
+                playMovieIds.add(m);
+                playActorIds.add(1 + random.nextInt(actorCount));
+            }
+        }
+        var bigIndex = PlayIndex.build(IntStream.rangeClosed(1, movieCount).toArray(), new int[movieCount],
+                playMovieIds.toArray(), playActorIds.toArray());
+        var bigGraph = new CoStarGraph(bigIndex);
+        for (int i = 0; i < 20; i++) {
+            int from = bigIndex.actorIds[random.nextInt(bigIndex.actorIds.length)];
+            int to = bigIndex.actorIds[random.nextInt(bigIndex.actorIds.length)];
+            int expected = degree(bigIndex, from, to);
+            var path = bigGraph.shortestPath(from, to);
+            assertEquals(expected, path.map(ActorPath::getDegree).orElse(-1));
+            path.ifPresent(p -> assertValid(bigIndex, p, from, to));
+        }
+    }
+
+    private static void assertValid(PlayIndex index, ActorPath path, int from, int to) {
+        var actors = path.getActorIds();
+        assertEquals(from, actors[0]);
+        assertEquals(to, actors[actors.length - 1]);
+        for (int i = 0; i < path.getMovieIds().length; i++) {
+            int m = Arrays.binarySearch(index.movieIds, path.getMovieIds()[i]);
+            var cast = Arrays.stream(index.movieActors, index.movieActorStart[m], index.movieActorStart[m + 1])
+                    .map(a -> index.actorIds[a])
+                    .toArray();
+            assertTrue(Arrays.binarySearch(cast, actors[i]) >= 0);
+            assertTrue(Arrays.binarySearch(cast, actors[i + 1]) >= 0);
+        }
+    }
+
+    // reference : sequential BFS actor -> movie -> actor
+    private static int degree(PlayIndex index, int fromId, int toId) {
+        int from = Arrays.binarySearch(index.actorIds, fromId);
+        int to = Arrays.binarySearch(index.actorIds, toId);
+        var depth = new int[index.actorIds.length];
+        Arrays.fill(depth, -1);
+        depth[from] = 0;
+        var queue = new ArrayDeque<Integer>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int a = queue.poll();
+            if (a == to) {
+                return depth[a];
+            }
+            for (int i = index.actorMovieStart[a]; i < index.actorMovieStart[a + 1]; i++) {
+                int m = index.actorMovies[i];
+                for (int j = index.movieActorStart[m]; j < index.movieActorStart[m + 1]; j++) {
+                    int b = index.movieActors[j];
+                    if (depth[b] < 0) {
+                        depth[b] = depth[a] + 1;
+                        queue.add(b);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.movieapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayIndexTest {
+
+    // movies 10, 11, 12 by director 100, movie 13 by director 200, movie 14 without director
+    static final int[] MOVIE_IDS = {13, 10, 12, 11, 14};
+    static final int[] DIRECTOR_IDS = {200, 100, 100, 100, 0};
+    static final int[] PLAY_MOVIE_IDS = {10, 10, 10, 11, 11, 12, 12, 12, 13, 13, 14, 10};
+    static final int[] PLAY_ACTOR_IDS = {1, 2, 3, 1, 2, 2, 1, 5, 1, 4, 6, 1}; // (10, 1) twice
+
+    final PlayIndex index = PlayIndex.build(MOVIE_IDS, DIRECTOR_IDS, PLAY_MOVIE_IDS, PLAY_ACTOR_IDS);
+
+    @Test
+    void testBuild() {
+        assertEquals(5, index.getMovieCount());
+        assertEquals(6, index.getActorCount());
+        assertEquals(11, index.getPlayCount());
+    }
+
+    @Test
+    void testActorsInAllMovies() {
+        assertArrayEquals(new int[]{1, 2}, index.actorsInAllMovies(10, 11, 12));
+        assertArrayEquals(new int[]{1}, index.actorsInAllMovies(10, 11, 12, 13));
+        assertArrayEquals(new int[]{1, 2, 3}, index.actorsInAllMovies(10));
+        assertArrayEquals(new int[]{}, index.actorsInAllMovies(13, 14));
+    }
+
+    @Test
+    void testActorsInAllMoviesEmptyOrUnknown() {
+        assertArrayEquals(new int[]{}, index.actorsInAllMovies());
+        assertArrayEquals(new int[]{}, index.actorsInAllMovies(10, 999));
+    }
+
+    @Test
+    void testActorsForAllDirectors() {
+        assertArrayEquals(new int[]{1, 2, 3, 5}, index.actorsForAllDirectors(100));
+        assertArrayEquals(new int[]{1}, index.actorsForAllDirectors(100, 200));
+        assertArrayEquals(new int[]{}, index.actorsForAllDirectors());
+        assertArrayEquals(new int[]{}, index.actorsForAllDirectors(100, 999));
+    }
+
+    @Test
+    void testUpdate() {
+        // movie 12 recast (5 -> 7), movie 13 deleted, movie 15 created for director 300
+        var updated = index.update(new int[]{12, 13, 15},
+                new int[]{12, 15}, new int[]{100, 300},
+                new int[]{12, 12, 12, 15}, new int[]{1, 2, 7, 7});
+        assertEquals(5, updated.getMovieCount());
+        assertArrayEquals(new int[]{1, 2, 7}, updated.actorsInAllMovies(12));
+        assertArrayEquals(new int[]{}, updated.actorsInAllMovies(13));
+        assertArrayEquals(new int[]{7}, updated.actorsForAllDirectors(300));
+        assertArrayEquals(new int[]{1, 2, 3, 7}, updated.actorsForAllDirectors(100));
+        assertArrayEquals(new int[]{1}, index.actorsForAllDirectors(100, 200)); // snapshot unchanged
+    }
+
+    @Test
+    void testUpdateSameAsBuild() {
+        var random = new SplittableRandom(42);
+        var movieIds = IntStream.rangeClosed(1, 500).toArray();
+        var directorIds = IntStream.of(movieIds).map(id -> random.nextInt(5) == 0 ? 0 : 1000 + random.nextInt(50)).toArray();
+        var playMovieIds = random.ints(3000, 1, 501).toArray();
+        var playActorIds = random.ints(3000, 2000, 2400).toArray();
+        var before = PlayIndex.build(movieIds, directorIds, playMovieIds, playActorIds);
+
+        // movies 1..40 deleted, 41..80 recast and moved, 501..520 created
+        var changed = IntStream.rangeClosed(1, 80).toArray();
+        changed = IntStream.concat(IntStream.of(changed), IntStream.rangeClosed(501, 520)).toArray();
+        var rows = IntStream.concat(IntStream.rangeClosed(41, 80), IntStream.rangeClosed(501, 520)).toArray();
+        var rowDirectorIds = IntStream.of(rows).map(id -> 1000 + random.nextInt(60)).toArray();
+        var rowPlayMovieIds = IntStream.range(0, 400).map(i -> rows[random.nextInt(rows.length)]).toArray();
+        var rowPlayActorIds = random.ints(400, 2300, 2500).toArray();
+        var updated = before.update(changed, rows, rowDirectorIds, rowPlayMovieIds, rowPlayActorIds);
+
+        // same rows in a full build
+        var allMovieIds = IntStream.concat(IntStream.rangeClosed(81, 500), IntStream.of(rows)).toArray();
+        var allDirectorIds = IntStream.concat(IntStream.of(directorIds).skip(80), IntStream.of(rowDirectorIds)).toArray();
+        var kept = IntStream.range(0, playMovieIds.length).filter(i -> playMovieIds[i] > 80).toArray();
+        var allPlayMovieIds = IntStream.concat(IntStream.of(kept).map(i -> playMovieIds[i]), IntStream.of(rowPlayMovieIds)).toArray();
+        var allPlayActorIds = IntStream.concat(IntStream.of(kept).map(i -> playActorIds[i]), IntStream.of(rowPlayActorIds)).toArray();
+        var built = PlayIndex.build(allMovieIds, allDirectorIds, allPlayMovieIds, allPlayActorIds);
+
+        assertArrayEquals(built.movieIds, updated.movieIds);
+        assertArrayEquals(built.movieDirectorIds, updated.movieDirectorIds);
+        assertArrayEquals(built.actorIds, updated.actorIds);
+        assertArrayEquals(built.movieActorStart, updated.movieActorStart);
+        assertArrayEquals(built.movieActors, updated.movieActors);
+        assertArrayEquals(built.actorMovieStart, updated.actorMovieStart);
+        assertArrayEquals(built.actorMovies, updated.actorMovies);
+        assertArrayEquals(built.directorIds, updated.directorIds);
+        assertArrayEquals(built.directorMovieStart, updated.directorMovieStart);
+        assertArrayEquals(built.directorMovies, updated.directorMovies);
+    }
+}
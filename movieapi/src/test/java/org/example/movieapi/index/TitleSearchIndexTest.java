@@ -0,0 +1,113 @@
+package org.example.movieapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.example.movieapi.index.TitleSearchIndex.Mode.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSearchIndexTest {
+
+    final TitleSearchIndex index = TitleSearchIndex.build(
+            new int[]{5, 1, 2, 3, 4, 6, 7},
+            new String[]{"Star", "Star Wars", "Star Trek", "The Last Starfighter", "Lone Star", "Amélie", null});
+
+    @Test
+    void testPrefix() {
+        assertArrayEquals(new int[]{5, 2, 1}, index.search("star", PREFIX, 10));
+        assertArrayEquals(new int[]{5, 2}, index.search("STAR", PREFIX, 2));
+        assertArrayEquals(new int[]{}, index.search("wars", PREFIX, 10));
+    }
+
+    @Test
+    void testSubstring() {
+        // shortest first, then id
+        assertArrayEquals(new int[]{5, 1, 2, 4, 3}, index.search("star", SUBSTRING, 10));
+        assertArrayEquals(new int[]{1}, index.search("ar w", SUBSTRING, 10));
+        assertArrayEquals(new int[]{3}, index.search("fi", SUBSTRING, 10)); // short : scan
+        assertArrayEquals(new int[]{}, index.search("xyz", SUBSTRING, 10));
+    }
+
+    @Test
+    void testAutocomplete() {
+        // exact, title prefix, word prefix, substring
+        assertArrayEquals(new int[]{5, 1, 2, 4, 3}, index.search("star", AUTOCOMPLETE, 10));
+        assertArrayEquals(new int[]{3}, index.search("fighter", AUTOCOMPLETE, 10));
+        assertArrayEquals(new int[]{5, 1}, index.search("st", AUTOCOMPLETE, 2));
+    }
+
+    @Test
+    void testNormalized() {
+        assertArrayEquals(new int[]{6}, index.search("AMELIE", PREFIX, 10));
+        assertArrayEquals(new int[]{6}, index.search("mél", AUTOCOMPLETE, 10));
+        assertArrayEquals(new int[]{1}, index.search("  star   wars ", PREFIX, 10));
+        assertArrayEquals(new int[]{}, index.search(" ", AUTOCOMPLETE, 10));
+    }
+
+    @Test
+    void testWithChanges() {
+        var changes = new HashMap<Integer, String>();
+        changes.put(1, null); // deleted
+        changes.put(2, "Star Trek II"); // updated
+        changes.put(8, "Dark Star"); // inserted
+        var changed = index.withChanges(changes);
+        assertEquals(6, changed.size());
+        assertArrayEquals(new int[]{5, 2}, changed.search("star", PREFIX, 10));
+        assertArrayEquals(new int[]{5, 2, 4, 8, 3}, changed.search("star", AUTOCOMPLETE, 10));
+        assertArrayEquals(new int[]{2}, changed.search("ii", SUBSTRING, 10));
+        assertArrayEquals(new int[]{5, 2, 1}, index.search("star", PREFIX, 10)); // snapshot unchanged
+    }
+
+    @Test
+    void testWithManyChangesMerged() {
+        var changes = new HashMap<Integer, String>();
+        IntStream.range(100, 2100).forEach(id -> changes.put(id, "Movie " + id));
+        changes.put(5, null);
+        var changed = index.withChanges(changes);
+        assertEquals(2005, changed.size());
+        assertArrayEquals(new int[]{2, 1}, changed.search("star", PREFIX, 10));
+        assertArrayEquals(new int[]{1999}, changed.search("movie 1999", AUTOCOMPLETE, 10));
+    }
+
+    @Test
+    void testWithChangesSameAsBuild() {
+        var random = new Random(42);
+        var words = new String[]{"the", "star", "war", "a", "night", "theatre", "start", "at", "mother"};
+        var texts = new TreeMap<Integer, String>();
+        for (int id = 1; id <= 500; id++) {
+            texts.put(id, randomText(random, words));
+        }
+        var base = TitleSearchIndex.build(texts.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                texts.values().toArray(String[]::new));
+        var changes = new HashMap<Integer, String>();
+        for (int i = 0; i < 60; i++) {
+            int id = 1 + random.nextInt(600);
+            changes.put(id, random.nextInt(4) == 0 ? null : randomText(random, words));
+        }
+        changes.forEach(texts::put);
+        var changed = base.withChanges(changes);
+        var built = TitleSearchIndex.build(texts.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                texts.values().toArray(String[]::new));
+        assertEquals(built.size(), changed.size());
+        for (var query : new String[]{"the", "a", "st", "star", "t", "war a", "ther", "night the"}) {
+            for (var mode : TitleSearchIndex.Mode.values()) {
+                for (int limit : new int[]{1, 5, 1000}) {
+                    assertArrayEquals(built.search(query, mode, limit), changed.search(query, mode, limit),
+                            query + " " + mode + " " + limit);
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, String[] words) {
+        var text = new StringBuilder(words[random.nextInt(words.length)]);
+        for (int n = random.nextInt(4); n > 0; n--) {
+            text.append(' ').append(words[random.nextInt(words.length)]);
+        }
+        return text.toString();
+    }
+}
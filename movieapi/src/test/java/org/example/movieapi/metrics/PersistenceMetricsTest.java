@@ -0,0 +1,146 @@
+package org.example.movieapi.metrics;
+
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// N+1 budget : 1 lazy load per association and session (batch size = 50)
+@DataJpaTest(properties = {
+        "spring.jpa.properties.movieapi.n-plus-one.mode=fail",
+        "spring.jpa.properties.movieapi.n-plus-one.threshold=1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MetricsConfiguration.class, RepositoryMetricsPostProcessor.class, PersistenceMetricsService.class})
+class PersistenceMetricsTest {
+
+    static final int MOVIE_COUNT = 60;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    PersistenceMetricsService persistenceMetricsService;
+
+    String prefix;
+
+    @BeforeEach
+    void persistMovies() {
+        // JCache regions are shared by the test contexts, ids are reused after schema creation
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        prefix = "N+1 " + UUID.randomUUID() + " ";
+        for (int i = 0; i < MOVIE_COUNT; i++) {
+            var movie = Movie.builder()
+                    .title(prefix + i)
+                    .year(2000 + i % 20)
+                    .director(People.of("Director " + prefix + i))
+                    .build();
+            var actor = People.of("Actor " + prefix + i);
+            entityManager.persist(actor);
+            movie.getActors().add(actor);
+            movie.addGenres(Genre.DRAMA);
+            entityManager.persist(movie);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        persistenceMetricsService.reset();
+    }
+
+    @Test
+    void testRepositoryMethodMetrics() {
+        var ids = movieRepository.findIdsByTitleLike(prefix + "%");
+        assertEquals(MOVIE_COUNT, ids.size());
+        movieRepository.findIdsByTitleLike(prefix + "1%");
+        persistenceMetricsService.logMetrics();
+
+        var metrics = persistenceMetricsService.getMetrics("IMovieRepository.findIdsByTitleLike");
+        assertEquals(2, metrics.getCalls());
+        assertEquals(0, metrics.getErrors());
+        assertEquals(MOVIE_COUNT + 11, metrics.getRows());
+        assertTrue(metrics.getStatements() >= 2);
+        assertTrue(metrics.getP50Millis() <= metrics.getP99Millis());
+
+        var queryMetrics = persistenceMetricsService.getMetrics(
+                "query: select m.id from Movie m where m.title like :titlePattern");
+        assertEquals(2, queryMetrics.getCalls());
+        assertEquals(MOVIE_COUNT + 11, queryMetrics.getRows());
+    }
+
+    @Test
+    void testEntitiesLoadedAndLazyLoads() {
+        var movies = findMovies();
+        // within budget : 1 batch of directors and of actors
+        movies.subList(0, 50).forEach(m -> System.out.println(m.getTitle() + " : " + m.getDirector().getName()
+                + " with " + m.getActors().size() + " actor(s)"));
+        persistenceMetricsService.logMetrics();
+
+        var queryMetrics = persistenceMetricsService.getMetrics(
+                "query: select m from Movie m where m.title like :prefix order by m.id");
+        assertEquals(1, queryMetrics.getCalls());
+        assertEquals(MOVIE_COUNT, queryMetrics.getRows());
+        assertTrue(queryMetrics.getEntitiesLoaded() >= MOVIE_COUNT);
+        assertEquals(1, persistenceMetricsService.getMetrics("lazy: People").getCalls());
+        assertEquals(1, persistenceMetricsService.getMetrics("lazy: Movie.actors").getCalls());
+    }
+
+    @Test
+    void testNPlusOneDirector() {
+        assertNPlusOne(m -> m.getDirector().getName());
+    }
+
+    @Test
+    void testNPlusOneActors() {
+        assertNPlusOne(m -> m.getActors().size());
+    }
+
+    // genres : column of the movie row, no lazy load
+    @Test
+    void testNoNPlusOneGenres() {
+        findMovies().forEach(m -> assertEquals(Set.of(Genre.DRAMA), m.getGenres()));
+    }
+
+    @Test
+    void testNoNPlusOneWithFetchJoin() {
+        var movies = entityManager.createQuery(
+                        "select m from Movie m join fetch m.director where m.title like :prefix", Movie.class)
+                .setParameter("prefix", prefix + "%")
+                .getResultList();
+        movies.forEach(m -> System.out.println(m.getTitle() + " : " + m.getDirector().getName()));
+        assertEquals(MOVIE_COUNT, movies.size());
+    }
+
+    private void assertNPlusOne(Consumer<Movie> lazyAccess) {
+        var movies = findMovies();
+        // first batch (50 movies) : within budget
+        movies.subList(0, 50).forEach(lazyAccess);
+        // next batch : budget exceeded
+        var exception = assertThrows(NPlusOneException.class,
+                () -> movies.subList(50, MOVIE_COUNT).forEach(lazyAccess));
+        System.out.println(exception.getMessage());
+    }
+
+    private List<Movie> findMovies() {
+        var movies = entityManager.createQuery(
+                        "select m from Movie m where m.title like :prefix order by m.id", Movie.class)
+                .setParameter("prefix", prefix + "%")
+                .getResultList();
+        assertEquals(MOVIE_COUNT, movies.size());
+        return movies;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.cache.CacheRegionStats;
+import org.example.movieapi.cache.CacheStatisticsService;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : cache is filled/invalidated at commit => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CacheStatisticsService.class)
+class CacheTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    CacheStatisticsService cacheStatisticsService;
+
+    @BeforeEach
+    void clearStats() {
+        // JCache regions are shared by the test contexts, ids are reused after schema creation
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        cacheStatisticsService.clearStats();
+    }
+
+    @Test
+    void testFindMovieFromCache() {
+        var movie = Movie.of("Unforgiven", 1992);
+        movie.addGenres(Genre.WESTERN);
+        movieRepository.save(movie);
+        // movie put in cache at commit of insert, with its genres (column) => reads without SQL
+        for (int i = 0; i < 2; i++) {
+            var genreCount = transactionTemplate.execute(status ->
+                    entityManager.find(Movie.class, movie.getId()).getGenres().size());
+            assertEquals(1, genreCount);
+        }
+        cacheStatisticsService.logRegionStats();
+        assertEquals(2, regionStats("movie").getHitCount());
+    }
+
+    @Test
+    void testFilmographyFromQueryCache() {
+        var directorName = "Clint Eastwood " + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            var clint = People.of(directorName);
+            entityManager.persist(Movie.builder().title("Unforgiven").year(1992).director(clint).build());
+            entityManager.persist(Movie.builder().title("Gran Torino").year(2008).director(clint).build());
+        });
+        movieRepository.findCachedByDirectorNameOrderByYearDesc(directorName);
+        var movies = movieRepository.findCachedByDirectorNameOrderByYearDesc(directorName);
+        assertEquals(2, movies.size());
+        cacheStatisticsService.logRegionStats();
+        assertEquals(1, regionStats("query.movie").getHitCount());
+    }
+
+    private CacheRegionStats regionStats(String region) {
+        return cacheStatisticsService.getRegionStats().stream()
+                .filter(stats -> stats.getRegion().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.index.CatalogDimension;
+import org.example.movieapi.index.CatalogSnapshotService;
+import org.example.movieapi.index.GroupStats;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : the snapshot is updated at commit => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CatalogSnapshotService.class)
+class CatalogSnapshotSyncTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    CatalogSnapshotService catalogSnapshotService;
+
+    private Optional<GroupStats> directorStats(String name) {
+        return catalogSnapshotService.getSnapshot().groupBy(CatalogDimension.DIRECTOR).stream()
+                .filter(group -> group.getKey().equals(name))
+                .findFirst();
+    }
+
+    @Test
+    void testMovieAndDirectorSync() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        catalogSnapshotService.getSnapshot(); // built before the writes
+        var director = People.of("Kathryn Bigelow " + key);
+        var movie = Movie.builder().title("Point Break").year(1991).duration(122).director(director).build();
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(movie));
+        var stats = directorStats(director.getName()).orElseThrow();
+        System.out.println(stats);
+        assertEquals(1, stats.getMovieCount());
+        assertEquals(122, stats.getDurationTotal());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.find(Movie.class, movie.getId()).setDuration(100);
+            entityManager.find(People.class, director.getId()).setName("K. Bigelow " + key);
+        });
+        assertTrue(directorStats(director.getName()).isEmpty());
+        assertEquals(100, directorStats("K. Bigelow " + key).orElseThrow().getDurationTotal());
+
+        // rollback : unchanged
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Movie.class, movie.getId()));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertTrue(directorStats("K. Bigelow " + key).isPresent());
+
+        movieRepository.deleteById(movie.getId());
+        assertTrue(directorStats("K. Bigelow " + key).isEmpty());
+    }
+}
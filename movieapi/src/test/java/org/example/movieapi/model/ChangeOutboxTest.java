@@ -0,0 +1,160 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.outbox.ChangeFeedOptions;
+import org.example.movieapi.outbox.ChangeFeedReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : records written at commit
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ChangeFeedReader.class)
+class ChangeOutboxTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ChangeFeedReader changeFeedReader;
+
+    // consumer of this test, starting after the records of the other tests
+    String consumer;
+
+    @BeforeEach
+    void newConsumer() {
+        consumer = "test-" + UUID.randomUUID().toString().substring(0, 8);
+        changeFeedReader.seek(consumer, changeFeedReader.getHeadId());
+    }
+
+    private List<ChangeRecord> pollAll() {
+        var records = new ArrayList<ChangeRecord>();
+        while (changeFeedReader.poll(consumer, records::addAll) > 0) {
+        }
+        records.forEach(System.out::println);
+        return records;
+    }
+
+    @Test
+    void testChangesCoalescedByTransaction() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        var movie = Movie.of("Outbox " + key, 2022);
+        var director = People.of("Director " + key);
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(movie);
+            movie.setDirector(director);
+            movie.setDuration(100);
+            entityManager.persist(director);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            var movieRead = entityManager.find(Movie.class, movie.getId());
+            movieRead.setDuration(110);
+            movieRead.setColor(Color.COLOR);
+            entityManager.flush();
+            movieRead.setDuration(120);
+        });
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Movie.class, movie.getId())
+                .getActors().add(entityManager.find(People.class, director.getId())));
+        // insert + delete : nothing
+        transactionTemplate.executeWithoutResult(status -> {
+            var other = Movie.of("Other " + key, 2022);
+            entityManager.persist(other);
+            entityManager.flush();
+            entityManager.remove(other);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            var movieRead = entityManager.find(Movie.class, movie.getId());
+            movieRead.getActors().clear();
+            entityManager.remove(movieRead);
+        });
+        var records = pollAll();
+        assertEquals(List.of("Movie INSERT null", "People INSERT null", "Movie UPDATE color,duration",
+                        "Movie UPDATE actors", "Movie DELETE null"),
+                records.stream()
+                        .map(r -> r.getEntity() + " " + r.getOperation() + " " + r.getProperties())
+                        .collect(Collectors.toList()));
+        assertEquals(movie.getId(), records.get(0).getEntityId());
+        // 2 updates by the second transaction (flush)
+        assertEquals(List.of(1, 0, 3, 4, 4),
+                records.stream().map(ChangeRecord::getVersion).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testNothingWrittenOnRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(Movie.of("Rolled back", 2022));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertEquals(0, changeFeedReader.poll(consumer, records -> fail("no record expected")));
+    }
+
+    @Test
+    void testCheckpointMovedByBatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                entityManager.persist(Movie.of("Batch " + i, 2022));
+            }
+        });
+        var options = ChangeFeedOptions.builder().batchSize(2).build();
+        long start = changeFeedReader.getCheckpoint(consumer);
+        // failing handler : same batch again
+        assertThrows(IllegalStateException.class, () -> changeFeedReader.poll(consumer, options, records -> {
+            throw new IllegalStateException("consumer down");
+        }));
+        assertEquals(start, changeFeedReader.getCheckpoint(consumer));
+        var batches = new ArrayList<List<ChangeRecord>>();
+        while (changeFeedReader.poll(consumer, options, batches::add) > 0) {
+        }
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(start + 1, batches.get(0).get(0).getId());
+        assertEquals(changeFeedReader.getHeadId(), changeFeedReader.getCheckpoint(consumer));
+    }
+
+    @Test
+    void testGapWaitedUntilTimeout() throws InterruptedException {
+        long head = changeFeedReader.getHeadId();
+        // NB : rows kept (auto increment moved past them)
+        var insert = "insert into change_outbox (id, entity, entity_id, operation, changed_at)"
+                + " values (?, 'Movie', 1, 'UPDATE', ?)";
+        var now = Timestamp.from(Instant.now());
+        jdbcTemplate.update(insert, head + 1, now);
+        // head + 2 : transaction not committed yet (or rolled back),
+        // head + 3 written long before its commit : gap waited anyway
+        jdbcTemplate.update(insert, head + 3, Timestamp.from(Instant.now().minusSeconds(60)));
+        var options = ChangeFeedOptions.builder().gapTimeout(Duration.ofMillis(200)).build();
+        var records = new ArrayList<ChangeRecord>();
+        assertEquals(1, changeFeedReader.poll(consumer, options, records::addAll));
+        assertEquals(0, changeFeedReader.poll(consumer, options, records::addAll));
+        // rolled back
+        Thread.sleep(250);
+        assertEquals(1, changeFeedReader.poll(consumer, options, records::addAll));
+        assertEquals(List.of(head + 1, head + 3),
+                records.stream().map(ChangeRecord::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.dto.INameCountDurationTotal;
+import org.example.movieapi.repository.IDirectorStatRepository;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.stats.DirectorStatChecker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : director_stat is updated at commit => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(DirectorStatChecker.class)
+class DirectorStatTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    IDirectorStatRepository directorStatRepository;
+
+    @Autowired
+    DirectorStatChecker directorStatChecker;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void rebuild() {
+        directorStatChecker.rebuild();
+    }
+
+    @Test
+    void testMaintainedOnMovieWrites() {
+        var director = People.of("Clint Eastwood " + UUID.randomUUID());
+        var otherDirector = People.of("Sergio Leone " + UUID.randomUUID());
+        var unforgiven = Movie.builder().title("Unforgiven").year(1992).duration(130).director(director).build();
+        var mystic = Movie.builder().title("Mystic River").year(2003).director(director).build();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(unforgiven);
+            entityManager.persist(mystic);
+            entityManager.persist(otherDirector);
+        });
+        assertStat(director, 2, 130);
+
+        // duration changed
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Movie.class, mystic.getId()).setDuration(138));
+        assertStat(director, 2, 268);
+
+        // director changed
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Movie.class, unforgiven.getId())
+                        .setDirector(entityManager.getReference(People.class, otherDirector.getId())));
+        assertStat(director, 1, 138);
+        assertStat(otherDirector, 1, 130);
+
+        // rollback : unchanged
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Movie.class, mystic.getId()));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertStat(director, 1, 138);
+
+        // last movie removed : no more stat
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.remove(entityManager.find(Movie.class, mystic.getId())));
+        assertTrue(directorStatRepository.findById(director.getId()).isEmpty());
+
+        var mismatches = directorStatChecker.verify();
+        System.out.println(mismatches);
+        assertTrue(mismatches.isEmpty());
+    }
+
+    @Test
+    void testVerifyAndRebuild() {
+        var director = People.of("Steven Spielberg " + UUID.randomUUID());
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.persist(Movie.builder().title("Jaws").year(1975).duration(124).director(director).build()));
+        // write without Hibernate : not seen
+        jdbcTemplate.update("update movie set duration = 130 where fk_director_id = ?", director.getId());
+        var mismatches = directorStatChecker.verify();
+        System.out.println(mismatches);
+        assertEquals(1, mismatches.size());
+        assertEquals(130, mismatches.get(0).getExpectedDurationTotal());
+        assertEquals(124, mismatches.get(0).getActualDurationTotal());
+        directorStatChecker.rebuild();
+        assertTrue(directorStatChecker.verify().isEmpty());
+        assertStat(director, 1, 130);
+    }
+
+    @Test
+    void testMigrationFillsEmptyTable() {
+        var director = People.of("Sofia Coppola " + UUID.randomUUID());
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.persist(Movie.builder().title("Lost in Translation").year(2003).duration(102)
+                        .director(director).build()));
+        var migration = new ResourceDatabasePopulator(
+                new FileSystemResource("../sql/dbmovie_director_stat_migration.sql"));
+        jdbcTemplate.update("delete from director_stat");
+        migration.execute(jdbcTemplate.getDataSource());
+        assertTrue(directorStatChecker.verify().isEmpty());
+        assertStat(director, 1, 102);
+        // already filled : unchanged
+        migration.execute(jdbcTemplate.getDataSource());
+        assertTrue(directorStatChecker.verify().isEmpty());
+    }
+
+    @Test
+    void testFindStatMovieByDirectorSameAsGroupBy() {
+        transactionTemplate.executeWithoutResult(status -> {
+            var director = People.of("Quentin Tarantino " + UUID.randomUUID());
+            entityManager.persist(Movie.builder().title("Pulp Fiction").year(1994).duration(154).director(director).build());
+            entityManager.persist(Movie.builder().title("Jackie Brown").year(1997).director(director).build());
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                assertEquals(stats(movieRepository.findStatMovieByDirectorGroupBy(1L).collect(Collectors.toList())),
+                        stats(movieRepository.findStatMovieByDirector(1L).collect(Collectors.toList()))));
+    }
+
+    private void assertStat(People director, long movieCount, int durationTotal) {
+        var stat = directorStatRepository.findById(director.getId()).orElseThrow();
+        System.out.println(stat);
+        assertEquals(movieCount, stat.getMovieCount());
+        assertEquals(durationTotal, stat.getDurationTotal());
+    }
+
+    private static List<String> stats(List<INameCountDurationTotal> rows) {
+        return rows.stream()
+                .map(r -> r.getName() + ":" + r.getMovieCount() + ":" + r.getDurationTotal())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.bulk.GenreMigration;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Example;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.example.movieapi.model.Genre.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(GenreMigration.class)
+class GenreTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    GenreMigration genreMigration;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String prefix;
+
+    @BeforeEach
+    void createMovies() {
+        // staging table of dumps (not mapped), NB : DDL commits
+        jdbcTemplate.execute("create table if not exists genre ("
+                + "fk_movie_id integer not null, genre varchar(15) not null)");
+        prefix = "Genre " + UUID.randomUUID() + " ";
+        persist("Heat", Set.of(CRIME, DRAMA, THRILLER));
+        persist("Unforgiven", Set.of(DRAMA, WESTERN));
+        persist("Star Wars", Set.of(ACTION, ADVENTURE, FANTASY, SCI_FI));
+        persist("No genre", Set.of());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testMask() {
+        assertEquals(0, Genre.toMask());
+        assertEquals(DRAMA.getBit() | CRIME.getBit(), Genre.toMask(CRIME, DRAMA, CRIME));
+        assertEquals(EnumSet.of(CRIME, DRAMA), Genre.fromMask(Genre.toMask(CRIME, DRAMA)));
+        assertEquals(EnumSet.allOf(Genre.class), Genre.fromMask(-1L));
+        assertEquals(SCI_FI, Genre.ofLabel("Sci-Fi"));
+        assertThrows(IllegalArgumentException.class, () -> Genre.ofLabel("Nouvelle vague"));
+        assertTrue(Genre.values().length <= Long.SIZE);
+    }
+
+    @Test
+    void testGenresLoadedWithMovie() {
+        var movie = findByTitle("Heat");
+        assertEquals(Set.of(CRIME, DRAMA, THRILLER), movie.getGenres());
+        assertEquals(Set.of(), findByTitle("No genre").getGenres());
+    }
+
+    @Test
+    void testGenresDirtyChecked() {
+        var movie = findByTitle("Unforgiven");
+        assertThrows(UnsupportedOperationException.class, () -> movie.getGenres().remove(DRAMA));
+        var genres = EnumSet.copyOf(movie.getGenres());
+        genres.remove(DRAMA);
+        movie.setGenres(genres);
+        entityManager.flush(); // SQL : update movie
+        entityManager.clear();
+        assertEquals(Set.of(WESTERN), findByTitle("Unforgiven").getGenres());
+    }
+
+    @Test
+    void testAnyGenre() {
+        assertEquals(List.of("Heat", "Unforgiven"), titles(movieRepository.findByAnyGenre(DRAMA)));
+        assertEquals(List.of("Star Wars", "Unforgiven"), titles(movieRepository.findByAnyGenre(WESTERN, SCI_FI)));
+        assertEquals(List.of(), titles(movieRepository.findByAnyGenre()));
+    }
+
+    @Test
+    void testAllGenres() {
+        assertEquals(List.of("Heat"), titles(movieRepository.findByAllGenres(DRAMA, CRIME)));
+        assertEquals(List.of(), titles(movieRepository.findByAllGenres(DRAMA, SCI_FI)));
+        assertEquals(4, titles(movieRepository.findByAllGenres()).size());
+    }
+
+    @Test
+    void testQueryByExample() {
+        // genres not set : not a criteria
+        assertEquals(List.of("Heat"), titles(movieRepository.findAll(Example.of(Movie.of(prefix + "Heat", 2000)))));
+        var probe = new Movie();
+        probe.setYear(2000);
+        probe.setGenres(Set.of(DRAMA, WESTERN));
+        assertEquals(List.of("Unforgiven"), titles(movieRepository.findAll(Example.of(probe))));
+    }
+
+    @Test
+    void testMigrationFromGenreTable() {
+        var movie = findByTitle("No genre");
+        jdbcTemplate.update("insert into genre (fk_movie_id, genre) values (?, 'Drama'), (?, 'Film-Noir'), (?, 'Unknown')",
+                movie.getId(), movie.getId(), movie.getId());
+        assertTrue(genreMigration.hasGenreTable());
+        assertTrue(genreMigration.migrate() >= 1);
+        entityManager.clear();
+        assertEquals(Set.of(DRAMA, FILM_NOIR), findByTitle("No genre").getGenres());
+        assertEquals(Set.of(CRIME, DRAMA, THRILLER), findByTitle("Heat").getGenres()); // no rows : unchanged
+    }
+
+    private void persist(String title, Set<Genre> genres) {
+        var movie = Movie.of(prefix + title, 2000);
+        movie.setGenres(genres);
+        entityManager.persist(movie);
+    }
+
+    private Movie findByTitle(String title) {
+        return entityManager.createQuery("select m from Movie m where m.title = :title", Movie.class)
+                .setParameter("title", prefix + title)
+                .getSingleResult();
+    }
+
+    // titles of this test's movies, without prefix
+    private List<String> titles(List<Movie> movies) {
+        return movies.stream()
+                .map(Movie::getTitle)
+                .filter(title -> title.startsWith(prefix))
+                .map(title -> title.substring(prefix.length()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
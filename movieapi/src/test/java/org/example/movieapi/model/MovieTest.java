@@ -1,6 +1,7 @@
 package org.example.movieapi.model;
 
 import org.assertj.core.internal.bytebuddy.utility.RandomString;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
@@ -15,6 +16,7 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.OptimisticLockException;
 import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.PersistenceException;
@@ -24,6 +26,7 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // same DB as appli
@@ -54,6 +57,8 @@ class MovieTest {
     void testPersistTitle(String title){
         var movie = Movie.of(title, 2019);
         entityManager.persist(movie);
+        // no insert at this point, only nextval on sequence
+        entityManager.flush();
         System.out.println("Movie saved: " + movie);
         assertNotNull(movie.getId());
         entityManager.clear();
@@ -65,9 +70,10 @@ class MovieTest {
     @MethodSource("wrongLengthTitles")
     void testPersistTitleLengthNOK(String title){
         var movie = Movie.of(title, 2019);
-        assertThrows(PersistenceException.class, () ->
-                entityManager.persist(movie)
-        );
+        assertThrows(PersistenceException.class, () -> {
+                    entityManager.persist(movie);
+                    entityManager.flush(); // insert delayed until flush with sequence id
+                });
     }
 
     // NB : constraint check by lombock
@@ -178,8 +184,8 @@ class MovieTest {
     void testPersistGenres(){
         var movie = Movie.of("Reservoir Dogs", 1992);
         entityManager.persist(movie);
-        var genres = Set.of("Crime", "Drama", "Thriller");
-        movie.getGenres().addAll(genres);
+        var genres = Set.of(Genre.CRIME, Genre.DRAMA, Genre.THRILLER);
+        movie.setGenres(genres);
         entityManager.flush();
     }
 
@@ -251,13 +257,34 @@ class MovieTest {
         movieRead.setDirector(quentin);
         entityManager.flush();
         // reintegrate entity in hibernate cache by merging it with the version from db
-        entityManager.merge(movie);
-        entityManager.flush();;
-        entityManager.clear();;
+        // => stale version (@Version) : rejected instead of overwriting the director
+        assertThrows(OptimisticLockException.class, () -> {
+            entityManager.merge(movie);
+            entityManager.flush();
+        });
+        entityManager.clear();
         var movieRead2 = entityManager.find(Movie.class, movie.getId());
-        assertEquals(154, movieRead2.getDuration());
-        assertNull(movieRead2.getDirector());
-        // assertEquals("Quentin Tarantino", movieRead2.getDirector().getName());
+        assertNull(movieRead2.getDuration());
+        assertEquals("Quentin Tarantino", movieRead2.getDirector().getName());
+    }
+
+    @Test
+    void testLazySynopsis(){
+        assumeTrue(PersistentAttributeInterceptable.class.isAssignableFrom(Movie.class), "entities not enhanced");
+        var movie = Movie.of("The Big Lebowski", 1998);
+        movie.setSynopsis("Jeff 'The Dude' Lebowski, mistaken for a millionaire of the same name, "
+                + "seeks restitution for his ruined rug.");
+        entityManager.persist(movie);
+        entityManager.flush();
+        entityManager.clear();
+        // a cached movie of another test context may have this id (and its synopsis)
+        trueEntityManager.getEntityManagerFactory().getCache().evictAll();
+        var util = trueEntityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        var movieRead = entityManager.find(Movie.class, movie.getId());
+        System.out.println("Movie read without synopsis: " + movieRead);
+        assertFalse(util.isLoaded(movieRead, "synopsis"));
+        assertTrue(movieRead.getSynopsis().startsWith("Jeff")); // SQL select of synopsis
+        assertTrue(util.isLoaded(movieRead, "synopsis"));
     }
 
     private static Stream<String> wrongLengthTitles(){
@@ -0,0 +1,229 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.model.query.StatementCounter;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.example.movieapi.writebehind.MovieWriteBehind;
+import org.example.movieapi.writebehind.WriteBehindFlushException;
+import org.example.movieapi.writebehind.OverflowPolicy;
+import org.example.movieapi.writebehind.WriteBehindOptions;
+import org.example.movieapi.writebehind.WriteBehindOverflowException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : flushes commit in their own transactions
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OptimisticRetryExecutor.class)
+// no configured bean, each test builds its own ; also a context of its own : the cached one of OptimisticLockTest
+// keeps id blocks of sequences recreated since by other contexts (duplicate ids)
+@TestPropertySource(properties = "movieapi.write-behind.enabled=false")
+class MovieWriteBehindTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+
+    List<Movie> movies = new ArrayList<>();
+    MovieWriteBehind writeBehind;
+
+    @BeforeEach
+    void createMovies() {
+        // JCache regions are shared by the test contexts, ids are reused after schema creation
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                var movie = Movie.of("Write Behind " + i + " " + key, 2000 + i);
+                entityManager.persist(movie);
+                movies.add(movie);
+            }
+        });
+    }
+
+    @AfterEach
+    void deleteMovies() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        transactionTemplate.executeWithoutResult(status -> movies.forEach(movie ->
+                entityManager.remove(entityManager.find(Movie.class, movie.getId()))));
+    }
+
+    private Movie reload(Movie movie) {
+        return transactionTemplate.execute(status -> entityManager.find(Movie.class, movie.getId()));
+    }
+
+    // no flush by the daemon thread during the test
+    private static WriteBehindOptions.WriteBehindOptionsBuilder manualFlush() {
+        return WriteBehindOptions.builder().maxDelay(Duration.ofHours(1));
+    }
+
+    // repository whose first reads of a flush fail (e.g. database down)
+    private IMovieRepository failing(AtomicInteger failures) {
+        return (IMovieRepository) Proxy.newProxyInstance(IMovieRepository.class.getClassLoader(),
+                new Class<?>[]{IMovieRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllById") && failures.getAndDecrement() > 0) {
+                        throw new DataAccessResourceFailureException("Database down");
+                    }
+                    try {
+                        return method.invoke(movieRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Test
+    void testChangesCoalesced() {
+        writeBehind = new MovieWriteBehind(movieRepository, retryExecutor, manualFlush().build());
+        var movie = movies.get(0);
+        writeBehind.setDuration(movie.getId(), 120);
+        writeBehind.setColor(movie.getId(), Color.BLACK_AND_WHITE);
+        writeBehind.addGenres(movie.getId(), Genre.DRAMA);
+        writeBehind.setDuration(movie.getId(), 135);
+        writeBehind.addGenres(movie.getId(), Genre.CRIME);
+        for (var other : movies.subList(1, movies.size())) {
+            writeBehind.setDuration(other.getId(), 90);
+            writeBehind.setColor(other.getId(), Color.COLOR);
+            writeBehind.addGenres(other.getId(), Genre.COMEDY);
+        }
+        assertEquals(3, writeBehind.getPendingCount());
+        assertEquals(8, writeBehind.getCoalescedCount());
+        // 1 select of the 3 movies + 1 batch of 3 updates
+        long statements = StatementCounter.of(entityManager).count(writeBehind::flush);
+        System.out.println("Statements: " + statements);
+        assertEquals(2, statements);
+        assertEquals(1, writeBehind.getFlushCount());
+        assertEquals(0, writeBehind.getPendingCount());
+        var movieRead = reload(movie);
+        System.out.println(movieRead);
+        assertEquals(135, movieRead.getDuration());
+        assertEquals(Color.BLACK_AND_WHITE, movieRead.getColor());
+        assertEquals(Set.of(Genre.DRAMA, Genre.CRIME), movieRead.getGenres());
+        // one update for 5 changes
+        assertEquals(1, movieRead.getVersion());
+    }
+
+    @Test
+    void testFlushAfterMaxDelay() throws InterruptedException {
+        writeBehind = new MovieWriteBehind(movieRepository, retryExecutor, WriteBehindOptions.builder()
+                .maxDelay(Duration.ofMillis(20))
+                .build());
+        var movie = movies.get(0);
+        writeBehind.setColor(movie.getId(), Color.COLOR);
+        for (int i = 0; i < 500 && writeBehind.getFlushedMovieCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, writeBehind.getFlushedMovieCount());
+        assertEquals(Color.COLOR, reload(movie).getColor());
+    }
+
+    @Test
+    void testOverflowRejected() {
+        writeBehind = new MovieWriteBehind(movieRepository, retryExecutor, manualFlush()
+                .maxPending(2)
+                .overflowPolicy(OverflowPolicy.REJECT)
+                .build());
+        writeBehind.setDuration(movies.get(0).getId(), 100);
+        writeBehind.setDuration(movies.get(1).getId(), 101);
+        // pending movie : always accepted
+        writeBehind.setDuration(movies.get(1).getId(), 102);
+        assertThrows(WriteBehindOverflowException.class, () ->
+                writeBehind.setDuration(movies.get(2).getId(), 103));
+        assertEquals(1, writeBehind.getRejectedCount());
+    }
+
+    @Test
+    void testOverflowFlushedByCaller() {
+        writeBehind = new MovieWriteBehind(movieRepository, retryExecutor, manualFlush()
+                .maxPending(2)
+                // never reached : flushed only on request of the writer
+                .flushSize(3)
+                .overflowPolicy(OverflowPolicy.CALLER_FLUSH)
+                .build());
+        writeBehind.setDuration(movies.get(0).getId(), 100);
+        writeBehind.setDuration(movies.get(1).getId(), 101);
+        // writer in a transaction (e.g. service save path) : pending ones flushed by the flusher thread
+        transactionTemplate.executeWithoutResult(status ->
+                writeBehind.setDuration(movies.get(2).getId(), 102));
+        assertEquals(1, writeBehind.getFlushCount());
+        assertEquals(List.of(movies.get(2).getId()), writeBehind.getPendingMovieIds());
+        assertEquals(100, reload(movies.get(0)).getDuration());
+        assertEquals(101, reload(movies.get(1)).getDuration());
+        assertNull(reload(movies.get(2)).getDuration());
+    }
+
+    @Test
+    void testCloseFlushesPendingChanges() {
+        writeBehind = new MovieWriteBehind(movieRepository, retryExecutor, manualFlush().build());
+        movies.forEach(movie -> writeBehind.addGenres(movie.getId(), Genre.WESTERN));
+        writeBehind.close();
+        movies.forEach(movie -> assertEquals(Set.of(Genre.WESTERN), reload(movie).getGenres()));
+        assertThrows(IllegalStateException.class, () -> writeBehind.setDuration(movies.get(0).getId(), 1));
+    }
+
+    @Test
+    void testFailedFlushPendingAgain() {
+        writeBehind = new MovieWriteBehind(failing(new AtomicInteger(1)), retryExecutor, manualFlush().build());
+        var movie = movies.get(0);
+        writeBehind.setDuration(movie.getId(), 120);
+        writeBehind.addGenres(movie.getId(), Genre.DRAMA);
+        assertThrows(DataAccessResourceFailureException.class, writeBehind::flush);
+        assertEquals(List.of(movie.getId()), writeBehind.getPendingMovieIds());
+        assertEquals(1, writeBehind.getFailedMovieCount());
+        // merged with the newer changes of the same movie (newer ones win), still the oldest
+        writeBehind.setColor(movies.get(1).getId(), Color.COLOR);
+        writeBehind.setDuration(movie.getId(), 135);
+        assertEquals(List.of(movie.getId(), movies.get(1).getId()), writeBehind.getPendingMovieIds());
+        writeBehind.flush();
+        var movieRead = reload(movie);
+        assertEquals(135, movieRead.getDuration());
+        assertEquals(Set.of(Genre.DRAMA), movieRead.getGenres());
+        assertEquals(Color.COLOR, reload(movies.get(1)).getColor());
+    }
+
+    @Test
+    void testCloseSurfacesChangesNotFlushed() {
+        writeBehind = new MovieWriteBehind(failing(new AtomicInteger(Integer.MAX_VALUE)), retryExecutor,
+                manualFlush()
+                        .closeTimeout(Duration.ofMillis(300))
+                        .build());
+        writeBehind.setDuration(movies.get(0).getId(), 120);
+        var e = assertThrows(WriteBehindFlushException.class, writeBehind::close);
+        assertEquals(List.of(movies.get(0).getId()), e.getMovieIds());
+        assertEquals(1, writeBehind.getPendingCount());
+        assertNull(reload(movies.get(0)).getDuration());
+    }
+}
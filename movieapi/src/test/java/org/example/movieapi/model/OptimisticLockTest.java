@@ -0,0 +1,143 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.retry.OptimisticRetryExecutor;
+import org.example.movieapi.retry.RetryOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : conflicts need committed rows => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OptimisticRetryExecutor.class)
+class OptimisticLockTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+
+    Movie movie;
+    People director;
+
+    @BeforeEach
+    void createMovie() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        director = People.of("Sergio Leone " + key);
+        movie = Movie.builder().title("Once Upon a Time in the West " + key).year(1968).director(director).build();
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(movie));
+    }
+
+    // NB : people kept (director_stat)
+    @AfterEach
+    void deleteMovie() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.remove(entityManager.find(Movie.class, movie.getId())));
+    }
+
+    // concurrent update committed in its own transaction (suspends the current one)
+    private void concurrentUpdate(int duration) {
+        var other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> entityManager.find(Movie.class, movie.getId()).setDuration(duration));
+    }
+
+    private Movie reload() {
+        return transactionTemplate.execute(status -> entityManager.find(Movie.class, movie.getId()));
+    }
+
+    @Test
+    void testVersionIncremented() {
+        assertEquals(0, movie.getVersion());
+        var otherDirector = People.of("Other " + director.getName());
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(otherDirector);
+            entityManager.find(Movie.class, movie.getId()).setDirector(otherDirector);
+        });
+        assertEquals(1, reload().getVersion());
+        // collection of the movie : version of the movie
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Movie.class, movie.getId())
+                .getActors().add(entityManager.find(People.class, director.getId())));
+        assertEquals(2, reload().getVersion());
+    }
+
+    @Test
+    void testStaleUpdateRejected() {
+        var stale = reload();
+        concurrentUpdate(165);
+        stale.setDuration(175);
+        assertThrows(OptimisticLockingFailureException.class, () -> movieRepository.save(stale));
+        assertEquals(165, reload().getDuration());
+    }
+
+    @Test
+    void testRetryReappliesMutation() {
+        var attempts = new AtomicInteger();
+        long conflicts = retryExecutor.getConflictCount();
+        var updated = retryExecutor.update(Movie.class, movie.getId(), m -> {
+            if (attempts.incrementAndGet() == 1) {
+                concurrentUpdate(165);
+            }
+            m.setColor(Color.COLOR);
+        });
+        System.out.println(updated);
+        assertEquals(2, attempts.get());
+        assertEquals(conflicts + 1, retryExecutor.getConflictCount());
+        // both changes kept
+        var current = reload();
+        assertEquals(165, current.getDuration());
+        assertEquals(Color.COLOR, current.getColor());
+        assertEquals(2, current.getVersion());
+    }
+
+    @Test
+    void testRetryExhausted() {
+        var options = RetryOptions.builder()
+                .maxAttempts(3)
+                .initialBackoff(Duration.ofMillis(1))
+                .build();
+        var attempts = new AtomicInteger();
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                retryExecutor.update(options, Movie.class, movie.getId(), m -> {
+                    concurrentUpdate(100 + attempts.incrementAndGet());
+                    m.setColor(Color.COLOR);
+                }));
+        assertEquals(3, attempts.get());
+        assertNull(reload().getColor());
+    }
+
+    @Test
+    void testRetryOutsideTransactionOnly() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                retryExecutor.update(Movie.class, movie.getId(), m -> m.setDuration(1))));
+    }
+}
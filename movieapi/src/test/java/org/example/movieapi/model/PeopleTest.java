@@ -1,23 +1,38 @@
 package org.example.movieapi.model;
 
+import org.example.movieapi.bulk.DerivedColumns;
+import org.example.movieapi.repository.IPeopleRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.Rollback;
 
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DerivedColumns.class)
 class PeopleTest {
     @Autowired
     TestEntityManager entityManager;
 
+    @Autowired
+    IPeopleRepository peopleRepository;
+
+    @Autowired
+    DerivedColumns derivedColumns;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     void testPersist(){
         var people = People.of("Will Smith");
@@ -44,4 +59,54 @@ class PeopleTest {
         assertEquals(1968, peopleRead.getBirthYear());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testBirthYearUpdated() {
+        var people = People.builder()
+                .name("Will Smith")
+                .birthdate(LocalDate.of(1968, 9, 25))
+                .build();
+        entityManager.persist(people);
+        entityManager.flush();
+        assertEquals(1968, people.getBirthYear()); // no reload needed
+        people.setBirthdate(LocalDate.of(1970, 1, 1));
+        entityManager.flush(); // SQL update with birth_year
+        entityManager.clear();
+        assertEquals(1970, entityManager.find(People.class, people.getId()).getBirthYear());
+        people = entityManager.find(People.class, people.getId());
+        people.setBirthdate(null);
+        entityManager.flush();
+        entityManager.clear();
+        assertNull(entityManager.find(People.class, people.getId()).getBirthYear());
+    }
+
+    @Test
+    void testFindByBirthYearAndAge() {
+        int year = LocalDate.now().getYear();
+        var name = "Born " + UUID.randomUUID();
+        for (int age : new int[]{29, 30, 35, 40, 41}) {
+            entityManager.persist(People.builder()
+                    .name(name + " " + age)
+                    .birthdate(LocalDate.of(year - age, 6, 15))
+                    .build());
+        }
+        entityManager.flush();
+        var found = peopleRepository.findByAgeBetween(30, 40).stream()
+                .filter(p -> p.getName().startsWith(name))
+                .peek(System.out::println)
+                .map(People::getBirthYear)
+                .toArray();
+        assertArrayEquals(new Object[]{year - 40, year - 35, year - 30}, found);
+        assertTrue(peopleRepository.countByBirthYearBetween(year - 40, year - 30) >= 3);
+    }
+
+    @Test
+    void testDerivedColumnsRefresh() {
+        var name = "Inserted with SQL " + UUID.randomUUID();
+        jdbcTemplate.update("insert into people (id, name, birthdate) values (?, ?, ?)",
+                -1, name, java.sql.Date.valueOf(LocalDate.of(1899, 5, 10)));
+        assertNull(jdbcTemplate.queryForObject("select birth_year from people where id = -1", Integer.class));
+        assertTrue(derivedColumns.refresh() >= 1);
+        assertEquals(1899, jdbcTemplate.queryForObject("select birth_year from people where id = -1", Integer.class));
+        assertEquals(0, derivedColumns.refresh()); // only stale rows
+    }
+}
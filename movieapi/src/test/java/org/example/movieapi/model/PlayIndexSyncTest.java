@@ -0,0 +1,120 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.index.PlayIndexService;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : the index is updated at commit => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PlayIndexService.class)
+class PlayIndexSyncTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    PlayIndexService playIndexService;
+
+    private Set<String> actorsInAllMovies(Movie... movies) {
+        return movieRepository.findActorsInAllMovies(
+                        Set.of(movies).stream().map(Movie::getId).collect(Collectors.toList())).stream()
+                .map(People::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<String> actorsForDirector(People director) {
+        return movieRepository.findActorsForAllDirectors(List.of(director.getId())).stream()
+                .map(People::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private static List<String> names(List<People> people) {
+        return people.stream().map(People::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testActorsAndDirectorSync() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        var index = playIndexService.getIndex(); // built before the writes
+        var director = People.of("Ridley Scott " + key);
+        var weaver = People.of("Sigourney Weaver " + key);
+        var holm = People.of("Ian Holm " + key);
+        var alien = Movie.builder().title("Alien").year(1979).director(director).build();
+        var aliens = Movie.builder().title("Aliens").year(1986).build();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(director);
+            entityManager.persist(weaver);
+            entityManager.persist(holm);
+            alien.getActors().addAll(List.of(weaver, holm));
+            aliens.getActors().add(weaver);
+            entityManager.persist(alien);
+            entityManager.persist(aliens);
+        });
+        assertNotSame(index, playIndexService.getIndex());
+        assertEquals(Set.of(weaver.getName()), actorsInAllMovies(alien, aliens));
+        assertEquals(Set.of(weaver.getName(), holm.getName()), actorsForDirector(director));
+
+        // actors and director changed
+        transactionTemplate.executeWithoutResult(status -> {
+            var movie = entityManager.find(Movie.class, aliens.getId());
+            movie.getActors().add(entityManager.find(People.class, holm.getId()));
+            movie.setDirector(entityManager.find(People.class, director.getId()));
+        });
+        assertEquals(Set.of(weaver.getName(), holm.getName()), actorsInAllMovies(alien, aliens));
+
+        // co-stars : same index
+        assertEquals(List.of(holm.getName()), names(movieRepository.findCoStars(weaver.getId())));
+        assertEquals(List.of(weaver.getName(), holm.getName()),
+                names(movieRepository.findActorPath(weaver.getId(), holm.getId())));
+        var hurt = People.of("John Hurt " + key);
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(hurt);
+            entityManager.find(Movie.class, alien.getId()).getActors().add(hurt);
+        });
+        assertEquals(List.of(holm.getName(), hurt.getName()), names(movieRepository.findCoStars(weaver.getId())));
+
+        // rollback : unchanged
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.find(Movie.class, alien.getId()).getActors().clear();
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertEquals(Set.of(weaver.getName(), holm.getName()), actorsInAllMovies(alien, aliens));
+        assertEquals(List.of(holm.getName(), hurt.getName()), names(movieRepository.findCoStars(weaver.getId())));
+
+        // other attributes : no refresh
+        index = playIndexService.getIndex();
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Movie.class, alien.getId()).setDuration(117));
+        assertSame(index, playIndexService.getIndex());
+
+        movieRepository.deleteById(alien.getId());
+        assertEquals(Set.of(weaver.getName(), holm.getName()), actorsForDirector(director));
+        assertEquals(List.of(holm.getName()), names(movieRepository.findCoStars(weaver.getId())));
+        movieRepository.deleteById(aliens.getId());
+        assertTrue(actorsForDirector(director).isEmpty());
+    }
+}
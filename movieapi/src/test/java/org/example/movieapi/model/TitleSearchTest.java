@@ -0,0 +1,86 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.index.TitleSearchService;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.UUID;
+
+import static org.example.movieapi.index.TitleSearchIndex.Mode.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : search indexes are updated at commit => each step in its own transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TitleSearchService.class)
+class TitleSearchTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    TitleSearchService titleSearchService;
+
+    @Test
+    void testMovieTitleSync() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        titleSearchService.getMovieTitles(); // built before the writes
+        var movie = movieRepository.save(Movie.of("Star Wars " + key, 1977));
+        var found = titleSearchService.searchMovies("wars " + key, SUBSTRING, 10);
+        System.out.println(found);
+        assertEquals(1, found.size());
+        assertEquals(movie.getId(), found.get(0).getId());
+
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Movie.class, movie.getId()).setTitle("Star Trek " + key));
+        assertEquals(0, titleSearchService.searchMovieIds("wars " + key, SUBSTRING, 10).length);
+        assertArrayEquals(new int[]{movie.getId()}, titleSearchService.searchMovieIds("trek " + key, AUTOCOMPLETE, 10));
+
+        // other attributes : index unchanged
+        var movieTitles = titleSearchService.getMovieTitles();
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Movie.class, movie.getId()).setDuration(121));
+        assertSame(movieTitles, titleSearchService.getMovieTitles());
+
+        // rollback : unchanged
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Movie.class, movie.getId()));
+            entityManager.flush();
+            status.setRollbackOnly();
+        });
+        assertArrayEquals(new int[]{movie.getId()}, titleSearchService.searchMovieIds("trek " + key, SUBSTRING, 10));
+
+        movieRepository.deleteById(movie.getId());
+        assertEquals(0, titleSearchService.searchMovieIds("trek " + key, SUBSTRING, 10).length);
+    }
+
+    @Test
+    void testPeopleNameSync() {
+        var key = UUID.randomUUID().toString().substring(0, 8);
+        titleSearchService.getPeopleNames();
+        var director = People.of("Kathryn Bigelow " + key);
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.persist(Movie.builder().title("Point Break").year(1991).director(director).build()));
+        var found = titleSearchService.searchPeople("bigelow " + key, AUTOCOMPLETE, 10);
+        System.out.println(found);
+        assertEquals(1, found.size());
+        assertEquals(director.getId(), found.get(0).getId());
+        assertEquals(0, titleSearchService.searchPeopleIds("bigelow " + key, PREFIX, 10).length);
+        assertEquals(1, titleSearchService.searchPeopleIds("kathryn bigelow " + key, PREFIX, 10).length);
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.movieapi.model;
+
+import org.example.movieapi.outbox.ChangeFeedReader;
+import org.example.movieapi.shard.MovieRow;
+import org.example.movieapi.shard.ShardedMovieQueries;
+import org.example.movieapi.shard.YearShard;
+import org.example.movieapi.shard.YearShardLoader;
+import org.example.movieapi.shard.YearShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// shards : 3 embedded H2 databases (until 1959, 1960 .. 1999, since 2000) filled from the test database
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ChangeFeedReader.class)
+class YearShardQueryTest {
+
+    static final String[] DDL = {
+            "create table people (id integer not null primary key, name varchar(100) not null, birthdate date,"
+                    + " birth_year integer, version integer not null default 0)",
+            "create table movie (id integer not null primary key, title varchar(250) not null, year integer not null,"
+                    + " color varchar(15), duration integer, fk_director_id integer references people (id),"
+                    + " genres bigint not null default 0, synopsis clob, version integer not null default 0)",
+            "create table play (fk_movie_id integer not null references movie (id),"
+                    + " fk_actor_id integer not null references people (id), primary key (fk_movie_id, fk_actor_id))"
+    };
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ChangeFeedReader changeFeedReader;
+
+    YearShards shards;
+    ShardedMovieQueries queries;
+    YearShardLoader loader;
+    String key;
+
+    static YearShard h2Shard(String name, int fromYear, int toYear) {
+        var shard = new YearShard(name, fromYear, toYear, new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE", "sa", ""));
+        for (var ddl : DDL) {
+            shard.getJdbcTemplate().execute(ddl);
+        }
+        return shard;
+    }
+
+    @BeforeEach
+    void createShards() {
+        key = UUID.randomUUID().toString().substring(0, 8);
+        shards = new YearShards(List.of(
+                h2Shard("until1959_" + key, Integer.MIN_VALUE, 1959),
+                h2Shard("from1960_" + key, 1960, 1999),
+                h2Shard("since2000_" + key, 2000, Integer.MAX_VALUE)));
+        queries = new ShardedMovieQueries(shards);
+        loader = new YearShardLoader(jdbcTemplate, shards);
+    }
+
+    @AfterEach
+    void dropShards() {
+        shards.getShards().forEach(shard -> shard.getJdbcTemplate().execute("shutdown"));
+        shards.close();
+    }
+
+    // movies "<key> <title>" of years 1950, 1975, 1975, 2010, 2020 (director and actors)
+    List<Movie> persistMovies() {
+        var director = People.of("Director " + key);
+        var actor = People.of("Actor " + key);
+        var movies = List.of(
+                Movie.of(key + " Rope", 1950),
+                Movie.of(key + " Heat", 1975),
+                Movie.of(key + " alien", 1975),
+                Movie.of(key + " Inception", 2010),
+                Movie.of(key + " Dune", 2020));
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(director);
+            entityManager.persist(actor);
+            int duration = 100;
+            for (var movie : movies) {
+                movie.setDirector(director);
+                movie.setDuration(duration += 10);
+                movie.getActors().add(actor);
+                entityManager.persist(movie);
+            }
+        });
+        return movies;
+    }
+
+    static List<String> titles(List<MovieRow> movies) {
+        return movies.stream().map(movie -> movie.getTitle().substring(9)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testLoadAndPrunedQueries() {
+        persistMovies();
+        var counts = loader.load();
+        System.out.println(counts);
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from movie", Long.class),
+                counts.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from movie where year between 1970 and 2010",
+                Long.class), queries.countByYearBetween(1970, 2010));
+        // 1975 : only shard 1960 .. 1999 read
+        assertEquals(List.of("from1960_" + key), shards.prune(1975, 1975).stream()
+                .map(YearShard::getName)
+                .collect(Collectors.toList()));
+        var movies = queries.findByTitleRangeYear(key + " Heat", 1970, 1980);
+        movies.forEach(System.out::println);
+        assertEquals(List.of("Heat"), titles(movies));
+        assertEquals(1975, movies.get(0).getYear());
+        assertEquals(120, movies.get(0).getDuration());
+        // 2 shards, year order
+        var years = queries.findByYearBetween(1950, 2010, 1000).stream()
+                .filter(movie -> movie.getTitle().startsWith(key))
+                .collect(Collectors.toList());
+        assertEquals(List.of("Rope", "Heat", "alien", "Inception"), titles(years));
+    }
+
+    @Test
+    void testFanOutMergedInOrder() {
+        persistMovies();
+        loader.load();
+        // title order of the 3 shards (binary : upper case first)
+        var movies = queries.findByTitleStartingWith(key, 4);
+        movies.forEach(System.out::println);
+        assertEquals(List.of("Dune", "Heat", "Inception", "Rope"), titles(movies));
+        // same top as the main database
+        var longest = queries.findLongest(10);
+        assertEquals(jdbcTemplate.queryForList("select id from movie where duration is not null"
+                        + " order by duration desc, id limit 10", Integer.class),
+                longest.stream().map(MovieRow::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testChangeFeedApplied() {
+        var consumer = "shards-" + key;
+        var movies = persistMovies();
+        loader.load();
+        changeFeedReader.seek(consumer, changeFeedReader.getHeadId());
+        var heat = movies.get(1);
+        var newMovie = Movie.of(key + " Vertigo", 1958);
+        transactionTemplate.executeWithoutResult(status -> {
+            // moved to shard since 2000
+            entityManager.find(Movie.class, heat.getId()).setYear(2005);
+            var newDirector = People.of("New director " + key);
+            entityManager.persist(newDirector);
+            newMovie.setDirector(newDirector);
+            entityManager.persist(newMovie);
+            var rope = entityManager.find(Movie.class, movies.get(0).getId());
+            rope.getActors().clear();
+            entityManager.remove(rope);
+        });
+        var batches = new ArrayList<List<ChangeRecord>>();
+        while (changeFeedReader.poll(consumer, records -> {
+            batches.add(records);
+            loader.apply(records);
+        }) > 0) {
+        }
+        System.out.println(batches);
+        assertEquals(List.of("Vertigo", "alien", "Inception", "Dune"), titles(queries.findByYearBetween(1900, 2100, 1000)
+                .stream()
+                .filter(movie -> movie.getTitle().startsWith(key))
+                .filter(movie -> !movie.getTitle().endsWith("Heat"))
+                .collect(Collectors.toList())));
+        var heatRows = queries.findByTitleStartingWith(key + " Heat", 10);
+        assertEquals(1, heatRows.size());
+        assertEquals(2005, heatRows.get(0).getYear());
+        var since2000 = shards.shardFor(2005).getJdbcTemplate();
+        assertEquals(1, since2000.queryForObject("select count(*) from play where fk_movie_id = ?",
+                Integer.class, heat.getId()));
+        assertEquals(0, shards.shardFor(1975).getJdbcTemplate().queryForObject(
+                "select count(*) from movie where id = ?", Integer.class, heat.getId()));
+        assertEquals("New director " + key, shards.shardFor(1958).getJdbcTemplate().queryForObject(
+                "select p.name from movie m join people p on p.id = m.fk_director_id where m.id = ?",
+                String.class, newMovie.getId()));
+        // applied again : same rows
+        batches.forEach(loader::apply);
+        assertEquals(1, queries.findByTitleStartingWith(key + " Heat", 10).size());
+    }
+}
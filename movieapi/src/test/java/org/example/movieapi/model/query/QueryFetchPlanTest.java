@@ -0,0 +1,86 @@
+package org.example.movieapi.model.query;
+
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.FetchPlan;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Example;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// own data (no profile query) to count statements
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QueryFetchPlanTest {
+
+    static final int YEAR = 1871; // no other movie this year
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    StatementCounter statementCounter;
+
+    @BeforeEach
+    void createMovies() {
+        statementCounter = StatementCounter.of(entityManager);
+        var actors = List.of(People.of("Actor 1"), People.of("Actor 2"), People.of("Actor 3"));
+        actors.forEach(entityManager::persist);
+        for (int i = 0; i < 3; i++) {
+            var movie = Movie.of("Movie " + i, YEAR);
+            movie.setDirector(People.of("Director " + i));
+            movie.getActors().addAll(actors.subList(i, 3));
+            movie.addGenres(Genre.DRAMA);
+            entityManager.persist(movie);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // N+1 without plan would be 1 + 3 directors + 3 actors = 7 (genres in movie row)
+    @ParameterizedTest
+    @CsvSource({"SUMMARY, 3", "WITH_DIRECTOR, 2", "FULL, 2"})
+    void testWalkAllAssociations(FetchPlan fetchPlan, long expectedStatements) {
+        var probe = new Movie();
+        probe.setYear(YEAR);
+        statementCounter.assertStatementCount(expectedStatements, () ->
+                movieRepository.findAll(Example.of(probe), fetchPlan)
+                        .forEach(m -> System.out.println("\t- " + m
+                                + " by " + m.getDirector().getName()
+                                + " with " + m.getActors().size() + " actors"
+                                + " in " + m.getGenres())));
+    }
+
+    @Test
+    void testFilmographyWithDirector() {
+        var movies = statementCounter.assertStatementCount(1, () -> {
+            var result = movieRepository.findByDirectorName("Director 1", FetchPlan.WITH_DIRECTOR);
+            result.forEach(m -> m.getDirector().getName());
+            return result;
+        });
+        assertEquals(1, movies.size());
+    }
+
+    @Test
+    void testFullPlanLoadsCollectionsEagerly() {
+        var probe = new Movie();
+        probe.setYear(YEAR);
+        var movies = statementCounter.assertStatementCount(2, () ->
+                movieRepository.findAll(Example.of(probe), FetchPlan.FULL));
+        entityManager.clear(); // detached : no more lazy loading possible
+        assertEquals(6, movies.stream().mapToInt(m -> m.getActors().size()).sum());
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.movieapi.model.query;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.repository.KeysetPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// own data (no profile query) to check pages
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QueryKeysetTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @BeforeEach
+    void createMovies() {
+        var director = People.of("Keyset Director");
+        entityManager.persist(director);
+        // same year and same title to check the whole key (year, title, id)
+        for (var title : List.of("Psycho", "Vertigo", "Psycho", "Rope", "Notorious", "Vertigo", "Rebecca")) {
+            entityManager.persist(Movie.builder().title(title).year(1861).director(director).build());
+        }
+        entityManager.persist(Movie.builder().title("The Birds").year(1862).director(director).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testScrollByYearBetween() {
+        var titles = scrollAll(token -> movieRepository.scrollByYearBetween(1861, 1862, token, 3), 3);
+        assertEquals(List.of("Notorious", "Psycho", "Psycho", "Rebecca", "Rope", "Vertigo", "Vertigo", "The Birds"),
+                titles);
+    }
+
+    @Test
+    void testScrollByDirectorName() {
+        var titles = scrollAll(token -> movieRepository.scrollByDirectorName("Keyset Director", token, 5), 2);
+        assertEquals(List.of("The Birds", "Vertigo", "Vertigo", "Rope", "Rebecca", "Psycho", "Psycho", "Notorious"),
+                titles);
+    }
+
+    @Test
+    void testInvalidToken() {
+        // IllegalArgumentException translated by repository proxy
+        assertThrows(InvalidDataAccessApiUsageException.class, () ->
+                movieRepository.scrollByYearBetween(1861, 1862, "not a token", 3));
+    }
+
+    private List<String> scrollAll(Function<String, KeysetPage<Movie>> scroll, int expectedPages) {
+        var titles = new ArrayList<String>();
+        String token = null;
+        int pageCount = 0;
+        do {
+            var page = scroll.apply(token);
+            System.out.println("Page " + pageCount + ": " + page.getContent());
+            titles.addAll(page.getContent().stream().map(Movie::getTitle).collect(Collectors.toList()));
+            token = page.getNextToken();
+            pageCount++;
+        } while (token != null);
+        assertEquals(expectedPages, pageCount);
+        return titles;
+    }
+}
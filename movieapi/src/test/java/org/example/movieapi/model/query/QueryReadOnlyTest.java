@@ -0,0 +1,127 @@
+package org.example.movieapi.model.query;
+
+import org.example.movieapi.datasource.ReadOnlyRoutingDataSource;
+import org.example.movieapi.datasource.ReadOnlyRoutingDataSourcePostProcessor;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// own data (no profile query), replica = same database
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadOnlyRoutingDataSourcePostProcessor.class)
+@TestPropertySource(properties = "movieapi.read-only.url=${spring.datasource.url}")
+public class QueryReadOnlyTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    String title;
+    String director;
+
+    @BeforeEach
+    void createMovies() {
+        title = "ReadOnly " + UUID.randomUUID();
+        director = "Director " + title;
+        var directorPeople = People.of(director);
+        entityManager.persist(directorPeople);
+        for (int year : List.of(1990, 2000)) {
+            var movie = Movie.of(title, year);
+            movie.setDirector(directorPeople);
+            entityManager.persist(movie);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void assertReadOnly(List<Movie> movies) {
+        var session = entityManager.unwrap(SessionImplementor.class);
+        assertEquals(2, movies.size());
+        for (var movie : movies) {
+            assertTrue(session.isReadOnly(movie));
+            // no snapshot for dirty checking
+            assertNull(session.getPersistenceContext().getEntry(movie).getLoadedState());
+        }
+    }
+
+    @Test
+    void testReadOnlyQueryMethod() {
+        var movies = movieRepository.findReadOnlyByDirectorName(director);
+        movies.forEach(m -> System.out.println("\t- " + m));
+        assertReadOnly(movies);
+        // changes of read only entities are ignored at flush
+        movies.get(0).setDuration(123);
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(movieRepository.findReadOnlyByTitleRangeYear(title, 1900, 2100).stream()
+                .allMatch(m -> m.getDuration() == null));
+    }
+
+    @Test
+    void testReadOnlyQueryByExample() {
+        var movies = movieRepository.findAll(Example.of(Movie.of(title, 0),
+                ExampleMatcher.matching().withIgnorePaths("year")));
+        assertReadOnly(movies);
+    }
+
+    @Test
+    void testReadWriteQueryMethod() {
+        var session = entityManager.unwrap(SessionImplementor.class);
+        var id = movieRepository.findIdsByTitleLike(title).get(0);
+        // other methods : managed with a snapshot as before
+        var movie = movieRepository.findById(id).orElseThrow();
+        assertFalse(session.isReadOnly(movie));
+        assertNotNull(session.getPersistenceContext().getEntry(movie).getLoadedState());
+    }
+
+    @Test
+    void testReadOnlyTransaction() {
+        var routing = assertDoesNotThrow(() -> dataSource.unwrap(ReadOnlyRoutingDataSource.class));
+        long replicaConnections = routing.getReplicaConnectionCount();
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            var session = entityManager.unwrap(Session.class);
+            assertTrue(session.isDefaultReadOnly());
+            assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+            // rows of the test transaction are not committed : any movie
+            entityManager.createQuery("select m from Movie m", Movie.class)
+                    .setMaxResults(10)
+                    .getResultList()
+                    .forEach(m -> assertTrue(session.isReadOnly(m)));
+        });
+        assertEquals(replicaConnections + 1, routing.getReplicaConnectionCount());
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.movieapi.model.query;
 
+import org.example.movieapi.index.PlayIndexService;
 import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
 import org.example.movieapi.repository.IMovieRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -9,16 +11,25 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("query")
+@Import(PlayIndexService.class)
 public class QueryRepositoryTest {
 
     @Autowired
@@ -89,6 +100,49 @@ public class QueryRepositoryTest {
                 .forEach(m -> System.out.println("\t- " + m));
     }
 
+    // Division (in-memory index vs count query)
+
+    @Test
+    void testActorsInAllStarWars(){
+        var movieIds = movieRepository.findIdsByTitleLike("Star Wars%");
+        assumeFalse(movieIds.isEmpty(), "dataset not loaded");
+        var actors = movieRepository.findActorsInAllMovies(movieIds);
+        actors.forEach(p -> System.out.println("\t- " + p));
+        assertEquals(
+                Set.copyOf(movieRepository.countActorIdsInAllMovies(movieIds, (long) movieIds.size())),
+                actors.stream().map(People::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void testActorsForAllDirectors(){
+        var directorIds = movieRepository.findDirectorIdsByNameIn(List.of(
+                "Clint Eastwood", "Quentin Tarantino", "Martin Scorsese", "Steven Spielberg"));
+        assumeFalse(directorIds.isEmpty(), "dataset not loaded");
+        var actors = movieRepository.findActorsForAllDirectors(directorIds);
+        actors.forEach(p -> System.out.println("\t- " + p));
+        assertEquals(
+                Set.copyOf(movieRepository.countActorIdsForAllDirectors(directorIds, (long) directorIds.size())),
+                actors.stream().map(People::getId).collect(Collectors.toSet()));
+    }
+
+    // Co-stars (in-memory graph)
+
+    @Test
+    void testCoStarsAndPath(){
+        var ids = movieRepository.findDirectorIdsByNameIn(List.of("Clint Eastwood", "Quentin Tarantino"));
+        assumeTrue(ids.size() == 2, "dataset not loaded");
+        System.out.println("Co-stars:");
+        movieRepository.findCoStars(ids.get(0)).forEach(p -> System.out.println("\t- " + p));
+        System.out.println("Top collaborators:");
+        movieRepository.findTopCollaborators(ids.get(0), 10).forEach(p -> System.out.println("\t- " + p));
+        var path = movieRepository.findActorPath(ids.get(0), ids.get(1));
+        System.out.println("Path: " + path);
+        if (!path.isEmpty()) {
+            assertEquals(ids.get(0), path.get(0).getId());
+            assertEquals(ids.get(1), path.get(path.size() - 1).getId());
+        }
+    }
+
     private static Stream<Sort> sortMovieProvider(){
         return Stream.of(
             Sort.by("year", "title"),
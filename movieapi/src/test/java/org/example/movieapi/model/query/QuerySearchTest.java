@@ -0,0 +1,153 @@
+package org.example.movieapi.model.query;
+
+import org.example.movieapi.model.Color;
+import org.example.movieapi.model.Genre;
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.example.movieapi.repository.MovieSearchCriteria;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// own data (no profile query)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QuerySearchTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    String prefix;
+    String director;
+    String actor;
+
+    @BeforeEach
+    void createMovies() {
+        prefix = "Search " + UUID.randomUUID() + " ";
+        director = "Director " + prefix.strip();
+        actor = "Actor " + prefix.strip();
+        var directorPeople = People.of(director);
+        var actorPeople = People.of(actor);
+        entityManager.persist(actorPeople);
+        // title, year, duration, color, genres
+        createMovie("A", 1950, 90, Color.BLACK_AND_WHITE, directorPeople, actorPeople, Genre.DRAMA);
+        createMovie("B", 1960, 120, Color.COLOR, directorPeople, null, Genre.DRAMA, Genre.CRIME);
+        createMovie("C", 1970, 150, Color.COLOR, null, actorPeople, Genre.COMEDY);
+        createMovie("D_%", 1980, 180, null, directorPeople, actorPeople, Genre.CRIME, Genre.THRILLER);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void createMovie(String title, int year, int duration, Color color, People director, People actor,
+                             Genre... genres) {
+        var movie = Movie.of(prefix + title, year);
+        movie.setDuration(duration);
+        movie.setColor(color);
+        movie.setDirector(director);
+        if (actor != null) {
+            movie.getActors().add(actor);
+        }
+        movie.setGenres(List.of(genres));
+        entityManager.persist(movie);
+    }
+
+    private List<String> search(MovieSearchCriteria.MovieSearchCriteriaBuilder criteria) {
+        var titles = movieRepository.search(criteria.titlePrefix(prefix).build(), 10).stream()
+                .map(m -> m.getTitle().substring(prefix.length()))
+                .collect(Collectors.toList());
+        System.out.println(titles);
+        return titles;
+    }
+
+    @Test
+    void testSearchFilters() {
+        assertEquals(List.of("A", "B", "C", "D_%"), search(MovieSearchCriteria.builder()));
+        assertEquals(List.of("B", "C"), search(MovieSearchCriteria.builder().yearMin(1960).yearMax(1970)));
+        assertEquals(List.of("C", "D_%"), search(MovieSearchCriteria.builder().durationMin(150)));
+        assertEquals(List.of("A", "B"), search(MovieSearchCriteria.builder().durationMax(120)));
+        assertEquals(List.of("B", "C"), search(MovieSearchCriteria.builder().colors(Set.of(Color.COLOR))));
+        assertEquals(List.of("A", "B", "C"), search(MovieSearchCriteria.builder()
+                .colors(Set.of(Color.COLOR, Color.BLACK_AND_WHITE)))); // not D without color
+        assertEquals(List.of("A", "B", "D_%"), search(MovieSearchCriteria.builder()
+                .anyGenres(Set.of(Genre.DRAMA, Genre.THRILLER))));
+        assertEquals(List.of("B"), search(MovieSearchCriteria.builder().allGenres(Set.of(Genre.DRAMA, Genre.CRIME))));
+        assertEquals(List.of("A", "B", "D_%"), search(MovieSearchCriteria.builder().directorName(director)));
+        assertEquals(List.of("A", "C", "D_%"), search(MovieSearchCriteria.builder().actorName(actor)));
+        assertEquals(List.of("C"), search(MovieSearchCriteria.builder()
+                .yearMin(1955).colors(Set.of(Color.COLOR)).anyGenres(Set.of(Genre.CRIME, Genre.COMEDY)).actorName(actor)));
+        assertEquals(List.of("D_%"), search(MovieSearchCriteria.builder()
+                .directorName(director).actorName(actor).anyGenres(Set.of(Genre.CRIME)).durationMin(100)));
+        // wildcards of the prefix are plain characters
+        assertEquals(1, movieRepository.count(MovieSearchCriteria.builder().titlePrefix(prefix + "D_%").build()));
+        assertEquals(0, movieRepository.count(MovieSearchCriteria.builder().titlePrefix(prefix + "_").build()));
+        assertEquals(1, movieRepository.count(MovieSearchCriteria.builder().title(prefix + "C").build()));
+        assertEquals(3, movieRepository.count(MovieSearchCriteria.builder()
+                .titlePrefix(prefix).actorName(actor).build()));
+    }
+
+    @Test
+    void testEquivalentCriteriaSameShape() {
+        var allDrama = MovieSearchCriteria.builder().titlePrefix(prefix).allGenres(Set.of(Genre.DRAMA)).build();
+        var anyDrama = MovieSearchCriteria.builder().titlePrefix(" " + prefix).anyGenres(Set.of(Genre.DRAMA))
+                .colors(Set.of()).directorName("  ").build();
+        assertEquals(allDrama.normalize().getFilters(), anyDrama.normalize().getFilters());
+        System.out.println(anyDrama.normalize());
+
+        movieRepository.search(allDrama, 10);
+        int shapes = movieRepository.getSearchShapeCount();
+        assertEquals(movieRepository.search(allDrama, 10).size(), movieRepository.search(anyDrama, 10).size());
+        assertEquals(shapes, movieRepository.getSearchShapeCount());
+    }
+
+    @Test
+    void testPlanCacheHitsForOneShape() {
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        movieRepository.search(MovieSearchCriteria.builder().yearMin(1900).yearMax(1950).durationMin(60).build(), 10);
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+        for (int year = 1950; year < 1980; year++) {
+            movieRepository.search(MovieSearchCriteria.builder()
+                    .yearMin(year).yearMax(year + 10).durationMin(year % 3 * 30).build(), 10);
+        }
+        System.out.println("Query plan cache : " + (statistics.getQueryPlanCacheHitCount() - hits) + " hit(s), "
+                + (statistics.getQueryPlanCacheMissCount() - misses) + " miss(es)");
+        assertEquals(0, statistics.getQueryPlanCacheMissCount() - misses);
+        assertTrue(statistics.getQueryPlanCacheHitCount() - hits >= 30);
+    }
+
+    @Test
+    void testSpecificationSameAsSearch() {
+        var criteria = MovieSearchCriteria.builder()
+                .titlePrefix(prefix)
+                .yearMin(1955)
+                .colors(Set.of(Color.COLOR))
+                .anyGenres(Set.of(Genre.CRIME, Genre.COMEDY))
+                .actorName(actor)
+                .build();
+        var bySpecification = movieRepository.findAll(criteria.toSpecification(), Sort.by("year", "title", "id"));
+        bySpecification.forEach(m -> System.out.println("\t- " + m));
+        assertEquals(movieRepository.search(criteria, 10).stream().map(Movie::getId).collect(Collectors.toList()),
+                bySpecification.stream().map(Movie::getId).collect(Collectors.toList()));
+        assertEquals(1, bySpecification.size());
+        // composed with another specification
+        assertEquals(0, movieRepository.count(criteria.toSpecification()
+                .and((root, query, cb) -> cb.isNull(root.get("duration")))));
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.movieapi.model.query;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.model.People;
+import org.example.movieapi.repository.IMovieRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// own data (no profile query)
+@DataJpaTest(properties = "movieapi.stream.clear-every=100")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QueryStreamingTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Test
+    void testStreamEntitiesAreReadOnly() {
+        var director = People.of("Streaming Director");
+        entityManager.persist(director);
+        entityManager.persist(Movie.builder().title("Stream 1").year(2001).director(director).build());
+        entityManager.flush();
+        entityManager.clear();
+        var session = entityManager.unwrap(Session.class);
+        try (var movies = movieRepository.findByDirectorNameOrderByYearDesc("Streaming Director")) {
+            movies.forEach(m -> assertTrue(session.isReadOnly(m)));
+        }
+    }
+
+    @Test
+    void testScanKeepsPersistenceContextSmall() {
+        for (int i = 0; i < 250; i++) {
+            entityManager.persist(Movie.of("Scan " + i, 1851));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        var session = entityManager.unwrap(Session.class);
+        var maxManaged = new AtomicInteger();
+        long count = movieRepository.scanByYearBetween(1851, 1851, m -> {
+            assertTrue(session.isReadOnly(m));
+            maxManaged.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+        });
+        assertEquals(250, count);
+        assertTrue(maxManaged.get() <= 100, "managed entities: " + maxManaged.get());
+    }
+
+    @Test
+    void testScanRefusesPendingChanges() {
+        entityManager.persist(Movie.of("Not flushed", 1851));
+        assertThrows(InvalidDataAccessApiUsageException.class, () ->
+                movieRepository.scanAll(m -> {}));
+    }
+}
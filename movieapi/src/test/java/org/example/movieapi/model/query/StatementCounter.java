@@ -0,0 +1,46 @@
+package org.example.movieapi.model.query;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test helper : counts SQL statements prepared by Hibernate during a call
+ * (to detect N+1 selects).
+ */
+public class StatementCounter {
+
+    private final Statistics statistics;
+
+    private StatementCounter(Statistics statistics) {
+        this.statistics = statistics;
+        statistics.setStatisticsEnabled(true);
+    }
+
+    public static StatementCounter of(EntityManager entityManager) {
+        return new StatementCounter(entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics());
+    }
+
+    public long count(Runnable call) {
+        long before = statistics.getPrepareStatementCount();
+        call.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    public void assertStatementCount(long expected, Runnable call) {
+        assertEquals(expected, count(call), "SQL statement count");
+    }
+
+    public <T> T assertStatementCount(long expected, Supplier<T> call) {
+        long before = statistics.getPrepareStatementCount();
+        var result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount() - before, "SQL statement count");
+        return result;
+    }
+}
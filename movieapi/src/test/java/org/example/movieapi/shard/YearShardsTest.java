@@ -0,0 +1,120 @@
+package org.example.movieapi.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// NB : no connection opened (pruning and merge only), except for the order of titles (embedded H2, MariaDB mode)
+class YearShardsTest {
+
+    static YearShard shard(String name, int fromYear, int toYear) {
+        return new YearShard(name, fromYear, toYear, new DriverManagerDataSource("jdbc:h2:mem:" + name));
+    }
+
+    static List<String> names(List<YearShard> shards) {
+        return shards.stream().map(YearShard::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testPrune() {
+        try (var shards = new YearShards(List.of(
+                shard("since2000", 2000, Integer.MAX_VALUE),
+                shard("until1959", Integer.MIN_VALUE, 1959),
+                shard("from1960", 1960, 1999)))) {
+            System.out.println(shards.getShards());
+            assertEquals(List.of("until1959", "from1960", "since2000"), names(shards.getShards()));
+            assertEquals(List.of("from1960"), names(shards.prune(1970, 1980)));
+            assertEquals(List.of("until1959", "from1960"), names(shards.prune(1959, 1960)));
+            assertEquals(List.of("until1959", "from1960", "since2000"), names(shards.prune(1900, 2022)));
+            assertEquals(List.of(), names(shards.prune(1980, 1970)));
+            assertEquals("until1959", shards.shardFor(1959).getName());
+            assertEquals("from1960", shards.shardFor(1960).getName());
+            assertEquals("since2000", shards.shardFor(2022).getName());
+        }
+    }
+
+    @Test
+    void testRangesCoverAllYears() {
+        // gap 1960 .. 1969
+        assertThrows(IllegalArgumentException.class, () -> new YearShards(List.of(
+                shard("until1959", Integer.MIN_VALUE, 1959),
+                shard("since1970", 1970, Integer.MAX_VALUE))));
+        // overlap
+        assertThrows(IllegalArgumentException.class, () -> new YearShards(List.of(
+                shard("until1959", Integer.MIN_VALUE, 1959),
+                shard("since1950", 1950, Integer.MAX_VALUE))));
+        // no lower bound missing
+        assertThrows(IllegalArgumentException.class, () -> new YearShards(List.of(
+                shard("since1900", 1900, Integer.MAX_VALUE))));
+        assertThrows(IllegalArgumentException.class, () -> shard("empty", 2000, 1999));
+    }
+
+    @Test
+    void testFanOutInShardOrder() {
+        try (var shards = new YearShards(List.of(
+                shard("until1959", Integer.MIN_VALUE, 1959),
+                shard("since1960", 1960, Integer.MAX_VALUE)))) {
+            assertEquals(List.of("until1959@year-shard", "since1960@year-shard"),
+                    shards.fanOut(shards.getShards(), shard ->
+                            shard.getName() + "@" + Thread.currentThread().getName().replaceAll("-\\d+$", "")));
+            assertThrows(IllegalStateException.class, () -> shards.fanOut(shards.getShards(), shard -> {
+                throw new IllegalStateException("shard down");
+            }));
+        }
+    }
+
+    @Test
+    void testKWayMerge() {
+        var merged = KWayMerge.merge(List.of(
+                        List.of(1, 4, 7, 10),
+                        List.of(),
+                        List.of(2, 3, 8),
+                        List.of(5, 6, 9)),
+                Comparator.<Integer>naturalOrder(), Integer.MAX_VALUE);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), merged);
+        assertEquals(List.of(10, 9, 8), KWayMerge.merge(List.of(
+                        List.of(10, 7, 4, 1),
+                        List.of(8, 3, 2),
+                        List.of(9, 6, 5)),
+                Comparator.<Integer>reverseOrder(), 3));
+        assertEquals(List.of(), KWayMerge.merge(List.<List<Integer>>of(), Comparator.<Integer>naturalOrder(), 10));
+    }
+
+    @Test
+    void testTitleOrderSameInShardsAndMerge() {
+        var titles = List.of("alien", "Dune", "\u00c9lite", "\u00e9clair", "Zorro", "\u201cQuoted\u201d",
+                "\ufb01lm", "\ud83d\ude00 Smile", "Abc", "abc");
+        try (var shards = new YearShards(List.of(
+                new YearShard("until1999", Integer.MIN_VALUE, 1999,
+                        new DriverManagerDataSource("jdbc:h2:mem:titles_until1999;MODE=MySQL;DB_CLOSE_DELAY=-1")),
+                new YearShard("since2000", 2000, Integer.MAX_VALUE,
+                        new DriverManagerDataSource("jdbc:h2:mem:titles_since2000;MODE=MySQL;DB_CLOSE_DELAY=-1"))))) {
+            var rows = new ArrayList<MovieRow>();
+            for (var shard : shards.getShards()) {
+                shard.getJdbcTemplate().execute("create table movie (id integer primary key, title varchar(250),"
+                        + " year integer, duration integer, color varchar(15), genres bigint, fk_director_id integer)");
+            }
+            for (int i = 0; i < titles.size(); i++) {
+                int year = i % 2 == 0 ? 1990 : 2010;
+                shards.shardFor(year).getJdbcTemplate().update(
+                        "insert into movie values (?, ?, ?, null, null, 0, null)", i, titles.get(i), year);
+                rows.add(new MovieRow(i, titles.get(i), year, null, null, null, null));
+            }
+            rows.sort(ShardedMovieQueries.BY_TITLE_YEAR_ID);
+            var expected = rows.stream().map(MovieRow::getTitle).collect(Collectors.toList());
+            var queries = new ShardedMovieQueries(shards);
+            assertEquals(expected, queries.findByTitleStartingWith("", 100).stream()
+                    .map(MovieRow::getTitle).collect(Collectors.toList()));
+            // limit of each shard : same first rows
+            assertEquals(expected.subList(0, 4), queries.findByTitleStartingWith("", 4).stream()
+                    .map(MovieRow::getTitle).collect(Collectors.toList()));
+            shards.getShards().forEach(shard -> shard.getJdbcTemplate().execute("drop table movie"));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.movieapi.sqllog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlLogRingBufferTest {
+
+    @Test
+    void testCapacityPowerOf2() {
+        assertEquals(8, new SqlLogRingBuffer<String>(8).capacity());
+        assertEquals(16, new SqlLogRingBuffer<String>(9).capacity());
+        assertEquals(2, new SqlLogRingBuffer<String>(1).capacity());
+    }
+
+    @Test
+    void testFifoAndDropWhenFull() {
+        var buffer = new SqlLogRingBuffer<Integer>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(5)); // slot freed
+        assertEquals(1, buffer.poll());
+        assertEquals(2, buffer.poll());
+        assertEquals(3, buffer.poll());
+        assertEquals(5, buffer.poll());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 100_000;
+        var buffer = new SqlLogRingBuffer<Integer>(1024);
+        var executor = Executors.newFixedThreadPool(producers);
+        var futures = new ArrayList<Future<?>>();
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            futures.add(executor.submit(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.onSpinWait(); // full : retry (the SQL log drops instead)
+                    }
+                }
+            }));
+        }
+        var received = new BitSet(producers * perProducer);
+        int count = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (count < producers * perProducer && System.nanoTime() < deadline) {
+            var value = buffer.poll();
+            if (value != null) {
+                assertFalse(received.get(value), "received twice : " + value);
+                received.set(value);
+                count++;
+            }
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        System.out.println("Received : " + count + ", full : " + buffer.getDroppedCount());
+        assertEquals(producers * perProducer, received.cardinality());
+        assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.movieapi.sqllog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// no database : statements sampled but never slow (no EXPLAIN)
+class SqlLoggerCloseTest {
+
+    @Test
+    void testCloseLogsPublishedEntries() {
+        var sqlLogger = new SqlLogger(null, SqlLogOptions.builder()
+                .sampleRate(1)
+                .slowThresholdMillis(60_000)
+                .build());
+        var logged = new AtomicInteger();
+        sqlLogger.addListener(entry -> logged.incrementAndGet());
+        for (int i = 0; i < 1000; i++) {
+            sqlLogger.executed("select ?", new Object[]{i}, 1, 0, System.nanoTime(), 0, 1, null);
+        }
+        sqlLogger.close();
+        assertEquals(1000 - sqlLogger.getDroppedCount(), logged.get());
+        sqlLogger.flush(); // logger stopped : no wait
+    }
+}
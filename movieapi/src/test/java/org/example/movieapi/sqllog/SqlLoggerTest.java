@@ -0,0 +1,64 @@
+package org.example.movieapi.sqllog;
+
+import org.example.movieapi.model.Movie;
+import org.example.movieapi.repository.IMovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// every statement sampled and slow : all logged with plan
+@DataJpaTest(properties = {
+        "movieapi.sql-log.enabled=true",
+        "movieapi.sql-log.sample-rate=1",
+        "movieapi.sql-log.slow-threshold-ms=0"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SqlLogDataSourcePostProcessor.class)
+class SqlLoggerTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    IMovieRepository movieRepository;
+
+    @Test
+    void testSlowSelectWithPlan() {
+        assertInstanceOf(SqlLogDataSource.class, dataSource);
+        var sqlLogger = ((SqlLogDataSource) dataSource).getSqlLogger();
+        var title = "Sql log " + UUID.randomUUID();
+        entityManager.persist(Movie.of(title, 2022));
+        entityManager.flush();
+        var ids = movieRepository.findIdsByTitleLike(title);
+        assertEquals(1, ids.size());
+
+        sqlLogger.flush();
+        var slowStatements = sqlLogger.getSlowStatements();
+        slowStatements.forEach(entry -> System.out.println(entry.getSql() + " " + entry.formatParameters()
+                + " : " + entry.getPlan()));
+        var insert = slowStatements.stream()
+                .filter(entry -> entry.getSql().startsWith("insert into movie"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertEquals(1, insert.getRows());
+        assertTrue(insert.formatParameters().contains(title));
+        assertNull(insert.getPlan()); // selects only
+        var select = slowStatements.stream()
+                .filter(entry -> entry.getSql().startsWith("select") && entry.getSql().contains(" like ?"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertArrayEquals(new Object[]{title}, select.getParameters());
+        assertNotNull(select.getPlan());
+        assertEquals(0, sqlLogger.getDroppedCount());
+    }
+}
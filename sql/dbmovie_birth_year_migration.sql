@@ -0,0 +1,15 @@
+--
+-- Migration of the formula YEAR(birthdate) into the persisted column people.birth_year :
+-- no function evaluated on each people load, range queries by birth year or age seek on an index
+--   born in the 1960s : birth_year between 1960 and 1969
+--   aged 30 to 40 this year : birth_year between YEAR(CURRENT_DATE) - 40 and YEAR(CURRENT_DATE) - 30
+-- Maintained by the entity People (insert/update) and by DerivedColumns after a bulk load :
+-- run the update again after writing birthdate with SQL
+--
+
+ALTER TABLE people ADD COLUMN birth_year integer NULL;
+
+UPDATE people SET birth_year = YEAR(birthdate)
+WHERE (birth_year IS NULL) <> (YEAR(birthdate) IS NULL) OR birth_year <> YEAR(birthdate);
+
+CREATE INDEX idx_people_birth_year ON people (birth_year);
@@ -5,6 +5,14 @@ DROP SEQUENCE IF EXISTS people_seq;
 CREATE SEQUENCE people_seq start with 1 increment by 50 cache 1000;
 SELECT SETVAL(people_seq, 1, 0);
 
+-- 
+-- Sequence for generating movie id (pooled, keeps JDBC insert batching)
+-- NB: after loading data_movie.sql, restart it above max(id)
+
+DROP SEQUENCE IF EXISTS movie_seq;
+CREATE SEQUENCE movie_seq start with 1 increment by 50 cache 1000;
+SELECT SETVAL(movie_seq, 1, 0);
+
 --
 -- Table structure for table people
 --
@@ -14,27 +22,46 @@ CREATE TABLE people (
   id integer NOT NULL,
   name varchar(100) NOT NULL,
   birthdate date NULL,
+  birth_year integer NULL, -- year(birthdate), see dbmovie_birth_year_migration.sql
+  version integer NOT NULL DEFAULT 0, -- optimistic locking, see dbmovie_version_migration.sql
   CONSTRAINT pk_people PRIMARY KEY (`id`)
 );
 
+-- director search by name (see dbmovie_indexes.sql)
+CREATE INDEX idx_people_name ON people (name);
+-- birth year / age ranges
+CREATE INDEX idx_people_birth_year ON people (birth_year);
+
 --
 -- Table structure for table `movie`
 --
 
 DROP TABLE IF EXISTS movie;
 CREATE TABLE movie (
-  id integer NOT NULL AUTO_INCREMENT,
+  id integer NOT NULL,
   title varchar(250) NOT NULL,
   year integer NOT NULL,
   color varchar(15) DEFAULT NULL,
   duration integer DEFAULT NULL,
   fk_director_id integer NULL,
+  genres bigint NOT NULL DEFAULT 0,
+  synopsis text NULL, -- lazy attribute of Movie
+  version integer NOT NULL DEFAULT 0, -- optimistic locking
   CONSTRAINT pk_movie PRIMARY KEY (id),
   CONSTRAINT fk_director_id FOREIGN KEY (fk_director_id) REFERENCES people (id)
 );
 
+-- keyset pagination : year listings and filmographies seek on (year, title, id)
+CREATE INDEX idx_movie_year_title_id ON movie (year, title, id);
+CREATE INDEX idx_movie_director_year_title_id ON movie (fk_director_id, year, title, id);
+-- query shapes of IMovieRepository (see dbmovie_indexes.sql)
+CREATE INDEX idx_movie_title_year ON movie (title, year);
+CREATE INDEX idx_movie_duration ON movie (duration);
+
 --
 -- Table structure for table genre
+-- staging table of data_genre.sql : migrated into bitmask movie.genres
+-- (see dbmovie_genre_migration.sql, done by GenreMigration after a bulk load)
 --
 
 DROP TABLE IF EXISTS genre;
@@ -56,3 +83,51 @@ CREATE TABLE play (
   CONSTRAINT fk_actor_id FOREIGN KEY (fk_actor_id) REFERENCES people (id),
   CONSTRAINT fk_movie_id FOREIGN KEY (fk_movie_id) REFERENCES movie (id)
 );
+
+--
+-- Table structure for table director_stat
+-- materialized statistics by director, maintained by the application on each movie write
+-- NB: after loading data_movie.sql, fill it with dbmovie_director_stat_migration.sql
+--
+
+DROP TABLE IF EXISTS director_stat;
+CREATE TABLE director_stat (
+  fk_director_id integer NOT NULL,
+  movie_count bigint NOT NULL,
+  duration_total integer NOT NULL,
+  CONSTRAINT pk_director_stat PRIMARY KEY (fk_director_id),
+  CONSTRAINT fk_director_stat_director_id FOREIGN KEY (fk_director_id) REFERENCES people (id)
+);
+
+CREATE INDEX idx_director_stat_movie_count ON director_stat (movie_count);
+
+--
+-- Table structure for table change_outbox
+-- one record per movie / people changed by a transaction, written in the same transaction
+-- (OutboxListener), read in id order by the consumers of the change feed (ChangeFeedReader)
+--
+
+DROP TABLE IF EXISTS change_outbox;
+CREATE TABLE change_outbox (
+  id bigint NOT NULL AUTO_INCREMENT,
+  entity varchar(20) NOT NULL, -- Movie, People
+  entity_id integer NOT NULL,
+  operation varchar(6) NOT NULL, -- INSERT, UPDATE, DELETE
+  version integer NULL,
+  properties varchar(255) NULL, -- attributes updated, NULL : all
+  changed_at datetime(6) NOT NULL,
+  CONSTRAINT pk_change_outbox PRIMARY KEY (id)
+);
+
+--
+-- Table structure for table change_checkpoint
+-- last change_outbox id processed by each consumer of the change feed
+--
+
+DROP TABLE IF EXISTS change_checkpoint;
+CREATE TABLE change_checkpoint (
+  consumer varchar(50) NOT NULL,
+  last_id bigint NOT NULL,
+  updated_at datetime(6) NOT NULL,
+  CONSTRAINT pk_change_checkpoint PRIMARY KEY (consumer)
+);
@@ -0,0 +1,22 @@
+--
+-- Migration of an existing database to the table director_stat (see dbmovie_ddl_drop_create.sql) :
+-- materialized statistics by director, maintained by the application on each movie write
+-- (DirectorStatListener) from the rows present when it starts. Filled here once from movie,
+-- left unchanged if already filled ; DirectorStatChecker.rebuild() recomputes it after writes made with SQL
+--
+
+CREATE TABLE IF NOT EXISTS director_stat (
+  fk_director_id integer NOT NULL,
+  movie_count bigint NOT NULL,
+  duration_total integer NOT NULL,
+  CONSTRAINT pk_director_stat PRIMARY KEY (fk_director_id),
+  CONSTRAINT fk_director_stat_director_id FOREIGN KEY (fk_director_id) REFERENCES people (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_director_stat_movie_count ON director_stat (movie_count);
+
+INSERT INTO director_stat (fk_director_id, movie_count, duration_total)
+SELECT fk_director_id, count(*), coalesce(sum(duration), 0) FROM movie
+WHERE fk_director_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM director_stat)
+GROUP BY fk_director_id;
@@ -0,0 +1,46 @@
+--
+-- Migration of table genre (1 row per movie and genre) into column movie.genres :
+-- bitmask of org.example.movieapi.model.Genre, bit = 1 << ordinal (same order as the enum)
+-- Genre filters become bitwise predicates on the movie row :
+--   any of Drama, Crime : (genres & 192) <> 0
+--   all of Drama, Crime : (genres & 192) = 192
+--
+
+ALTER TABLE movie ADD COLUMN genres bigint NOT NULL DEFAULT 0;
+
+UPDATE movie SET genres = (
+  SELECT COALESCE(BIT_OR(
+    CASE g.genre
+      WHEN 'Action' THEN 1
+      WHEN 'Adult' THEN 2
+      WHEN 'Adventure' THEN 4
+      WHEN 'Animation' THEN 8
+      WHEN 'Biography' THEN 16
+      WHEN 'Comedy' THEN 32
+      WHEN 'Crime' THEN 64
+      WHEN 'Drama' THEN 128
+      WHEN 'Family' THEN 256
+      WHEN 'Fantasy' THEN 512
+      WHEN 'Film-Noir' THEN 1024
+      WHEN 'History' THEN 2048
+      WHEN 'Horror' THEN 4096
+      WHEN 'Music' THEN 8192
+      WHEN 'Musical' THEN 16384
+      WHEN 'Mystery' THEN 32768
+      WHEN 'Romance' THEN 65536
+      WHEN 'Sci-Fi' THEN 131072
+      WHEN 'Sport' THEN 262144
+      WHEN 'Thriller' THEN 524288
+      WHEN 'War' THEN 1048576
+      WHEN 'Western' THEN 2097152
+    END), 0)
+  FROM genre g
+  WHERE g.fk_movie_id = movie.id)
+WHERE EXISTS (SELECT 1 FROM genre g WHERE g.fk_movie_id = movie.id);
+
+-- check : labels unknown to the enum (must be empty, else add them at the end of Genre)
+SELECT DISTINCT genre FROM genre
+WHERE genre NOT IN ('Action', 'Adult', 'Adventure', 'Animation', 'Biography', 'Comedy', 'Crime', 'Drama', 'Family', 'Fantasy', 'Film-Noir', 'History', 'Horror', 'Music', 'Musical', 'Mystery', 'Romance', 'Sci-Fi', 'Sport', 'Thriller', 'War', 'Western');
+
+-- keep table genre as staging table of data_genre.sql (bulk load), or drop it :
+-- DROP TABLE genre;
@@ -0,0 +1,27 @@
+--
+-- Secondary indexes for the query shapes of IMovieRepository
+-- (already in dbmovie_ddl_drop_create.sql : run this script on a database created before)
+-- Proposed and validated by org.example.movieapi.advisor.IndexAdvisor
+-- (EXPLAIN + replay without/with the index, see IndexAdvisorBenchmark) :
+-- equality columns first, then one range column
+--
+-- Not indexed :
+-- - movie.genres : bitmask filtered by bitand(genres, ?) => no B-tree seek, scan of a narrow column
+-- - genre.genre : staging table only since the migration to movie.genres
+-- - play.fk_actor_id, movie.fk_director_id : foreign key indexes
+-- - movie (year, title) : idx_movie_year_title_id of keyset pagination
+--
+
+-- findByTitleRangeYear : where title = ? and year between ? and ?
+-- findIdsByTitleLike : where title like 'prefix%' (no help for '%word%', see index.TitleSearchService)
+-- Criteria tests (model.query.QueryCriteriaTest) : where title = ? / title like ?
+-- IndexAdvisorBenchmark (100 000 movies, H2) : used, replay x28
+CREATE INDEX idx_movie_title_year ON movie (title, year);
+
+-- findTitleDurationAge : where duration >= ? (selective for long movies only)
+-- IndexAdvisorBenchmark : used, replay x13 (0.5% of long movies)
+CREATE INDEX idx_movie_duration ON movie (duration);
+
+-- findByDirectorName*, findDirectorIdsByNameIn : join people where name = ? / name in (...)
+-- IndexAdvisorBenchmark : used, replay x9
+CREATE INDEX idx_people_name ON people (name);
@@ -0,0 +1,10 @@
+--
+-- Optimistic locking of movies and people : version column checked and incremented by each update
+--   UPDATE movie SET ..., version = version + 1 WHERE id = ? AND version = ?
+-- 0 updated row = concurrent update (re-read and re-apply, see OptimisticRetryExecutor)
+-- Rows inserted with SQL (dumps, bulk load) get the default version 0
+--
+
+ALTER TABLE people ADD COLUMN version integer NOT NULL DEFAULT 0;
+
+ALTER TABLE movie ADD COLUMN version integer NOT NULL DEFAULT 0;
@@ -0,0 +1,57 @@
+--
+-- Schema of a year shard (one database or schema per year range, see shard.YearShards) :
+-- movies of the years of the shard with their play rows, copy of all the people
+-- (directors and actors of any shard). Filled by shard.YearShardLoader :
+-- load() once (empty tables), then apply() with the records of the change feed (change_outbox).
+-- NB: no sequence, ids come from the main database ; no native partitioning
+--     (partitioned InnoDB tables : no foreign key, partition key in every unique key)
+--
+-- e.g. :
+--   CREATE DATABASE dbmovie_until_1959;
+--   CREATE DATABASE dbmovie_1960_1999;
+--   CREATE DATABASE dbmovie_since_2000;
+--   GRANT ALL PRIVILEGES ON dbmovie_until_1959.* TO 'movie'@'%'; (same for the others)
+-- then this script in each database
+--
+
+DROP TABLE IF EXISTS play;
+DROP TABLE IF EXISTS movie;
+DROP TABLE IF EXISTS people;
+
+CREATE TABLE people (
+  id integer NOT NULL,
+  name varchar(100) NOT NULL,
+  birthdate date NULL,
+  birth_year integer NULL,
+  version integer NOT NULL DEFAULT 0,
+  CONSTRAINT pk_people PRIMARY KEY (id)
+);
+
+CREATE TABLE movie (
+  id integer NOT NULL,
+  -- utf8mb4 : binary order of titles = code point order (see shard.ShardedMovieQueries)
+  title varchar(250) CHARACTER SET utf8mb4 NOT NULL,
+  year integer NOT NULL,
+  color varchar(15) DEFAULT NULL,
+  duration integer DEFAULT NULL,
+  fk_director_id integer NULL,
+  genres bigint NOT NULL DEFAULT 0,
+  synopsis text NULL,
+  version integer NOT NULL DEFAULT 0,
+  CONSTRAINT pk_movie PRIMARY KEY (id),
+  CONSTRAINT fk_director_id FOREIGN KEY (fk_director_id) REFERENCES people (id)
+);
+
+-- pruned queries : year ranges in year, title, id order
+CREATE INDEX idx_movie_year_title_id ON movie (year, title, id);
+-- fan out queries : title prefix, longest movies (top n of each shard)
+CREATE INDEX idx_movie_title_year ON movie (title, year);
+CREATE INDEX idx_movie_duration ON movie (duration);
+
+CREATE TABLE play (
+  fk_movie_id integer NOT NULL,
+  fk_actor_id integer NOT NULL,
+  CONSTRAINT pk_play PRIMARY KEY (fk_movie_id, fk_actor_id),
+  CONSTRAINT fk_actor_id FOREIGN KEY (fk_actor_id) REFERENCES people (id),
+  CONSTRAINT fk_movie_id FOREIGN KEY (fk_movie_id) REFERENCES movie (id)
+);